@@ -19,6 +19,10 @@ package com.compuware.jenkins.totaltest;
 
 import java.io.IOException;
 import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
@@ -30,7 +34,11 @@ import com.compuware.jenkins.common.configuration.HostConnection;
 import hudson.init.InitMilestone;
 import hudson.init.Initializer;
 import hudson.model.Project;
+import hudson.security.ACL;
+import hudson.security.ACLContext;
 import hudson.tasks.Builder;
+import hudson.util.DaemonThreadFactory;
+import hudson.util.NamingThreadFactory;
 import jenkins.model.Jenkins;
 
 public abstract class AbstractTotalTestBuilderMigration extends Builder
@@ -45,7 +53,10 @@ public abstract class AbstractTotalTestBuilderMigration extends Builder
 
 	protected transient boolean isMigrated = false; //NOSONAR
 
-	private static final Object lock = new Object();
+	private static final int MAX_MIGRATION_THREADS = 4;
+
+	/** Host connections already resolved by the migration, keyed by host and port followed by the code page */
+	private static final ConcurrentMap<String, HostConnection> migratedConnections = new ConcurrentHashMap<>();
 
 	/**
 	 * Return true if the configuration is migrated.
@@ -103,38 +114,79 @@ public abstract class AbstractTotalTestBuilderMigration extends Builder
 	{
 		logger.info("Migrating Total Test Builder to version 2.0 compatibility."); //$NON-NLS-1$
 		
-		synchronized (lock)
+		try
 		{
-			try
+			CpwrGlobalConfiguration globalConfig = CpwrGlobalConfiguration.get();
+			if (globalConfig != null)
 			{
-				CpwrGlobalConfiguration globalConfig = CpwrGlobalConfiguration.get();
-				if (globalConfig != null)
-				{
-					HostConnection connection = globalConfig.getHostConnection(hostPort, DEFAULT_CODEPAGE); //NOSONAR
-					if (connection == null)
-					{
-						String description = hostPort + " " + DEFAULT_CODEPAGE; //$NON-NLS-1$ //NOSONAR
-						logger.info(String.format("Create new connection for: %s", description));  //$NON-NLS-1$ //NOSONAR
-						connection = new HostConnection(description, hostPort, null, DEFAULT_CODEPAGE, null, null, null); // NOSONAR
-						globalConfig.addHostConnection(connection);
-
-					}
-					
-					logger.info(String.format("Created new connection for: %s id: %s",connection.getDescription(), connection.getConnectionId()));  //$NON-NLS-1$ //NOSONAR
-					connectionId = connection.getConnectionId();
-					isMigrated = true;
-
-				}
-				else
+				String key = hostPort + " " + DEFAULT_CODEPAGE; //$NON-NLS-1$ //NOSONAR
+				HostConnection connection = migratedConnections.computeIfAbsent(key,
+						description -> getOrCreateHostConnection(globalConfig, description));
+				if (!isCurrent(globalConfig, connection))
 				{
-					logger.severe(String.format("No instance of CpwrGlobalConfiguration"));  //$NON-NLS-1$ //NOSONAR
+					// The connection was edited or deleted in the global configuration since it was resolved.
+					migratedConnections.remove(key, connection);
+					connection = migratedConnections.computeIfAbsent(key,
+							description -> getOrCreateHostConnection(globalConfig, description));
 				}
+				
+				logger.info(String.format("Created new connection for: %s id: %s",connection.getDescription(), connection.getConnectionId()));  //$NON-NLS-1$ //NOSONAR
+				connectionId = connection.getConnectionId();
+				isMigrated = true;
 			}
-			catch (Exception e)
+			else
 			{
-				logger.log(Level.SEVERE, String.format("Exception creating host connection. Exception: %s", e.toString()), e);  //$NON-NLS-1$ //NOSONAR
+				logger.severe(String.format("No instance of CpwrGlobalConfiguration"));  //$NON-NLS-1$ //NOSONAR
 			}
 		}
+		catch (Exception e)
+		{
+			logger.log(Level.SEVERE, String.format("Exception creating host connection. Exception: %s", e.toString()), e);  //$NON-NLS-1$ //NOSONAR
+		}
+	}
+
+	/**
+	 * Returns the global host connection for the host and port being migrated, creating it if it does not exist yet.
+	 * <p>
+	 * This is only called once per host and port and code page, the result is kept in {@link #migratedConnections} so
+	 * builders loaded in parallel for the same host wait on that entry instead of on a global lock.
+	 * 
+	 * @param globalConfig
+	 * 			The global configuration holding the host connections.
+	 * @param description
+	 * 			The host and port followed by the code page.
+	 * 
+	 * @return	The existing or newly created host connection.
+	 */
+	private HostConnection getOrCreateHostConnection(CpwrGlobalConfiguration globalConfig, String description)
+	{
+		HostConnection connection = globalConfig.getHostConnection(hostPort, DEFAULT_CODEPAGE); //NOSONAR
+		if (connection == null)
+		{
+			logger.info(String.format("Create new connection for: %s", description));  //$NON-NLS-1$ //NOSONAR
+			connection = new HostConnection(description, hostPort, null, DEFAULT_CODEPAGE, null, null, null); // NOSONAR
+			globalConfig.addHostConnection(connection);
+		}
+
+		return connection;
+	}
+
+	/**
+	 * Returns if a resolved host connection is still in the global configuration, for the host and port being migrated.
+	 * 
+	 * @param globalConfig
+	 * 			The global configuration holding the host connections.
+	 * @param connection
+	 * 			The resolved host connection.
+	 * 
+	 * @return	<code>true</code> if the connection can still be used, otherwise <code>false</code>.
+	 */
+	private boolean isCurrent(CpwrGlobalConfiguration globalConfig, HostConnection connection)
+	{
+		HostConnection current = globalConfig.getHostConnection(connection.getConnectionId());
+
+		return current != null && hostPort.equals(current.getHostPort()) //NOSONAR
+				&& DEFAULT_CODEPAGE.equals(current.getCodePage());
 	}
 	
 	/**
@@ -167,29 +219,72 @@ public abstract class AbstractTotalTestBuilderMigration extends Builder
 		return hostPort;
 	}
 
+	/**
+	 * Saves the projects that were migrated while the jobs were loaded.
+	 * <p>
+	 * All items are walked, including the ones nested in folders, and the migrated projects are saved on a bounded pool
+	 * of its own so the controller start up is not held up by the saves. A project that is saved no longer needs a
+	 * migration, so a start up interrupted before all saves completed simply migrates and saves the remaining ones again.
+	 */
 	@Initializer(after = InitMilestone.JOB_LOADED, before = InitMilestone.COMPLETED)
-	public static void jobLoaded() throws IOException
+	public static void jobLoaded()
 	{
 		logger.fine("Initialization milestone: All jobs have been loaded"); //$NON-NLS-1$
-		Jenkins jenkins = Jenkins.getInstance();
+		Jenkins jenkins = Jenkins.get();
 
-		for (Project<?, ?> project : jenkins.getItems(Project.class))
+		ExecutorService executor = null;
+		try (ACLContext ignored = ACL.as2(ACL.SYSTEM2))
 		{
-			logger.fine("Name: " + project.getName() + " Display Name: " + project.getDisplayName());
-			boolean projectNeedsSave = projectNeedsSave(project);
-			if (projectNeedsSave)
+			for (Project<?, ?> project : jenkins.allItems(Project.class))
 			{
-				try
-				{
-					project.save();
-					logger.info(String.format("Project %s has been migrated.", project.getFullName())); //$NON-NLS-1$ //NOSONAR
-				}
-				catch (IOException e)
+				logger.fine("Name: " + project.getFullName() + " Display Name: " + project.getDisplayName()); //$NON-NLS-1$ //$NON-NLS-2$
+				if (projectNeedsSave(project))
 				{
-					logger.log(Level.SEVERE, String.format("Failed to upgrade job %s", project.getFullName()), e); //$NON-NLS-1$
+					if (executor == null)
+					{
+						int poolSize = Math.max(1, Math.min(MAX_MIGRATION_THREADS, Runtime.getRuntime().availableProcessors()));
+						executor = Executors.newFixedThreadPool(poolSize,
+								new NamingThreadFactory(new DaemonThreadFactory(), "Total Test migration")); //$NON-NLS-1$
+					}
+					executor.submit(() -> saveMigratedProject(project));
 				}
 			}
 		}
+		finally
+		{
+			// The pool threads end once the submitted saves are done, nothing waits on them.
+			if (executor != null)
+			{
+				executor.shutdown();
+			}
+		}
+	}
+
+	/**
+	 * Saves a single migrated project.
+	 * 
+	 * @param project
+	 * 			An instance of <code>Project</code> for the project.
+	 */
+	private static void saveMigratedProject(Project<?, ?> project)
+	{
+		TotalTestEvents.MigrationSave saveEvent = new TotalTestEvents.MigrationSave();
+		saveEvent.begin();
+		saveEvent.project = project.getFullName();
+		try
+		{
+			project.save();
+			saveEvent.success = true;
+			logger.info(String.format("Project %s has been migrated.", project.getFullName())); //$NON-NLS-1$ //NOSONAR
+		}
+		catch (IOException | RuntimeException e)
+		{
+			logger.log(Level.SEVERE, String.format("Failed to upgrade job %s", project.getFullName()), e); //$NON-NLS-1$
+		}
+		finally
+		{
+			saveEvent.commit();
+		}
 	}
 	
 	/**
@@ -0,0 +1,472 @@
+/**
+ * The MIT License (MIT)
+ * 
+ * (c) Copyright 2026 BMC Software, Inc.
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated documentation
+ * files (the "Software"), to deal in the Software without restriction, including without limitation the rights to use, copy,
+ * modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to permit persons to whom the
+ * Software is furnished to do so, subject to the following conditions: The above copyright notice and this permission notice
+ * shall be included in all copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+ * WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE,
+ * ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package com.compuware.jenkins.totaltest;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import java.util.zip.GZIPInputStream;
+
+import org.apache.commons.compress.archivers.tar.TarArchiveEntry;
+import org.apache.commons.compress.archivers.tar.TarArchiveInputStream;
+
+import hudson.Extension;
+import hudson.Util;
+import hudson.model.Job;
+import hudson.model.Run;
+import hudson.model.listeners.RunListener;
+import hudson.util.AtomicFileWriter;
+
+/**
+ * A content addressed store of the archived Total Test report files of a job.
+ * <p>
+ * Every distinct file content is stored once in the job folder, named after its SHA-256 hash, no matter how many builds
+ * archived it. Each build keeps a manifest with the hash, size and path of each of its files. The store counts the manifest
+ * entries referencing each file and deletes a file once the last build referencing it is deleted. The references of a
+ * job are updated under a lock of its own, so the builds of other jobs do not wait for them.
+ */
+public final class TotalTestBlobStore
+{
+	private static final Logger LOGGER = Logger.getLogger(TotalTestBlobStore.class.getName());
+
+	private static final String STORE_FOLDER = "totaltest-blobs"; //$NON-NLS-1$
+	private static final String REFERENCES_FILE = "references.txt"; //$NON-NLS-1$
+	private static final String STAGING_PREFIX = "staging-"; //$NON-NLS-1$
+	private static final String FIELD_SEPARATOR = "\t"; //$NON-NLS-1$
+
+	/** The locks of the stores, by store folder. */
+	private static final ConcurrentMap<File, Object> LOCKS = new ConcurrentHashMap<>();
+
+	private final File root;
+	private final Object lock;
+
+	private TotalTestBlobStore(File root)
+	{
+		this.root = root.getAbsoluteFile();
+		this.lock = LOCKS.computeIfAbsent(this.root, k -> new Object());
+	}
+
+	/**
+	 * Returns the store of a job.
+	 * 
+	 * @param job
+	 * 			The job.
+	 * 
+	 * @return	The store, in the job folder.
+	 */
+	public static TotalTestBlobStore of(Job<?, ?> job)
+	{
+		return new TotalTestBlobStore(new File(job.getRootDir(), STORE_FOLDER));
+	}
+
+	/**
+	 * A file of a manifest.
+	 */
+	public static final class Entry
+	{
+		private final String hash;
+		private final long size;
+		private final String path;
+
+		Entry(String hash, long size, String path)
+		{
+			this.hash = hash;
+			this.size = size;
+			this.path = path;
+		}
+
+		/**
+		 * Returns the SHA-256 hash of the content of the file.
+		 * 
+		 * @return	The hash, in lower case hex.
+		 */
+		public String getHash()
+		{
+			return hash;
+		}
+
+		/**
+		 * Returns the size of the file.
+		 * 
+		 * @return	The size in bytes.
+		 */
+		public long getSize()
+		{
+			return size;
+		}
+
+		/**
+		 * Returns the path of the file in the archive.
+		 * 
+		 * @return	The path, using '/' as separator.
+		 */
+		public String getPath()
+		{
+			return path;
+		}
+	}
+
+	/**
+	 * The files added to the store for one manifest.
+	 */
+	public static final class Added
+	{
+		private int fileCount;
+		private int newFileCount;
+		private long totalBytes;
+		private long newBytes;
+
+		/**
+		 * Returns the number of files in the manifest.
+		 * 
+		 * @return	The file count.
+		 */
+		public int getFileCount()
+		{
+			return fileCount;
+		}
+
+		/**
+		 * Returns the number of files whose content was not stored yet.
+		 * 
+		 * @return	The new file count.
+		 */
+		public int getNewFileCount()
+		{
+			return newFileCount;
+		}
+
+		/**
+		 * Returns the size of all files in the manifest.
+		 * 
+		 * @return	The size in bytes.
+		 */
+		public long getTotalBytes()
+		{
+			return totalBytes;
+		}
+
+		/**
+		 * Returns the size of the files whose content was not stored yet.
+		 * 
+		 * @return	The size in bytes.
+		 */
+		public long getNewBytes()
+		{
+			return newBytes;
+		}
+	}
+
+	/**
+	 * Adds the files of a compressed tar to the store and writes their manifest.
+	 * <p>
+	 * The files are first written to a staging folder while their hash is computed, so the store is only locked while
+	 * they are moved into place and their references are counted.
+	 * 
+	 * @param tarGz
+	 * 			The compressed tar, which is read to the end but not closed.
+	 * @param manifest
+	 * 			The manifest file to write.
+	 * 
+	 * @return	The number and size of the files added.
+	 * 
+	 * @throws IOException
+	 * 			If the tar could not be read or the store could not be written.
+	 */
+	public Added add(InputStream tarGz, File manifest) throws IOException
+	{
+		Added added = new Added();
+		List<Entry> entries = new ArrayList<>();
+		Map<String, File> staged = new TreeMap<>();
+		File staging = Files.createTempDirectory(mkdirs(root).toPath(), STAGING_PREFIX).toFile();
+		try
+		{
+			TarArchiveInputStream tar = new TarArchiveInputStream(new GZIPInputStream(tarGz));
+			TarArchiveEntry tarEntry;
+			while ((tarEntry = tar.getNextTarEntry()) != null)
+			{
+				if (tarEntry.isDirectory())
+				{
+					continue;
+				}
+
+				File file = new File(staging, Integer.toString(entries.size()));
+				MessageDigest digest = newDigest();
+				long size = Files.copy(new DigestInputStream(tar, digest), file.toPath());
+				String hash = Util.toHexString(digest.digest());
+				entries.add(new Entry(hash, size, tarEntry.getName()));
+				added.fileCount++;
+				added.totalBytes += size;
+				if (staged.putIfAbsent(hash, file) != null)
+				{
+					Files.delete(file.toPath());
+				}
+			}
+
+			synchronized (lock)
+			{
+				Map<String, Long> references = readReferences();
+				for (Map.Entry<String, File> blob : staged.entrySet())
+				{
+					File target = getBlob(blob.getKey());
+					if (!target.isFile())
+					{
+						mkdirs(target.getParentFile());
+						Files.move(blob.getValue().toPath(), target.toPath(), StandardCopyOption.ATOMIC_MOVE);
+						added.newFileCount++;
+						added.newBytes += target.length();
+					}
+				}
+				for (Entry entry : entries)
+				{
+					references.merge(entry.hash, 1L, Long::sum);
+				}
+				writeReferences(references);
+				writeManifest(manifest, entries);
+			}
+		}
+		finally
+		{
+			Util.deleteRecursive(staging);
+		}
+
+		return added;
+	}
+
+	/**
+	 * Returns the file holding a content.
+	 * 
+	 * @param hash
+	 * 			The SHA-256 hash of the content.
+	 * 
+	 * @return	The file, which may not exist.
+	 */
+	public File getBlob(String hash)
+	{
+		return new File(new File(root, hash.substring(0, 2)), hash);
+	}
+
+	/**
+	 * Removes the references of a manifest, deleting the files no other manifest references, and deletes the manifest.
+	 * 
+	 * @param manifest
+	 * 			The manifest file.
+	 * 
+	 * @throws IOException
+	 * 			If the store could not be updated.
+	 */
+	public void release(File manifest) throws IOException
+	{
+		List<Entry> entries = readManifest(manifest);
+		synchronized (lock)
+		{
+			Map<String, Long> references = readReferences();
+			for (Entry entry : entries)
+			{
+				Long count = references.get(entry.hash);
+				if (count == null)
+				{
+					continue;
+				}
+
+				if (count > 1)
+				{
+					references.put(entry.hash, count - 1);
+				}
+				else
+				{
+					references.remove(entry.hash);
+					Files.deleteIfExists(getBlob(entry.hash).toPath());
+				}
+			}
+			writeReferences(references);
+		}
+		Files.deleteIfExists(manifest.toPath());
+	}
+
+	/**
+	 * Reads a manifest.
+	 * 
+	 * @param manifest
+	 * 			The manifest file.
+	 * 
+	 * @return	The files of the manifest, in archive order, empty if there is no manifest.
+	 * 
+	 * @throws IOException
+	 * 			If the manifest could not be read.
+	 */
+	public static List<Entry> readManifest(File manifest) throws IOException
+	{
+		List<Entry> entries = new ArrayList<>();
+		if (!manifest.isFile())
+		{
+			return entries;
+		}
+
+		try (BufferedReader reader = Files.newBufferedReader(manifest.toPath(), StandardCharsets.UTF_8))
+		{
+			String line;
+			while ((line = reader.readLine()) != null)
+			{
+				String[] fields = line.split(FIELD_SEPARATOR, 3);
+				if (fields.length == 3)
+				{
+					try
+					{
+						entries.add(new Entry(fields[0], Long.parseLong(fields[1]), fields[2]));
+					}
+					catch (NumberFormatException e)
+					{
+						// skip a damaged line
+					}
+				}
+			}
+		}
+
+		return entries;
+	}
+
+	private static void writeManifest(File manifest, List<Entry> entries) throws IOException
+	{
+		AtomicFileWriter writer = new AtomicFileWriter(manifest.toPath(), StandardCharsets.UTF_8);
+		try
+		{
+			for (Entry entry : entries)
+			{
+				writer.write(entry.hash + FIELD_SEPARATOR + entry.size + FIELD_SEPARATOR + entry.path + System.lineSeparator());
+			}
+			writer.commit();
+		}
+		finally
+		{
+			writer.abort();
+		}
+	}
+
+	private Map<String, Long> readReferences() throws IOException
+	{
+		Map<String, Long> references = new TreeMap<>();
+		File file = new File(root, REFERENCES_FILE);
+		if (!file.isFile())
+		{
+			return references;
+		}
+
+		try (BufferedReader reader = Files.newBufferedReader(file.toPath(), StandardCharsets.UTF_8))
+		{
+			String line;
+			while ((line = reader.readLine()) != null)
+			{
+				String[] fields = line.split(FIELD_SEPARATOR, 2);
+				if (fields.length == 2)
+				{
+					try
+					{
+						references.put(fields[1], Long.valueOf(fields[0]));
+					}
+					catch (NumberFormatException e)
+					{
+						// skip a damaged line
+					}
+				}
+			}
+		}
+
+		return references;
+	}
+
+	private void writeReferences(Map<String, Long> references) throws IOException
+	{
+		AtomicFileWriter writer = new AtomicFileWriter(new File(mkdirs(root), REFERENCES_FILE).toPath(), StandardCharsets.UTF_8);
+		try
+		{
+			for (Map.Entry<String, Long> reference : references.entrySet())
+			{
+				writer.write(reference.getValue() + FIELD_SEPARATOR + reference.getKey() + System.lineSeparator());
+			}
+			writer.commit();
+		}
+		finally
+		{
+			writer.abort();
+		}
+	}
+
+	private static File mkdirs(File folder) throws IOException
+	{
+		if (!folder.isDirectory() && !folder.mkdirs())
+		{
+			throw new IOException("Unable to create " + folder); //$NON-NLS-1$
+		}
+
+		return folder;
+	}
+
+	private static MessageDigest newDigest() throws IOException
+	{
+		try
+		{
+			return MessageDigest.getInstance("SHA-256"); //$NON-NLS-1$
+		}
+		catch (NoSuchAlgorithmException e)
+		{
+			throw new IOException(e);
+		}
+	}
+
+	/**
+	 * Releases the archived reports of a build when the build is deleted.
+	 */
+	@Extension
+	public static final class ReleaseOnDelete extends RunListener<Run<?, ?>>
+	{
+		/*
+		 * (non-Javadoc)
+		 * @see hudson.model.listeners.RunListener#onDeleted(hudson.model.Run)
+		 */
+		@Override
+		public void onDeleted(Run<?, ?> run)
+		{
+			for (TotalTestReportArchiveAction action : run.getActions(TotalTestReportArchiveAction.class))
+			{
+				try
+				{
+					of(run.getParent()).release(new File(run.getRootDir(), action.getManifestName()));
+				}
+				catch (IOException e)
+				{
+					LOGGER.log(Level.WARNING, "Unable to release the Total Test reports of " + run.getExternalizableId(), e); //$NON-NLS-1$
+				}
+			}
+		}
+	}
+}
@@ -92,6 +92,8 @@ public class TotalTestBuilder extends AbstractTotalTestBuilderMigration implemen
 	private boolean useStubs;
 	private boolean deleteTemp;
 	private boolean recursive;
+	private boolean archiveReports;
+	private boolean generateJUnit;
 
 	private String ccRepo;
 	private String ccSystem;
@@ -406,6 +408,50 @@ public class TotalTestBuilder extends AbstractTotalTestBuilderMigration implemen
 		return recursive;
 	}
 	
+	/**
+	 * Sets whether the JUnit, Sonar and Output reports are archived
+	 * 
+	 * @param archiveReports
+	 * 			<code>true</code> if the reports should be archived, otherwise <code>false</code>
+	 */
+	@DataBoundSetter
+	public void setArchiveReports(final boolean archiveReports)
+	{
+		this.archiveReports = archiveReports;
+	}
+	
+	/**
+	 * Returns whether the JUnit, Sonar and Output reports are archived
+	 * 
+	 * @return	<code>true</code> indicates the reports are archived.
+	 */
+	public boolean isArchiveReports()
+	{
+		return archiveReports;
+	}
+	
+	/**
+	 * Sets whether the plugin converts the results into JUnit XML instead of the CLI copying its JUnit files
+	 * 
+	 * @param generateJUnit
+	 * 			<code>true</code> if the plugin should write the JUnit files, otherwise <code>false</code>
+	 */
+	@DataBoundSetter
+	public void setGenerateJUnit(final boolean generateJUnit)
+	{
+		this.generateJUnit = generateJUnit;
+	}
+	
+	/**
+	 * Returns whether the plugin converts the results into JUnit XML instead of the CLI copying its JUnit files
+	 * 
+	 * @return	<code>true</code> indicates the plugin writes the JUnit files.
+	 */
+	public boolean isGenerateJUnit()
+	{
+		return generateJUnit;
+	}
+	
 	/*
 	 * (non-Javadoc)
 	 * @see jenkins.tasks.SimpleBuildStep#perform(hudson.model.Run, hudson.FilePath, hudson.Launcher, hudson.model.TaskListener)
@@ -419,11 +465,18 @@ public class TotalTestBuilder extends AbstractTotalTestBuilderMigration implemen
         // This also shows how you can consult the global configuration of the builder
     	listener.getLogger().println(Messages.displayNameTotalTest());
     	
+		TotalTestPhaseTimings timings = new TotalTestPhaseTimings();
+		long startTime = System.currentTimeMillis();
+		boolean passed = false;
+		TotalTestRemotingCounter remotingCounter = TotalTestRemotingCounter.attach(launcher.getChannel());
+		TotalTestWorkspaceLease lease = TotalTestWorkspaceLease.acquire(build, workspaceFilePath);
+		TotalTestRunner runner = new TotalTestRunner(this, timings, lease);
 		try
 		{
+			timings.start(TotalTestPhaseTimings.VALIDATE);
 			validateParameters(launcher, listener, build.getParent());
+			timings.stop(TotalTestPhaseTimings.VALIDATE);
 			
-			TotalTestRunner runner = new TotalTestRunner(this);
 			boolean success = runner.run(build, launcher, workspaceFilePath, listener);
 			if (success == false) //NOSONAR
 			{
@@ -432,6 +485,7 @@ public class TotalTestBuilder extends AbstractTotalTestBuilderMigration implemen
 			else
 			{
 				listener.getLogger().println(Messages.totalTestSuccess());
+				passed = true;
 			}
 					
 		}
@@ -440,7 +494,46 @@ public class TotalTestBuilder extends AbstractTotalTestBuilderMigration implemen
 			listener.getLogger().println(e.getMessage());
 			throw new AbortException();
 		}
+		finally
+		{
+			if (archiveReports)
+			{
+				TotalTestReportArchiver.archive(build, workspaceFilePath, launcher, listener, timings, Messages.displayNameTotalTest(),
+						lease.getStepId(), runner.getReportIncludes(workspaceFilePath));
+			}
+			remotingCounter.close();
+			lease.close();
+			timings.setRemotingCalls(remotingCounter.getRoundTrips());
+			timings.printTable(listener.getLogger());
+			long budget = TotalTestRemotingCounter.getBudget();
+			if (budget > 0 && remotingCounter.getRoundTrips() > budget)
+			{
+				listener.getLogger().println(Messages.remotingBudgetExceeded(remotingCounter.getRoundTrips(), budget));
+			}
+			build.addAction(new TotalTestTimingsAction(Messages.displayNameTotalTest(), timings));
+			TotalTestMetrics.get().recordPhases(TotalTestMetrics.STEP_UNIT, timings);
+			TotalTestMetrics.get().recordRun(TotalTestMetrics.STEP_UNIT, getMetricsTarget(), passed,
+					System.currentTimeMillis() - startTime, TotalTestMetrics.getQueueWait(build));
+		}
     }
+
+	/**
+	 * Returns the host and port the tests run against, used to label the metrics.
+	 * 
+	 * @return	<code>String</code> the target of the tests.
+	 */
+	@SuppressWarnings("deprecation")
+	private String getMetricsTarget()
+	{
+		HostConnection connection = null;
+		CpwrGlobalConfiguration globalConfig = CpwrGlobalConfiguration.get();
+		if (globalConfig != null)
+		{
+			connection = globalConfig.getHostConnection(getConnectionId());
+		}
+
+		return connection != null ? connection.getHostPort() : getHostPort();
+	}
     
     /*
      * (non-Javadoc)
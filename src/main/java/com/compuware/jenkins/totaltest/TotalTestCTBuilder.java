@@ -22,6 +22,7 @@ import java.io.IOException;
 import java.util.Collections;
 import java.util.List;
 import java.util.ListIterator;
+import java.util.Map;
 import org.apache.commons.lang.StringUtils;
 import org.jenkinsci.Symbol;
 import org.kohsuke.stapler.AncestorInPath;
@@ -110,6 +111,12 @@ public class TotalTestCTBuilder extends Builder implements SimpleBuildStep
 	 */
 	private String sourceFolder = DescriptorImpl.defaultSourceFolder;
 	private String reportFolder = DescriptorImpl.defaultReportFolder;
+	private boolean useBuildReportFolder = DescriptorImpl.defaultUseBuildReportFolder;
+	private int reportRetention = DescriptorImpl.defaultReportRetention;
+	private boolean archiveReports = DescriptorImpl.defaultArchiveReports;
+	private boolean generateJUnit = DescriptorImpl.defaultGenerateJUnit;
+	private boolean generateSonar = DescriptorImpl.defaultGenerateSonar;
+	private boolean renderReportOnDemand = DescriptorImpl.defaultRenderReportOnDemand;
 	private String accountInfo = DescriptorImpl.defaultAccountInfo;
 
 	/**
@@ -128,6 +135,8 @@ public class TotalTestCTBuilder extends Builder implements SimpleBuildStep
 	private String programList = DescriptorImpl.defaultProgramList;
 	private boolean useScenarios = DescriptorImpl.defaultUseScenarios;
 	private boolean selectProgramsOption = DescriptorImpl.defaultSelectProgramsOption;
+	private boolean useProgramIndex = DescriptorImpl.defaultUseProgramIndex;
+	private boolean useResultCache = DescriptorImpl.defaultUseResultCache;
 	private String selectProgramsRadio = DescriptorImpl.selectProgramsJsonValue;
 
 	/**
@@ -659,6 +668,187 @@ public class TotalTestCTBuilder extends Builder implements SimpleBuildStep
 		return selectProgramsOption;
 	}
 
+	/**
+	 * Set if the tests of the selected programs are found with the program index of the workspace.
+	 * 
+	 * @param useProgramIndex
+	 * 			  <code>true</code> if only the test files that reference a selected program are passed to the CLI,
+	 * 			  otherwise <code>false</code> indicates the CLI selects the tests.
+	 */
+	@DataBoundSetter
+	public void setUseProgramIndex(boolean useProgramIndex)
+	{
+		this.useProgramIndex = useProgramIndex;
+	}
+
+	/**
+	 * Returns if the tests of the selected programs are found with the program index of the workspace.
+	 * 
+	 * @return	<code>true</code> if the program index is used, otherwise <code>false</code>.
+	 */
+	public boolean getUseProgramIndex()
+	{
+		return useProgramIndex;
+	}
+
+	/**
+	 * Set if the tests that passed with the same test assets and settings before are skipped.
+	 * 
+	 * @param useResultCache
+	 * 			  <code>true</code> if passed tests are skipped, otherwise <code>false</code> indicates all tests are run.
+	 */
+	@DataBoundSetter
+	public void setUseResultCache(boolean useResultCache)
+	{
+		this.useResultCache = useResultCache;
+	}
+
+	/**
+	 * Returns if the tests that passed with the same test assets and settings before are skipped.
+	 * 
+	 * @return	<code>true</code> if the result cache is used, otherwise <code>false</code>.
+	 */
+	public boolean getUseResultCache()
+	{
+		return useResultCache;
+	}
+
+	/**
+	 * Set if each build writes its reports to its own folder below the report folder.
+	 * 
+	 * @param useBuildReportFolder
+	 * 			  <code>true</code> if each build has its own report folder, otherwise <code>false</code>.
+	 */
+	@DataBoundSetter
+	public void setUseBuildReportFolder(boolean useBuildReportFolder)
+	{
+		this.useBuildReportFolder = useBuildReportFolder;
+	}
+
+	/**
+	 * Returns if each build writes its reports to its own folder below the report folder.
+	 * 
+	 * @return	<code>true</code> if each build has its own report folder, otherwise <code>false</code>.
+	 */
+	public boolean getUseBuildReportFolder()
+	{
+		return useBuildReportFolder;
+	}
+
+	/**
+	 * Set the number of build report folders that are kept.
+	 * 
+	 * @param reportRetention
+	 * 			  The number of most recent builds whose report folder is kept.
+	 */
+	@DataBoundSetter
+	public void setReportRetention(int reportRetention)
+	{
+		this.reportRetention = reportRetention;
+	}
+
+	/**
+	 * Returns the number of build report folders that are kept.
+	 * 
+	 * @return	The number of most recent builds whose report folder is kept.
+	 */
+	public int getReportRetention()
+	{
+		return reportRetention;
+	}
+
+	/**
+	 * Set if the reports of the step are archived.
+	 * 
+	 * @param archiveReports
+	 * 			  <code>true</code> if the reports are archived, otherwise <code>false</code>.
+	 */
+	@DataBoundSetter
+	public void setArchiveReports(boolean archiveReports)
+	{
+		this.archiveReports = archiveReports;
+	}
+
+	/**
+	 * Returns if the reports of the step are archived.
+	 * 
+	 * @return	<code>true</code> if the reports are archived, otherwise <code>false</code>.
+	 */
+	public boolean getArchiveReports()
+	{
+		return archiveReports;
+	}
+
+	/**
+	 * Set if the plugin converts the result of each run into JUnit XML, instead of the CLI writing its JUnit report.
+	 * 
+	 * @param generateJUnit
+	 * 			  <code>true</code> if the plugin writes the JUnit XML, otherwise <code>false</code>.
+	 */
+	@DataBoundSetter
+	public void setGenerateJUnit(boolean generateJUnit)
+	{
+		this.generateJUnit = generateJUnit;
+	}
+
+	/**
+	 * Returns if the plugin converts the result of each run into JUnit XML, instead of the CLI writing its JUnit report.
+	 * 
+	 * @return	<code>true</code> if the plugin writes the JUnit XML, otherwise <code>false</code>.
+	 */
+	public boolean getGenerateJUnit()
+	{
+		return generateJUnit;
+	}
+
+	/**
+	 * Set if the plugin converts the result of each run into a SonarQube generic test execution report, instead of the CLI
+	 * writing its SonarQube report.
+	 * 
+	 * @param generateSonar
+	 * 			  <code>true</code> if the plugin writes the SonarQube report, otherwise <code>false</code>.
+	 */
+	@DataBoundSetter
+	public void setGenerateSonar(boolean generateSonar)
+	{
+		this.generateSonar = generateSonar;
+	}
+
+	/**
+	 * Returns if the plugin converts the result of each run into a SonarQube generic test execution report, instead of the
+	 * CLI writing its SonarQube report.
+	 * 
+	 * @return	<code>true</code> if the plugin writes the SonarQube report, otherwise <code>false</code>.
+	 */
+	public boolean getGenerateSonar()
+	{
+		return generateSonar;
+	}
+
+	/**
+	 * Set if the CLI runs without rendering HTML reports, which the plugin renders from the result files the first time
+	 * they are opened from the build page.
+	 * 
+	 * @param renderReportOnDemand
+	 * 			  <code>true</code> if the reports are rendered on demand, otherwise <code>false</code>.
+	 */
+	@DataBoundSetter
+	public void setRenderReportOnDemand(boolean renderReportOnDemand)
+	{
+		this.renderReportOnDemand = renderReportOnDemand;
+	}
+
+	/**
+	 * Returns if the CLI runs without rendering HTML reports, which the plugin renders from the result files the first
+	 * time they are opened from the build page.
+	 * 
+	 * @return	<code>true</code> if the reports are rendered on demand, otherwise <code>false</code>.
+	 */
+	public boolean getRenderReportOnDemand()
+	{
+		return renderReportOnDemand;
+	}
+
 	/**
 	 * Sets the selected selectProgramsRadio radio button.
 	 * 
@@ -1232,24 +1422,75 @@ public class TotalTestCTBuilder extends Builder implements SimpleBuildStep
 	@Override
 	public void perform(Run<?, ?> build, FilePath workspace, Launcher launcher, TaskListener listener)
 			throws InterruptedException, IOException
+	{
+		execute(build, workspace, launcher, listener, true);
+	}
+
+	/**
+	 * Returns if failing tests stop the build, which requires both Stop if test fails or threshold is reached and Halt
+	 * pipeline if errors occur.
+	 * 
+	 * @return	<code>true</code> if failing tests stop the build, otherwise <code>false</code>.
+	 */
+	boolean haltsOnFailure()
+	{
+		return getStopIfTestFailsOrThresholdReached() && getHaltPipelineOnFailure();
+	}
+
+	/**
+	 * Runs the step like {@link #perform(Run, FilePath, Launcher, TaskListener)} and returns its outcome.
+	 * 
+	 * @param build
+	 *            The build the step runs in.
+	 * @param workspace
+	 *            The workspace the step runs in.
+	 * @param launcher
+	 *            The launcher of the step.
+	 * @param listener
+	 *            An instance of <code>TaskListener</code> for the build.
+	 * @param failOnFailure
+	 *            <code>true</code> to fail when the CLI or the tests fail, <code>false</code> to return the outcome.
+	 * 
+	 * @return	The outcome, as described by {@link TotalTestSummary#toMap(boolean, TotalTestPhaseTimings)}, with
+	 * 			<code>passed</code> taken from the results of the runs.
+	 * 
+	 * @throws InterruptedException
+	 * 			If the step was interrupted.
+	 * @throws IOException
+	 * 			If the step failed.
+	 */
+	Map<String, Object> execute(Run<?, ?> build, FilePath workspace, Launcher launcher, TaskListener listener,
+			boolean failOnFailure) throws InterruptedException, IOException
 	{
 		listener.getLogger().println("Running " + Messages.displayName() + "\n"); //$NON-NLS-1$ //$NON-NLS-2$
 
+		TotalTestPhaseTimings timings = new TotalTestPhaseTimings();
+		long startTime = System.currentTimeMillis();
+		boolean passed = false;
+		TotalTestRemotingCounter remotingCounter = TotalTestRemotingCounter.attach(launcher.getChannel());
+		TotalTestWorkspaceLease lease = TotalTestWorkspaceLease.acquire(build, workspace);
+		TotalTestCTRunner runner = new TotalTestCTRunner(this, timings, lease);
 		try
 		{
+			timings.start(TotalTestPhaseTimings.VALIDATE);
 			validateParameters(launcher, listener, build.getParent());
+			timings.stop(TotalTestPhaseTimings.VALIDATE);
 
-			TotalTestCTRunner runner = new TotalTestCTRunner(this);
 			boolean success = runner.run(build, launcher, workspace, listener);
-			if (success == false) //NOSONAR
+			passed = success && runner.testsPassed();
+			if (success == false && failOnFailure) //NOSONAR
 			{
 				listener.error("Test failure"); //$NON-NLS-1$
 				throw new AbortException("Test failure"); //$NON-NLS-1$
 			}
-			else
+			else if (passed)
 			{
 				listener.getLogger().println("Test Success..."); //$NON-NLS-1$
 			}
+			else
+			{
+				listener.getLogger().println("Test failure, the step continues"); //$NON-NLS-1$
+			}
 
 		}
 		catch (Exception e)
@@ -1257,6 +1498,128 @@ public class TotalTestCTBuilder extends Builder implements SimpleBuildStep
 			listener.getLogger().println(e.getMessage());
 			throw new AbortException();
 		}
+		finally
+		{
+			publishResults(build, workspace, launcher, listener, timings, runner, lease.getStepId());
+			runner.awaitBuildFolderPruning();
+			remotingCounter.close();
+			lease.close();
+			timings.setRemotingCalls(remotingCounter.getRoundTrips());
+			timings.printTable(listener.getLogger());
+			long budget = TotalTestRemotingCounter.getBudget();
+			if (budget > 0 && remotingCounter.getRoundTrips() > budget)
+			{
+				listener.getLogger().println(Messages.remotingBudgetExceeded(remotingCounter.getRoundTrips(), budget));
+			}
+			build.addAction(new TotalTestTimingsAction(Messages.displayName(), timings));
+			TotalTestMetrics.get().recordPhases(TotalTestMetrics.STEP_FUNCTIONAL, timings);
+			TotalTestMetrics.get().recordRun(TotalTestMetrics.STEP_FUNCTIONAL, getMetricsTarget(), passed,
+					System.currentTimeMillis() - startTime, TotalTestMetrics.getQueueWait(build));
+		}
+
+		return runner.getSummary().toMap(passed, timings);
+	}
+
+	/**
+	 * Archives the reports of a step and keeps its result files, as configured.
+	 * 
+	 * @param build
+	 *            The build the step ran in.
+	 * @param workspace
+	 *            The workspace the step ran in.
+	 * @param launcher
+	 *            The launcher of the step.
+	 * @param listener
+	 *            An instance of <code>TaskListener</code> for the build.
+	 * @param timings
+	 *            The timings of the step.
+	 * @param runner
+	 *            The runner that ran the CLI.
+	 * @param stepId
+	 *            The id of the step, unique within the build.
+	 */
+	void publishResults(Run<?, ?> build, FilePath workspace, Launcher launcher, TaskListener listener,
+			TotalTestPhaseTimings timings, TotalTestCTRunner runner, int stepId)
+	{
+		if (archiveReports)
+		{
+			TotalTestReportArchiver.archive(build, workspace, launcher, listener, timings, Messages.displayName(), stepId,
+					runner.getReportIncludes());
+		}
+		if (runner.rendersReportOnDemand() && !runner.getResultFiles().isEmpty())
+		{
+			String folderName = "totaltest-results-" + stepId; //$NON-NLS-1$
+			List<String> files = keepResultFiles(build, listener, timings, folderName, runner.getResultFiles());
+			if (files != null)
+			{
+				TotalTestReportAction.add(build, listener, Messages.displayName(), stepId, folderName, files);
+			}
+		}
+	}
+
+	/**
+	 * Copies the result files of a step into a folder of the build folder, so they outlive the workspace.
+	 * <p>
+	 * A failure to copy the files is logged and does not fail the step.
+	 * 
+	 * @param build
+	 *            The build the step ran in.
+	 * @param listener
+	 *            An instance of <code>TaskListener</code> for the build.
+	 * @param timings
+	 *            The timings of the step, to record the duration of copying the files in.
+	 * @param folderName
+	 *            The name of the folder in the build folder.
+	 * @param resultFiles
+	 *            The result files.
+	 * 
+	 * @return	The names of the copies in the folder, in run order, or <code>null</code> if the files could not be copied.
+	 */
+	private static List<String> keepResultFiles(Run<?, ?> build, TaskListener listener, TotalTestPhaseTimings timings,
+			String folderName, List<FilePath> resultFiles)
+	{
+		timings.start(TotalTestPhaseTimings.RESULT_KEEP);
+		try
+		{
+			return TotalTestRunnerUtils.copyResultFiles(new File(build.getRootDir(), folderName), resultFiles);
+		}
+		catch (IOException e)
+		{
+			listener.getLogger().println("Unable to keep the result files: " + e.getMessage()); //$NON-NLS-1$
+		}
+		catch (InterruptedException e)
+		{
+			listener.getLogger().println("Keeping the result files interrupted"); //$NON-NLS-1$
+			Thread.currentThread().interrupt();
+		}
+		finally
+		{
+			timings.stop(TotalTestPhaseTimings.RESULT_KEEP);
+		}
+
+		return null;
+	}
+
+	/**
+	 * Returns the environment id or the host and port the tests run against, used to label the metrics.
+	 * 
+	 * @return	<code>String</code> the target of the tests.
+	 */
+	private String getMetricsTarget()
+	{
+		if (isSelectEnvironmentId())
+		{
+			return environmentId;
+		}
+
+		HostConnection connection = null;
+		CpwrGlobalConfiguration globalConfig = CpwrGlobalConfiguration.get();
+		if (globalConfig != null)
+		{
+			connection = globalConfig.getHostConnection(getConnectionId());
+		}
+
+		return connection != null ? connection.getHostPort() : getConnectionId();
 	}
 
 	/**
@@ -1394,6 +1757,14 @@ public class TotalTestCTBuilder extends Builder implements SimpleBuildStep
 		public static final String selectProgramsListValue = "-pn"; //NOSONAR  //$NON-NLS-1$
 		public static final String defaultSelectProgramsJsonValue = selectProgramsJsonValue; //NOSONAR
 		public static final Boolean defaultSelectProgramsOption = false;
+		public static final Boolean defaultUseProgramIndex = false; //NOSONAR
+		public static final Boolean defaultUseResultCache = false; //NOSONAR
+		public static final Boolean defaultUseBuildReportFolder = false; //NOSONAR
+		public static final int defaultReportRetention = 10; //NOSONAR
+		public static final Boolean defaultArchiveReports = false; //NOSONAR
+		public static final Boolean defaultGenerateJUnit = false; //NOSONAR
+		public static final Boolean defaultGenerateSonar = false; //NOSONAR
+		public static final Boolean defaultRenderReportOnDemand = false; //NOSONAR
 		public static final Boolean defaultHaltPipelineOnFailure = true; //NOSONAR
 		public static final Boolean defaultCollectCodeCoverage = false; //NOSONAR
 		public static final String defaultCollectCCRepository = ""; //NOSONAR //$NON-NLS-1$
@@ -1497,6 +1868,30 @@ public class TotalTestCTBuilder extends Builder implements SimpleBuildStep
 			return FormValidation.ok();
 		}
 		
+		/**
+		 * Validates for the 'ReportRetention' field
+		 * 
+		 * @param value
+		 * 		The number of build report folders to keep.
+		 * @return validation message
+		 */
+		public FormValidation doCheckReportRetention(@QueryParameter String value)
+		{
+			try
+			{
+				if (Integer.parseInt(value) < 1)
+				{
+					return FormValidation.error(Messages.errors_invalidReportRetention());
+				}
+			}
+			catch (NumberFormatException e)
+			{
+				return FormValidation.error(Messages.errors_invalidReportRetention());
+			}
+
+			return FormValidation.ok();
+		}
+		
 		public FormValidation doCheckEnvironmentRadio(@QueryParameter String value)
 		{
 			return FormValidation.ok();
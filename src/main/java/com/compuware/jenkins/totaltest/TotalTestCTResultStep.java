@@ -0,0 +1,172 @@
+/**
+ * The MIT License (MIT)
+ * 
+ * (c) Copyright 2026 BMC Software, Inc.
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated documentation
+ * files (the "Software"), to deal in the Software without restriction, including without limitation the rights to use, copy,
+ * modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to permit persons to whom the
+ * Software is furnished to do so, subject to the following conditions: The above copyright notice and this permission notice
+ * shall be included in all copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+ * WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE,
+ * ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package com.compuware.jenkins.totaltest;
+
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+import org.jenkinsci.plugins.structs.describable.DescribableModel;
+import org.jenkinsci.plugins.structs.describable.UninstantiatedDescribable;
+import org.jenkinsci.plugins.workflow.steps.Step;
+import org.jenkinsci.plugins.workflow.steps.StepContext;
+import org.jenkinsci.plugins.workflow.steps.StepDescriptor;
+import org.jenkinsci.plugins.workflow.steps.StepExecution;
+import org.jenkinsci.plugins.workflow.steps.SynchronousNonBlockingStepExecution;
+
+import hudson.Extension;
+import hudson.FilePath;
+import hudson.Launcher;
+import hudson.model.Run;
+import hudson.model.TaskListener;
+
+/**
+ * Pipeline step running Total Test like the <code>TotalTestCTBuilder</code> it is configured with, returning the outcome
+ * of the run.
+ * <p>
+ * The step is named <code>totaltestResult</code>, so the <code>totaltest</code> symbol keeps running the builder. It
+ * returns the map described by {@link TotalTestSummary#toMap(boolean, TotalTestPhaseTimings)}, whose
+ * <code>passed</code> is taken from the results. The step fails when the tests fail only if failing tests stop the build,
+ * as configured with the builder. The counts are taken while the result files are read for the JUnit report, so the
+ * result files are not read again.
+ */
+public class TotalTestCTResultStep extends Step
+{
+	private final TotalTestCTBuilder builder;
+
+	/**
+	 * Constructor
+	 * 
+	 * @param builder
+	 * 			  An instance of <code>TotalTestCTBuilder</code> containing the arguments.
+	 */
+	public TotalTestCTResultStep(TotalTestCTBuilder builder)
+	{
+		this.builder = builder;
+	}
+
+	/**
+	 * Returns the arguments of the step.
+	 * 
+	 * @return	An instance of <code>TotalTestCTBuilder</code> containing the arguments.
+	 */
+	public TotalTestCTBuilder getBuilder()
+	{
+		return builder;
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see org.jenkinsci.plugins.workflow.steps.Step#start(org.jenkinsci.plugins.workflow.steps.StepContext)
+	 */
+	@Override
+	public StepExecution start(StepContext context) throws Exception
+	{
+		return new Execution(context, builder);
+	}
+
+	/**
+	 * Runs the builder on a thread of its own and returns its outcome.
+	 */
+	static final class Execution extends SynchronousNonBlockingStepExecution<Map<String, Object>>
+	{
+		private static final long serialVersionUID = 1L;
+
+		private final transient TotalTestCTBuilder builder;
+
+		Execution(StepContext context, TotalTestCTBuilder builder)
+		{
+			super(context);
+			this.builder = builder;
+		}
+
+		/*
+		 * (non-Javadoc)
+		 * @see org.jenkinsci.plugins.workflow.steps.SynchronousNonBlockingStepExecution#run()
+		 */
+		@Override
+		protected Map<String, Object> run() throws Exception
+		{
+			return builder.execute(getContext().get(Run.class), getContext().get(FilePath.class),
+					getContext().get(Launcher.class), getContext().get(TaskListener.class), builder.haltsOnFailure());
+		}
+	}
+
+	/**
+	 * Descriptor of the step, instantiating the builder from the arguments of the step.
+	 */
+	@Extension
+	public static final class DescriptorImpl extends StepDescriptor
+	{
+		/*
+		 * (non-Javadoc)
+		 * @see org.jenkinsci.plugins.workflow.steps.StepDescriptor#getRequiredContext()
+		 */
+		@Override
+		public Set<? extends Class<?>> getRequiredContext()
+		{
+			Set<Class<?>> context = new HashSet<>();
+			context.add(Run.class);
+			context.add(FilePath.class);
+			context.add(Launcher.class);
+			context.add(TaskListener.class);
+
+			return context;
+		}
+
+		/*
+		 * (non-Javadoc)
+		 * @see org.jenkinsci.plugins.workflow.steps.StepDescriptor#getFunctionName()
+		 */
+		@Override
+		public String getFunctionName()
+		{
+			return "totaltestResult"; //$NON-NLS-1$
+		}
+
+		/*
+		 * (non-Javadoc)
+		 * @see hudson.model.Descriptor#getDisplayName()
+		 */
+		@Override
+		public String getDisplayName()
+		{
+			return Messages.resultStepDisplayName();
+		}
+
+		/*
+		 * (non-Javadoc)
+		 * @see org.jenkinsci.plugins.workflow.steps.StepDescriptor#newInstance(java.util.Map)
+		 */
+		@Override
+		public Step newInstance(Map<String, Object> arguments) throws Exception
+		{
+			return new TotalTestCTResultStep(new DescribableModel<>(TotalTestCTBuilder.class).instantiate(arguments));
+		}
+
+		/*
+		 * (non-Javadoc)
+		 * @see org.jenkinsci.plugins.workflow.steps.StepDescriptor#uninstantiate(org.jenkinsci.plugins.workflow.steps.Step)
+		 */
+		@Override
+		public UninstantiatedDescribable uninstantiate(Step step)
+		{
+			return new UninstantiatedDescribable(
+					DescribableModel.uninstantiate2_(((TotalTestCTResultStep) step).getBuilder()).getArguments());
+		}
+	}
+}
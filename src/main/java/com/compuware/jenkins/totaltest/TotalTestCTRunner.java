@@ -19,23 +19,29 @@ package com.compuware.jenkins.totaltest;
 
 import java.io.FileNotFoundException;
 import java.io.IOException;
+import java.io.InputStream;
 import java.io.PrintWriter;
-import java.io.Reader;
-import java.io.StringReader;
+import java.io.Serializable;
 import java.io.StringWriter;
 import java.nio.charset.StandardCharsets;
-import java.nio.file.Files;
-import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
 import java.util.Properties;
-import javax.xml.parsers.DocumentBuilder;
-import javax.xml.parsers.DocumentBuilderFactory;
-import javax.xml.xpath.XPath;
-import javax.xml.xpath.XPathConstants;
-import javax.xml.xpath.XPathFactory;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import org.apache.commons.io.IOUtils;
+import org.apache.commons.io.input.CountingInputStream;
+import org.apache.commons.io.input.TeeInputStream;
+import org.apache.commons.lang3.StringUtils;
 import org.apache.commons.lang3.math.NumberUtils;
-import org.w3c.dom.Document;
-import org.w3c.dom.Element;
-import org.xml.sax.InputSource;
+import com.cloudbees.plugins.credentials.common.StandardUsernamePasswordCredentials;
 import com.compuware.jenkins.common.configuration.CpwrGlobalConfiguration;
 import com.compuware.jenkins.common.configuration.HostConnection;
 import com.compuware.jenkins.totaltest.TotalTestCTBuilder.DescriptorImpl;
@@ -43,10 +49,17 @@ import com.google.common.base.Strings;
 import hudson.EnvVars;
 import hudson.FilePath;
 import hudson.Launcher;
+import hudson.Proc;
 import hudson.model.Run;
 import hudson.model.TaskListener;
 import hudson.remoting.VirtualChannel;
+import hudson.scm.ChangeLogSet;
 import hudson.util.ArgumentListBuilder;
+import jenkins.scm.RunWithSCM;
+import net.sf.json.JSONArray;
+import net.sf.json.JSONException;
+import net.sf.json.JSONObject;
+import net.sf.json.JSONSerializer;
 
 public class TotalTestCTRunner
 {
@@ -56,6 +69,8 @@ public class TotalTestCTRunner
 	private static final String TOPAZ_CLI_WORKSPACE = "BMC-CliWkspc"; //$NON-NLS-1$
 	private static final String DATA = "-data"; //$NON-NLS-1$
 	private static final String FOLDER_OUTPUT = "Output"; //$NON-NLS-1$
+	private static final String JUNIT_FOLDER = "TTTUnit"; //$NON-NLS-1$
+	private static final String SONAR_FOLDER = "TTTSonar"; //$NON-NLS-1$
 	private static final String GENERATED_SUITE_RESULT_FILE_NAME = ".cli.suiteresult";  //$NON-NLS-1$
 	private static final String GENERATED_SUITE_RESULT_FILE_NAME_OLD = ".cli.xasuiteres"; //$NON-NLS-1$
 	private static final String FILE_EXT_XAUNIT ="scenario"; //$NON-NLS-1$
@@ -69,13 +84,34 @@ public class TotalTestCTRunner
   	private static final String FILE_EXT_CONTEXT_OLD="xactx"; //$NON-NLS-1$
  	private static final String SCENARIOS_FOLDER = "Scenarios"; //$NON-NLS-1$ 
  	private static final String SUITES_FOLDER = "Suites"; //$NON-NLS-1$ 
+	private static final String PROGRAM_NAME = "programName"; //$NON-NLS-1$
+	private static final String PROGRAMS = "programs"; //$NON-NLS-1$
+	private static final String PLUGIN_FOLDER = ".totaltest"; //$NON-NLS-1$
+	private static final String CHANGED_PROGRAMS_MARKER = "changed-programs.md5"; //$NON-NLS-1$
+	private static final List<String> COBOL_EXTENSIONS = Arrays.asList("cbl", "cob", "cobol"); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
 
 	private final TotalTestCTBuilder tttBuilder;
+	private final TotalTestPhaseTimings timings;
+	private final TotalTestWorkspaceLease lease;
 
 	private TaskListener listener;
 	private FilePath workspaceFilePath;
 	private Run<?, ?> build;
 	private String remoteFileSeparator;
+	private boolean lastRunPassed;
+	private boolean testsFailed;
+	private FilePath buildReportFolder;
+	private FilePath reportRunFolder;
+	private Future<Integer> buildFolderPruning;
+	private int reportRunCount;
+	private int junitCount;
+	private int sonarCount;
+	private int stepId = 1;
+	private final List<FilePath> resultFiles = new ArrayList<>();
+	private final List<String> foundResultFiles = new ArrayList<>();
+	private final TotalTestSummary summary = new TotalTestSummary();
+	private final Map<String, Boolean> minimumReleases = new HashMap<>();
+	private final Map<String, StandardUsernamePasswordCredentials> credentials = new HashMap<>();
 
 	/**
 	 * Constructor
@@ -84,104 +120,1301 @@ public class TotalTestCTRunner
 	 * 			  An instance of <code>TotalTestCTBuilder</code> containing the arguments.
 	 */
 	public TotalTestCTRunner(TotalTestCTBuilder tttBuilder)
+	{
+		this(tttBuilder, new TotalTestPhaseTimings());
+	}
+
+	/**
+	 * Constructor
+	 * 
+	 * @param tttBuilder
+	 * 			  An instance of <code>TotalTestCTBuilder</code> containing the arguments.
+	 * @param timings
+	 * 			  An instance of <code>TotalTestPhaseTimings</code> to record the duration of each phase in.
+	 */
+	public TotalTestCTRunner(TotalTestCTBuilder tttBuilder, TotalTestPhaseTimings timings)
+	{
+		this(tttBuilder, timings, null);
+	}
+
+	/**
+	 * Constructor
+	 * 
+	 * @param tttBuilder
+	 * 			  An instance of <code>TotalTestCTBuilder</code> containing the arguments.
+	 * @param timings
+	 * 			  An instance of <code>TotalTestPhaseTimings</code> to record the duration of each phase in.
+	 * @param lease
+	 * 			  The lease of the CLI workspace and report folders of the step, or <code>null</code> to use the usual folders.
+	 */
+	public TotalTestCTRunner(TotalTestCTBuilder tttBuilder, TotalTestPhaseTimings timings, TotalTestWorkspaceLease lease)
 	{
 		this.tttBuilder = tttBuilder;
+		this.timings = timings;
+		this.lease = lease;
+	}
+
+	/**
+	 * Runs the Total Test Functional Test CLI
+	 * 
+	 * @param build
+	 *			  The current running Jenkins build
+	 * @param launcher
+	 *            The machine that the files will be checked out.
+	 * @param workspaceFilePath
+	 *            a directory to check out the source code.
+	 * @param listener
+	 *            Build listener
+	 *            
+	 * @return <code>boolean</code> if the build was successful
+	 * 
+	 * @throws IOException
+	 * 			If an error occurred execute Total Test run.
+	 * @throws InterruptedException
+	 * 			If the Total Test run was interrupted.
+	 */
+	public boolean run(final Run<?, ?> build, final Launcher launcher, final FilePath workspaceFilePath,
+			final TaskListener listener) throws IOException, InterruptedException
+	{
+		// initialization
+		EnvVars env = build.getEnvironment(listener);
+		if (!initialize(build, launcher, workspaceFilePath, listener))
+		{
+			return false;
+		}
+
+		String osScriptFile = launcher.isUnix() ? TOTAL_TEST_CLI_SH : TOTAL_TEST_CLI_BAT;
+		FilePath cliScriptPath = resolveCLI(launcher, osScriptFile);
+
+		writeChangedPrograms();
+
+		List<String> testFiles = selectTestFiles();
+		if (testFiles != null && testFiles.isEmpty())
+		{
+			listener.getLogger().println("No test references the selected programs, so the Total Test CLI is not run."); //$NON-NLS-1$
+			return true;
+		}
+
+		if (tttBuilder.getUseResultCache())
+		{
+			return runWithResultCache(launcher, env, cliScriptPath, osScriptFile, testFiles);
+		}
+
+		if (testFiles == null)
+		{
+			// one run for the whole folder, in the order of the CLI, so the failure history does not order it
+			return runCLI(launcher, env, cliScriptPath, osScriptFile, tttBuilder.getFolderPath(), true);
+		}
+
+		boolean success = true;
+		TotalTestFailureHistory history = TotalTestFailureHistory.load(build.getParent());
+		try
+		{
+			for (String testFile : history.order(testFiles, workspaceFilePath.getRemote()))
+			{
+				if (!runTestFile(launcher, env, cliScriptPath, osScriptFile, testFile, false, history))
+				{
+					success = false;
+					if (haltAtFailure())
+					{
+						break;
+					}
+				}
+			}
+		}
+		finally
+		{
+			history.save();
+		}
+
+		return success;
+	}
+
+	/**
+	 * Returns if the remaining test files are skipped once a test file failed, like the CLI does with <code>-h</code>
+	 * when it runs the whole test folder.
+	 * 
+	 * @return	<code>true</code> if the run stops at the first failure, otherwise <code>false</code>.
+	 */
+	private boolean haltAtFailure()
+	{
+		if (tttBuilder.getHaltAtFailure())
+		{
+			listener.getLogger().println("Halt at failure is set, so the remaining test files are not run."); //$NON-NLS-1$
+			return true;
+		}
+
+		return false;
+	}
+
+	/**
+	 * Sets the build, workspace and listener of the step and reads the file separator of the agent.
+	 * 
+	 * @param build
+	 *			  The current running Jenkins build
+	 * @param launcher
+	 *            The machine that the files will be checked out.
+	 * @param workspaceFilePath
+	 *            a directory to check out the source code.
+	 * @param listener
+	 *            Build listener
+	 * 
+	 * @return <code>boolean</code> if the agent could be reached
+	 * 
+	 * @throws IOException
+	 * 			If the agent could not be reached.
+	 * @throws InterruptedException
+	 * 			If reading the file separator was interrupted.
+	 */
+	private boolean initialize(final Run<?, ?> build, final Launcher launcher, final FilePath workspaceFilePath,
+			final TaskListener listener) throws IOException, InterruptedException
+	{
+		VirtualChannel vChannel = launcher.getChannel();
+		if (vChannel == null)
+		{
+			listener.getLogger().println("Error: No channel could be retrieved"); //$NON-NLS-1$
+			return false;
+		}
+		this.listener = listener;
+		this.workspaceFilePath = workspaceFilePath;
+		this.build = build;
+		Properties remoteProperties = vChannel.call(new RemoteSystemProperties());
+		remoteFileSeparator = remoteProperties.getProperty("file.separator"); //$NON-NLS-1$
+
+		return true;
+	}
+
+	/**
+	 * Finds the CLI script and creates the report folder of the step, when the step has one.
+	 * 
+	 * @param launcher
+	 *            The machine that the files will be checked out.
+	 * @param osScriptFile
+	 *            The name of the CLI script.
+	 * 
+	 * @return	The CLI script to run.
+	 * 
+	 * @throws IOException
+	 * 			If the report folder could not be created.
+	 * @throws InterruptedException
+	 * 			If finding the CLI was interrupted.
+	 */
+	private FilePath resolveCLI(final Launcher launcher, final String osScriptFile) throws IOException, InterruptedException
+	{
+		TotalTestRunnerUtils.logJenkinsAndPluginVersion(listener);
+
+		timings.start(TotalTestPhaseTimings.CLI_RESOLVE);
+		FilePath cliScriptPath = TotalTestRunnerUtils.getCLIScriptPath(launcher, listener, remoteFileSeparator, osScriptFile);
+		timings.stop(TotalTestPhaseTimings.CLI_RESOLVE);
+
+		if (lease != null && lease.isShared())
+		{
+			// another step writes to the usual folders at the same time, so this step always gets its own report folder
+			listener.getLogger().println("Another Total Test step runs in this workspace, using CLI workspace " //$NON-NLS-1$
+					+ lease.getFolderName(TOPAZ_CLI_WORKSPACE) + " and a report folder of this step."); //$NON-NLS-1$
+		}
+		if (tttBuilder.getUseBuildReportFolder() || (lease != null && lease.isShared()))
+		{
+			startBuildReportFolder();
+		}
+
+		return cliScriptPath;
+	}
+
+	/**
+	 * A CLI run started by {@link TotalTestCTRunner#startDurableRun(Run, Launcher, FilePath, TaskListener)}, which
+	 * outlives the runner. It holds what is needed to analyse the result once the CLI ends, even after a restart of
+	 * Jenkins.
+	 * <p>
+	 * The command line holds the host password, so it is never serialized with the step and is only available until the
+	 * process is launched.
+	 */
+	public static final class DurableRun implements Serializable
+	{
+		private static final long serialVersionUID = 1L;
+
+		private transient List<String> command;
+		private transient boolean[] masks;
+		private final String folderPath;
+		private final String osScriptFile;
+		private final int stepId;
+		private final String buildReportFolder;
+		private final String reportRunFolder;
+
+		DurableRun(ArgumentListBuilder args, String folderPath, String osScriptFile, int stepId, FilePath buildReportFolder,
+				FilePath reportRunFolder)
+		{
+			this.command = new ArrayList<>(args.toList());
+			this.masks = args.toMaskArray();
+			this.folderPath = folderPath;
+			this.osScriptFile = osScriptFile;
+			this.stepId = stepId;
+			this.buildReportFolder = buildReportFolder != null ? buildReportFolder.getRemote() : null;
+			this.reportRunFolder = reportRunFolder != null ? reportRunFolder.getRemote() : null;
+		}
+
+		/**
+		 * Returns the CLI command line.
+		 * 
+		 * @return	The command and its arguments.
+		 * 
+		 * @throws IllegalStateException
+		 * 			If the command line was cleared or the run was read back from disk.
+		 */
+		public List<String> getCommand()
+		{
+			if (command == null)
+			{
+				throw new IllegalStateException("The command line is no longer available"); //$NON-NLS-1$
+			}
+
+			return Collections.unmodifiableList(command);
+		}
+
+		/**
+		 * Clears the command line, once the process is launched.
+		 */
+		public void clearCommand()
+		{
+			command = null;
+			masks = null;
+		}
+
+		/**
+		 * Returns if an argument of the command line is secret and must not be shown or written to disk.
+		 * 
+		 * @param index
+		 * 			The index of the argument in the command line.
+		 * 
+		 * @return	<code>true</code> if the argument is secret, otherwise <code>false</code>.
+		 * 
+		 * @throws IllegalStateException
+		 * 			If the command line was cleared or the run was read back from disk.
+		 */
+		public boolean isMasked(int index)
+		{
+			if (masks == null)
+			{
+				throw new IllegalStateException("The command line is no longer available"); //$NON-NLS-1$
+			}
+
+			return masks[index];
+		}
+
+		/**
+		 * Returns the id of the step that started the run.
+		 * 
+		 * @return	The step id.
+		 */
+		public int getStepId()
+		{
+			return stepId;
+		}
+	}
+
+	/**
+	 * Prepares a single CLI run of the configured test folder for a process that is started, and waited for, by the caller
+	 * instead of this runner. The program index, result cache and failure history need a run per test file and are not
+	 * used.
+	 * 
+	 * @param build
+	 *			  The current running Jenkins build
+	 * @param launcher
+	 *            The machine that the files will be checked out.
+	 * @param workspaceFilePath
+	 *            a directory to check out the source code.
+	 * @param listener
+	 *            Build listener
+	 * 
+	 * @return	The run to start, or <code>null</code> if the agent could not be reached.
+	 * 
+	 * @throws IOException
+	 * 			If an error occurred preparing the run.
+	 * @throws InterruptedException
+	 * 			If preparing the run was interrupted.
+	 */
+	public DurableRun startDurableRun(final Run<?, ?> build, final Launcher launcher, final FilePath workspaceFilePath,
+			final TaskListener listener) throws IOException, InterruptedException
+	{
+		if (!initialize(build, launcher, workspaceFilePath, listener))
+		{
+			return null;
+		}
+
+		String osScriptFile = launcher.isUnix() ? TOTAL_TEST_CLI_SH : TOTAL_TEST_CLI_BAT;
+		FilePath cliScriptPath = resolveCLI(launcher, osScriptFile);
+		if (tttBuilder.getUseProgramIndex() || tttBuilder.getUseResultCache())
+		{
+			listener.getLogger().println("The program index and the result cache are not used by a durable run."); //$NON-NLS-1$
+		}
+
+		writeChangedPrograms();
+		ArgumentListBuilder args = buildArguments(launcher, cliScriptPath, tttBuilder.getFolderPath(), true);
+
+		return new DurableRun(args, tttBuilder.getFolderPath(), osScriptFile, getStepId(), buildReportFolder, reportRunFolder);
+	}
+
+	/**
+	 * Analyses the result of a run started with {@link #startDurableRun(Run, Launcher, FilePath, TaskListener)} once its
+	 * process ended. This runner does not need to be the one that started the run.
+	 * 
+	 * @param build
+	 *			  The current running Jenkins build
+	 * @param launcher
+	 *            The machine that the files will be checked out.
+	 * @param workspaceFilePath
+	 *            a directory to check out the source code.
+	 * @param listener
+	 *            Build listener
+	 * @param durableRun
+	 *            The run.
+	 * @param exitValue
+	 *            The exit value of the CLI.
+	 * 
+	 * @return <code>boolean</code> if the run was successful
+	 * 
+	 * @throws IOException
+	 * 			If an error occurred analysing the result.
+	 * @throws InterruptedException
+	 * 			If analysing the result was interrupted.
+	 */
+	public boolean finishDurableRun(final Run<?, ?> build, final Launcher launcher, final FilePath workspaceFilePath,
+			final TaskListener listener, final DurableRun durableRun, final int exitValue) throws IOException, InterruptedException
+	{
+		if (!initialize(build, launcher, workspaceFilePath, listener))
+		{
+			return false;
+		}
+
+		stepId = durableRun.stepId;
+		buildReportFolder = durableRun.buildReportFolder != null ? new FilePath(launcher.getChannel(), durableRun.buildReportFolder)
+				: null;
+		reportRunFolder = durableRun.reportRunFolder != null ? new FilePath(launcher.getChannel(), durableRun.reportRunFolder)
+				: null;
+
+		return checkRun(launcher, durableRun.folderPath, durableRun.osScriptFile, exitValue);
+	}
+
+	/**
+	 * Returns the id of the step, unique within the build.
+	 * 
+	 * @return	The step id.
+	 */
+	private int getStepId()
+	{
+		return lease != null ? lease.getStepId() : stepId;
+	}
+
+	/**
+	 * Runs the CLI for a single test file and adds the outcome to the failure history of the job.
+	 * 
+	 * @param launcher
+	 *            The machine that the files will be checked out.
+	 * @param env
+	 *            The environment of the build.
+	 * @param cliScriptPath
+	 *            The CLI script to run.
+	 * @param osScriptFile
+	 *            The name of the CLI script.
+	 * @param testFile
+	 *            The test file to run.
+	 * @param selectPrograms
+	 *            <code>true</code> if the CLI selects the tests of the selected programs itself, otherwise <code>false</code>.
+	 * @param history
+	 *            The failure history of the job.
+	 * 
+	 * @return <code>boolean</code> if the run was successful
+	 * 
+	 * @throws IOException
+	 * 			If an error occurred execute Total Test run.
+	 * @throws InterruptedException
+	 * 			If the Total Test run was interrupted.
+	 */
+	private boolean runTestFile(final Launcher launcher, final EnvVars env, final FilePath cliScriptPath, final String osScriptFile,
+			final String testFile, final boolean selectPrograms, final TotalTestFailureHistory history) throws IOException, InterruptedException
+	{
+		long startTime = System.currentTimeMillis();
+		boolean success = runCLI(launcher, env, cliScriptPath, osScriptFile, testFile, selectPrograms);
+		boolean failed = tttBuilder.getCreateResult() ? !lastRunPassed : !success;
+		history.record(testFile, workspaceFilePath.getRemote(), failed, System.currentTimeMillis() - startTime);
+
+		return success;
+	}
+
+	/**
+	 * Runs the CLI once for each test file that did not pass with the same key before. When the
+	 * {@link TotalTestResultCache#FORCE_RUN_VARIABLE} build variable is set and no test files were selected, the test
+	 * folder is run once instead, as without the cache.
+	 * 
+	 * @param launcher
+	 *            The machine that the files will be checked out.
+	 * @param env
+	 *            The environment of the build.
+	 * @param cliScriptPath
+	 *            The CLI script to run.
+	 * @param osScriptFile
+	 *            The name of the CLI script.
+	 * @param testFiles
+	 *            The test files selected with the program index, or <code>null</code> to use all test files of the test folder.
+	 * 
+	 * @return <code>boolean</code> if the run was successful
+	 * 
+	 * @throws IOException
+	 * 			If an error occurred execute Total Test run.
+	 * @throws InterruptedException
+	 * 			If the Total Test run was interrupted.
+	 */
+	private boolean runWithResultCache(final Launcher launcher, final EnvVars env, final FilePath cliScriptPath, final String osScriptFile,
+			final List<String> testFiles) throws IOException, InterruptedException
+	{
+		if (testFiles == null && Boolean.parseBoolean(env.get(TotalTestResultCache.FORCE_RUN_VARIABLE)))
+		{
+			listener.getLogger().println(TotalTestResultCache.FORCE_RUN_VARIABLE + " is set, so the test folder is run without the result cache."); //$NON-NLS-1$
+			return runCLI(launcher, env, cliScriptPath, osScriptFile, tttBuilder.getFolderPath(), true);
+		}
+
+		FilePath testFolder = workspaceFilePath.child(getTestFolderPath());
+		// Folders written by the CLI and the plugin change with every build and are not part of a project.
+		Set<String> excludedFolders = new TreeSet<>(Arrays.asList(FOLDER_OUTPUT, TOPAZ_CLI_WORKSPACE, JUNIT_FOLDER, SONAR_FOLDER,
+				DescriptorImpl.defaultReportFolder));
+		if (!Strings.isNullOrEmpty(tttBuilder.getReportFolder()))
+		{
+			excludedFolders.add(tttBuilder.getReportFolder().trim());
+		}
+
+		String sourceFolder = Strings.isNullOrEmpty(tttBuilder.getSourceFolder())
+				? TotalTestCTBuilder.DescriptorImpl.defaultSourceFolder : tttBuilder.getSourceFolder().trim();
+		FilePath sourcePath = workspaceFilePath.child(sourceFolder);
+		Map<String, String> keys = Collections.emptyMap();
+		if (testFolder.exists())
+		{
+			keys = testFolder.act(new TotalTestResultCache.ComputeKeys(testFiles, getTestFileExtensions(), tttBuilder.getRecursive(),
+					excludedFolders, sourcePath.getRemote(), getResultCacheSettings()));
+		}
+
+		if (keys.isEmpty())
+		{
+			listener.getLogger().println("The result cache is not used, no test files were found in " + testFolder.getRemote() //$NON-NLS-1$
+					+ " or no sources in " + sourcePath.getRemote()); //$NON-NLS-1$
+			return runCLI(launcher, env, cliScriptPath, osScriptFile, tttBuilder.getFolderPath(), true);
+		}
+
+		if (!tttBuilder.getCreateResult())
+		{
+			listener.getLogger().println("Results are only cached when a result file is created."); //$NON-NLS-1$
+		}
+
+		boolean forceRun = Boolean.parseBoolean(env.get(TotalTestResultCache.FORCE_RUN_VARIABLE));
+		if (forceRun)
+		{
+			listener.getLogger().println(TotalTestResultCache.FORCE_RUN_VARIABLE + " is set, so all tests are run."); //$NON-NLS-1$
+		}
+		else if (testFiles != null)
+		{
+			// The selected tests cover changed programs, which the cache key cannot see.
+			listener.getLogger().println("The tests of the selected programs are always run."); //$NON-NLS-1$
+			forceRun = true;
+		}
+
+		boolean success = true;
+		TotalTestResultCache cache = TotalTestResultCache.get();
+		TotalTestFailureHistory history = TotalTestFailureHistory.load(build.getParent());
+		try
+		{
+			for (String testFile : history.order(new ArrayList<>(keys.keySet()), workspaceFilePath.getRemote()))
+			{
+				String key = keys.get(testFile);
+				String passingBuild = cache.getPassingBuild(key);
+				if (!forceRun && passingBuild != null)
+				{
+					listener.getLogger().println("Skipping " + testFile + ", it passed in " + passingBuild //$NON-NLS-1$ //$NON-NLS-2$
+							+ " with the same test assets and settings."); //$NON-NLS-1$
+					continue;
+				}
+
+				if (!runTestFile(launcher, env, cliScriptPath, osScriptFile, testFile, testFiles == null, history))
+				{
+					success = false;
+					if (haltAtFailure())
+					{
+						break;
+					}
+				}
+				else if (lastRunPassed)
+				{
+					cache.recordPass(key, build.getExternalizableId());
+				}
+			}
+		}
+		finally
+		{
+			history.save();
+		}
+
+		return success;
+	}
+
+	/**
+	 * Returns if the CLI is at least of a release. The CLI version is read once per step, not once per run.
+	 * 
+	 * @param launcher
+	 *            The machine that the files will be checked out.
+	 * @param versionNumber
+	 *            The minimum CLI release.
+	 * 
+	 * @return	<code>true</code> if the CLI is at least of the release, otherwise <code>false</code>.
+	 */
+	private boolean isMinimumRelease(final Launcher launcher, final String versionNumber)
+	{
+		return minimumReleases.computeIfAbsent(versionNumber,
+				version -> TotalTestRunnerUtils.isMinimumRelease(launcher, listener, remoteFileSeparator, version));
+	}
+
+	/**
+	 * Returns the credentials with an id. Each id is looked up once per step, not once per run.
+	 * 
+	 * @param credentialsId
+	 *            The credentials id.
+	 * 
+	 * @return	The credentials, or <code>null</code> if there are none with the id.
+	 */
+	private StandardUsernamePasswordCredentials getCredentials(final String credentialsId)
+	{
+		return credentials.computeIfAbsent(credentialsId, id -> TotalTestRunnerUtils.getLoginInformation(build.getParent(), id));
+	}
+
+	/**
+	 * Returns the settings of the step a test result depends on, as part of the result cache key.
+	 * 
+	 * @return	<code>String</code> the settings.
+	 */
+	private String getResultCacheSettings()
+	{
+		return String.join("\n", String.valueOf(tttBuilder.getEnvironmentId()), String.valueOf(tttBuilder.getConnectionId()), //$NON-NLS-1$
+				String.valueOf(tttBuilder.getServerUrl()), String.valueOf(tttBuilder.getJclPath()),
+				String.valueOf(tttBuilder.getContextVariables()), String.valueOf(tttBuilder.getUseScenarios()),
+				String.valueOf(tttBuilder.getCcThreshold()));
+	}
+
+	/**
+	 * Returns the configured test folder.
+	 * 
+	 * @return	<code>String</code> the test folder, <code>.</code> if none is configured.
+	 */
+	private String getTestFolderPath()
+	{
+		String folder = tttBuilder.getFolderPath();
+		return Strings.isNullOrEmpty(folder) || folder.trim().isEmpty() ? "." : folder.trim(); //$NON-NLS-1$
+	}
+
+	/**
+	 * Returns the extensions of the test files the CLI runs.
+	 * 
+	 * @return	The extensions, without the dot.
+	 */
+	private Set<String> getTestFileExtensions()
+	{
+		Set<String> extensions = new TreeSet<>(Arrays.asList(FILE_EXT_XASUITE));
+		if (tttBuilder.getUseScenarios())
+		{
+			extensions.addAll(Arrays.asList(FILE_EXT_XAUNIT, FILE_EXT_XAUNIT_OLD));
+		}
+		else
+		{
+			extensions.addAll(Arrays.asList(FILE_EXT_CONTEXT, FILE_EXT_CONTEXT_OLD));
+		}
+
+		return extensions;
+	}
+
+	/**
+	 * Runs the Total Test Functional Test CLI for a test folder or file and checks its result.
+	 * 
+	 * @param launcher
+	 *            The machine that the files will be checked out.
+	 * @param env
+	 *            The environment of the build.
+	 * @param cliScriptPath
+	 *            The CLI script to run.
+	 * @param osScriptFile
+	 *            The name of the CLI script.
+	 * @param folderPath
+	 *            The test folder or file to run.
+	 * @param selectPrograms
+	 *            <code>true</code> if the CLI selects the tests of the selected programs itself, otherwise <code>false</code>.
+	 * 
+	 * @return <code>boolean</code> if the run was successful
+	 * 
+	 * @throws IOException
+	 * 			If an error occurred execute Total Test run.
+	 * @throws InterruptedException
+	 * 			If the Total Test run was interrupted.
+	 */
+	private boolean runCLI(final Launcher launcher, final EnvVars env, final FilePath cliScriptPath, final String osScriptFile,
+			final String folderPath, final boolean selectPrograms) throws IOException, InterruptedException
+	{
+		ArgumentListBuilder args = buildArguments(launcher, cliScriptPath, folderPath, selectPrograms);
+		FilePath workDir = new FilePath(launcher.getChannel(), workspaceFilePath.getRemote());
+
+		TotalTestEvents.CliLaunch launchEvent = new TotalTestEvents.CliLaunch();
+		launchEvent.begin();
+		timings.start(TotalTestPhaseTimings.PROCESS_LAUNCH);
+		Proc proc = launcher.launch().cmds(args).envs(env).stdout(timings.firstOutputStream(listener.getLogger())).pwd(workDir).start();
+		timings.stop(TotalTestPhaseTimings.PROCESS_LAUNCH);
+		timings.start(TotalTestPhaseTimings.PROCESS_EXIT);
+		int exitValue = proc.join();
+		timings.stop(TotalTestPhaseTimings.PROCESS_EXIT);
+		launchEvent.buildId = build.getExternalizableId();
+		launchEvent.script = osScriptFile;
+		launchEvent.exitCode = exitValue;
+		launchEvent.commit();
+
+		return checkRun(launcher, folderPath, osScriptFile, exitValue);
+	}
+
+	/**
+	 * Builds the command line of a CLI run and creates the folders it writes to.
+	 * 
+	 * @param launcher
+	 *            The machine that the files will be checked out.
+	 * @param cliScriptPath
+	 *            The CLI script to run.
+	 * @param folderPath
+	 *            The test folder or file to run.
+	 * @param selectPrograms
+	 *            <code>true</code> if the CLI selects the tests of the selected programs itself, otherwise <code>false</code>.
+	 * 
+	 * @return	The command line.
+	 * 
+	 * @throws IOException
+	 * 			If an argument could not be determined.
+	 * @throws InterruptedException
+	 * 			If building the command line was interrupted.
+	 */
+	private ArgumentListBuilder buildArguments(final Launcher launcher, final FilePath cliScriptPath, final String folderPath,
+			final boolean selectPrograms) throws IOException, InterruptedException
+	{
+		ArgumentListBuilder args = new ArgumentListBuilder();
+		if (buildReportFolder != null)
+		{
+			// every run of the build gets its own folder, so a result is never read from an earlier run
+			reportRunFolder = buildReportFolder.child(Integer.toString(++reportRunCount));
+		}
+		args.add(cliScriptPath.getRemote());
+		
+		String topazCliWorkspace = workspaceFilePath.getRemote() + remoteFileSeparator
+				+ (lease != null ? lease.getFolderName(TOPAZ_CLI_WORKSPACE) : TOPAZ_CLI_WORKSPACE);
+		args.add(DATA, TotalTestRunnerUtils.escapeForScript(topazCliWorkspace));
+		
+		timings.start(TotalTestPhaseTimings.ARGUMENT_BUILD);
+		addArguments(args, launcher, listener, remoteFileSeparator, folderPath, selectPrograms);
+		timings.stop(TotalTestPhaseTimings.ARGUMENT_BUILD);
+
+		FilePath workDir = new FilePath(launcher.getChannel(), workspaceFilePath.getRemote());
+		workDir.mkdirs();
+
+		listener.getLogger().println("----------------------------------"); //$NON-NLS-1$
+		listener.getLogger().println("Now executing Total Test Testing CLI and printing out the execution log..."); //$NON-NLS-1$
+		listener.getLogger().println("----------------------------------\n\n"); //$NON-NLS-1$
+
+		return args;
+	}
+
+	/**
+	 * Builds the CLI arguments of a run of the configured test folder for a given CLI version and credentials, which a step
+	 * reads from the agent and the job. This lets the arguments be built without a build or an agent, as the benchmarks do.
+	 * 
+	 * @param workspace
+	 *            The workspace of the run.
+	 * @param fileSeparator
+	 *            The file separator of the agent.
+	 * @param taskListener
+	 *            The listener the arguments are logged to.
+	 * @param cliVersion
+	 *            The CLI version.
+	 * @param hostCredentials
+	 *            The credentials of the host and, if the step has any, of the repository server.
+	 * 
+	 * @return	The arguments, without the CLI script and workspace.
+	 * 
+	 * @throws IOException
+	 * 			If an argument could not be determined.
+	 * @throws InterruptedException
+	 * 			If building the arguments was interrupted.
+	 */
+	ArgumentListBuilder buildArguments(final FilePath workspace, final String fileSeparator, final TaskListener taskListener,
+			final String cliVersion, final StandardUsernamePasswordCredentials hostCredentials) throws IOException, InterruptedException
+	{
+		workspaceFilePath = workspace;
+		remoteFileSeparator = fileSeparator;
+		listener = taskListener;
+		for (String version : new String[] { TotalTestRunnerUtils.TTT_CLI_200501, TotalTestRunnerUtils.TTT_CLI_200401,
+				TotalTestRunnerUtils.TTT_OUTPUTFOLDER_CLI_VERSION, TotalTestRunnerUtils.TTT_NEW_EXTENSIONS_CLI_VERSION })
+		{
+			minimumReleases.put(version, TotalTestRunnerUtils.isMinimumRelease(cliVersion, version));
+		}
+		credentials.put(tttBuilder.getCredentialsId(), hostCredentials);
+		if (!Strings.isNullOrEmpty(tttBuilder.getServerCredentialsId()))
+		{
+			credentials.put(tttBuilder.getServerCredentialsId(), hostCredentials);
+		}
+
+		ArgumentListBuilder args = new ArgumentListBuilder();
+		addArguments(args, null, taskListener, fileSeparator, tttBuilder.getFolderPath(), true);
+		return args;
+	}
+
+	/**
+	 * Checks the exit value and the result of a CLI run.
+	 * 
+	 * @param launcher
+	 *            The machine that the files will be checked out.
+	 * @param folderPath
+	 *            The test folder or file that was run.
+	 * @param osScriptFile
+	 *            The name of the CLI script.
+	 * @param cliExitValue
+	 *            The exit value of the CLI.
+	 * 
+	 * @return <code>boolean</code> if the run was successful
+	 * 
+	 * @throws IOException
+	 * 			If an error occurred reading the result.
+	 * @throws InterruptedException
+	 * 			If reading the result was interrupted.
+	 */
+	private boolean checkRun(final Launcher launcher, final String folderPath, final String osScriptFile, final int cliExitValue)
+			throws IOException, InterruptedException
+	{
+		int exitValue = cliExitValue;
+		lastRunPassed = false;
+		TotalTestMetrics.get().recordExitCode(TotalTestMetrics.STEP_FUNCTIONAL, exitValue);
+		listener.getLogger().println(osScriptFile + " exited with exit value = " + exitValue); //$NON-NLS-1$
+
+		if (exitValue == 0)
+		{
+			listener.getLogger().println("\n\n----------------------------------"); //$NON-NLS-1$
+			listener.getLogger().println("Total Test Testing CLI finished executing, now analysing the result..."); //$NON-NLS-1$
+			listener.getLogger().println("----------------------------------\n\n"); //$NON-NLS-1$
+			exitValue = readTestResult(launcher, folderPath);
+
+			if (exitValue != 0)
+			{
+				testsFailed = true;
+				if (!tttBuilder.getStopIfTestFailsOrThresholdReached())
+				{
+					listener.getLogger()
+							.println("Test result failed but build continues (Stop If Test Fails Or Threshold Reached is false)"); //$NON-NLS-1$
+					exitValue = 0;
+				}
+				else if (!tttBuilder.getHaltPipelineOnFailure())
+				{
+					// TODO: Should check if this build is for a pipeline or a Free style project?
+
+					// Don't fail the build so the pipeline can continue.
+					listener.getLogger()
+							.println("Test result failed but build continues (\"" + tttBuilder.getHaltPipelineTitle() //$NON-NLS-1$
+									+ "\" is false)"); //$NON-NLS-1$
+					exitValue = 0;
+				}
+			}
+		}
+		else
+		{
+			testsFailed = true;
+			listener.getLogger().println(
+					"Something went wrong when executing the Total Test Testing CLI, and therefore there is no test results to analyze"); //$NON-NLS-1$
+		}
+
+		return exitValue == 0;
+	}
+
+	/**
+	 * Converts a result file into a JUnit XML file in the TTTUnit folder of the workspace, on the agent. The file name
+	 * holds the step id and a run count, so runs and steps running at the same time never overwrite each other's file.
+	 * The files an earlier build wrote for the same step id are deleted before the first file is written.
+	 * <p>
+	 * A failure is logged and does not fail the step.
+	 * 
+	 * @param resultPath
+	 * 			The result file.
+	 * 
+	 * @throws InterruptedException
+	 * 			If the conversion was interrupted.
+	 */
+	private void writeJUnit(final FilePath resultPath) throws InterruptedException
+	{
+		timings.start(TotalTestPhaseTimings.JUNIT_WRITE);
+		try
+		{
+			FilePath junitFolder = workspaceFilePath.child(JUNIT_FOLDER);
+			if (junitCount == 0)
+			{
+				junitFolder.act(new TotalTestRunnerUtils.DeleteFilesByPrefix("TEST-" + getStepId() + "-")); //$NON-NLS-1$ //$NON-NLS-2$
+			}
+			FilePath junitFile = junitFolder.child("TEST-" + getStepId() //$NON-NLS-1$
+					+ "-" + (++junitCount) + "-" + resultPath.getName() + ".xml"); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+			TotalTestJUnitWriter.Counts counts = resultPath.act(new TotalTestJUnitWriter.Transform(junitFile.getRemote()));
+			listener.getLogger().println("Wrote JUnit file " + junitFile.getRemote() + ": " + counts); //$NON-NLS-1$ //$NON-NLS-2$
+		}
+		catch (IOException e)
+		{
+			listener.getLogger().println("Unable to write the JUnit file: " + e.getMessage()); //$NON-NLS-1$
+		}
+		finally
+		{
+			timings.stop(TotalTestPhaseTimings.JUNIT_WRITE);
+		}
+	}
+
+	/**
+	 * Starts converting a result file into a SonarQube generic test execution file, on the machine that owns the result
+	 * file, while the result is read and the other reports are written. The file is written to the TTTSonar folder of the
+	 * workspace, named like the JUnit files, and the files an earlier build wrote for the same step id are deleted first.
+	 * <p>
+	 * The test cases are reported under the tested scenario or suite file when a single file was run, otherwise under the
+	 * result file.
+	 * 
+	 * @param resultPath
+	 * 			The result file.
+	 * @param testPath
+	 * 			The file or folder that was run.
+	 * 
+	 * @return	The running conversion, or <code>null</code> if it could not be started.
+	 * 
+	 * @throws InterruptedException
+	 * 			If starting the conversion was interrupted.
+	 */
+	private Future<Integer> startSonarWrite(final FilePath resultPath, final FilePath testPath) throws InterruptedException
+	{
+		timings.start(TotalTestPhaseTimings.SONAR_WRITE);
+		try
+		{
+			FilePath sonarFolder = workspaceFilePath.child(SONAR_FOLDER);
+			if (sonarCount == 0)
+			{
+				sonarFolder.act(new TotalTestRunnerUtils.DeleteFilesByPrefix("TEST-" + getStepId() + "-")); //$NON-NLS-1$ //$NON-NLS-2$
+			}
+			FilePath sonarFile = sonarFolder.child("TEST-" + getStepId() //$NON-NLS-1$
+					+ "-" + (++sonarCount) + "-" + resultPath.getName() + ".xml"); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+			FilePath testedFile = testPath.exists() && !testPath.isDirectory() ? testPath : resultPath;
+			String testFilePath = testedFile.getRemote();
+			String workspacePath = workspaceFilePath.getRemote();
+			if (testFilePath.startsWith(workspacePath) && testFilePath.length() > workspacePath.length())
+			{
+				testFilePath = testFilePath.substring(workspacePath.length() + 1);
+			}
+			listener.getLogger().println("Writing SonarQube file " + sonarFile.getRemote()); //$NON-NLS-1$
+
+			return resultPath.actAsync(new TotalTestSonarWriter.Transform(sonarFile.getRemote(), testFilePath.replace('\\', '/')));
+		}
+		catch (IOException e)
+		{
+			listener.getLogger().println("Unable to write the SonarQube file: " + e.getMessage()); //$NON-NLS-1$
+			timings.stop(TotalTestPhaseTimings.SONAR_WRITE);
+
+			return null;
+		}
+	}
+
+	/**
+	 * Waits for a SonarQube conversion started by {@link #startSonarWrite(FilePath, FilePath)} to end. A failure is logged
+	 * and does not fail the step.
+	 * 
+	 * @param sonarWrite
+	 * 			The running conversion.
+	 * 
+	 * @throws InterruptedException
+	 * 			If the wait was interrupted.
+	 */
+	private void awaitSonarWrite(final Future<Integer> sonarWrite) throws InterruptedException
+	{
+		try
+		{
+			listener.getLogger().println("Wrote SonarQube file: " + sonarWrite.get() + " tests"); //$NON-NLS-1$ //$NON-NLS-2$
+		}
+		catch (ExecutionException e)
+		{
+			listener.getLogger().println("Unable to write the SonarQube file: " + e.getCause().getMessage()); //$NON-NLS-1$
+		}
+		finally
+		{
+			timings.stop(TotalTestPhaseTimings.SONAR_WRITE);
+		}
+	}
+
+	/**
+	 * Returns the URL of the Total Test repository server.
+	 * 
+	 * @return	The repository URL, ending in a slash.
+	 */
+	private String getRepositoryUrl()
+	{
+		String tttServerUrl = tttBuilder.getServerUrl();
+
+		if (!tttServerUrl.endsWith("/")) //$NON-NLS-1$
+		{
+			tttServerUrl += "/"; //$NON-NLS-1$
+		}
+
+		return tttServerUrl + TOTAL_TEST_WEBAPP + "/"; //$NON-NLS-1$
+	}
+
+	/**
+	 * Returns if the CLI runs without rendering HTML reports, which are rendered from the result files when opened from the
+	 * build page instead. This needs the result files, so it requires the Result option.
+	 * 
+	 * @return	<code>true</code> if the reports are rendered on demand, otherwise <code>false</code>.
+	 */
+	public boolean rendersReportOnDemand()
+	{
+		return tttBuilder.getRenderReportOnDemand() && tttBuilder.getCreateResult();
+	}
+
+	/**
+	 * Returns the result files of the runs of this step, kept to render their reports on demand.
+	 * 
+	 * @return	The result files, empty if the reports are not rendered on demand.
+	 */
+	public List<FilePath> getResultFiles()
+	{
+		return Collections.unmodifiableList(resultFiles);
+	}
+
+	/**
+	 * Returns if the tests of all runs of this step passed, as read from their results. Unlike the outcome of the step,
+	 * this does not depend on whether a failure stops the build.
+	 * 
+	 * @return	<code>true</code> if every CLI run ended normally and its results passed, otherwise <code>false</code>.
+	 */
+	public boolean testsPassed()
+	{
+		return !testsFailed;
 	}
 
 	/**
-	 * Runs the Total Test Functional Test CLI
+	 * Returns the outcome of the runs of this step read so far.
 	 * 
-	 * @param build
-	 *			  The current running Jenkins build
-	 * @param launcher
-	 *            The machine that the files will be checked out.
-	 * @param workspaceFilePath
-	 *            a directory to check out the source code.
-	 * @param listener
-	 *            Build listener
-	 *            
-	 * @return <code>boolean</code> if the build was successful
+	 * @return	The summary.
+	 */
+	public TotalTestSummary getSummary()
+	{
+		return summary;
+	}
+
+	/**
+	 * Returns the Ant patterns, relative to the workspace, of the report files of this step.
+	 * <p>
+	 * With a report folder per build the folder of this step is included, otherwise the result files this step read, as the
+	 * report and Output folders also hold the results of earlier builds. The JUnit and SonarQube files written by the
+	 * plugin are included for this step only, the folders the CLI copies its files to as a whole. Files outside the
+	 * workspace are not included.
+	 * 
+	 * @return	The comma separated patterns.
+	 */
+	public String getReportIncludes()
+	{
+		String reportFolder = Strings.isNullOrEmpty(tttBuilder.getReportFolder()) ? DescriptorImpl.defaultReportFolder
+				: tttBuilder.getReportFolder().trim().replace('\\', '/');
+		boolean isAbsolute = reportFolder.startsWith("/") || reportFolder.matches("[A-Za-z]:.*"); //$NON-NLS-1$ //$NON-NLS-2$
+		String stepFiles = "/TEST-" + getStepId() + "-*"; //$NON-NLS-1$ //$NON-NLS-2$
+
+		List<String> includes = new ArrayList<>();
+		includes.add(JUNIT_FOLDER + (tttBuilder.getGenerateJUnit() ? stepFiles : "/**")); //$NON-NLS-1$
+		includes.add(SONAR_FOLDER + (tttBuilder.getGenerateSonar() ? stepFiles : "/**")); //$NON-NLS-1$
+		if (buildReportFolder != null)
+		{
+			if (!isAbsolute)
+			{
+				includes.add(reportFolder + '/' + build.getNumber() + '/' + getStepId() + "/**"); //$NON-NLS-1$
+			}
+		}
+		else
+		{
+			String workspacePath = workspaceFilePath.getRemote();
+			for (String resultFile : foundResultFiles)
+			{
+				if (resultFile.startsWith(workspacePath) && resultFile.length() > workspacePath.length())
+				{
+					includes.add(resultFile.substring(workspacePath.length() + 1).replace('\\', '/'));
+				}
+			}
+		}
+
+		return String.join(",", includes); //$NON-NLS-1$
+	}
+
+	/**
+	 * Creates the report folder of this step in the folder of this build, named after the build number, below the report
+	 * folder and starts deleting the folders of older builds in the background, keeping the configured number of builds.
 	 * 
 	 * @throws IOException
-	 * 			If an error occurred execute Total Test run.
+	 * 			If the report folder could not be created.
 	 * @throws InterruptedException
-	 * 			If the Total Test run was interrupted.
+	 * 			If creating the report folder was interrupted.
 	 */
-	public boolean run(final Run<?, ?> build, final Launcher launcher, final FilePath workspaceFilePath,
-			final TaskListener listener) throws IOException, InterruptedException
+	private void startBuildReportFolder() throws IOException, InterruptedException
 	{
-		// initialization
-		ArgumentListBuilder args = new ArgumentListBuilder();
-		EnvVars env = build.getEnvironment(listener);
-		VirtualChannel vChannel = launcher.getChannel();
-		if (vChannel == null)
+		String reportFolder = Strings.isNullOrEmpty(tttBuilder.getReportFolder()) ? DescriptorImpl.defaultReportFolder
+				: tttBuilder.getReportFolder().trim();
+		FilePath reportRoot = workspaceFilePath.child(reportFolder);
+		buildReportFolder = reportRoot.child(Integer.toString(build.getNumber()))
+				.child(Integer.toString(getStepId()));
+		if (buildReportFolder.exists())
 		{
-			listener.getLogger().println("Error: No channel could be retrieved"); //$NON-NLS-1$
-			return false;
+			buildReportFolder.deleteRecursive();
 		}
-		this.listener = listener;
-		this.workspaceFilePath = workspaceFilePath;
-		this.build = build;
-		Properties remoteProperties = vChannel.call(new RemoteSystemProperties());
-		remoteFileSeparator = remoteProperties.getProperty("file.separator"); //$NON-NLS-1$
-
-		boolean isLinux = launcher.isUnix();
-		String osScriptFile = isLinux ? TOTAL_TEST_CLI_SH : TOTAL_TEST_CLI_BAT;
+		buildReportFolder.mkdirs();
+		listener.getLogger().println("Report folder of this step: " + buildReportFolder.getRemote()); //$NON-NLS-1$
 
-		TotalTestRunnerUtils.logJenkinsAndPluginVersion(listener);
+		// Pruning is not waited for, old reports are removed while the tests run.
+		buildFolderPruning = reportRoot.actAsync(new TotalTestRunnerUtils.PruneBuildFolders(tttBuilder.getReportRetention(),
+				build.getNumber()));
+	}
 
-		FilePath cliScriptPath = TotalTestRunnerUtils.getCLIScriptPath(launcher, listener, remoteFileSeparator, osScriptFile);
-		args.add(cliScriptPath.getRemote());
-		
-		String topazCliWorkspace = workspaceFilePath.getRemote() + remoteFileSeparator + TOPAZ_CLI_WORKSPACE;
-		args.add(DATA, TotalTestRunnerUtils.escapeForScript(topazCliWorkspace));
-		
-		addArguments(args, launcher, listener, remoteFileSeparator);
+	/**
+	 * Waits for the report folders of older builds to be deleted, when the step started deleting them, and logs the
+	 * outcome. A failure is logged and does not fail the step.
+	 */
+	public void awaitBuildFolderPruning()
+	{
+		Future<Integer> pruning = buildFolderPruning;
+		if (pruning == null)
+		{
+			return;
+		}
 
-		FilePath workDir = new FilePath (vChannel, workspaceFilePath.getRemote());
-		workDir.mkdirs();
+		buildFolderPruning = null;
+		try
+		{
+			int deleted = pruning.get();
+			if (deleted > 0)
+			{
+				listener.getLogger().println("Deleted the report folders of " + deleted + " older builds."); //$NON-NLS-1$ //$NON-NLS-2$
+			}
+		}
+		catch (ExecutionException e)
+		{
+			listener.getLogger().println("Unable to delete the report folders of older builds: " + e.getCause().getMessage()); //$NON-NLS-1$
+		}
+		catch (InterruptedException e)
+		{
+			listener.getLogger().println("Deleting the report folders of older builds interrupted"); //$NON-NLS-1$
+			Thread.currentThread().interrupt();
+		}
+	}
 
-		listener.getLogger().println("----------------------------------"); //$NON-NLS-1$
-		listener.getLogger().println("Now executing Total Test Testing CLI and printing out the execution log..."); //$NON-NLS-1$
-		listener.getLogger().println("----------------------------------\n\n"); //$NON-NLS-1$
+	/**
+	 * Writes the JSON file of selected programs from the SCM changes of the build, when programs are selected with a
+	 * JSON file that does not exist yet or that was written by an earlier build.
+	 * <p>
+	 * Every changed file with a COBOL extension in the source folder is a changed program, named after the file. The
+	 * digest of a written file is kept in the .totaltest folder of the workspace, so a file that still has that digest is
+	 * replaced by the next build, while a file written by the job itself is left alone. A written file is deleted when
+	 * the build has no changes, so the programs of an earlier build are never selected again.
+	 * 
+	 * @throws IOException
+	 * 			If the JSON file could not be written.
+	 * @throws InterruptedException
+	 * 			If writing the JSON file was interrupted.
+	 */
+	private void writeChangedPrograms() throws IOException, InterruptedException
+	{
+		if (!tttBuilder.getSelectProgramsOption() || !tttBuilder.isSelectProgramsJSON() || !(build instanceof RunWithSCM))
+		{
+			return;
+		}
 
-		int exitValue = launcher.launch().cmds(args).envs(env).stdout(listener.getLogger()).pwd(workDir).join();
-		listener.getLogger().println(osScriptFile + " exited with exit value = " + exitValue); //$NON-NLS-1$
+		String selectProgramsText = tttBuilder.getselectProgramsRadioText();
+		FilePath jsonFile = workspaceFilePath.child(Strings.isNullOrEmpty(selectProgramsText)
+				? TotalTestCTBuilder.DescriptorImpl.defaultJsonFile : selectProgramsText);
+		FilePath markerFile = workspaceFilePath.child(PLUGIN_FOLDER).child(CHANGED_PROGRAMS_MARKER);
+		if (jsonFile.exists() && !(markerFile.exists() && markerFile.readToString().trim().equals(jsonFile.digest())))
+		{
+			return;
+		}
 
-		if (exitValue == 0)
+		List<ChangeLogSet<? extends ChangeLogSet.Entry>> changeSets = ((RunWithSCM<?, ?>) build).getChangeSets();
+		if (changeSets.isEmpty())
 		{
-			listener.getLogger().println("\n\n----------------------------------"); //$NON-NLS-1$
-			listener.getLogger().println("Total Test Testing CLI finished executing, now analysing the result..."); //$NON-NLS-1$
-			listener.getLogger().println("----------------------------------\n\n"); //$NON-NLS-1$
-			exitValue = readTestResult(launcher);
+			if (jsonFile.delete())
+			{
+				listener.getLogger().println("The build has no changes, deleted " + jsonFile.getRemote() //$NON-NLS-1$
+						+ " written by an earlier build."); //$NON-NLS-1$
+			}
+			markerFile.delete();
+			return;
+		}
 
-			if (exitValue != 0)
+		String sourceFolder = Strings.isNullOrEmpty(tttBuilder.getSourceFolder()) ? TotalTestCTBuilder.DescriptorImpl.defaultSourceFolder
+				: tttBuilder.getSourceFolder().trim().replace('\\', '/');
+		Set<String> programs = new TreeSet<>();
+		for (ChangeLogSet<? extends ChangeLogSet.Entry> changeSet : changeSets)
+		{
+			for (ChangeLogSet.Entry entry : changeSet)
 			{
-				if (!tttBuilder.getStopIfTestFailsOrThresholdReached())
+				for (String path : entry.getAffectedPaths())
 				{
-					listener.getLogger()
-							.println("Test result failed but build continues (Stop If Test Fails Or Threshold Reached is false)"); //$NON-NLS-1$
-					exitValue = 0;
+					String program = getProgramName(path, sourceFolder);
+					if (program != null)
+					{
+						programs.add(program);
+					}
 				}
-				else if (!tttBuilder.getHaltPipelineOnFailure())
-				{
-					// TODO: Should check if this build is for a pipeline or a Free style project?
+			}
+		}
 
-					// Don't fail the build so the pipeline can continue.
-					listener.getLogger()
-							.println("Test result failed but build continues (\"" + tttBuilder.getHaltPipelineTitle() //$NON-NLS-1$
-									+ "\" is false)"); //$NON-NLS-1$
-					exitValue = 0;
+		JSONArray programArray = new JSONArray();
+		for (String program : programs)
+		{
+			programArray.add(new JSONObject().element(PROGRAM_NAME, program));
+		}
+		jsonFile.write(new JSONObject().element(PROGRAMS, programArray).toString(), StandardCharsets.UTF_8.name());
+		markerFile.write(jsonFile.digest(), StandardCharsets.UTF_8.name());
+		listener.getLogger().println("Wrote the changed programs " + programs + " to " + jsonFile.getRemote()); //$NON-NLS-1$ //$NON-NLS-2$
+	}
+
+	/**
+	 * Returns the program name of a changed file.
+	 * 
+	 * @param path
+	 * 			  The path of the changed file, relative to the repository.
+	 * @param sourceFolder
+	 * 			  The folder that contains the COBOL sources.
+	 * 
+	 * @return	The upper case program name, or <code>null</code> if the file is not a COBOL source in the source folder.
+	 */
+	private static String getProgramName(String path, String sourceFolder)
+	{
+		String normalized = '/' + path.replace('\\', '/');
+		String folder = '/' + StringUtils.strip(sourceFolder, "/") + '/'; //$NON-NLS-1$
+		int nameStart = normalized.lastIndexOf('/') + 1;
+		int extensionStart = normalized.lastIndexOf('.');
+		if (!normalized.toLowerCase(Locale.ROOT).contains(folder.toLowerCase(Locale.ROOT)) || extensionStart < nameStart
+				|| !COBOL_EXTENSIONS.contains(normalized.substring(extensionStart + 1).toLowerCase(Locale.ROOT)))
+		{
+			return null;
+		}
+
+		return normalized.substring(nameStart, extensionStart).toUpperCase(Locale.ROOT);
+	}
+
+	/**
+	 * Selects the test files to run with the program index, when the index is enabled.
+	 * 
+	 * @return	The absolute paths of the test files that reference a selected program, or <code>null</code> if the
+	 * 			configured test folder is run as it is and the CLI selects the tests itself.
+	 * 
+	 * @throws IOException
+	 * 			If the index could not be read or written.
+	 * @throws InterruptedException
+	 * 			If the selection was interrupted.
+	 */
+	private List<String> selectTestFiles() throws IOException, InterruptedException
+	{
+		if (!tttBuilder.getUseProgramIndex() || !tttBuilder.getSelectProgramsOption())
+		{
+			return null;
+		}
+
+		Set<String> programs = getSelectedPrograms();
+		FilePath testFolder = workspaceFilePath.child(getTestFolderPath());
+		if (programs == null || !testFolder.isDirectory())
+		{
+			listener.getLogger().println("The program index is not used, the Total Test CLI selects the tests."); //$NON-NLS-1$
+			return null;
+		}
+
+		TotalTestProgramIndex.Selection selection = testFolder.act(new TotalTestProgramIndex(
+				workspaceFilePath.child(TotalTestProgramIndex.INDEX_FILE).getRemote(), programs, getTestFileExtensions(), tttBuilder.getRecursive()));
+		listener.getLogger().println(String.format("Program index: %d test files, %d re-indexed, %d reference the programs %s", //$NON-NLS-1$
+				selection.getIndexedFiles(), selection.getParsedFiles(), selection.getTestFiles().size(), programs));
+
+		return selection.getTestFiles();
+	}
+
+	/**
+	 * Returns the names of the selected programs, read from the program list or the JSON file.
+	 * 
+	 * @return	The program names, or <code>null</code> if they could not be determined.
+	 * 
+	 * @throws IOException
+	 * 			If the JSON file could not be read.
+	 * @throws InterruptedException
+	 * 			If reading the JSON file was interrupted.
+	 */
+	private Set<String> getSelectedPrograms() throws IOException, InterruptedException
+	{
+		String selectProgramsText = tttBuilder.getselectProgramsRadioText();
+		Set<String> programs = new TreeSet<>();
+
+		if (tttBuilder.isSelectProgramsList())
+		{
+			if (Strings.isNullOrEmpty(selectProgramsText))
+			{
+				return null;
+			}
+
+			for (String program : selectProgramsText.replace("\"", "").split(",")) //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+			{
+				if (!program.trim().isEmpty())
+				{
+					programs.add(program.trim());
 				}
 			}
 		}
 		else
 		{
-			listener.getLogger().println(
-					"Something went wrong when executing the Total Test Testing CLI, and therefore there is no test results to analyze"); //$NON-NLS-1$
+			FilePath jsonFile = workspaceFilePath.child(Strings.isNullOrEmpty(selectProgramsText)
+					? TotalTestCTBuilder.DescriptorImpl.defaultJsonFile : selectProgramsText);
+			if (!jsonFile.exists())
+			{
+				listener.getLogger().println("JSON file " + jsonFile.getRemote() + " does not exist."); //$NON-NLS-1$ //$NON-NLS-2$
+				return null;
+			}
+
+			try
+			{
+				addProgramNames(JSONSerializer.toJSON(jsonFile.readToString()), programs);
+			}
+			catch (JSONException e)
+			{
+				listener.getLogger().println("JSON file " + jsonFile.getRemote() + " could not be read: " + e.getMessage()); //$NON-NLS-1$ //$NON-NLS-2$
+				return null;
+			}
 		}
 
-		return exitValue == 0;
+		return programs;
+	}
+
+	/**
+	 * Adds the values of all <code>programName</code> properties in a JSON document to a set.
+	 */
+	private static void addProgramNames(Object json, Set<String> programs)
+	{
+		if (json instanceof JSONObject)
+		{
+			JSONObject object = (JSONObject) json;
+			for (Object key : object.keySet())
+			{
+				Object value = object.get(key);
+				if (PROGRAM_NAME.equals(key) && value instanceof String)
+				{
+					programs.add((String) value);
+				}
+				else
+				{
+					addProgramNames(value, programs);
+				}
+			}
+		}
+		else if (json instanceof JSONArray)
+		{
+			for (Object value : (JSONArray) json)
+			{
+				addProgramNames(value, programs);
+			}
+		}
 	}
 
 	/**
@@ -189,22 +1422,25 @@ public class TotalTestCTRunner
 	 * 
 	 * @param launcher
 	 *              The machine that the files will be checked out.
+	 * @param folderPath
+	 *              The test folder or file that was run.
 	 *            
 	 * @return		<code>int</code> 0 if the readTestRestult successful, otherwise -1
 	 * 
 	 * @throws IOException
 	 * @throws InterruptedException
 	 */
-	private int readTestResult(final Launcher launcher) throws IOException, InterruptedException
+	private int readTestResult(final Launcher launcher, final String folderPath) throws IOException, InterruptedException
 	{
 		int result = 0;
+		Future<Integer> sonarWrite = null;
 		try
 		{
 			if (tttBuilder.getCreateResult())
 			{
 				VirtualChannel vChannel = launcher.getChannel();
-				FilePath testFolder = new FilePath(vChannel, tttBuilder.getFolderPath());
-				boolean usesNewExtension = TotalTestRunnerUtils.usesNewFileExtensions(launcher, listener, remoteFileSeparator);
+				FilePath testFolder = new FilePath(vChannel, folderPath);
+				boolean usesNewExtension = isMinimumRelease(launcher, TotalTestRunnerUtils.TTT_NEW_EXTENSIONS_CLI_VERSION);
 				boolean isSuite = true;
 				String resultFileName = null;
 				
@@ -240,11 +1476,14 @@ public class TotalTestCTRunner
 					resultFileName = usesNewExtension ? GENERATED_SUITE_RESULT_FILE_NAME : GENERATED_SUITE_RESULT_FILE_NAME_OLD;
 				}
 				
-				FilePath testSuiteResultPath = getOutputFilePath(launcher, listener, resultFileName);
+				timings.start(TotalTestPhaseTimings.RESULT_LOCATE);
+				FilePath testSuiteResultPath = getOutputFilePath(launcher, listener, folderPath, resultFileName);
+				timings.stop(TotalTestPhaseTimings.RESULT_LOCATE);
 				
 				if (testSuiteResultPath != null)
 				{
 					listener.getLogger().println("Found file path: " + testSuiteResultPath.getRemote()); //$NON-NLS-1$
+					foundResultFiles.add(testSuiteResultPath.getRemote());
 				}
 				else
 				{
@@ -256,29 +1495,58 @@ public class TotalTestCTRunner
 				listener.getLogger().println("TotalTest  CLI script file remote path: " + testSuiteResultPath.getRemote()); //$NON-NLS-1$
 		
 				listener.getLogger().println("Reading suite result from file: " + testSuiteResultPath.getRemote()); //$NON-NLS-1$
+
+				if (tttBuilder.getGenerateSonar())
+				{
+					sonarWrite = startSonarWrite(testSuiteResultPath, testFolder);
+				}
 			
-				String content = null;
+				timings.start(TotalTestPhaseTimings.RESULT_PARSE);
+				TotalTestEvents.ResultRead readEvent = new TotalTestEvents.ResultRead();
+				TotalTestEvents.ResultParse parseEvent = new TotalTestEvents.ResultParse();
+				readEvent.begin();
+				parseEvent.begin();
+				TotalTestResultParser.Result parsedResult = null;
 	
-				// For performance reasons we will create the content String from the testSuiteResultPath if the file is remote
-				// (running on a slave) otherwise we use the better performing Files.readAllBytes.
-				// The performance difference is approximately 2x faster with Files.readAllBytes than
-				// TotalTestRunnerUtils.GetRemoteUTF8FileContents() when running locally.
-				if (testSuiteResultPath.isRemote())
+				// The result is streamed through the parser and echoed to the log as it is read, so even a very large
+				// result file is never held in memory, neither here nor on the agent.
+				listener.getLogger().println("Result content:"); //$NON-NLS-1$
+				try (CountingInputStream in = new CountingInputStream(testSuiteResultPath.read()))
 				{
-					content = testSuiteResultPath.act(new TotalTestRunnerUtils.GetRemoteUTF8FileContents());
+					InputStream tee = new TeeInputStream(in, listener.getLogger());
+					parsedResult = TotalTestResultParser.parse(tee, isSuite ? TotalTestResultParser.SUITE_RESULT_ELEMENT
+							: TotalTestResultParser.SCENARIO_RESULT_ELEMENT);
+					IOUtils.consume(tee);
+					readEvent.size = in.getByteCount();
 				}
-				else
+				finally
 				{
-					content = new String(Files.readAllBytes(Paths.get(testSuiteResultPath.getRemote())), StandardCharsets.UTF_8);
+					listener.getLogger().println();
 				}
-		
-				listener.getLogger().println("Result content:"); //$NON-NLS-1$
-				listener.getLogger().println(content);
+				readEvent.remote = testSuiteResultPath.isRemote();
+				readEvent.buildId = build.getExternalizableId();
+				readEvent.file = testSuiteResultPath.getRemote();
+				readEvent.commit();
+				TotalTestMetrics.get().recordResultFileSize(readEvent.size);
+				parseEvent.buildId = build.getExternalizableId();
+				parseEvent.parser = "streaming"; //$NON-NLS-1$
+				parseEvent.size = readEvent.size;
+				parseEvent.commit();
 	
-				Document document = getXaScenarioSuiteResultAsDocument(content);
-				String xaScenarioSuiteResult = getXaScenarioSuiteResult(document, isSuite);
+				if (tttBuilder.getGenerateJUnit())
+				{
+					writeJUnit(testSuiteResultPath);
+				}
+				if (rendersReportOnDemand())
+				{
+					resultFiles.add(testSuiteResultPath);
+				}
+				summary.add(testSuiteResultPath.getRemote(), parsedResult);
+
+				String xaScenarioSuiteResult = parsedResult.getResultType();
 				String logMessage = String.format("Result state from %s: %s", isSuite ? FILE_EXT_XASUITE : FILE_EXT_XAUNIT , xaScenarioSuiteResult);  //$NON-NLS-1$
 				listener.getLogger().println(logMessage);
+				timings.stop(TotalTestPhaseTimings.RESULT_PARSE);
 	
 				if (!xaScenarioSuiteResult.equalsIgnoreCase("SUCCESS")) //$NON-NLS-1$
 				{
@@ -290,13 +1558,18 @@ public class TotalTestCTRunner
 					listener.getLogger().println(
 							"The suite executed successfully, now checking that code coverage level is higher than the threshold on " //$NON-NLS-1$
 									+ tttBuilder.getCcThreshold() + " %"); //$NON-NLS-1$
-					boolean isCCThresholdOk = getXaScenarioSuiteCodeCoverage(document, isSuite);
+					timings.start(TotalTestPhaseTimings.COVERAGE_CHECK);
+					boolean isCCThresholdOk = getXaScenarioSuiteCodeCoverage(parsedResult, isSuite);
+					timings.stop(TotalTestPhaseTimings.COVERAGE_CHECK);
 					if (!isCCThresholdOk)
 					{
 						listener.getLogger().println("Code coverage threshold not reached"); //$NON-NLS-1$
 						result = -1;
 					}
 				}
+
+				// Only a result that was actually read counts as a pass, for the result cache and the failure history.
+				lastRunPassed = result == 0;
 			}
 		}
 		catch (Exception e)
@@ -307,83 +1580,35 @@ public class TotalTestCTRunner
 			e.printStackTrace(pw);
 			listener.getLogger().println(sw.toString());
 		}
+		finally
+		{
+			if (sonarWrite != null)
+			{
+				awaitSonarWrite(sonarWrite);
+			}
+		}
 		return result;
 	}
 
-	/**
-	 * Return the results Document.
-	 * 
-	 * @param xml
-	 * 			  The results xml to create results document.
-	 * 
-	 * @return	  <code>Document</code> that is generaged from the result xml
-	 * 
-	 * @throws Exception
-	 */
-	private Document getXaScenarioSuiteResultAsDocument(String xml) throws Exception //NOSONAR
-	{
-		DocumentBuilderFactory dbf = DocumentBuilderFactory.newInstance();
-		dbf.setFeature("http://apache.org/xml/features/disallow-doctype-decl", true);
-		dbf.setFeature("http://xml.org/sax/features/external-general-entities", false);
-		dbf.setFeature("http://xml.org/sax/features/external-parameter-entities", false);
-		dbf.setFeature("http://apache.org/xml/features/nonvalidating/load-external-dtd", false);
-		dbf.setXIncludeAware(false);
-		dbf.setExpandEntityReferences(false);
-		DocumentBuilder db = dbf.newDocumentBuilder();
-		Reader r = new StringReader(xml);
-		return db.parse(new InputSource(r));
-	}
-
-	/**
-	 * Return the Scenario or Suite results Document.
-	 * 
-	 * @param document
-	 * 			The results document to get the status from.
-	 * @param isSuite
-	 * 			<code>true</code> if a suite result otherwise <code>false</code>
-	 * 
-	 * @return	 <code>String</code> representing the results.
-	 * 
-	 * @throws Exception
-	 */
-	private String getXaScenarioSuiteResult(Document document, boolean isSuite) throws Exception	//NOSONAR
-	{
-		String resultType = null;
-
-		XPathFactory xpf = XPathFactory.newInstance();
-		XPath xpath = xpf.newXPath();
-		String resultTag = isSuite ? "/XaSuiteResult" : "/XaUnitResult"; //$NON-NLS-1$ //$NON-NLS-2$
-		Element xaSuiteResultElement = (Element) xpath.evaluate(resultTag, document, XPathConstants.NODE); //NOSONAR
-		resultType = xaSuiteResultElement.getAttribute("resultType"); //$NON-NLS-1$
-
-		return resultType;
-	}
-
 	/**
 	 * Return if there is Code Doverage data.
 	 * 
-	 * @param document
-	 * 			Document to look for Code Coverage data.
+	 * @param parsedResult
+	 * 			The values read from the result file.
 	 * @param isSuite
 	 * 			<code>true</code> if a suite result otherwise <code>false</code>
 	 * 
 	 * @return <code>boolean</code> if the document has Code Coverage data.
-	 * 
-	 * @throws Exception
 	 */
-	private boolean getXaScenarioSuiteCodeCoverage(Document document, boolean isSuite) throws Exception // NOSONAR
+	private boolean getXaScenarioSuiteCodeCoverage(TotalTestResultParser.Result parsedResult, boolean isSuite)
 	{
 		boolean isCCThresholdOk = true;
 
-		XPathFactory xpf = XPathFactory.newInstance();
-		XPath xpath = xpf.newXPath();
-		String resultPathName = isSuite ? "XaSuiteResult" : "XaUnitResult";  //$NON-NLS-1$  //$NON-NLS-2$
-		Element percentageElement = (Element) xpath.evaluate(String.format("/%s/CC/data", resultPathName), document, XPathConstants.NODE); //$NON-NLS-1$
+		String resultPathName = isSuite ? TotalTestResultParser.SUITE_RESULT_ELEMENT : TotalTestResultParser.SCENARIO_RESULT_ELEMENT;
+		String sPercentage = parsedResult.getCcPercentage();
 
-		if (percentageElement != null)
+		if (sPercentage != null)
 		{
-			String sPercentage = percentageElement.getAttribute("percentage"); //$NON-NLS-1$
-
 			int percentage = Integer.parseInt(sPercentage);
 
 			if (percentage < tttBuilder.getCcThreshold())
@@ -415,13 +1640,20 @@ public class TotalTestCTRunner
 	 * 		  Build listener
 	 * @param remoteFileSeparator
 	 * 			  The remote file separator
+	 * @param folderPath
+	 * 			  The test folder or file to run.
+	 * @param selectPrograms
+	 * 			  <code>true</code> if the selected programs are passed to the CLI, otherwise <code>false</code>.
 	 * @throws InterruptedException 
 	 * @throws IOException 
 	 */
-	private void addArguments(final ArgumentListBuilder args, final Launcher launcher, final TaskListener listener, final String remoteFileSeparator) throws IOException, InterruptedException
+	private void addArguments(final ArgumentListBuilder args, final Launcher launcher, final TaskListener listener, final String remoteFileSeparator,
+			final String folderPath, final boolean selectPrograms) throws IOException, InterruptedException
 	{
-		boolean min200501 = TotalTestRunnerUtils.isMinimumRelease(launcher, listener, remoteFileSeparator, TotalTestRunnerUtils.TTT_CLI_200501);
-		boolean min200401 = TotalTestRunnerUtils.isMinimumRelease(launcher, listener, remoteFileSeparator, TotalTestRunnerUtils.TTT_CLI_200401);
+		timings.start(TotalTestPhaseTimings.VERSION_PROBE);
+		boolean min200501 = isMinimumRelease(launcher, TotalTestRunnerUtils.TTT_CLI_200501);
+		boolean min200401 = isMinimumRelease(launcher, TotalTestRunnerUtils.TTT_CLI_200401);
+		timings.stop(TotalTestPhaseTimings.VERSION_PROBE);
 
 		if (min200501)
 		{
@@ -432,41 +1664,32 @@ public class TotalTestCTRunner
 			args.add("-e").add(TotalTestRunnerUtils.escapeForScript(tttBuilder.getEnvironmentId()), false); //$NON-NLS-1$
 		}
 		
-		String hostCreds = tttBuilder.getCredentialsId();
-		args.add("-u").add( //$NON-NLS-1$
-				TotalTestRunnerUtils.getLoginInformation(build.getParent(), hostCreds).getUsername(), false);
-		args.add("-p").add( //$NON-NLS-1$
-				TotalTestRunnerUtils.getLoginInformation(build.getParent(), hostCreds).getPassword(), true);
+		// Each lookup scans every credential visible to the job, so look each one up once and reuse it.
+		StandardUsernamePasswordCredentials hostCreds = getCredentials(tttBuilder.getCredentialsId());
+		args.add("-u").add(hostCreds.getUsername(), false); //$NON-NLS-1$
+		args.add("-p").add(hostCreds.getPassword(), true); //$NON-NLS-1$
 
 		if (!min200401 || !tttBuilder.getLocalConfig())
 		{
-			String tttServerUrl = tttBuilder.getServerUrl();
-	
-			if (!tttServerUrl.endsWith("/")) //$NON-NLS-1$
-			{
-				tttServerUrl += "/"; //$NON-NLS-1$
-			}
-	
-			tttServerUrl += TOTAL_TEST_WEBAPP + "/"; //$NON-NLS-1$
+			String tttServerUrl = getRepositoryUrl();
 			listener.getLogger().println("Set the repository URL : " + tttServerUrl); //$NON-NLS-1$
 
 			args.add("-s").add(TotalTestRunnerUtils.escapeForScript(tttServerUrl), false); //$NON-NLS-1$
 			
 			if (min200501)
 			{
-				String serverCreds = tttBuilder.getServerCredentialsId();
+				String serverCredsId = tttBuilder.getServerCredentialsId();
 				
-				if (!Strings.isNullOrEmpty(serverCreds))
+				if (!Strings.isNullOrEmpty(serverCredsId))
 				{
-					args.add("-cesu").add( //$NON-NLS-1$
-							TotalTestRunnerUtils.getLoginInformation(build.getParent(), serverCreds).getUsername(), false);
-					args.add("-cesp").add( //$NON-NLS-1$
-							TotalTestRunnerUtils.getLoginInformation(build.getParent(), serverCreds).getPassword(), true);
+					StandardUsernamePasswordCredentials serverCreds = getCredentials(serverCredsId);
+					args.add("-cesu").add(serverCreds.getUsername(), false); //$NON-NLS-1$
+					args.add("-cesp").add(serverCreds.getPassword(), true); //$NON-NLS-1$
 				}
 			}
 		}
 
-		String folder = tttBuilder.getFolderPath();
+		String folder = folderPath;
 		if (Strings.isNullOrEmpty(folder) || folder.trim().isEmpty())
 		{
 			folder = "."; //$NON-NLS-1$
@@ -509,7 +1732,12 @@ public class TotalTestCTRunner
 			args.add("-S").add(TotalTestRunnerUtils.escapeForScript(tttBuilder.getSourceFolder())); //$NON-NLS-1$
 		}
 
-		if (TotalTestRunnerUtils.usesDefaultOutputFolder(launcher, listener, remoteFileSeparator) == true) //NOSONAR
+		if (reportRunFolder != null)
+		{
+			args.add("-g").add(TotalTestRunnerUtils.escapeForScript(reportRunFolder.getRemote())); //$NON-NLS-1$
+			args.add("-G"); //$NON-NLS-1$
+		}
+		else if (isMinimumRelease(launcher, TotalTestRunnerUtils.TTT_OUTPUTFOLDER_CLI_VERSION) == true) //NOSONAR
 		{
 			args.add("-G"); //$NON-NLS-1$
 		}
@@ -559,7 +1787,7 @@ public class TotalTestCTRunner
 		
 		if (min200401)
 		{
-			if (tttBuilder.getSelectProgramsOption())
+			if (selectPrograms && tttBuilder.getSelectProgramsOption())
 			{
 				String selectProgramsText = tttBuilder.getselectProgramsRadioText();
 				
@@ -615,7 +1843,7 @@ public class TotalTestCTRunner
 			
 			args.add("-loglevel").add(tttBuilder.getLogLevel()); //$NON-NLS-1$
 		
-			if (!tttBuilder.getCreateReport())
+			if (!tttBuilder.getCreateReport() || rendersReportOnDemand())
 			{
 				args.add("-norep"); //$NON-NLS-1$
 			}
@@ -623,11 +1851,11 @@ public class TotalTestCTRunner
 			{
 				args.add("-nores"); //$NON-NLS-1$
 			}
-			if (!tttBuilder.getCreateSonarReport())
+			if (!tttBuilder.getCreateSonarReport() || tttBuilder.getGenerateSonar())
 			{
 				args.add("-nosq"); //$NON-NLS-1$
 			}
-			if (!tttBuilder.getCreateJUnitReport())
+			if (!tttBuilder.getCreateJUnitReport() || tttBuilder.getGenerateJUnit())
 			{
 				args.add("-noju"); //$NON-NLS-1$
 			}
@@ -686,6 +1914,8 @@ public class TotalTestCTRunner
 	 *            The machine that the files will be checked out.
 	 * @param listener
 	 *            Build listener
+	 * @param folderPathString
+	 *            The test folder or file that was run.
 	 * @param osFile
 	 * 			  The file name of the file on the remote system
 	 *            
@@ -696,13 +1926,30 @@ public class TotalTestCTRunner
 	 * @throws InterruptedException
 	 *             If unable to get CLI directory.
 	 */
-	private FilePath getOutputFilePath(final Launcher launcher, final TaskListener listener, String osFile) throws IOException, InterruptedException
+	private FilePath getOutputFilePath(final Launcher launcher, final TaskListener listener, final String folderPathString, String osFile) throws IOException, InterruptedException
 	{
+		if (reportRunFolder != null)
+		{
+			// The folder of this run holds nothing but its own output, so there is no history to search through.
+			FilePath fileFound = reportRunFolder.child(osFile);
+			if (!fileFound.exists())
+			{
+				fileFound = searchFileFromDir(reportRunFolder, osFile, false, listener);
+			}
+			if (fileFound == null)
+			{
+				// Anything found outside this folder was written by an earlier build or run, so it is not searched.
+				listener.getLogger().println("The CLI wrote no " + osFile + " to the report folder of this run " //$NON-NLS-1$ //$NON-NLS-2$
+						+ reportRunFolder.getRemote());
+			}
+
+			return fileFound;
+		}
+
 		VirtualChannel vChannel = launcher.getChannel();
-		boolean useDefaultOutput = TotalTestRunnerUtils.usesDefaultOutputFolder(launcher, listener, remoteFileSeparator);
+		boolean useDefaultOutput = isMinimumRelease(launcher, TotalTestRunnerUtils.TTT_OUTPUTFOLDER_CLI_VERSION);
 		FilePath workDir = new FilePath(vChannel, workspaceFilePath.getRemote());
 		
-		String folderPathString = tttBuilder.getFolderPath();
 		if (folderPathString != null && !folderPathString.isEmpty() && !".".equals(folderPathString)) //$NON-NLS-1$
 		{
 			FilePath absoluteFolder = new FilePath (vChannel, folderPathString).absolutize();
@@ -776,7 +2023,7 @@ public class TotalTestCTRunner
 					{
 						// Strip off the scenario/suite name, add the report folder and add the difference between working and absolute path
 						String reportFolder = tttBuilder.getReportFolder().trim();
-						String folderPath = tttBuilder.getFolderPath().trim();
+						String folderPath = folderPathString.trim();
 						
 						if (reportFolder.endsWith("/") || reportFolder.endsWith("\\")) //$NON-NLS-1$ //$NON-NLS-2$
 						{
@@ -846,7 +2093,20 @@ public class TotalTestCTRunner
 						+ absoluteReportFolderPath.getRemote());
 			}
 		}
-		FilePath fileFound = searchFileFromDir(absoluteReportFolderPath, osFile, listener);
+		TotalTestEvents.ResultSearch searchEvent = new TotalTestEvents.ResultSearch();
+		searchEvent.begin();
+		FilePath fileFound;
+		try (TotalTestRemotingCounter searchCounter = TotalTestRemotingCounter.attach(vChannel))
+		{
+			// the per-build folders below hold the reports of other steps, which may run in this workspace right now
+			fileFound = searchFileFromDir(absoluteReportFolderPath, osFile, true, listener);
+			searchEvent.roundTrips = (int) searchCounter.getRoundTrips();
+		}
+		searchEvent.buildId = build.getExternalizableId();
+		searchEvent.folder = absoluteReportFolderPath.getRemote();
+		searchEvent.fileName = osFile;
+		searchEvent.found = fileFound != null;
+		searchEvent.commit();
 		
 		return fileFound;
 	}
@@ -858,34 +2118,25 @@ public class TotalTestCTRunner
 	 * 			  The folder where we should search.
 	 * @param search
 	 * 			  The file to search for.
+	 * @param skipBuildFolders
+	 * 			  <code>true</code> to skip the per-build report folders, otherwise <code>false</code>.
 	 * @param listener
 	 *            Build listener
 	 * 
 	 * @return	  <code>String</code> The absolute path to the file.
 	 */
-	private static FilePath searchFileFromDir(FilePath directoryPath, String search, final TaskListener listener)
+	private static FilePath searchFileFromDir(FilePath directoryPath, String search, boolean skipBuildFolders, final TaskListener listener)
 	{
 		FilePath returnFile = null;
 		
 		if (!Strings.isNullOrEmpty(search))
 		{
 			try {
-				for (FilePath childPath : directoryPath.list())
+				// Walk the report tree on the agent rather than one remoting call per file and folder.
+				String remotePath = directoryPath.act(new TotalTestRunnerUtils.FindFileBySuffix(search, skipBuildFolders));
+				if (remotePath != null)
 				{
-					if (childPath.isDirectory())
-					{
-						// Recurse into this directory
-						returnFile = searchFileFromDir(childPath, search, listener);
-					}
-					else if (childPath.getName().endsWith(search))
-					{
-						returnFile = childPath.absolutize();
-					}
-					
-					if (null != returnFile)
-					{
-						break;
-					}
+					returnFile = new FilePath(directoryPath.getChannel(), remotePath);
 				}
 			} catch (IOException e) {
 				listener.getLogger().println("Exception locating " + search + " from " + directoryPath.getRemote() + ":" + e.getMessage()); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
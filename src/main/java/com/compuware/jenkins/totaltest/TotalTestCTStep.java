@@ -0,0 +1,526 @@
+/**
+ * The MIT License (MIT)
+ * 
+ * (c) Copyright 2026 BMC Software, Inc.
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated documentation
+ * files (the "Software"), to deal in the Software without restriction, including without limitation the rights to use, copy,
+ * modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to permit persons to whom the
+ * Software is furnished to do so, subject to the following conditions: The above copyright notice and this permission notice
+ * shall be included in all copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+ * WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE,
+ * ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package com.compuware.jenkins.totaltest;
+
+import java.io.IOException;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Pattern;
+
+import org.jenkinsci.plugins.durabletask.BourneShellScript;
+import org.jenkinsci.plugins.durabletask.Controller;
+import org.jenkinsci.plugins.durabletask.DurableTask;
+import org.jenkinsci.plugins.durabletask.WindowsBatchScript;
+import org.jenkinsci.plugins.structs.describable.DescribableModel;
+import org.jenkinsci.plugins.structs.describable.UninstantiatedDescribable;
+import org.jenkinsci.plugins.workflow.steps.Step;
+import org.jenkinsci.plugins.workflow.steps.StepContext;
+import org.jenkinsci.plugins.workflow.steps.StepDescriptor;
+import org.jenkinsci.plugins.workflow.steps.StepExecution;
+
+import hudson.AbortException;
+import hudson.EnvVars;
+import hudson.Extension;
+import hudson.FilePath;
+import hudson.Launcher;
+import hudson.model.Run;
+import hudson.model.TaskListener;
+import hudson.util.DaemonThreadFactory;
+import hudson.util.NamingThreadFactory;
+import jenkins.util.SystemProperties;
+import jenkins.util.Timer;
+
+/**
+ * Pipeline step running the Total Test CLI as a durable task, taking the same arguments as the <code>totaltest</code>
+ * step.
+ * <p>
+ * The CLI runs detached from the agent connection, writing its log and exit code to files in the workspace. The step
+ * polls those files instead of holding the connection, so a restart of the controller or a disconnected agent does not
+ * end the run: the step picks the run up again and analyses its result once the CLI has ended. The CLI is run once for
+ * the test folder, without the program index, result cache and failure history, which need a run per test file.
+ * <p>
+ * Starting the CLI and analysing its result run on a thread of the step, as they wait on the agent. Only the polling,
+ * which reads a few bytes at a time, runs on the shared timer.
+ */
+public class TotalTestCTStep extends Step
+{
+	private final TotalTestCTBuilder builder;
+
+	/**
+	 * Constructor
+	 * 
+	 * @param builder
+	 * 			  An instance of <code>TotalTestCTBuilder</code> containing the arguments.
+	 */
+	public TotalTestCTStep(TotalTestCTBuilder builder)
+	{
+		this.builder = builder;
+	}
+
+	/**
+	 * Returns the arguments of the step.
+	 * 
+	 * @return	An instance of <code>TotalTestCTBuilder</code> containing the arguments.
+	 */
+	public TotalTestCTBuilder getBuilder()
+	{
+		return builder;
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see org.jenkinsci.plugins.workflow.steps.Step#start(org.jenkinsci.plugins.workflow.steps.StepContext)
+	 */
+	@Override
+	public StepExecution start(StepContext context) throws Exception
+	{
+		return new Execution(context, DescribableModel.uninstantiate2_(builder));
+	}
+
+	/**
+	 * Runs the CLI as a durable task and analyses its result.
+	 */
+	static final class Execution extends StepExecution
+	{
+		private static final long serialVersionUID = 1L;
+
+		/** The prefix of the environment variables passing secret arguments, so they are not written to the script. */
+		private static final String SECRET_VARIABLE = "TOTALTEST_SECRET_"; //$NON-NLS-1$
+		private static final Pattern PLAIN_WINDOWS_ARGUMENT = Pattern.compile("[^\\s\"&|<>^()%]+"); //$NON-NLS-1$
+		private static final long POLL_INTERVAL = 5;
+		private static final long RECONNECT_INTERVAL = 30;
+
+		/** The system property holding the minutes the agent may be unreachable before the step fails. */
+		static final String RECONNECT_TIMEOUT_PROPERTY = TotalTestCTStep.class.getName() + ".reconnectTimeout"; //$NON-NLS-1$
+		private static final long DEFAULT_RECONNECT_TIMEOUT = 60;
+
+		private final UninstantiatedDescribable configuration;
+		private final TotalTestPhaseTimings timings = new TotalTestPhaseTimings();
+		private TotalTestCTRunner.DurableRun durableRun;
+		private Controller controller;
+		private long unreachableSince;
+
+		private TotalTestWorkspaceLease lease;
+
+		private transient volatile Future<?> task;
+
+		/** The threads starting the CLI and analysing its result, created when first needed. */
+		private static ExecutorService executorService;
+
+		Execution(StepContext context, UninstantiatedDescribable configuration)
+		{
+			super(context);
+			this.configuration = configuration;
+		}
+
+		/*
+		 * (non-Javadoc)
+		 * @see org.jenkinsci.plugins.workflow.steps.StepExecution#start()
+		 */
+		@Override
+		public boolean start() throws Exception
+		{
+			task = getExecutorService().submit(this::launch);
+
+			return false;
+		}
+
+		/*
+		 * (non-Javadoc)
+		 * @see org.jenkinsci.plugins.workflow.steps.StepExecution#stop(java.lang.Throwable)
+		 */
+		@Override
+		public void stop(Throwable cause) throws Exception
+		{
+			Future<?> scheduled = task;
+			if (scheduled != null)
+			{
+				scheduled.cancel(false);
+			}
+
+			try
+			{
+				if (controller != null)
+				{
+					controller.stop(getContext().get(FilePath.class), getContext().get(Launcher.class));
+				}
+			}
+			finally
+			{
+				closeLease();
+				getContext().onFailure(cause);
+			}
+		}
+
+		/*
+		 * (non-Javadoc)
+		 * @see org.jenkinsci.plugins.workflow.steps.StepExecution#onResume()
+		 */
+		@Override
+		public void onResume()
+		{
+			if (controller != null)
+			{
+				if (lease != null)
+				{
+					lease.resume();
+				}
+				schedulePoll(0);
+			}
+			else
+			{
+				getContext().onFailure(new AbortException("Jenkins restarted before the Total Test CLI was started")); //$NON-NLS-1$
+			}
+		}
+
+		/*
+		 * (non-Javadoc)
+		 * @see org.jenkinsci.plugins.workflow.steps.StepExecution#getStatus()
+		 */
+		@Override
+		public String getStatus()
+		{
+			return controller != null ? "waiting for the Total Test CLI to end" : "starting the Total Test CLI"; //$NON-NLS-1$ //$NON-NLS-2$
+		}
+
+		private static synchronized ExecutorService getExecutorService()
+		{
+			if (executorService == null)
+			{
+				executorService = Executors.newCachedThreadPool(
+						new NamingThreadFactory(new DaemonThreadFactory(), TotalTestCTStep.class.getSimpleName()));
+			}
+
+			return executorService;
+		}
+
+		private TotalTestCTBuilder getBuilder() throws Exception
+		{
+			return configuration.instantiate(TotalTestCTBuilder.class);
+		}
+
+		private void launch()
+		{
+			TotalTestCTRunner runner = null;
+			try
+			{
+				Run<?, ?> run = getContext().get(Run.class);
+				FilePath workspace = getContext().get(FilePath.class);
+				Launcher launcher = getContext().get(Launcher.class);
+				TaskListener listener = getContext().get(TaskListener.class);
+				listener.getLogger().println("Running " + Messages.displayName() + " as a durable task\n"); //$NON-NLS-1$ //$NON-NLS-2$
+
+				TotalTestCTBuilder builder = getBuilder();
+				timings.start(TotalTestPhaseTimings.VALIDATE);
+				builder.validateParameters(launcher, listener, run.getParent());
+				timings.stop(TotalTestPhaseTimings.VALIDATE);
+
+				lease = TotalTestWorkspaceLease.acquire(run, workspace);
+				runner = new TotalTestCTRunner(builder, timings, lease);
+				durableRun = runner.startDurableRun(run, launcher, workspace, listener);
+				if (durableRun == null)
+				{
+					runner.awaitBuildFolderPruning();
+					closeLease();
+					getContext().onFailure(new AbortException("Test failure")); //$NON-NLS-1$
+					return;
+				}
+
+				EnvVars env = new EnvVars(getContext().get(EnvVars.class));
+				DurableTask durableTask = launcher.isUnix() ? new BourneShellScript(toScript(durableRun, true, env))
+						: new WindowsBatchScript(toScript(durableRun, false, env));
+				timings.start(TotalTestPhaseTimings.PROCESS_LAUNCH);
+				controller = durableTask.launch(env, workspace, launcher, listener);
+				durableRun.clearCommand();
+				timings.stop(TotalTestPhaseTimings.PROCESS_LAUNCH);
+				timings.start(TotalTestPhaseTimings.PROCESS_EXIT);
+				getContext().saveState();
+				schedulePoll(POLL_INTERVAL);
+				// the CLI is running, so waiting for the old report folders to be deleted does not hold it up
+				runner.awaitBuildFolderPruning();
+			}
+			catch (Exception e) //NOSONAR
+			{
+				if (runner != null)
+				{
+					runner.awaitBuildFolderPruning();
+				}
+				closeLease();
+				getContext().onFailure(e);
+			}
+		}
+
+		private void schedulePoll(long delay)
+		{
+			task = Timer.get().schedule(this::poll, delay, TimeUnit.SECONDS);
+		}
+
+		private void poll()
+		{
+			try
+			{
+				TaskListener listener = getContext().get(TaskListener.class);
+				FilePath workspace = getContext().get(FilePath.class);
+				Launcher launcher = getContext().get(Launcher.class);
+				Integer exitStatus;
+				try
+				{
+					controller.writeLog(workspace, listener.getLogger());
+					exitStatus = controller.exitStatus(workspace, launcher, listener);
+					if (exitStatus != null)
+					{
+						controller.writeLog(workspace, listener.getLogger());
+						controller.cleanup(workspace);
+					}
+				}
+				catch (IOException e)
+				{
+					// the agent is not connected, the CLI keeps running and is picked up again once the agent is back
+					if (!awaitReconnect(listener, e))
+					{
+						closeLease();
+						getContext().onFailure(e);
+					}
+					return;
+				}
+
+				unreachableSince = 0;
+				if (exitStatus == null)
+				{
+					schedulePoll(POLL_INTERVAL);
+					return;
+				}
+
+				timings.stop(TotalTestPhaseTimings.PROCESS_EXIT);
+				int status = exitStatus;
+				task = getExecutorService().submit(() -> finish(status));
+			}
+			catch (Exception e) //NOSONAR
+			{
+				closeLease();
+				getContext().onFailure(e);
+			}
+		}
+
+		/**
+		 * Schedules the next poll after the CLI could not be reached, unless it could not be reached for longer than the
+		 * minutes set with the {@link #RECONNECT_TIMEOUT_PROPERTY} system property.
+		 * 
+		 * @param listener
+		 * 			An instance of <code>TaskListener</code> for the build.
+		 * @param e
+		 * 			The error reaching the CLI.
+		 * 
+		 * @return	<code>true</code> if the next poll is scheduled, <code>false</code> if the step should fail.
+		 */
+		private boolean awaitReconnect(TaskListener listener, IOException e)
+		{
+			long now = System.currentTimeMillis();
+			if (unreachableSince == 0)
+			{
+				unreachableSince = now;
+			}
+
+			long timeout = SystemProperties.getLong(RECONNECT_TIMEOUT_PROPERTY, DEFAULT_RECONNECT_TIMEOUT);
+			if (now - unreachableSince > TimeUnit.MINUTES.toMillis(timeout))
+			{
+				listener.error("Unable to reach the Total Test CLI for more than " + timeout + " minutes: " + e.getMessage()); //$NON-NLS-1$ //$NON-NLS-2$
+				return false;
+			}
+
+			listener.getLogger().println("Unable to reach the Total Test CLI, trying again in " + RECONNECT_INTERVAL //$NON-NLS-1$
+					+ " seconds: " + e.getMessage()); //$NON-NLS-1$
+			schedulePoll(RECONNECT_INTERVAL);
+
+			return true;
+		}
+
+		private void finish(int exitStatus)
+		{
+			try
+			{
+				Run<?, ?> run = getContext().get(Run.class);
+				FilePath workspace = getContext().get(FilePath.class);
+				Launcher launcher = getContext().get(Launcher.class);
+				TaskListener listener = getContext().get(TaskListener.class);
+				analyse(run, workspace, launcher, listener, exitStatus);
+			}
+			catch (Exception e) //NOSONAR
+			{
+				closeLease();
+				getContext().onFailure(e);
+			}
+		}
+
+		private void analyse(Run<?, ?> run, FilePath workspace, Launcher launcher, TaskListener listener, int exitStatus)
+				throws Exception
+		{
+			TotalTestCTBuilder builder = getBuilder();
+			TotalTestCTRunner runner = new TotalTestCTRunner(builder, timings);
+			boolean success = false;
+			try
+			{
+				success = runner.finishDurableRun(run, launcher, workspace, listener, durableRun, exitStatus);
+			}
+			finally
+			{
+				builder.publishResults(run, workspace, launcher, listener, timings, runner, durableRun.getStepId());
+				closeLease();
+				timings.printTable(listener.getLogger());
+				run.addAction(new TotalTestTimingsAction(Messages.displayName(), timings));
+				TotalTestMetrics.get().recordPhases(TotalTestMetrics.STEP_FUNCTIONAL, timings);
+			}
+
+			if (success)
+			{
+				listener.getLogger().println("Test Success..."); //$NON-NLS-1$
+				getContext().onSuccess(runner.getSummary().toMap(runner.testsPassed(), timings));
+			}
+			else
+			{
+				listener.error("Test failure"); //$NON-NLS-1$
+				getContext().onFailure(new AbortException("Test failure")); //$NON-NLS-1$
+			}
+		}
+
+		private void closeLease()
+		{
+			if (lease != null)
+			{
+				lease.close();
+				lease = null;
+			}
+		}
+
+		/**
+		 * Returns the script running the command line of a run. Secret arguments are passed in environment variables,
+		 * which are added to the environment, so they are never written to disk with the script.
+		 * 
+		 * @param durableRun
+		 * 			The run.
+		 * @param isUnix
+		 * 			<code>true</code> for a shell script, <code>false</code> for a batch file.
+		 * @param env
+		 * 			The environment of the script.
+		 * 
+		 * @return	The script.
+		 */
+		static String toScript(TotalTestCTRunner.DurableRun durableRun, boolean isUnix, EnvVars env)
+		{
+			StringBuilder script = new StringBuilder(isUnix ? "" : "call"); //$NON-NLS-1$ //$NON-NLS-2$
+			List<String> command = durableRun.getCommand();
+			for (int i = 0; i < command.size(); i++)
+			{
+				String arg = command.get(i);
+				if (script.length() > 0)
+				{
+					script.append(' ');
+				}
+
+				if (durableRun.isMasked(i))
+				{
+					env.put(SECRET_VARIABLE + i, arg);
+					script.append(isUnix ? "\"$" + SECRET_VARIABLE + i + '"' : "\"%" + SECRET_VARIABLE + i + "%\""); //$NON-NLS-1$ //$NON-NLS-2$
+				}
+				else if (isUnix)
+				{
+					script.append('\'').append(arg.replace("'", "'\"'\"'")).append('\''); //$NON-NLS-1$ //$NON-NLS-2$
+				}
+				else if (PLAIN_WINDOWS_ARGUMENT.matcher(arg).matches())
+				{
+					script.append(arg);
+				}
+				else
+				{
+					script.append('"').append(arg.replace("\"", "\"\"").replace("%", "%%")).append('"'); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$ //$NON-NLS-4$
+				}
+			}
+
+			return script.toString();
+		}
+	}
+
+	/**
+	 * Descriptor of the step. The arguments are those of {@link TotalTestCTBuilder}.
+	 */
+	@Extension
+	public static final class DescriptorImpl extends StepDescriptor
+	{
+		/*
+		 * (non-Javadoc)
+		 * @see org.jenkinsci.plugins.workflow.steps.StepDescriptor#getRequiredContext()
+		 */
+		@Override
+		public Set<? extends Class<?>> getRequiredContext()
+		{
+			Set<Class<?>> context = new HashSet<>();
+			context.add(Run.class);
+			context.add(FilePath.class);
+			context.add(Launcher.class);
+			context.add(TaskListener.class);
+			context.add(EnvVars.class);
+
+			return context;
+		}
+
+		/*
+		 * (non-Javadoc)
+		 * @see org.jenkinsci.plugins.workflow.steps.StepDescriptor#getFunctionName()
+		 */
+		@Override
+		public String getFunctionName()
+		{
+			return "totaltestDurable"; //$NON-NLS-1$
+		}
+
+		/*
+		 * (non-Javadoc)
+		 * @see hudson.model.Descriptor#getDisplayName()
+		 */
+		@Override
+		public String getDisplayName()
+		{
+			return Messages.durableDisplayName();
+		}
+
+		/*
+		 * (non-Javadoc)
+		 * @see org.jenkinsci.plugins.workflow.steps.StepDescriptor#newInstance(java.util.Map)
+		 */
+		@Override
+		public Step newInstance(Map<String, Object> arguments) throws Exception
+		{
+			return new TotalTestCTStep(new DescribableModel<>(TotalTestCTBuilder.class).instantiate(arguments));
+		}
+
+		/*
+		 * (non-Javadoc)
+		 * @see org.jenkinsci.plugins.workflow.steps.StepDescriptor#uninstantiate(org.jenkinsci.plugins.workflow.steps.Step)
+		 */
+		@Override
+		public UninstantiatedDescribable uninstantiate(Step step)
+		{
+			return new UninstantiatedDescribable(DescribableModel.uninstantiate2_(((TotalTestCTStep) step).getBuilder()).getArguments());
+		}
+	}
+}
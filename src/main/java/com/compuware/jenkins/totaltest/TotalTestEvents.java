@@ -0,0 +1,173 @@
+/**
+ * The MIT License (MIT)
+ * 
+ * (c) Copyright 2026 BMC Software, Inc.
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated documentation
+ * files (the "Software"), to deal in the Software without restriction, including without limitation the rights to use, copy,
+ * modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to permit persons to whom the
+ * Software is furnished to do so, subject to the following conditions: The above copyright notice and this permission notice
+ * shall be included in all copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+ * WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE,
+ * ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package com.compuware.jenkins.totaltest;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Java Flight Recorder events for the Total Test plugin.
+ * <p>
+ * The events are only recorded while a flight recording with them enabled is running, otherwise committing them costs
+ * next to nothing. They appear in JDK Mission Control under <i>Jenkins / Total Test</i>.
+ */
+public final class TotalTestEvents
+{
+	private static final String CATEGORY_JENKINS = "Jenkins"; //$NON-NLS-1$
+	private static final String CATEGORY_TOTAL_TEST = "Total Test"; //$NON-NLS-1$
+
+	private TotalTestEvents()
+	{
+	}
+
+	/**
+	 * The Total Test CLI process, from launch to exit.
+	 */
+	@Name("com.compuware.jenkins.totaltest.CliLaunch")
+	@Label("CLI Launch")
+	@Description("Total Test CLI process from launch to exit")
+	@Category({ CATEGORY_JENKINS, CATEGORY_TOTAL_TEST })
+	@StackTrace(false)
+	public static class CliLaunch extends Event
+	{
+		@Label("Build")
+		public String buildId;
+
+		@Label("Script")
+		public String script;
+
+		@Label("Exit Code")
+		public int exitCode;
+	}
+
+	/**
+	 * The search for a result file in the output folder.
+	 */
+	@Name("com.compuware.jenkins.totaltest.ResultSearch")
+	@Label("Remote File Search")
+	@Description("Search for a Total Test result file in the output folder")
+	@Category({ CATEGORY_JENKINS, CATEGORY_TOTAL_TEST })
+	@StackTrace(false)
+	public static class ResultSearch extends Event
+	{
+		@Label("Build")
+		public String buildId;
+
+		@Label("Folder")
+		public String folder;
+
+		@Label("File Name")
+		public String fileName;
+
+		@Label("Round Trips")
+		@Description("Remoting calls made by the search")
+		public int roundTrips;
+
+		@Label("Found")
+		public boolean found;
+	}
+
+	/**
+	 * The transfer of a result file to the controller.
+	 */
+	@Name("com.compuware.jenkins.totaltest.ResultRead")
+	@Label("Result Read")
+	@Description("Read of a Total Test result file")
+	@Category({ CATEGORY_JENKINS, CATEGORY_TOTAL_TEST })
+	@StackTrace(false)
+	public static class ResultRead extends Event
+	{
+		@Label("Build")
+		public String buildId;
+
+		@Label("File")
+		public String file;
+
+		@Label("Size")
+		@DataAmount
+		public long size;
+
+		@Label("Remote")
+		public boolean remote;
+	}
+
+	/**
+	 * The parse of a result file.
+	 */
+	@Name("com.compuware.jenkins.totaltest.ResultParse")
+	@Label("Result Parse")
+	@Description("Parse of a Total Test result file")
+	@Category({ CATEGORY_JENKINS, CATEGORY_TOTAL_TEST })
+	@StackTrace(false)
+	public static class ResultParse extends Event
+	{
+		@Label("Build")
+		public String buildId;
+
+		@Label("Parser")
+		@Description("DOM or streaming")
+		public String parser;
+
+		@Label("Size")
+		@DataAmount
+		public long size;
+	}
+
+	/**
+	 * The lookup of a credential by its id.
+	 */
+	@Name("com.compuware.jenkins.totaltest.CredentialLookup")
+	@Label("Credential Lookup")
+	@Description("Lookup of host or CES credentials")
+	@Category({ CATEGORY_JENKINS, CATEGORY_TOTAL_TEST })
+	public static class CredentialLookup extends Event
+	{
+		@Label("Item")
+		public String item;
+
+		@Label("Credentials Id")
+		public String credentialsId;
+
+		@Label("Credentials Scanned")
+		public int scanned;
+
+		@Label("Found")
+		public boolean found;
+	}
+
+	/**
+	 * The save of a project migrated from a 1.x configuration.
+	 */
+	@Name("com.compuware.jenkins.totaltest.MigrationSave")
+	@Label("Migration Save")
+	@Description("Save of a project migrated from a 1.x configuration")
+	@Category({ CATEGORY_JENKINS, CATEGORY_TOTAL_TEST })
+	@StackTrace(false)
+	public static class MigrationSave extends Event
+	{
+		@Label("Project")
+		public String project;
+
+		@Label("Success")
+		public boolean success;
+	}
+}
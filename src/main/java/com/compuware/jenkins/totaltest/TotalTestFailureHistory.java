@@ -0,0 +1,261 @@
+/**
+ * The MIT License (MIT)
+ * 
+ * (c) Copyright 2026 BMC Software, Inc.
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated documentation
+ * files (the "Software"), to deal in the Software without restriction, including without limitation the rights to use, copy,
+ * modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to permit persons to whom the
+ * Software is furnished to do so, subject to the following conditions: The above copyright notice and this permission notice
+ * shall be included in all copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+ * WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE,
+ * ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package com.compuware.jenkins.totaltest;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+
+import hudson.model.Job;
+import hudson.util.AtomicFileWriter;
+
+/**
+ * The outcome history of the Functional Test files of a job, used to run the tests that are most likely to fail first.
+ * <p>
+ * The history is kept in the job folder as one line per test file holding the number of runs, the number of failures, the
+ * total duration in milliseconds and the path of the test file relative to the workspace. The failure probability of a
+ * test is estimated as <code>(failures + 1) / (runs + 2)</code>, so a test without history ranks between tests that
+ * usually pass and tests that usually fail.
+ * <p>
+ * Every build that saves the history first ages the recorded values by {@link #DECAY}, so a run twenty builds ago counts
+ * for about an eighth of a recent run and tests that were fixed long ago no longer run first. Entries that have aged
+ * away, such as the ones of deleted tests, are dropped.
+ */
+public final class TotalTestFailureHistory
+{
+	private static final String HISTORY_FILE = "totaltest-failure-history.txt"; //$NON-NLS-1$
+	private static final String FIELD_SEPARATOR = "\t"; //$NON-NLS-1$
+	private static final double DECAY = 0.9;
+	private static final double MIN_RUNS = 0.01;
+
+	private final File file;
+	private final Map<String, Entry> history;
+	private final Map<String, Entry> updates = new HashMap<>();
+
+	private TotalTestFailureHistory(File file, Map<String, Entry> history)
+	{
+		this.file = file;
+		this.history = history;
+	}
+
+	/**
+	 * The history of a test file.
+	 */
+	private static final class Entry
+	{
+		private double runs;
+		private double failures;
+		private double totalMillis;
+
+		double getFailureProbability()
+		{
+			return (failures + 1.0) / (runs + 2.0);
+		}
+
+		double getAverageMillis()
+		{
+			return runs > 0 ? totalMillis / runs : 0;
+		}
+
+		void age()
+		{
+			runs *= DECAY;
+			failures *= DECAY;
+			totalMillis *= DECAY;
+		}
+
+		void add(Entry other)
+		{
+			runs += other.runs;
+			failures += other.failures;
+			totalMillis += other.totalMillis;
+		}
+	}
+
+	/**
+	 * Reads the history of a job.
+	 * 
+	 * @param job
+	 * 			  The job.
+	 * 
+	 * @return	The history, empty if the job has none.
+	 * 
+	 * @throws IOException
+	 * 			If the history could not be read.
+	 */
+	public static TotalTestFailureHistory load(Job<?, ?> job) throws IOException
+	{
+		File file = new File(job.getRootDir(), HISTORY_FILE);
+		synchronized (TotalTestFailureHistory.class)
+		{
+			return new TotalTestFailureHistory(file, read(file));
+		}
+	}
+
+	/**
+	 * Orders test files so that the test most likely to fail comes first, with ties broken by the shortest average
+	 * duration.
+	 * 
+	 * @param testFiles
+	 * 			  The test files, relative to the workspace or absolute.
+	 * @param workspace
+	 * 			  The remote path of the workspace, stripped from absolute test file paths to find their history.
+	 * 
+	 * @return	A new list with the test files in execution order.
+	 */
+	public List<String> order(List<String> testFiles, String workspace)
+	{
+		Entry empty = new Entry();
+		List<String> ordered = new ArrayList<>(testFiles);
+		ordered.sort(Comparator.comparingDouble((String testFile) -> -history.getOrDefault(relativize(testFile, workspace), empty).getFailureProbability())
+				.thenComparingDouble(testFile -> history.getOrDefault(relativize(testFile, workspace), empty).getAverageMillis()));
+
+		return ordered;
+	}
+
+	/**
+	 * Records a run of a test file. The run is written to the job folder with {@link #save()}.
+	 * 
+	 * @param testFile
+	 * 			  The test file, relative to the workspace or absolute.
+	 * @param workspace
+	 * 			  The remote path of the workspace.
+	 * @param failed
+	 * 			  <code>true</code> if the test failed, otherwise <code>false</code>.
+	 * @param millis
+	 * 			  The duration of the run in milliseconds.
+	 */
+	public void record(String testFile, String workspace, boolean failed, long millis)
+	{
+		Entry run = new Entry();
+		run.runs = 1;
+		run.failures = failed ? 1 : 0;
+		run.totalMillis = millis;
+		updates.computeIfAbsent(relativize(testFile, workspace), key -> new Entry()).add(run);
+	}
+
+	/**
+	 * Ages the history in the job folder and adds the recorded runs to it. The history is read again first, so that builds
+	 * of the job running at the same time do not lose each other's runs, and replaced atomically, so that a build never
+	 * reads a partly written history.
+	 * 
+	 * @throws IOException
+	 * 			If the history could not be written.
+	 */
+	public void save() throws IOException
+	{
+		if (updates.isEmpty())
+		{
+			return;
+		}
+
+		synchronized (TotalTestFailureHistory.class)
+		{
+			Map<String, Entry> current = read(file);
+			for (Iterator<Entry> entries = current.values().iterator(); entries.hasNext();)
+			{
+				Entry entry = entries.next();
+				entry.age();
+				if (entry.runs < MIN_RUNS)
+				{
+					entries.remove();
+				}
+			}
+			for (Map.Entry<String, Entry> update : updates.entrySet())
+			{
+				current.computeIfAbsent(update.getKey(), key -> new Entry()).add(update.getValue());
+			}
+
+			AtomicFileWriter writer = new AtomicFileWriter(file.toPath(), StandardCharsets.UTF_8);
+			try
+			{
+				for (Map.Entry<String, Entry> entry : current.entrySet())
+				{
+					writer.write(String.format(Locale.ROOT, "%.4f%s%.4f%s%.0f%s%s%n", entry.getValue().runs, FIELD_SEPARATOR, //$NON-NLS-1$
+							entry.getValue().failures, FIELD_SEPARATOR, entry.getValue().totalMillis, FIELD_SEPARATOR, entry.getKey()));
+				}
+				writer.commit();
+			}
+			finally
+			{
+				writer.abort();
+			}
+		}
+		updates.clear();
+	}
+
+	private static Map<String, Entry> read(File file) throws IOException
+	{
+		Map<String, Entry> history = new TreeMap<>();
+		if (!file.isFile())
+		{
+			return history;
+		}
+
+		try (BufferedReader reader = Files.newBufferedReader(file.toPath(), StandardCharsets.UTF_8))
+		{
+			String line;
+			while ((line = reader.readLine()) != null)
+			{
+				String[] fields = line.split(FIELD_SEPARATOR, 4);
+				if (fields.length == 4)
+				{
+					try
+					{
+						Entry entry = new Entry();
+						entry.runs = Double.parseDouble(fields[0]);
+						entry.failures = Double.parseDouble(fields[1]);
+						entry.totalMillis = Double.parseDouble(fields[2]);
+						history.put(fields[3], entry);
+					}
+					catch (NumberFormatException e)
+					{
+						// Skip a damaged line, the test then ranks as a test without history.
+					}
+				}
+			}
+		}
+
+		return history;
+	}
+
+	/**
+	 * Returns the path of a test file relative to the workspace, with forward slashes, so that the history is shared by
+	 * all workspaces and agents of the job.
+	 */
+	private static String relativize(String testFile, String workspace)
+	{
+		String path = testFile.replace('\\', '/');
+		String root = workspace.replace('\\', '/');
+		if (!root.endsWith("/")) //$NON-NLS-1$
+		{
+			root += '/';
+		}
+
+		return path.startsWith(root) ? path.substring(root.length()) : path;
+	}
+}
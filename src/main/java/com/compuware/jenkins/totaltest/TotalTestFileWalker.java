@@ -0,0 +1,319 @@
+/**
+ * The MIT License (MIT)
+ * 
+ * (c) Copyright 2026 BMC Software, Inc.
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated documentation
+ * files (the "Software"), to deal in the Software without restriction, including without limitation the rights to use, copy,
+ * modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to permit persons to whom the
+ * Software is furnished to do so, subject to the following conditions: The above copyright notice and this permission notice
+ * shall be included in all copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+ * WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE,
+ * ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package com.compuware.jenkins.totaltest;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+import hudson.remoting.VirtualChannel;
+import hudson.util.AtomicFileWriter;
+import jenkins.MasterToSlaveFileCallable;
+
+/**
+ * Lists the test files below a folder, walking sub-folders in parallel.
+ * <p>
+ * The result can be cached in a manifest file holding the modification time of every folder that was walked followed by
+ * the test files found. Adding, removing or renaming a file or folder changes the modification time of its parent
+ * folder, so the manifest is reused as long as none of these times changed and the folders then only have to be checked,
+ * not listed.
+ */
+public final class TotalTestFileWalker
+{
+	private static final String SETTINGS_PREFIX = "S\t"; //$NON-NLS-1$
+	private static final String FOLDER_PREFIX = "D\t"; //$NON-NLS-1$
+	private static final String FILE_PREFIX = "F\t"; //$NON-NLS-1$
+	private static final int PARALLELISM = Math.min(4, Runtime.getRuntime().availableProcessors());
+
+	private final Set<String> extensions;
+	private final boolean recursive;
+	private final Set<String> excludedFolders;
+
+	/**
+	 * Constructor.
+	 * 
+	 * @param extensions
+	 * 			  The extensions, without the dot, of the test files.
+	 * @param recursive
+	 * 			  <code>true</code> if sub-folders are walked, otherwise <code>false</code>.
+	 * @param excludedFolders
+	 * 			  The names of folders that are not walked, folders whose name starts with a dot are never walked.
+	 */
+	public TotalTestFileWalker(Set<String> extensions, boolean recursive, Set<String> excludedFolders)
+	{
+		this.extensions = new TreeSet<>(extensions);
+		this.recursive = recursive;
+		this.excludedFolders = new TreeSet<>(excludedFolders);
+	}
+
+	/**
+	 * Returns the test files below a folder, using and updating a manifest when one is given.
+	 * 
+	 * @param root
+	 * 			  The folder to walk.
+	 * @param manifest
+	 * 			  The manifest file, or <code>null</code> to always walk the folder.
+	 * 
+	 * @return	The test files, sorted by path.
+	 * 
+	 * @throws IOException
+	 * 			If the manifest could not be written.
+	 */
+	public List<File> walk(File root, File manifest) throws IOException
+	{
+		if (manifest != null)
+		{
+			List<File> cached = readManifest(root, manifest);
+			if (cached != null)
+			{
+				return cached;
+			}
+		}
+
+		List<String> folders = new ArrayList<>();
+		List<File> testFiles = new ArrayList<>();
+		ForkJoinPool pool = new ForkJoinPool(PARALLELISM);
+		try
+		{
+			Listing listing = pool.invoke(new Walk(root));
+			folders.addAll(listing.folders);
+			testFiles.addAll(listing.testFiles);
+		}
+		finally
+		{
+			pool.shutdown();
+		}
+		Collections.sort(testFiles);
+
+		if (manifest != null)
+		{
+			writeManifest(root, manifest, folders, testFiles);
+		}
+
+		return testFiles;
+	}
+
+	/**
+	 * The folders and test files found below a folder.
+	 */
+	private static final class Listing
+	{
+		/** The modification time and path of each folder, taken before the folder was listed. */
+		private final List<String> folders = new ArrayList<>();
+		private final List<File> testFiles = new ArrayList<>();
+	}
+
+	/**
+	 * Lists a folder and forks a task for each of its sub-folders.
+	 */
+	private final class Walk extends RecursiveTask<Listing>
+	{
+		private static final long serialVersionUID = 1L;
+
+		private final File folder;
+
+		Walk(File folder)
+		{
+			this.folder = folder;
+		}
+
+		@Override
+		protected Listing compute()
+		{
+			Listing listing = new Listing();
+			listing.folders.add(folder.lastModified() + "\t" + folder.getAbsolutePath()); //$NON-NLS-1$
+
+			File[] children = folder.listFiles();
+			if (children == null)
+			{
+				return listing;
+			}
+
+			List<Walk> subFolders = new ArrayList<>();
+			for (File child : children)
+			{
+				if (child.isDirectory())
+				{
+					if (recursive && !child.getName().startsWith(".") && !TotalTestWorkspaceLease.isExcluded(child.getName(), excludedFolders)) //$NON-NLS-1$
+					{
+						Walk walk = new Walk(child);
+						walk.fork();
+						subFolders.add(walk);
+					}
+				}
+				else if (isTestFile(child.getName()))
+				{
+					listing.testFiles.add(child);
+				}
+			}
+
+			for (Walk walk : subFolders)
+			{
+				Listing subListing = walk.join();
+				listing.folders.addAll(subListing.folders);
+				listing.testFiles.addAll(subListing.testFiles);
+			}
+
+			return listing;
+		}
+	}
+
+	private boolean isTestFile(String name)
+	{
+		int idx = name.lastIndexOf('.');
+		return idx != -1 && extensions.contains(name.substring(idx + 1));
+	}
+
+	/**
+	 * Returns the root folder and settings of this walker, a manifest written for another folder or with other settings is
+	 * not used.
+	 */
+	private String getSettings(File root)
+	{
+		return root.getAbsolutePath() + "\t" + extensions + " " + recursive + " " + excludedFolders; //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+	}
+
+	/**
+	 * Returns the test files of a manifest, or <code>null</code> if there is no manifest or a folder changed since it
+	 * was written.
+	 */
+	private List<File> readManifest(File root, File manifest) throws IOException
+	{
+		if (!manifest.isFile())
+		{
+			return null;
+		}
+
+		List<File> testFiles = new ArrayList<>();
+		try (BufferedReader reader = Files.newBufferedReader(manifest.toPath(), StandardCharsets.UTF_8))
+		{
+			if (!(SETTINGS_PREFIX + getSettings(root)).equals(reader.readLine()))
+			{
+				return null;
+			}
+
+			String line;
+			while ((line = reader.readLine()) != null)
+			{
+				if (line.startsWith(FOLDER_PREFIX))
+				{
+					String[] fields = line.substring(FOLDER_PREFIX.length()).split("\t", 2); //$NON-NLS-1$
+					if (fields.length != 2 || !Long.toString(new File(fields[1]).lastModified()).equals(fields[0]))
+					{
+						return null;
+					}
+				}
+				else if (line.startsWith(FILE_PREFIX))
+				{
+					testFiles.add(new File(line.substring(FILE_PREFIX.length())));
+				}
+			}
+		}
+
+		return testFiles;
+	}
+
+	private void writeManifest(File root, File manifest, List<String> folders, List<File> testFiles) throws IOException
+	{
+		File parent = manifest.getParentFile();
+		if (parent != null && !parent.isDirectory() && !parent.mkdirs())
+		{
+			throw new IOException("Unable to create " + parent); //$NON-NLS-1$
+		}
+
+		// written to a temporary file first, so steps running at the same time never read a partial manifest
+		AtomicFileWriter writer = new AtomicFileWriter(manifest.toPath(), StandardCharsets.UTF_8);
+		try
+		{
+			writer.write(SETTINGS_PREFIX + getSettings(root) + System.lineSeparator());
+			for (String folder : folders)
+			{
+				writer.write(FOLDER_PREFIX + folder + System.lineSeparator());
+			}
+			for (File testFile : testFiles)
+			{
+				writer.write(FILE_PREFIX + testFile.getAbsolutePath() + System.lineSeparator());
+			}
+			writer.commit();
+		}
+		finally
+		{
+			writer.abort();
+		}
+	}
+
+	/**
+	 * Lists the test files below a folder on the machine that owns it, in a single remoting call.
+	 */
+	public static final class ListTestFiles extends MasterToSlaveFileCallable<List<String>>
+	{
+		private static final long serialVersionUID = 1L;
+
+		private final Set<String> extensions;
+		private final boolean recursive;
+		private final Set<String> excludedFolders;
+		private final String manifestPath;
+
+		/**
+		 * Constructor.
+		 * 
+		 * @param extensions
+		 * 			  The extensions, without the dot, of the test files.
+		 * @param recursive
+		 * 			  <code>true</code> if sub-folders are walked, otherwise <code>false</code>.
+		 * @param excludedFolders
+		 * 			  The names of folders that are not walked.
+		 * @param manifestPath
+		 * 			  The absolute path of the manifest file, or <code>null</code> to always walk the folder.
+		 */
+		public ListTestFiles(Set<String> extensions, boolean recursive, Set<String> excludedFolders, String manifestPath)
+		{
+			this.extensions = new TreeSet<>(extensions);
+			this.recursive = recursive;
+			this.excludedFolders = new TreeSet<>(excludedFolders);
+			this.manifestPath = manifestPath;
+		}
+
+		/*
+		 * (non-Javadoc)
+		 * @see hudson.FilePath.FileCallable#invoke(java.io.File, hudson.remoting.VirtualChannel)
+		 */
+		@Override
+		public List<String> invoke(File root, VirtualChannel channel) throws IOException, InterruptedException
+		{
+			List<File> testFiles = new TotalTestFileWalker(extensions, recursive, excludedFolders).walk(root,
+					manifestPath != null ? new File(manifestPath) : null);
+
+			List<String> paths = new ArrayList<>();
+			for (File testFile : testFiles)
+			{
+				paths.add(root.toPath().relativize(testFile.toPath()).toString().replace('\\', '/'));
+			}
+
+			return paths;
+		}
+	}
+}
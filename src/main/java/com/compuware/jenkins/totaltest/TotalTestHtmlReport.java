@@ -0,0 +1,169 @@
+/**
+ * The MIT License (MIT)
+ * 
+ * (c) Copyright 2026 BMC Software, Inc.
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated documentation
+ * files (the "Software"), to deal in the Software without restriction, including without limitation the rights to use, copy,
+ * modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to permit persons to whom the
+ * Software is furnished to do so, subject to the following conditions: The above copyright notice and this permission notice
+ * shall be included in all copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+ * WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE,
+ * ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package com.compuware.jenkins.totaltest;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.EnumMap;
+import java.util.Map;
+
+import javax.xml.stream.XMLOutputFactory;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamWriter;
+
+import hudson.util.AtomicFileWriter;
+
+/**
+ * Renders a Total Test result file as an HTML report, streaming, so result files of any size are rendered in constant
+ * memory.
+ * <p>
+ * The report lists each test case read by
+ * {@link TotalTestResultParser#readTestCases(InputStream, String, TotalTestResultParser.TestCaseHandler)} with its result
+ * type and message, below the number of test cases by {@link TotalTestResultParser.Outcome}. It is written as XHTML, so
+ * all text taken from the result file is escaped. The report links the {@link #STYLESHEET} served next to it, as the
+ * Content Security Policy of Jenkins blocks inline styles.
+ */
+public final class TotalTestHtmlReport
+{
+	private static final String TD = "td"; //$NON-NLS-1$
+	private static final String TR = "tr"; //$NON-NLS-1$
+
+	/** The name of the stylesheet of the report, relative to the report. */
+	public static final String STYLESHEET = "report.css"; //$NON-NLS-1$
+
+	private TotalTestHtmlReport()
+	{
+	}
+
+	/**
+	 * Renders a result file into an HTML file. The HTML file is only replaced once it is complete.
+	 * 
+	 * @param resultFile
+	 * 			The Total Test result file.
+	 * @param htmlFile
+	 * 			The HTML file to write.
+	 * @param title
+	 * 			The title of the report.
+	 * 
+	 * @throws IOException
+	 * 			If a file could not be read or written, or the result file is not well formed.
+	 */
+	public static void render(File resultFile, File htmlFile, String title) throws IOException
+	{
+		// The counts go above the test cases, but are only known at the end, so the rows are written to a temporary file
+		// first and copied after the counts.
+		File body = File.createTempFile(htmlFile.getName(), ".tmp", htmlFile.getParentFile()); //$NON-NLS-1$
+		AtomicFileWriter html = new AtomicFileWriter(htmlFile.toPath(), StandardCharsets.UTF_8);
+		try
+		{
+			String fileName = resultFile.getName();
+			String suiteName = fileName.indexOf('.') > 0 ? fileName.substring(0, fileName.indexOf('.')) : fileName;
+			Map<TotalTestResultParser.Outcome, Integer> counts = new EnumMap<>(TotalTestResultParser.Outcome.class);
+			try (InputStream in = Files.newInputStream(resultFile.toPath());
+				 OutputStream out = Files.newOutputStream(body.toPath()))
+			{
+				writeRows(in, out, suiteName, counts);
+			}
+
+			XMLStreamWriter writer = XMLOutputFactory.newInstance().createXMLStreamWriter(html);
+			writer.writeDTD("<!DOCTYPE html>"); //$NON-NLS-1$
+			writer.writeStartElement("html"); //$NON-NLS-1$
+			writer.writeStartElement("head"); //$NON-NLS-1$
+			writer.writeEmptyElement("meta"); //$NON-NLS-1$
+			writer.writeAttribute("charset", StandardCharsets.UTF_8.name()); //$NON-NLS-1$
+			writer.writeStartElement("title"); //$NON-NLS-1$
+			writer.writeCharacters(title);
+			writer.writeEndElement();
+			writer.writeEmptyElement("link"); //$NON-NLS-1$
+			writer.writeAttribute("rel", "stylesheet"); //$NON-NLS-1$ //$NON-NLS-2$
+			writer.writeAttribute("href", STYLESHEET); //$NON-NLS-1$
+			writer.writeEndElement();
+			writer.writeStartElement("body"); //$NON-NLS-1$
+			writer.writeStartElement("h1"); //$NON-NLS-1$
+			writer.writeCharacters(title);
+			writer.writeEndElement();
+			writer.writeStartElement("p"); //$NON-NLS-1$
+			StringBuilder summary = new StringBuilder();
+			for (TotalTestResultParser.Outcome outcome : TotalTestResultParser.Outcome.values())
+			{
+				summary.append(summary.length() > 0 ? ", " : "").append(outcome).append(": ") //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+						.append(counts.getOrDefault(outcome, 0));
+			}
+			writer.writeCharacters(summary.toString());
+			writer.writeEndElement();
+			writer.writeStartElement("table"); //$NON-NLS-1$
+			writer.writeStartElement(TR);
+			for (String heading : new String[] { "Test", "Result", "Message" }) //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+			{
+				writer.writeStartElement("th"); //$NON-NLS-1$
+				writer.writeCharacters(heading);
+				writer.writeEndElement();
+			}
+			writer.writeEndElement();
+			writer.writeCharacters(System.lineSeparator());
+			writer.flush();
+			try (Reader rows = Files.newBufferedReader(body.toPath(), StandardCharsets.UTF_8))
+			{
+				rows.transferTo(html);
+			}
+			writer.writeEndElement();
+			writer.writeEndElement();
+			writer.writeEndElement();
+			writer.writeEndDocument();
+			writer.close();
+			html.commit();
+		}
+		catch (XMLStreamException e)
+		{
+			throw new IOException("Unable to render " + resultFile + " as HTML: " + e.getMessage(), e); //$NON-NLS-1$ //$NON-NLS-2$
+		}
+		finally
+		{
+			html.abort();
+			Files.deleteIfExists(body.toPath());
+		}
+	}
+
+	private static void writeRows(InputStream in, OutputStream out, String suiteName,
+			Map<TotalTestResultParser.Outcome, Integer> counts) throws XMLStreamException
+	{
+		XMLStreamWriter writer = XMLOutputFactory.newInstance().createXMLStreamWriter(out, StandardCharsets.UTF_8.name());
+		TotalTestResultParser.readTestCases(in, suiteName, (className, name, resultType, message) -> {
+			TotalTestResultParser.Outcome outcome = TotalTestResultParser.Outcome.of(resultType);
+			counts.merge(outcome, 1, Integer::sum);
+			writer.writeStartElement(TR);
+			writer.writeStartElement(TD);
+			writer.writeCharacters(className + '.' + name);
+			writer.writeEndElement();
+			writer.writeStartElement(TD);
+			writer.writeAttribute("class", outcome.name()); //$NON-NLS-1$
+			writer.writeCharacters(resultType);
+			writer.writeEndElement();
+			writer.writeStartElement(TD);
+			writer.writeCharacters(message != null ? message : ""); //$NON-NLS-1$
+			writer.writeEndElement();
+			writer.writeEndElement();
+			writer.writeCharacters(System.lineSeparator());
+		});
+		writer.flush();
+	}
+}
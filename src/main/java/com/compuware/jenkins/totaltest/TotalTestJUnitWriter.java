@@ -0,0 +1,324 @@
+/**
+ * The MIT License (MIT)
+ * 
+ * (c) Copyright 2026 BMC Software, Inc.
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated documentation
+ * files (the "Software"), to deal in the Software without restriction, including without limitation the rights to use, copy,
+ * modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to permit persons to whom the
+ * Software is furnished to do so, subject to the following conditions: The above copyright notice and this permission notice
+ * shall be included in all copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+ * WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE,
+ * ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package com.compuware.jenkins.totaltest;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.Serializable;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Set;
+import java.util.TreeSet;
+
+import javax.xml.stream.XMLOutputFactory;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamWriter;
+
+import hudson.remoting.VirtualChannel;
+import jenkins.MasterToSlaveFileCallable;
+
+/**
+ * Converts Total Test result files into JUnit XML, streaming, so result files of any size are converted in constant memory.
+ * <p>
+ * Each test case read by {@link TotalTestResultParser#readTestCases(InputStream, String, TotalTestResultParser.TestCaseHandler)}
+ * becomes a JUnit test case, with a failure, error or skipped element for its {@link TotalTestResultParser.Outcome}.
+ */
+public final class TotalTestJUnitWriter
+{
+	private static final String NAME = "name"; //$NON-NLS-1$
+	private static final String MESSAGE = "message"; //$NON-NLS-1$
+
+	private TotalTestJUnitWriter()
+	{
+	}
+
+	/**
+	 * The number of test cases written, by outcome.
+	 */
+	public static final class Counts implements Serializable
+	{
+		private static final long serialVersionUID = 1L;
+
+		private int files;
+		private int tests;
+		private int failures;
+		private int errors;
+		private int skipped;
+
+		/**
+		 * Returns the number of JUnit files written.
+		 * 
+		 * @return	The file count.
+		 */
+		public int getFiles()
+		{
+			return files;
+		}
+
+		/**
+		 * Returns the number of test cases.
+		 * 
+		 * @return	The test count.
+		 */
+		public int getTests()
+		{
+			return tests;
+		}
+
+		/**
+		 * Returns the number of failed test cases.
+		 * 
+		 * @return	The failure count.
+		 */
+		public int getFailures()
+		{
+			return failures;
+		}
+
+		/**
+		 * Returns the number of test cases that ended in an error.
+		 * 
+		 * @return	The error count.
+		 */
+		public int getErrors()
+		{
+			return errors;
+		}
+
+		/**
+		 * Returns the number of skipped test cases.
+		 * 
+		 * @return	The skipped count.
+		 */
+		public int getSkipped()
+		{
+			return skipped;
+		}
+
+		void add(Counts other)
+		{
+			files += other.files;
+			tests += other.tests;
+			failures += other.failures;
+			errors += other.errors;
+			skipped += other.skipped;
+		}
+
+		@Override
+		public String toString()
+		{
+			return tests + " tests, " + failures + " failures, " + errors + " errors, " + skipped + " skipped"; //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$ //$NON-NLS-4$
+		}
+	}
+
+	/**
+	 * Converts a result file into a JUnit XML file.
+	 * 
+	 * @param resultFile
+	 * 			The Total Test result file.
+	 * @param junitFile
+	 * 			The JUnit file to write.
+	 * 
+	 * @return	The number of test cases written.
+	 * 
+	 * @throws IOException
+	 * 			If a file could not be read or written, or the result file is not well formed.
+	 */
+	public static Counts transform(File resultFile, File junitFile) throws IOException
+	{
+		File parent = junitFile.getParentFile();
+		if (parent != null && !parent.isDirectory() && !parent.mkdirs())
+		{
+			throw new IOException("Unable to create " + parent); //$NON-NLS-1$
+		}
+
+		// The counts belong on the testsuite element, but are only known at the end, so the test cases are written to a
+		// temporary file first and copied after the testsuite start tag.
+		File body = File.createTempFile(junitFile.getName(), ".tmp", parent); //$NON-NLS-1$
+		try
+		{
+			String fileName = resultFile.getName();
+			String suiteName = fileName.indexOf('.') > 0 ? fileName.substring(0, fileName.indexOf('.')) : fileName;
+			Counts counts;
+			try (InputStream in = Files.newInputStream(resultFile.toPath());
+				 OutputStream out = Files.newOutputStream(body.toPath()))
+			{
+				counts = writeTestCases(in, out, suiteName);
+			}
+
+			try (OutputStream out = Files.newOutputStream(junitFile.toPath()))
+			{
+				XMLStreamWriter writer = XMLOutputFactory.newInstance().createXMLStreamWriter(out, StandardCharsets.UTF_8.name());
+				writer.writeStartDocument(StandardCharsets.UTF_8.name(), "1.0"); //$NON-NLS-1$
+				writer.writeStartElement("testsuite"); //$NON-NLS-1$
+				writer.writeAttribute(NAME, suiteName);
+				writer.writeAttribute("tests", Integer.toString(counts.tests)); //$NON-NLS-1$
+				writer.writeAttribute("failures", Integer.toString(counts.failures)); //$NON-NLS-1$
+				writer.writeAttribute("errors", Integer.toString(counts.errors)); //$NON-NLS-1$
+				writer.writeAttribute("skipped", Integer.toString(counts.skipped)); //$NON-NLS-1$
+				writer.writeCharacters(System.lineSeparator());
+				writer.flush();
+				Files.copy(body.toPath(), out);
+				writer.writeEndElement();
+				writer.writeEndDocument();
+				writer.close();
+			}
+			counts.files = 1;
+
+			return counts;
+		}
+		catch (XMLStreamException e)
+		{
+			throw new IOException("Unable to convert " + resultFile + " into JUnit XML: " + e.getMessage(), e); //$NON-NLS-1$ //$NON-NLS-2$
+		}
+		finally
+		{
+			Files.deleteIfExists(body.toPath());
+		}
+	}
+
+	private static Counts writeTestCases(InputStream in, OutputStream out, String suiteName) throws XMLStreamException
+	{
+		Counts counts = new Counts();
+		XMLStreamWriter writer = XMLOutputFactory.newInstance().createXMLStreamWriter(out, StandardCharsets.UTF_8.name());
+		TotalTestResultParser.readTestCases(in, suiteName, (className, name, resultType, message) -> {
+			counts.tests++;
+			writer.writeStartElement("testcase"); //$NON-NLS-1$
+			writer.writeAttribute("classname", className); //$NON-NLS-1$
+			writer.writeAttribute(NAME, name);
+			TotalTestResultParser.Outcome outcome = TotalTestResultParser.Outcome.of(resultType);
+			if (outcome != TotalTestResultParser.Outcome.PASSED)
+			{
+				String element;
+				if (outcome == TotalTestResultParser.Outcome.SKIPPED)
+				{
+					element = "skipped"; //$NON-NLS-1$
+					counts.skipped++;
+				}
+				else if (outcome == TotalTestResultParser.Outcome.ERROR)
+				{
+					element = "error"; //$NON-NLS-1$
+					counts.errors++;
+				}
+				else
+				{
+					element = "failure"; //$NON-NLS-1$
+					counts.failures++;
+				}
+				writer.writeEmptyElement(element);
+				writer.writeAttribute(MESSAGE, message != null ? message : resultType);
+				writer.writeAttribute("type", resultType); //$NON-NLS-1$
+			}
+			writer.writeEndElement();
+			writer.writeCharacters(System.lineSeparator());
+		});
+		writer.flush();
+
+		return counts;
+	}
+
+	/**
+	 * Converts a result file into a JUnit XML file, on the machine that owns the result file.
+	 */
+	public static final class Transform extends MasterToSlaveFileCallable<Counts>
+	{
+		private static final long serialVersionUID = 1L;
+
+		private final String junitPath;
+
+		/**
+		 * Constructor.
+		 * 
+		 * @param junitPath
+		 * 			  The absolute path of the JUnit file to write.
+		 */
+		public Transform(String junitPath)
+		{
+			this.junitPath = junitPath;
+		}
+
+		/*
+		 * (non-Javadoc)
+		 * @see hudson.FilePath.FileCallable#invoke(java.io.File, hudson.remoting.VirtualChannel)
+		 */
+		@Override
+		public Counts invoke(File resultFile, VirtualChannel channel) throws IOException, InterruptedException
+		{
+			return transform(resultFile, new File(junitPath));
+		}
+	}
+
+	/**
+	 * Converts the result files below a folder that were written since a point in time into JUnit XML files, one per
+	 * result file, on the machine that owns the folder.
+	 */
+	public static final class TransformRecent extends MasterToSlaveFileCallable<Counts>
+	{
+		private static final long serialVersionUID = 1L;
+
+		private final Set<String> extensions;
+		private final Set<String> excludedFolders;
+		private final long since;
+		private final String junitFolder;
+		private final String filePrefix;
+
+		/**
+		 * Constructor.
+		 * 
+		 * @param extensions
+		 * 			  The extensions, without the dot, of the result files.
+		 * @param excludedFolders
+		 * 			  The names of folders that are not searched.
+		 * @param since
+		 * 			  The time, in milliseconds since the epoch, result files must have been modified at or after.
+		 * @param junitFolder
+		 * 			  The absolute path of the folder to write the JUnit files to.
+		 * @param filePrefix
+		 * 			  The start of the names of the JUnit files, followed by the name of the result file.
+		 */
+		public TransformRecent(Set<String> extensions, Set<String> excludedFolders, long since, String junitFolder,
+				String filePrefix)
+		{
+			this.extensions = new TreeSet<>(extensions);
+			this.excludedFolders = new TreeSet<>(excludedFolders);
+			this.since = since;
+			this.junitFolder = junitFolder;
+			this.filePrefix = filePrefix;
+		}
+
+		/*
+		 * (non-Javadoc)
+		 * @see hudson.FilePath.FileCallable#invoke(java.io.File, hudson.remoting.VirtualChannel)
+		 */
+		@Override
+		public Counts invoke(File folder, VirtualChannel channel) throws IOException, InterruptedException
+		{
+			Counts counts = new Counts();
+			for (File resultFile : new TotalTestFileWalker(extensions, true, excludedFolders).walk(folder, null))
+			{
+				if (resultFile.lastModified() >= since)
+				{
+					counts.add(transform(resultFile, new File(junitFolder, filePrefix + resultFile.getName() + ".xml"))); //$NON-NLS-1$
+				}
+			}
+
+			return counts;
+		}
+	}
+}
@@ -0,0 +1,319 @@
+/**
+ * The MIT License (MIT)
+ * 
+ * (c) Copyright 2026 BMC Software, Inc.
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated documentation
+ * files (the "Software"), to deal in the Software without restriction, including without limitation the rights to use, copy,
+ * modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to permit persons to whom the
+ * Software is furnished to do so, subject to the following conditions: The above copyright notice and this permission notice
+ * shall be included in all copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+ * WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE,
+ * ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package com.compuware.jenkins.totaltest;
+
+import java.io.PrintWriter;
+import java.util.Map;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.DoubleAdder;
+import java.util.concurrent.atomic.LongAdder;
+
+import hudson.model.Executor;
+import hudson.model.Queue;
+import hudson.model.Run;
+
+/**
+ * Controller wide counters and histograms for the Total Test steps.
+ * <p>
+ * The values are collected in memory for the life of the controller and written in the Prometheus text exposition
+ * format by {@link TotalTestMetricsAction}.
+ */
+public final class TotalTestMetrics
+{
+	public static final String STEP_FUNCTIONAL = "functional"; //$NON-NLS-1$
+	public static final String STEP_UNIT = "unit"; //$NON-NLS-1$
+
+	private static final String RUNS = "totaltest_runs_total"; //$NON-NLS-1$
+	private static final String EXIT_CODES = "totaltest_cli_exit_code_total"; //$NON-NLS-1$
+	private static final String RUN_DURATION = "totaltest_run_duration_seconds"; //$NON-NLS-1$
+	private static final String QUEUE_WAIT = "totaltest_queue_wait_seconds"; //$NON-NLS-1$
+	private static final String RESULT_FILE_SIZE = "totaltest_result_file_bytes"; //$NON-NLS-1$
+	private static final String PHASE_DURATION = "totaltest_phase_duration_seconds"; //$NON-NLS-1$
+	private static final String REMOTING_CALLS = "totaltest_remoting_round_trips"; //$NON-NLS-1$
+
+	private static final double[] DURATION_BUCKETS = { 1, 5, 10, 30, 60, 120, 300, 600, 1800, 3600, 7200 };
+	private static final double[] QUEUE_WAIT_BUCKETS = { 0.1, 1, 5, 10, 30, 60, 300, 600, 1800 };
+	private static final double[] ROUND_TRIP_BUCKETS = { 10, 25, 50, 100, 250, 500, 1000, 5000 };
+	private static final double[] FILE_SIZE_BUCKETS = { 1024, 10240, 102400, 1048576, 10485760, 104857600 };
+
+	private static final TotalTestMetrics INSTANCE = new TotalTestMetrics();
+
+	private final ConcurrentMap<String, Family> families = new ConcurrentHashMap<>();
+
+	private TotalTestMetrics()
+	{
+		addFamily(RUNS, "counter", "Total Test step runs by outcome and target.", null); //$NON-NLS-1$ //$NON-NLS-2$
+		addFamily(EXIT_CODES, "counter", "Total Test CLI exit codes.", null); //$NON-NLS-1$ //$NON-NLS-2$
+		addFamily(RUN_DURATION, "histogram", "Total Test step duration by target.", DURATION_BUCKETS); //$NON-NLS-1$ //$NON-NLS-2$
+		addFamily(QUEUE_WAIT, "histogram", "Time builds running a Total Test step waited in the queue.", QUEUE_WAIT_BUCKETS); //$NON-NLS-1$ //$NON-NLS-2$
+		addFamily(RESULT_FILE_SIZE, "histogram", "Size of the Total Test result files that were read.", FILE_SIZE_BUCKETS); //$NON-NLS-1$ //$NON-NLS-2$
+		addFamily(PHASE_DURATION, "histogram", "Duration of each Total Test step phase.", DURATION_BUCKETS); //$NON-NLS-1$ //$NON-NLS-2$
+		addFamily(REMOTING_CALLS, "histogram", "Remoting round trips made by each Total Test step.", ROUND_TRIP_BUCKETS); //$NON-NLS-1$ //$NON-NLS-2$
+	}
+
+	/**
+	 * Returns the metrics of this controller.
+	 * 
+	 * @return	The singleton instance.
+	 */
+	public static TotalTestMetrics get()
+	{
+		return INSTANCE;
+	}
+
+	/**
+	 * Records a completed step.
+	 * 
+	 * @param step
+	 * 			{@link #STEP_FUNCTIONAL} or {@link #STEP_UNIT}.
+	 * @param target
+	 * 			The environment id or host connection the tests ran against.
+	 * @param success
+	 * 			<code>true</code> if the step succeeded, otherwise <code>false</code>.
+	 * @param durationMillis
+	 * 			The duration of the step in milliseconds.
+	 * @param queueWaitMillis
+	 * 			The time the build waited in the queue in milliseconds, negative if unknown.
+	 */
+	public void recordRun(String step, String target, boolean success, long durationMillis, long queueWaitMillis)
+	{
+		String safeTarget = target != null ? target : ""; //$NON-NLS-1$
+		families.get(RUNS).increment(labels("step", step, "target", safeTarget, "outcome", success ? "success" : "failure")); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$ //$NON-NLS-4$ //$NON-NLS-5$
+		families.get(RUN_DURATION).observe(labels("step", step, "target", safeTarget), durationMillis / 1000.0); //$NON-NLS-1$ //$NON-NLS-2$
+		if (queueWaitMillis >= 0)
+		{
+			families.get(QUEUE_WAIT).observe(labels("step", step), queueWaitMillis / 1000.0); //$NON-NLS-1$
+		}
+	}
+
+	/**
+	 * Returns the time a build waited in the queue for an executor once it was buildable.
+	 * <p>
+	 * The wait is taken from the queue item the executor of the build picked up; the start time of the build cannot be
+	 * used, as it is only set once the build has left the queue. For a Pipeline this is the wait of the run itself, not
+	 * of the <code>node</code> block running the step.
+	 * 
+	 * @param build
+	 * 			The build.
+	 * 
+	 * @return	The wait in milliseconds, or <code>-1</code> if the build is not running on an executor.
+	 */
+	public static long getQueueWait(Run<?, ?> build)
+	{
+		Executor executor = build instanceof Queue.Executable ? Executor.of((Queue.Executable) build) : null;
+
+		return executor != null ? executor.getTimeSpentInQueue() : -1;
+	}
+
+	/**
+	 * Records the exit code of a CLI run.
+	 * 
+	 * @param step
+	 * 			{@link #STEP_FUNCTIONAL} or {@link #STEP_UNIT}.
+	 * @param exitCode
+	 * 			The CLI exit code.
+	 */
+	public void recordExitCode(String step, int exitCode)
+	{
+		families.get(EXIT_CODES).increment(labels("step", step, "code", Integer.toString(exitCode))); //$NON-NLS-1$ //$NON-NLS-2$
+	}
+
+	/**
+	 * Records the size of a result file that was read.
+	 * 
+	 * @param bytes
+	 * 			The size of the file in bytes.
+	 */
+	public void recordResultFileSize(long bytes)
+	{
+		families.get(RESULT_FILE_SIZE).observe("", bytes); //$NON-NLS-1$
+	}
+
+	/**
+	 * Records the duration of each phase of a step and the number of remoting round trips it made.
+	 * 
+	 * @param step
+	 * 			{@link #STEP_FUNCTIONAL} or {@link #STEP_UNIT}.
+	 * @param timings
+	 * 			The timings recorded while the step ran.
+	 */
+	public void recordPhases(String step, TotalTestPhaseTimings timings)
+	{
+		for (Map.Entry<String, Long> duration : timings.getDurations().entrySet())
+		{
+			families.get(PHASE_DURATION).observe(labels("step", step, "phase", duration.getKey()), duration.getValue() / 1000.0); //$NON-NLS-1$ //$NON-NLS-2$
+		}
+
+		Long remotingCalls = timings.getRemotingCalls();
+		if (remotingCalls != null)
+		{
+			families.get(REMOTING_CALLS).observe(labels("step", step), remotingCalls); //$NON-NLS-1$
+		}
+	}
+
+	/**
+	 * Writes all metrics in the Prometheus text exposition format.
+	 * 
+	 * @param writer
+	 * 			The writer to write the metrics to.
+	 */
+	public void writeTo(PrintWriter writer)
+	{
+		for (Family family : new TreeMap<>(families).values())
+		{
+			family.writeTo(writer);
+		}
+	}
+
+	private void addFamily(String name, String type, String help, double[] buckets)
+	{
+		families.put(name, new Family(name, type, help, buckets));
+	}
+
+	/**
+	 * Builds a label set from name and value pairs.
+	 */
+	private static String labels(String... namesAndValues)
+	{
+		StringBuilder labels = new StringBuilder();
+		for (int i = 0; i + 1 < namesAndValues.length; i += 2)
+		{
+			if (labels.length() > 0)
+			{
+				labels.append(',');
+			}
+			labels.append(namesAndValues[i]).append("=\"").append(escape(namesAndValues[i + 1])).append('"'); //$NON-NLS-1$
+		}
+
+		return labels.toString();
+	}
+
+	private static String escape(String value)
+	{
+		return value.replace("\\", "\\\\").replace("\"", "\\\"").replace("\n", "\\n"); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$ //$NON-NLS-4$ //$NON-NLS-5$ //$NON-NLS-6$
+	}
+
+	private static String withLabel(String labels, String extra)
+	{
+		return labels.isEmpty() ? extra : labels + ',' + extra;
+	}
+
+	/**
+	 * A metric with all of its label sets.
+	 */
+	private static final class Family
+	{
+		private final String name;
+		private final String type;
+		private final String help;
+		private final double[] buckets;
+		private final ConcurrentMap<String, LongAdder> counters = new ConcurrentHashMap<>();
+		private final ConcurrentMap<String, Histogram> histograms = new ConcurrentHashMap<>();
+
+		Family(String name, String type, String help, double[] buckets)
+		{
+			this.name = name;
+			this.type = type;
+			this.help = help;
+			this.buckets = buckets;
+		}
+
+		void increment(String labels)
+		{
+			counters.computeIfAbsent(labels, key -> new LongAdder()).increment();
+		}
+
+		void observe(String labels, double value)
+		{
+			histograms.computeIfAbsent(labels, key -> new Histogram(buckets)).observe(value);
+		}
+
+		void writeTo(PrintWriter writer)
+		{
+			writer.println("# HELP " + name + ' ' + help); //$NON-NLS-1$
+			writer.println("# TYPE " + name + ' ' + type); //$NON-NLS-1$
+
+			SortedMap<String, LongAdder> sortedCounters = new TreeMap<>(counters);
+			for (Map.Entry<String, LongAdder> counter : sortedCounters.entrySet())
+			{
+				writer.println(series(name, counter.getKey()) + ' ' + counter.getValue().sum());
+			}
+
+			SortedMap<String, Histogram> sortedHistograms = new TreeMap<>(histograms);
+			for (Map.Entry<String, Histogram> histogram : sortedHistograms.entrySet())
+			{
+				histogram.getValue().writeTo(writer, name, histogram.getKey());
+			}
+		}
+
+		static String series(String name, String labels)
+		{
+			return labels.isEmpty() ? name : name + '{' + labels + '}';
+		}
+	}
+
+	/**
+	 * A cumulative histogram with fixed bucket bounds.
+	 */
+	private static final class Histogram
+	{
+		private final double[] bounds;
+		private final LongAdder[] counts;
+		private final LongAdder count = new LongAdder();
+		private final DoubleAdder sum = new DoubleAdder();
+
+		Histogram(double[] bounds)
+		{
+			this.bounds = bounds;
+			this.counts = new LongAdder[bounds.length];
+			for (int i = 0; i < bounds.length; i++)
+			{
+				counts[i] = new LongAdder();
+			}
+		}
+
+		void observe(double value)
+		{
+			for (int i = 0; i < bounds.length; i++)
+			{
+				if (value <= bounds[i])
+				{
+					counts[i].increment();
+					break;
+				}
+			}
+			count.increment();
+			sum.add(value);
+		}
+
+		void writeTo(PrintWriter writer, String name, String labels)
+		{
+			long cumulative = 0;
+			for (int i = 0; i < bounds.length; i++)
+			{
+				cumulative += counts[i].sum();
+				writer.println(Family.series(name + "_bucket", withLabel(labels, "le=\"" + bounds[i] + '"')) + ' ' + cumulative); //$NON-NLS-1$ //$NON-NLS-2$
+			}
+			writer.println(Family.series(name + "_bucket", withLabel(labels, "le=\"+Inf\"")) + ' ' + count.sum()); //$NON-NLS-1$ //$NON-NLS-2$
+			writer.println(Family.series(name + "_sum", labels) + ' ' + sum.sum()); //$NON-NLS-1$
+			writer.println(Family.series(name + "_count", labels) + ' ' + count.sum()); //$NON-NLS-1$
+		}
+	}
+}
@@ -0,0 +1,91 @@
+/**
+ * The MIT License (MIT)
+ * 
+ * (c) Copyright 2026 BMC Software, Inc.
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated documentation
+ * files (the "Software"), to deal in the Software without restriction, including without limitation the rights to use, copy,
+ * modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to permit persons to whom the
+ * Software is furnished to do so, subject to the following conditions: The above copyright notice and this permission notice
+ * shall be included in all copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+ * WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE,
+ * ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package com.compuware.jenkins.totaltest;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+
+import org.kohsuke.stapler.StaplerRequest2;
+import org.kohsuke.stapler.StaplerResponse2;
+
+import hudson.Extension;
+import hudson.model.RootAction;
+import jenkins.model.Jenkins;
+
+/**
+ * Exposes {@link TotalTestMetrics} at <code>/totaltest-metrics/</code> in the Prometheus text exposition format.
+ * <p>
+ * The endpoint requires the Overall/SystemRead permission, so a scraper can use a read only account.
+ */
+@Extension
+public class TotalTestMetricsAction implements RootAction
+{
+	private static final String URL_NAME = "totaltest-metrics"; //$NON-NLS-1$
+	private static final String CONTENT_TYPE = "text/plain; version=0.0.4; charset=utf-8"; //$NON-NLS-1$
+
+	/**
+	 * Writes the metrics.
+	 * 
+	 * @param req
+	 * 			The request.
+	 * @param rsp
+	 * 			The response.
+	 * 
+	 * @throws IOException
+	 * 			If the response could not be written.
+	 */
+	public void doIndex(StaplerRequest2 req, StaplerResponse2 rsp) throws IOException
+	{
+		Jenkins.get().checkPermission(Jenkins.SYSTEM_READ);
+
+		rsp.setContentType(CONTENT_TYPE);
+		try (PrintWriter writer = rsp.getWriter())
+		{
+			TotalTestMetrics.get().writeTo(writer);
+		}
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see hudson.model.Action#getIconFileName()
+	 */
+	@Override
+	public String getIconFileName()
+	{
+		return null;
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see hudson.model.Action#getDisplayName()
+	 */
+	@Override
+	public String getDisplayName()
+	{
+		return null;
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see hudson.model.Action#getUrlName()
+	 */
+	@Override
+	public String getUrlName()
+	{
+		return URL_NAME;
+	}
+}
@@ -0,0 +1,224 @@
+/**
+ * The MIT License (MIT)
+ * 
+ * (c) Copyright 2026 BMC Software, Inc.
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated documentation
+ * files (the "Software"), to deal in the Software without restriction, including without limitation the rights to use, copy,
+ * modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to permit persons to whom the
+ * Software is furnished to do so, subject to the following conditions: The above copyright notice and this permission notice
+ * shall be included in all copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+ * WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE,
+ * ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package com.compuware.jenkins.totaltest;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.io.Serializable;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Records how long each phase of a Total Test run took.
+ * <p>
+ * Durations are kept in milliseconds in the order the phases first ran. A phase that runs more than once, for example the
+ * CLI version probes, accumulates its durations.
+ */
+public class TotalTestPhaseTimings implements Serializable
+{
+	private static final long serialVersionUID = 1L;
+
+	public static final String VALIDATE = "Validate"; //$NON-NLS-1$
+	public static final String CLI_RESOLVE = "CLI resolve"; //$NON-NLS-1$
+	public static final String VERSION_PROBE = "Version probe"; //$NON-NLS-1$
+	public static final String ARGUMENT_BUILD = "Argument build"; //$NON-NLS-1$
+	public static final String PROCESS_LAUNCH = "Process launch"; //$NON-NLS-1$
+	public static final String FIRST_OUTPUT = "First output"; //$NON-NLS-1$
+	public static final String PROCESS_EXIT = "Process exit"; //$NON-NLS-1$
+	public static final String RESULT_LOCATE = "Result locate"; //$NON-NLS-1$
+	public static final String RESULT_PARSE = "Result parse"; //$NON-NLS-1$
+	public static final String COVERAGE_CHECK = "Coverage check"; //$NON-NLS-1$
+	public static final String JUNIT_WRITE = "JUnit write"; //$NON-NLS-1$
+	public static final String SONAR_WRITE = "Sonar write"; //$NON-NLS-1$
+	public static final String REPORT_ARCHIVE = "Report archive"; //$NON-NLS-1$
+	public static final String RESULT_KEEP = "Result keep"; //$NON-NLS-1$
+
+	private final Map<String, Long> durations = new LinkedHashMap<>();
+	private transient Map<String, Long> started;
+	private Long remotingCalls;
+
+	/**
+	 * Marks the start of a phase.
+	 * 
+	 * @param phase
+	 * 			The name of the phase.
+	 */
+	public synchronized void start(String phase)
+	{
+		if (started == null)
+		{
+			started = new HashMap<>();
+		}
+		started.put(phase, System.nanoTime());
+	}
+
+	/**
+	 * Marks the end of a phase started with {@link #start(String)}.
+	 * 
+	 * @param phase
+	 * 			The name of the phase.
+	 */
+	public synchronized void stop(String phase)
+	{
+		Long startTime = (started != null) ? started.remove(phase) : null;
+		if (startTime != null)
+		{
+			record(phase, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startTime));
+		}
+	}
+
+	/**
+	 * Adds a duration to a phase.
+	 * 
+	 * @param phase
+	 * 			The name of the phase.
+	 * @param millis
+	 * 			The duration in milliseconds.
+	 */
+	public synchronized void record(String phase, long millis)
+	{
+		durations.merge(phase, millis, Long::sum);
+	}
+
+	/**
+	 * Returns the recorded durations.
+	 * 
+	 * @return	The durations in milliseconds keyed by phase, in the order the phases ran.
+	 */
+	public synchronized Map<String, Long> getDurations()
+	{
+		return Collections.unmodifiableMap(new LinkedHashMap<>(durations));
+	}
+
+	/**
+	 * Returns the duration of a phase.
+	 * 
+	 * @param phase
+	 * 			The name of the phase.
+	 * 
+	 * @return	The duration in milliseconds, or <code>-1</code> if the phase did not run.
+	 */
+	public synchronized long getDuration(String phase)
+	{
+		Long duration = durations.get(phase);
+		return duration != null ? duration : -1;
+	}
+
+	/**
+	 * Sets the number of remoting round trips the step made.
+	 * 
+	 * @param remotingCalls
+	 * 			The number of round trips.
+	 */
+	public synchronized void setRemotingCalls(long remotingCalls)
+	{
+		this.remotingCalls = remotingCalls;
+	}
+
+	/**
+	 * Returns the number of remoting round trips the step made.
+	 * 
+	 * @return	The number of round trips, or <code>null</code> if they were not counted.
+	 */
+	public synchronized Long getRemotingCalls()
+	{
+		return remotingCalls;
+	}
+
+	/**
+	 * Prints the durations as a compact table.
+	 * 
+	 * @param logger
+	 * 			The stream to print to, normally the build log.
+	 */
+	public synchronized void printTable(PrintStream logger)
+	{
+		if (durations.isEmpty())
+		{
+			return;
+		}
+
+		logger.println("Total Test phase timings (ms):"); //$NON-NLS-1$
+		for (Map.Entry<String, Long> duration : durations.entrySet())
+		{
+			logger.println(String.format("  %-16s %10d", duration.getKey(), duration.getValue())); //$NON-NLS-1$
+		}
+		if (remotingCalls != null)
+		{
+			logger.println(String.format("Remoting round trips: %d", remotingCalls)); //$NON-NLS-1$
+		}
+	}
+
+	/**
+	 * Returns a stream that passes everything through to <code>out</code> and records the {@link #FIRST_OUTPUT} phase,
+	 * measured from the start of the {@link #PROCESS_LAUNCH} phase, when the first byte is written.
+	 * 
+	 * @param out
+	 * 			The stream the process output is written to.
+	 * 
+	 * @return	The wrapping stream.
+	 */
+	public OutputStream firstOutputStream(final OutputStream out)
+	{
+		final long launchTime = System.nanoTime();
+
+		return new OutputStream()
+		{
+			private boolean seen = false;
+
+			private void mark()
+			{
+				if (!seen)
+				{
+					seen = true;
+					record(FIRST_OUTPUT, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - launchTime));
+				}
+			}
+
+			@Override
+			public void write(int b) throws IOException
+			{
+				mark();
+				out.write(b);
+			}
+
+			@Override
+			public void write(byte[] b, int off, int len) throws IOException
+			{
+				mark();
+				out.write(b, off, len);
+			}
+
+			@Override
+			public void flush() throws IOException
+			{
+				out.flush();
+			}
+
+			@Override
+			public void close() throws IOException
+			{
+				// The build log belongs to the build, so it is only flushed.
+				out.flush();
+			}
+		};
+	}
+}
@@ -0,0 +1,365 @@
+/**
+ * The MIT License (MIT)
+ * 
+ * (c) Copyright 2026 BMC Software, Inc.
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated documentation
+ * files (the "Software"), to deal in the Software without restriction, including without limitation the rights to use, copy,
+ * modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to permit persons to whom the
+ * Software is furnished to do so, subject to the following conditions: The above copyright notice and this permission notice
+ * shall be included in all copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+ * WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE,
+ * ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package com.compuware.jenkins.totaltest;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.Serializable;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+
+import hudson.remoting.VirtualChannel;
+import hudson.util.AtomicFileWriter;
+import jenkins.MasterToSlaveFileCallable;
+
+/**
+ * Selects the Functional Test files that test a set of programs, using an index of the programs each test file
+ * references.
+ * <p>
+ * The index is kept in the workspace as one line per test file holding its SHA-256 hash, the programs it references and
+ * its path relative to the test folder. Only files whose hash changed since the last build are parsed again. A program
+ * is referenced by a <code>program</code> or <code>programName</code> element or attribute anywhere in the file.
+ * <p>
+ * The test folder is walked and the index is updated on the machine that owns the workspace, in a single remoting call.
+ */
+public final class TotalTestProgramIndex extends MasterToSlaveFileCallable<TotalTestProgramIndex.Selection>
+{
+	private static final long serialVersionUID = 1L;
+
+	/** The location of the index, relative to the workspace. */
+	public static final String INDEX_FILE = ".totaltest" + File.separator + "program-index.txt"; //NOSONAR //$NON-NLS-1$ //$NON-NLS-2$
+
+	private static final List<String> PROGRAM_NAMES = Arrays.asList("program", "programname"); //$NON-NLS-1$ //$NON-NLS-2$
+	private static final String FIELD_SEPARATOR = "\t"; //$NON-NLS-1$
+	private static final String PROGRAM_SEPARATOR = ","; //$NON-NLS-1$
+
+	private final String indexPath;
+	private final Set<String> programs;
+	private final Set<String> extensions;
+	private final boolean recursive;
+
+	/**
+	 * Constructor.
+	 * 
+	 * @param indexPath
+	 * 			  The absolute path of the index file on the machine that owns the workspace.
+	 * @param programs
+	 * 			  The names of the programs to select tests for.
+	 * @param extensions
+	 * 			  The extensions, without the dot, of the test files the CLI runs.
+	 * @param recursive
+	 * 			  <code>true</code> if test files in sub-folders are selected too, otherwise <code>false</code>.
+	 */
+	public TotalTestProgramIndex(String indexPath, Set<String> programs, Set<String> extensions, boolean recursive)
+	{
+		this.indexPath = indexPath;
+		this.programs = new TreeSet<>();
+		for (String program : programs)
+		{
+			this.programs.add(program.trim().toUpperCase(Locale.ROOT));
+		}
+		this.extensions = new TreeSet<>(extensions);
+		this.recursive = recursive;
+	}
+
+	/**
+	 * The test files selected from a test folder.
+	 */
+	public static final class Selection implements Serializable
+	{
+		private static final long serialVersionUID = 1L;
+
+		private final List<String> testFiles;
+		private final int indexedFiles;
+		private final int parsedFiles;
+
+		Selection(List<String> testFiles, int indexedFiles, int parsedFiles)
+		{
+			this.testFiles = testFiles;
+			this.indexedFiles = indexedFiles;
+			this.parsedFiles = parsedFiles;
+		}
+
+		/**
+		 * Returns the selected test files.
+		 * 
+		 * @return	The absolute paths of the test files that reference one of the programs, in path order.
+		 */
+		public List<String> getTestFiles()
+		{
+			return Collections.unmodifiableList(testFiles);
+		}
+
+		/**
+		 * Returns the number of test files in the index.
+		 * 
+		 * @return	The number of test files found in the test folder.
+		 */
+		public int getIndexedFiles()
+		{
+			return indexedFiles;
+		}
+
+		/**
+		 * Returns the number of test files that were new or changed and had to be parsed.
+		 * 
+		 * @return	The number of parsed test files.
+		 */
+		public int getParsedFiles()
+		{
+			return parsedFiles;
+		}
+	}
+
+	/**
+	 * An entry of the index.
+	 */
+	private static final class Entry
+	{
+		private final String hash;
+		private final Set<String> programs;
+
+		Entry(String hash, Set<String> programs)
+		{
+			this.hash = hash;
+			this.programs = programs;
+		}
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see hudson.FilePath.FileCallable#invoke(java.io.File, hudson.remoting.VirtualChannel)
+	 */
+	@Override
+	public Selection invoke(File testFolder, VirtualChannel channel) throws IOException, InterruptedException
+	{
+		File indexFile = new File(indexPath);
+		Map<String, Entry> oldIndex = readIndex(indexFile);
+		Map<String, Entry> newIndex = new HashMap<>();
+		List<File> testFiles = new ArrayList<>();
+		collectTestFiles(testFolder, extensions, recursive, testFiles);
+
+		List<String> selected = new ArrayList<>();
+		int parsedFiles = 0;
+		for (File testFile : testFiles)
+		{
+			String relativePath = testFolder.toPath().relativize(testFile.toPath()).toString();
+			byte[] content = Files.readAllBytes(testFile.toPath());
+			String hash = sha256(content);
+
+			Entry entry = oldIndex.get(relativePath);
+			if (entry == null || !entry.hash.equals(hash))
+			{
+				entry = new Entry(hash, readPrograms(content));
+				parsedFiles++;
+			}
+			newIndex.put(relativePath, entry);
+
+			if (!Collections.disjoint(entry.programs, programs))
+			{
+				selected.add(testFile.getAbsolutePath());
+			}
+		}
+
+		if (parsedFiles > 0 || newIndex.size() != oldIndex.size())
+		{
+			writeIndex(indexFile, newIndex);
+		}
+
+		Collections.sort(selected);
+		return new Selection(selected, newIndex.size(), parsedFiles);
+	}
+
+	/**
+	 * Adds the test files of a folder to a list.
+	 * 
+	 * @param folder
+	 * 			  The test folder.
+	 * @param extensions
+	 * 			  The extensions, without the dot, of the test files.
+	 * @param recursive
+	 * 			  <code>true</code> if the test files in sub-folders are added too, otherwise <code>false</code>.
+	 * @param testFiles
+	 * 			  The list to add the test files to.
+	 * 
+	 * @throws IOException
+	 * 			If the folder could not be walked.
+	 */
+	static void collectTestFiles(File folder, Set<String> extensions, boolean recursive, List<File> testFiles) throws IOException
+	{
+		testFiles.addAll(new TotalTestFileWalker(extensions, recursive, Collections.emptySet()).walk(folder, null));
+	}
+
+	/**
+	 * Returns the upper case names of the programs a test file references.
+	 */
+	private static Set<String> readPrograms(byte[] content)
+	{
+		Set<String> referenced = new TreeSet<>();
+		try
+		{
+			XMLStreamReader reader = TotalTestResultParser.newInputFactory().createXMLStreamReader(new ByteArrayInputStream(content));
+			try
+			{
+				StringBuilder text = null;
+				while (reader.hasNext())
+				{
+					int event = reader.next();
+					if (event == XMLStreamConstants.START_ELEMENT)
+					{
+						for (int i = 0; i < reader.getAttributeCount(); i++)
+						{
+							if (isProgramName(reader.getAttributeLocalName(i)))
+							{
+								addProgram(referenced, reader.getAttributeValue(i));
+							}
+						}
+
+						if (isProgramName(reader.getLocalName()))
+						{
+							text = new StringBuilder();
+						}
+					}
+					else if ((event == XMLStreamConstants.CHARACTERS || event == XMLStreamConstants.CDATA) && text != null)
+					{
+						text.append(reader.getText());
+					}
+					else if (event == XMLStreamConstants.END_ELEMENT && text != null && isProgramName(reader.getLocalName()))
+					{
+						addProgram(referenced, text.toString());
+						text = null;
+					}
+				}
+			}
+			finally
+			{
+				reader.close();
+			}
+		}
+		catch (XMLStreamException e)
+		{
+			// A file that cannot be parsed references no program, so it is only run once it is fixed.
+		}
+
+		return referenced;
+	}
+
+	private static boolean isProgramName(String name)
+	{
+		return PROGRAM_NAMES.contains(name.toLowerCase(Locale.ROOT));
+	}
+
+	private static void addProgram(Set<String> referenced, String program)
+	{
+		if (program != null && !program.trim().isEmpty())
+		{
+			referenced.add(program.trim().toUpperCase(Locale.ROOT));
+		}
+	}
+
+	/**
+	 * Reads the index, an unreadable or missing index is treated as empty.
+	 */
+	private static Map<String, Entry> readIndex(File indexFile) throws IOException
+	{
+		Map<String, Entry> index = new HashMap<>();
+		if (!indexFile.isFile())
+		{
+			return index;
+		}
+
+		try (BufferedReader reader = Files.newBufferedReader(indexFile.toPath(), StandardCharsets.UTF_8))
+		{
+			String line;
+			while ((line = reader.readLine()) != null)
+			{
+				String[] fields = line.split(FIELD_SEPARATOR, 3);
+				if (fields.length == 3)
+				{
+					Set<String> referenced = new TreeSet<>();
+					for (String program : fields[1].split(PROGRAM_SEPARATOR))
+					{
+						addProgram(referenced, program);
+					}
+					index.put(fields[2], new Entry(fields[0], referenced));
+				}
+			}
+		}
+
+		return index;
+	}
+
+	private static void writeIndex(File indexFile, Map<String, Entry> index) throws IOException
+	{
+		File parent = indexFile.getParentFile();
+		if (parent != null && !parent.isDirectory() && !parent.mkdirs())
+		{
+			throw new IOException("Unable to create " + parent); //$NON-NLS-1$
+		}
+
+		// written to a temporary file first, so steps running at the same time never read a partial index
+		AtomicFileWriter writer = new AtomicFileWriter(indexFile.toPath(), StandardCharsets.UTF_8);
+		try
+		{
+			for (Map.Entry<String, Entry> entry : index.entrySet())
+			{
+				writer.write(entry.getValue().hash + FIELD_SEPARATOR + String.join(PROGRAM_SEPARATOR, entry.getValue().programs)
+						+ FIELD_SEPARATOR + entry.getKey() + System.lineSeparator());
+			}
+			writer.commit();
+		}
+		finally
+		{
+			writer.abort();
+		}
+	}
+
+	private static String sha256(byte[] content) throws IOException
+	{
+		try
+		{
+			StringBuilder hash = new StringBuilder();
+			for (byte b : MessageDigest.getInstance("SHA-256").digest(content)) //$NON-NLS-1$
+			{
+				hash.append(String.format("%02x", b)); //$NON-NLS-1$
+			}
+
+			return hash.toString();
+		}
+		catch (NoSuchAlgorithmException e)
+		{
+			throw new IOException(e);
+		}
+	}
+}
@@ -0,0 +1,127 @@
+/**
+ * The MIT License (MIT)
+ * 
+ * (c) Copyright 2026 BMC Software, Inc.
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated documentation
+ * files (the "Software"), to deal in the Software without restriction, including without limitation the rights to use, copy,
+ * modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to permit persons to whom the
+ * Software is furnished to do so, subject to the following conditions: The above copyright notice and this permission notice
+ * shall be included in all copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+ * WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE,
+ * ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package com.compuware.jenkins.totaltest;
+
+import java.util.concurrent.atomic.LongAdder;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import hudson.remoting.Channel;
+import hudson.remoting.Command;
+import hudson.remoting.Request;
+import hudson.remoting.VirtualChannel;
+
+/**
+ * Counts the remoting round trips a Total Test step makes over an agent channel.
+ * <p>
+ * Every request sent to the agent, for example <code>FilePath.exists()</code> or <code>FilePath.act()</code>, is one
+ * round trip. The channel is shared with the other builds on the agent and with the agent itself, so only the requests
+ * sent by the thread that attached the counter are counted. Steps running on the controller make no round trips.
+ */
+public final class TotalTestRemotingCounter extends Channel.Listener implements AutoCloseable
+{
+	/**
+	 * The system property holding the maximum number of round trips a step may make before a warning is logged.
+	 */
+	public static final String BUDGET_PROPERTY = TotalTestRemotingCounter.class.getName() + ".budget"; //$NON-NLS-1$
+
+	private static final Logger LOGGER = Logger.getLogger(TotalTestRemotingCounter.class.getName());
+
+	private final Channel channel;
+	private final Thread owner;
+	private final LongAdder roundTrips = new LongAdder();
+
+	private TotalTestRemotingCounter(Channel channel)
+	{
+		this.channel = channel;
+		this.owner = Thread.currentThread();
+	}
+
+	/**
+	 * Starts counting the round trips the current thread makes over a channel.
+	 * 
+	 * @param channel
+	 * 			The channel of the launcher the step runs on, may be <code>null</code>.
+	 * 
+	 * @return	The counter, which must be closed once the step completes.
+	 */
+	public static TotalTestRemotingCounter attach(VirtualChannel channel)
+	{
+		TotalTestRemotingCounter counter = new TotalTestRemotingCounter(channel instanceof Channel ? (Channel) channel : null);
+		if (counter.channel != null)
+		{
+			counter.channel.addListener(counter);
+		}
+
+		return counter;
+	}
+
+	/**
+	 * Returns the maximum number of round trips a step may make, set with the {@link #BUDGET_PROPERTY} system property.
+	 * 
+	 * @return	The budget, or <code>0</code> if no budget is set.
+	 */
+	public static long getBudget()
+	{
+		try
+		{
+			return Long.parseLong(System.getProperty(BUDGET_PROPERTY, "0")); //$NON-NLS-1$
+		}
+		catch (NumberFormatException e)
+		{
+			LOGGER.log(Level.WARNING, "Ignoring invalid value of " + BUDGET_PROPERTY, e); //$NON-NLS-1$
+			return 0;
+		}
+	}
+
+	/**
+	 * Returns the number of round trips counted so far.
+	 * 
+	 * @return	The number of round trips.
+	 */
+	public long getRoundTrips()
+	{
+		return roundTrips.sum();
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see hudson.remoting.Channel.Listener#onWrite(hudson.remoting.Channel, hudson.remoting.Command, long)
+	 */
+	@Override
+	public void onWrite(Channel channel, Command cmd, long blockSize)
+	{
+		// a request is written by the thread that sends it, responses and pipe writes are not round trips of the step
+		if (cmd instanceof Request && Thread.currentThread() == owner)
+		{
+			roundTrips.increment();
+		}
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see java.lang.AutoCloseable#close()
+	 */
+	@Override
+	public void close()
+	{
+		if (channel != null)
+		{
+			channel.removeListener(this);
+		}
+	}
+}
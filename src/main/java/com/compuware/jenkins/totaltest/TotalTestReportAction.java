@@ -0,0 +1,273 @@
+/**
+ * The MIT License (MIT)
+ * 
+ * (c) Copyright 2026 BMC Software, Inc.
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated documentation
+ * files (the "Software"), to deal in the Software without restriction, including without limitation the rights to use, copy,
+ * modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to permit persons to whom the
+ * Software is furnished to do so, subject to the following conditions: The above copyright notice and this permission notice
+ * shall be included in all copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+ * WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE,
+ * ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package com.compuware.jenkins.totaltest;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import org.kohsuke.stapler.StaplerRequest2;
+import org.kohsuke.stapler.StaplerResponse2;
+
+import hudson.model.DirectoryBrowserSupport;
+import hudson.model.Run;
+import hudson.model.TaskListener;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletResponse;
+import jenkins.model.RunAction2;
+import jenkins.util.SystemProperties;
+
+/**
+ * Serves the HTML reports of a Total Test step that ran without having the CLI render them, from the build page.
+ * <p>
+ * The result files of the step are kept in the build folder. The HTML report of a result file is rendered by
+ * {@link TotalTestHtmlReport} the first time it is opened and served from the build folder after that, along with its
+ * stylesheet.
+ */
+public class TotalTestReportAction implements RunAction2
+{
+	private static final String HTML_FOLDER = "html"; //$NON-NLS-1$
+	private static final String HTML_EXTENSION = ".html"; //$NON-NLS-1$
+
+	private final String stepName;
+	private final int stepId;
+	private final String folderName;
+	private final List<String> files;
+
+	private transient Run<?, ?> run;
+
+	/**
+	 * Constructor
+	 * 
+	 * @param stepName
+	 * 			The display name of the step whose results are kept.
+	 * @param stepId
+	 * 			The id of the step, unique within the build.
+	 * @param folderName
+	 * 			The name of the folder in the build folder holding the result files.
+	 * @param files
+	 * 			The names of the result files in the folder, in run order.
+	 */
+	public TotalTestReportAction(String stepName, int stepId, String folderName, List<String> files)
+	{
+		this.stepName = stepName;
+		this.stepId = stepId;
+		this.folderName = folderName;
+		this.files = new ArrayList<>(files);
+	}
+
+	/**
+	 * Adds the action serving the reports of result files kept in the build folder to the build.
+	 * 
+	 * @param build
+	 * 			The build the step ran in.
+	 * @param listener
+	 * 			An instance of <code>TaskListener</code> for the build.
+	 * @param stepName
+	 * 			The display name of the step.
+	 * @param stepId
+	 * 			The id of the step, unique within the build.
+	 * @param folderName
+	 * 			The name of the folder in the build folder holding the result files.
+	 * @param files
+	 * 			The names of the result files in the folder, in run order.
+	 */
+	public static void add(Run<?, ?> build, TaskListener listener, String stepName, int stepId, String folderName,
+			List<String> files)
+	{
+		build.addAction(new TotalTestReportAction(stepName, stepId, folderName, files));
+		listener.getLogger().println("Kept " + files.size() + " result files to render their reports on demand"); //$NON-NLS-1$ //$NON-NLS-2$
+	}
+
+	/**
+	 * Returns the display name of the step whose results are kept.
+	 * 
+	 * @return	The step name.
+	 */
+	public String getStepName()
+	{
+		return stepName;
+	}
+
+	/**
+	 * Returns the name of the folder in the build folder holding the result files.
+	 * 
+	 * @return	The folder name.
+	 */
+	public String getFolderName()
+	{
+		return folderName;
+	}
+
+	/**
+	 * Returns the names of the result files, in run order. The report of a file is served at its name followed by
+	 * <code>.html</code>.
+	 * 
+	 * @return	The file names.
+	 */
+	public List<String> getFiles()
+	{
+		return Collections.unmodifiableList(files);
+	}
+
+	/**
+	 * Returns the build the results belong to.
+	 * 
+	 * @return	The build.
+	 */
+	public Run<?, ?> getRun()
+	{
+		return run;
+	}
+
+	/**
+	 * Returns the name of the result file a kept file was copied from.
+	 * 
+	 * @param file
+	 * 			The name of the kept file.
+	 * 
+	 * @return	The result file name.
+	 */
+	public String getResultFileName(String file)
+	{
+		return TotalTestRunnerUtils.getResultFileName(file);
+	}
+
+	/**
+	 * Serves the HTML report of a result file, rendering it first if it was not opened before. The rest of the URL is the
+	 * name of the result file followed by <code>.html</code>, or the stylesheet of the reports.
+	 * 
+	 * @param req
+	 * 			The request.
+	 * @param rsp
+	 * 			The response.
+	 * 
+	 * @throws IOException
+	 * 			If the report could not be rendered or read.
+	 * @throws ServletException
+	 * 			If the report could not be served.
+	 */
+	public void doDynamic(StaplerRequest2 req, StaplerResponse2 rsp) throws IOException, ServletException
+	{
+		run.checkPermission(Run.ARTIFACTS);
+
+		String path = req.getRestOfPath();
+		while (path.startsWith("/")) //$NON-NLS-1$
+		{
+			path = path.substring(1);
+		}
+
+		if (TotalTestHtmlReport.STYLESHEET.equals(path))
+		{
+			rsp.serveFile(req, TotalTestReportAction.class.getResource("TotalTestReportAction/" + path)); //$NON-NLS-1$
+			return;
+		}
+
+		String file = path.endsWith(HTML_EXTENSION) ? path.substring(0, path.length() - HTML_EXTENSION.length()) : null;
+		if (file == null || !files.contains(file))
+		{
+			rsp.sendError(HttpServletResponse.SC_NOT_FOUND);
+			return;
+		}
+
+		File html = getReport(file);
+		rsp.setHeader("Content-Security-Policy", SystemProperties.getString(DirectoryBrowserSupport.CSP_PROPERTY_NAME, //$NON-NLS-1$
+				DirectoryBrowserSupport.DEFAULT_CSP_VALUE));
+		try (InputStream in = Files.newInputStream(html.toPath()))
+		{
+			rsp.serveFile(req, in, html.lastModified(), html.length(), path);
+		}
+	}
+
+	/**
+	 * Returns the HTML report of a kept result file, rendering it if it does not exist yet.
+	 * 
+	 * @param file
+	 * 			The name of the kept file.
+	 * 
+	 * @return	The HTML file.
+	 * 
+	 * @throws IOException
+	 * 			If the report could not be rendered.
+	 */
+	private synchronized File getReport(String file) throws IOException
+	{
+		File folder = new File(run.getRootDir(), folderName);
+		File html = new File(new File(folder, HTML_FOLDER), file + HTML_EXTENSION);
+		if (!html.isFile())
+		{
+			Files.createDirectories(html.getParentFile().toPath());
+			TotalTestHtmlReport.render(new File(folder, file), html, stepName + " - " + getResultFileName(file)); //$NON-NLS-1$
+		}
+
+		return html;
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see jenkins.model.RunAction2#onAttached(hudson.model.Run)
+	 */
+	@Override
+	public void onAttached(Run<?, ?> r)
+	{
+		this.run = r;
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see jenkins.model.RunAction2#onLoad(hudson.model.Run)
+	 */
+	@Override
+	public void onLoad(Run<?, ?> r)
+	{
+		this.run = r;
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see hudson.model.Action#getIconFileName()
+	 */
+	@Override
+	public String getIconFileName()
+	{
+		return "document.png"; //$NON-NLS-1$
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see hudson.model.Action#getDisplayName()
+	 */
+	@Override
+	public String getDisplayName()
+	{
+		return Messages.htmlReport(stepName);
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see hudson.model.Action#getUrlName()
+	 */
+	@Override
+	public String getUrlName()
+	{
+		return "totaltest-report-" + stepId; //$NON-NLS-1$
+	}
+}
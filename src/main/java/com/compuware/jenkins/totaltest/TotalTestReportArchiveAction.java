@@ -0,0 +1,221 @@
+/**
+ * The MIT License (MIT)
+ * 
+ * (c) Copyright 2026 BMC Software, Inc.
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated documentation
+ * files (the "Software"), to deal in the Software without restriction, including without limitation the rights to use, copy,
+ * modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to permit persons to whom the
+ * Software is furnished to do so, subject to the following conditions: The above copyright notice and this permission notice
+ * shall be included in all copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+ * WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE,
+ * ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package com.compuware.jenkins.totaltest;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.util.List;
+
+import org.kohsuke.stapler.StaplerRequest2;
+import org.kohsuke.stapler.StaplerResponse2;
+
+import hudson.model.DirectoryBrowserSupport;
+import hudson.model.Run;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletResponse;
+import jenkins.model.RunAction2;
+import jenkins.util.SystemProperties;
+
+/**
+ * Serves the archived report files of a Total Test step from the build page, looking them up in the manifest of the step
+ * and reading them from the {@link TotalTestBlobStore} of the job.
+ * <p>
+ * One action is added for every Total Test step that archived its reports.
+ */
+public class TotalTestReportArchiveAction implements RunAction2
+{
+	private final String stepName;
+	private final int stepId;
+	private final String manifestName;
+	private final int fileCount;
+
+	private transient Run<?, ?> run;
+
+	/**
+	 * Constructor
+	 * 
+	 * @param stepName
+	 * 			The display name of the step whose reports were archived.
+	 * @param stepId
+	 * 			The id of the step, unique within the build.
+	 * @param manifestName
+	 * 			The name of the manifest file in the build folder.
+	 * @param fileCount
+	 * 			The number of archived files.
+	 */
+	public TotalTestReportArchiveAction(String stepName, int stepId, String manifestName, int fileCount)
+	{
+		this.stepName = stepName;
+		this.stepId = stepId;
+		this.manifestName = manifestName;
+		this.fileCount = fileCount;
+	}
+
+	/**
+	 * Returns the display name of the step whose reports were archived.
+	 * 
+	 * @return	The step name.
+	 */
+	public String getStepName()
+	{
+		return stepName;
+	}
+
+	/**
+	 * Returns the name of the manifest file in the build folder.
+	 * 
+	 * @return	The manifest name.
+	 */
+	public String getManifestName()
+	{
+		return manifestName;
+	}
+
+	/**
+	 * Returns the number of archived files.
+	 * 
+	 * @return	The file count.
+	 */
+	public int getFileCount()
+	{
+		return fileCount;
+	}
+
+	/**
+	 * Returns the build the reports belong to.
+	 * 
+	 * @return	The build.
+	 */
+	public Run<?, ?> getRun()
+	{
+		return run;
+	}
+
+	/**
+	 * Returns the archived files, in archive order.
+	 * 
+	 * @return	The files.
+	 * 
+	 * @throws IOException
+	 * 			If the manifest could not be read.
+	 */
+	public List<TotalTestBlobStore.Entry> getEntries() throws IOException
+	{
+		run.checkPermission(Run.ARTIFACTS);
+
+		return TotalTestBlobStore.readManifest(new File(run.getRootDir(), manifestName));
+	}
+
+	/**
+	 * Serves an archived file, the rest of the URL being its path in the archive.
+	 * 
+	 * @param req
+	 * 			The request.
+	 * @param rsp
+	 * 			The response.
+	 * 
+	 * @throws IOException
+	 * 			If the file could not be read.
+	 * @throws ServletException
+	 * 			If the file could not be served.
+	 */
+	public void doDynamic(StaplerRequest2 req, StaplerResponse2 rsp) throws IOException, ServletException
+	{
+		run.checkPermission(Run.ARTIFACTS);
+
+		String path = req.getRestOfPath();
+		while (path.startsWith("/")) //$NON-NLS-1$
+		{
+			path = path.substring(1);
+		}
+
+		for (TotalTestBlobStore.Entry entry : getEntries())
+		{
+			if (entry.getPath().equals(path))
+			{
+				File blob = TotalTestBlobStore.of(run.getParent()).getBlob(entry.getHash());
+				if (!blob.isFile())
+				{
+					break;
+				}
+
+				// reports may contain HTML, which gets the same protection as archived artifacts
+				rsp.setHeader("Content-Security-Policy", SystemProperties.getString(DirectoryBrowserSupport.CSP_PROPERTY_NAME, //$NON-NLS-1$
+						DirectoryBrowserSupport.DEFAULT_CSP_VALUE));
+				try (InputStream in = Files.newInputStream(blob.toPath()))
+				{
+					rsp.serveFile(req, in, blob.lastModified(), entry.getSize(), entry.getPath());
+				}
+				return;
+			}
+		}
+
+		rsp.sendError(HttpServletResponse.SC_NOT_FOUND);
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see jenkins.model.RunAction2#onAttached(hudson.model.Run)
+	 */
+	@Override
+	public void onAttached(Run<?, ?> r)
+	{
+		this.run = r;
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see jenkins.model.RunAction2#onLoad(hudson.model.Run)
+	 */
+	@Override
+	public void onLoad(Run<?, ?> r)
+	{
+		this.run = r;
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see hudson.model.Action#getIconFileName()
+	 */
+	@Override
+	public String getIconFileName()
+	{
+		return "package.png"; //$NON-NLS-1$
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see hudson.model.Action#getDisplayName()
+	 */
+	@Override
+	public String getDisplayName()
+	{
+		return Messages.reportArchive(stepName);
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see hudson.model.Action#getUrlName()
+	 */
+	@Override
+	public String getUrlName()
+	{
+		return "totaltest-reports-" + stepId; //$NON-NLS-1$
+	}
+}
@@ -0,0 +1,166 @@
+/**
+ * The MIT License (MIT)
+ * 
+ * (c) Copyright 2026 BMC Software, Inc.
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated documentation
+ * files (the "Software"), to deal in the Software without restriction, including without limitation the rights to use, copy,
+ * modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to permit persons to whom the
+ * Software is furnished to do so, subject to the following conditions: The above copyright notice and this permission notice
+ * shall be included in all copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+ * WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE,
+ * ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package com.compuware.jenkins.totaltest;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+
+import hudson.FilePath;
+import hudson.Launcher;
+import hudson.model.Run;
+import hudson.model.TaskListener;
+import hudson.remoting.VirtualChannel;
+import hudson.util.DirScanner;
+import hudson.util.io.ArchiverFactory;
+import jenkins.MasterToSlaveFileCallable;
+
+/**
+ * Archives the reports of a Total Test step in the {@link TotalTestBlobStore} of its job.
+ * <p>
+ * A compressed tar of the reports is written on the agent that ran the step, so the report files never travel over the
+ * channel one by one. The tar is then streamed to the controller, where files with content that is already stored are
+ * only referenced. A {@link TotalTestReportArchiveAction} serves the files from the build page.
+ */
+public final class TotalTestReportArchiver
+{
+	/** Folders of the CLI workspace and of the plugin, which hold no reports. */
+	private static final String EXCLUDES = "**/" + TotalTestRunner.TOPAZ_CLI_WORKSPACE + "/**,**/" //$NON-NLS-1$ //$NON-NLS-2$
+			+ TotalTestRunner.TOPAZ_CLI_WORKSPACE + "@*/**,.totaltest/**"; //$NON-NLS-1$
+
+	private TotalTestReportArchiver()
+	{
+	}
+
+	/**
+	 * Archives the files of a workspace matching a pattern and adds the action serving them to the build.
+	 * <p>
+	 * A failure to archive is logged and does not fail the step.
+	 * 
+	 * @param build
+	 * 			The build the step ran in.
+	 * @param workspace
+	 * 			The workspace the step ran in.
+	 * @param launcher
+	 * 			The launcher of the step.
+	 * @param listener
+	 * 			An instance of <code>TaskListener</code> for the build.
+	 * @param timings
+	 * 			The timings of the step, to record the duration of archiving in.
+	 * @param stepName
+	 * 			The display name of the step.
+	 * @param stepId
+	 * 			The id of the step, unique within the build.
+	 * @param includes
+	 * 			The comma separated Ant patterns of the report files, relative to the workspace.
+	 */
+	public static void archive(Run<?, ?> build, FilePath workspace, Launcher launcher, TaskListener listener,
+			TotalTestPhaseTimings timings, String stepName, int stepId, String includes)
+	{
+		timings.start(TotalTestPhaseTimings.REPORT_ARCHIVE);
+		try
+		{
+			archive(build, workspace, launcher, listener, stepName, stepId, includes);
+		}
+		catch (IOException e)
+		{
+			listener.getLogger().println("Unable to archive the Total Test reports: " + e.getMessage()); //$NON-NLS-1$
+		}
+		catch (InterruptedException e)
+		{
+			listener.getLogger().println("Archiving the Total Test reports was interrupted."); //$NON-NLS-1$
+			Thread.currentThread().interrupt();
+		}
+		finally
+		{
+			timings.stop(TotalTestPhaseTimings.REPORT_ARCHIVE);
+		}
+	}
+
+	private static void archive(Run<?, ?> build, FilePath workspace, Launcher launcher, TaskListener listener, String stepName,
+			int stepId, String includes) throws IOException, InterruptedException
+	{
+		String archivePath = ".totaltest/totaltest-reports-" + stepId + ".tar.gz"; //$NON-NLS-1$ //$NON-NLS-2$
+		FilePath archive = workspace.child(archivePath);
+		try
+		{
+			int fileCount = workspace.act(new CreateArchive(includes, EXCLUDES, archivePath));
+			if (fileCount == 0)
+			{
+				listener.getLogger().println("No Total Test reports found to archive."); //$NON-NLS-1$
+				return;
+			}
+
+			// the tar is streamed from the agent once and split into the files of the store as it arrives
+			File manifest = new File(build.getRootDir(), "totaltest-reports-" + stepId + ".txt"); //$NON-NLS-1$ //$NON-NLS-2$
+			TotalTestBlobStore.Added added;
+			try (InputStream in = archive.read())
+			{
+				added = TotalTestBlobStore.of(build.getParent()).add(in, manifest);
+			}
+
+			listener.getLogger().println("Archived " + added.getFileCount() + " Total Test report files (" + added.getTotalBytes() //$NON-NLS-1$ //$NON-NLS-2$
+					+ " bytes), " + added.getNewFileCount() + " of them with new content (" + added.getNewBytes() + " bytes stored)."); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+			build.addAction(new TotalTestReportArchiveAction(stepName, stepId, manifest.getName(), added.getFileCount()));
+		}
+		finally
+		{
+			archive.delete();
+		}
+	}
+
+	/**
+	 * Writes the matching files of a folder to a compressed tar in the folder, on the machine that owns it.
+	 */
+	private static final class CreateArchive extends MasterToSlaveFileCallable<Integer>
+	{
+		private static final long serialVersionUID = 1L;
+
+		private final String includes;
+		private final String excludes;
+		private final String archivePath;
+
+		CreateArchive(String includes, String excludes, String archivePath)
+		{
+			this.includes = includes;
+			this.excludes = excludes;
+			this.archivePath = archivePath;
+		}
+
+		/*
+		 * (non-Javadoc)
+		 * @see hudson.FilePath.FileCallable#invoke(java.io.File, hudson.remoting.VirtualChannel)
+		 */
+		@Override
+		public Integer invoke(File dir, VirtualChannel channel) throws IOException, InterruptedException
+		{
+			File archive = new File(dir, archivePath);
+			File parent = archive.getParentFile();
+			if (!parent.isDirectory() && !parent.mkdirs())
+			{
+				throw new IOException("Unable to create " + parent); //$NON-NLS-1$
+			}
+
+			try (OutputStream out = Files.newOutputStream(archive.toPath()))
+			{
+				return new FilePath(dir).archive(ArchiverFactory.TARGZ, out, new DirScanner.Glob(includes, excludes));
+			}
+		}
+	}
+}
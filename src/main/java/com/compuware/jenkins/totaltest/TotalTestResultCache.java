@@ -0,0 +1,410 @@
+/**
+ * The MIT License (MIT)
+ * 
+ * (c) Copyright 2026 BMC Software, Inc.
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated documentation
+ * files (the "Software"), to deal in the Software without restriction, including without limitation the rights to use, copy,
+ * modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to permit persons to whom the
+ * Software is furnished to do so, subject to the following conditions: The above copyright notice and this permission notice
+ * shall be included in all copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+ * WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE,
+ * ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package com.compuware.jenkins.totaltest;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import java.util.regex.Pattern;
+
+import hudson.remoting.VirtualChannel;
+import jenkins.MasterToSlaveFileCallable;
+import jenkins.model.Jenkins;
+
+/**
+ * Remembers the Functional Test files that passed, keyed by a hash of everything the result depends on, so that an
+ * unchanged test does not have to be run again.
+ * <p>
+ * The key of a test file hashes the test file, all other files of its Total Test project (stubs, data, structures, ...),
+ * the sources of the programs under test in the source folder and the settings of the step such as the JCL path, the
+ * context variables and the target environment. Since the key only depends on these inputs, a pass recorded by one job
+ * or branch is reused by every other job that tests the same inputs against the same environment. No key is computed
+ * when the source folder is missing or empty, as a change to the programs under test would then go unnoticed.
+ * <p>
+ * The cache lives on the controller, in <code>JENKINS_HOME/totaltest-result-cache</code>, with one small file per key
+ * holding the build that passed. It keeps at most {@link #MAX_ENTRIES_PROPERTY} entries, the least recently used
+ * entries are evicted first.
+ */
+public final class TotalTestResultCache
+{
+	/** The build variable that forces all tests to run when set to <code>true</code>. */
+	public static final String FORCE_RUN_VARIABLE = "TOTALTEST_FORCE_RUN"; //$NON-NLS-1$
+
+	/** The system property holding the maximum number of cached passes, 50000 by default. */
+	public static final String MAX_ENTRIES_PROPERTY = TotalTestResultCache.class.getName() + ".maxEntries"; //$NON-NLS-1$
+
+	private static final Logger LOGGER = Logger.getLogger(TotalTestResultCache.class.getName());
+	private static final String CACHE_FOLDER = "totaltest-result-cache"; //$NON-NLS-1$
+	private static final String SCENARIOS_FOLDER = "Scenarios"; //$NON-NLS-1$
+	private static final String SUITES_FOLDER = "Suites"; //$NON-NLS-1$
+	private static final Pattern KEY_PATTERN = Pattern.compile("[0-9a-f]{64}"); //$NON-NLS-1$
+
+	private static TotalTestResultCache instance;
+
+	private final File folder;
+	private final int maxEntries;
+	private final LinkedHashMap<String, String> passes = new LinkedHashMap<>(16, 0.75f, true);
+
+	private TotalTestResultCache(File folder, int maxEntries)
+	{
+		this.folder = folder;
+		this.maxEntries = maxEntries;
+	}
+
+	/**
+	 * Returns the cache of this controller, reading it from disk the first time.
+	 * 
+	 * @return	The cache.
+	 */
+	public static synchronized TotalTestResultCache get()
+	{
+		if (instance == null)
+		{
+			instance = new TotalTestResultCache(new File(Jenkins.get().getRootDir(), CACHE_FOLDER),
+					Integer.getInteger(MAX_ENTRIES_PROPERTY, 50000));
+			instance.load();
+		}
+
+		return instance;
+	}
+
+	/**
+	 * Reads the entries from disk, least recently used first.
+	 */
+	private synchronized void load()
+	{
+		List<File> files = new ArrayList<>();
+		File[] shards = folder.listFiles();
+		if (shards != null)
+		{
+			for (File shard : shards)
+			{
+				File[] entries = shard.listFiles();
+				if (entries != null)
+				{
+					files.addAll(Arrays.asList(entries));
+				}
+			}
+		}
+
+		files.sort(Comparator.comparingLong(File::lastModified));
+		for (File file : files)
+		{
+			try
+			{
+				if (!isValidKey(file.getName()))
+				{
+					continue;
+				}
+				passes.put(file.getName(), new String(Files.readAllBytes(file.toPath()), StandardCharsets.UTF_8).trim());
+			}
+			catch (IOException e)
+			{
+				LOGGER.log(Level.WARNING, "Unable to read the cached result " + file, e); //$NON-NLS-1$
+			}
+		}
+		evict();
+	}
+
+	/**
+	 * Returns the build that passed a test with the given key.
+	 * 
+	 * @param key
+	 * 			  The key of the test.
+	 * 
+	 * @return	The external id of the build, or <code>null</code> if no build passed the test with this key.
+	 */
+	public synchronized String getPassingBuild(String key)
+	{
+		if (!isValidKey(key))
+		{
+			return null;
+		}
+
+		String buildId = passes.get(key);
+		if (buildId != null && !getEntryFile(key).setLastModified(System.currentTimeMillis()))
+		{
+			LOGGER.fine(() -> "Unable to mark the cached result " + key + " as used"); //$NON-NLS-1$ //$NON-NLS-2$
+		}
+
+		return buildId;
+	}
+
+	/**
+	 * Records that a test passed.
+	 * 
+	 * @param key
+	 * 			  The key of the test.
+	 * @param buildId
+	 * 			  The external id of the build that passed the test.
+	 */
+	public synchronized void recordPass(String key, String buildId)
+	{
+		if (!isValidKey(key))
+		{
+			return;
+		}
+
+		File file = getEntryFile(key);
+		try
+		{
+			Files.createDirectories(file.getParentFile().toPath());
+			Files.write(file.toPath(), buildId.getBytes(StandardCharsets.UTF_8));
+			passes.put(key, buildId);
+			evict();
+		}
+		catch (IOException e)
+		{
+			LOGGER.log(Level.WARNING, "Unable to cache the result " + key, e); //$NON-NLS-1$
+		}
+	}
+
+	/**
+	 * Removes the least recently used entries until the cache is within its size.
+	 */
+	private void evict()
+	{
+		Iterator<String> keys = passes.keySet().iterator();
+		while (passes.size() > maxEntries && keys.hasNext())
+		{
+			File file = getEntryFile(keys.next());
+			keys.remove();
+			if (!file.delete())
+			{
+				LOGGER.fine(() -> "Unable to delete the cached result " + file); //$NON-NLS-1$
+			}
+		}
+	}
+
+	/**
+	 * Returns if a key is a SHA-256 hash, the keys are computed on agents so they are checked before they are used as a
+	 * file name on the controller.
+	 */
+	private static boolean isValidKey(String key)
+	{
+		return key != null && KEY_PATTERN.matcher(key).matches();
+	}
+
+	/**
+	 * Returns the file of an entry, in a folder named after the first two characters of the key.
+	 */
+	private File getEntryFile(String key)
+	{
+		return new File(new File(folder, key.substring(0, 2)), key);
+	}
+
+	/**
+	 * Computes the keys of the test files of a test folder, on the machine that owns the folder.
+	 * <p>
+	 * The folder may also be a single test file.
+	 */
+	public static final class ComputeKeys extends MasterToSlaveFileCallable<Map<String, String>>
+	{
+		private static final long serialVersionUID = 1L;
+
+		private final List<String> testFiles;
+		private final Set<String> extensions;
+		private final boolean recursive;
+		private final Set<String> excludedFolders;
+		private final String sourceFolder;
+		private final String settings;
+
+		/**
+		 * Constructor.
+		 * 
+		 * @param testFiles
+		 * 			  The absolute paths of the test files, or <code>null</code> to use all test files of the folder.
+		 * @param extensions
+		 * 			  The extensions, without the dot, of the test files the CLI runs.
+		 * @param recursive
+		 * 			  <code>true</code> if test files in sub-folders are used too, otherwise <code>false</code>.
+		 * @param excludedFolders
+		 * 			  The names of folders written by the CLI, which are not part of a project.
+		 * @param sourceFolder
+		 * 			  The absolute path of the folder holding the sources of the programs under test. No keys are computed
+		 * 			  when it is missing or holds no files.
+		 * @param settings
+		 * 			  The settings of the step the result depends on.
+		 */
+		public ComputeKeys(List<String> testFiles, Set<String> extensions, boolean recursive, Set<String> excludedFolders,
+				String sourceFolder, String settings)
+		{
+			this.testFiles = testFiles != null ? new ArrayList<>(testFiles) : null;
+			this.extensions = new TreeSet<>(extensions);
+			this.recursive = recursive;
+			this.excludedFolders = new TreeSet<>(excludedFolders);
+			this.sourceFolder = sourceFolder;
+			this.settings = settings;
+		}
+
+		/*
+		 * (non-Javadoc)
+		 * @see hudson.FilePath.FileCallable#invoke(java.io.File, hudson.remoting.VirtualChannel)
+		 */
+		@Override
+		public Map<String, String> invoke(File testFolder, VirtualChannel channel) throws IOException, InterruptedException
+		{
+			List<File> files = new ArrayList<>();
+			if (testFiles != null)
+			{
+				for (String testFile : testFiles)
+				{
+					files.add(new File(testFile));
+				}
+			}
+			else if (testFolder.isFile())
+			{
+				files.add(testFolder);
+			}
+			else
+			{
+				TotalTestProgramIndex.collectTestFiles(testFolder, extensions, recursive, files);
+			}
+
+			// The programs under test are shared by all tests, a change to any source runs all tests again.
+			MessageDigest sourceDigest = newDigest();
+			File sources = new File(sourceFolder);
+			if (!sources.isDirectory() || digestFolder(sources, sources, sourceDigest) == 0)
+			{
+				// without the sources a pass would be reused after the programs under test changed
+				return Collections.emptyMap();
+			}
+			String sourceHash = toHex(sourceDigest.digest());
+
+			Map<File, String> projectHashes = new HashMap<>();
+			Map<String, String> keys = new LinkedHashMap<>();
+			for (File file : files)
+			{
+				File project = getProject(file);
+				String projectHash = projectHashes.get(project);
+				if (projectHash == null)
+				{
+					MessageDigest digest = newDigest();
+					digestFolder(project, project, digest);
+					projectHash = toHex(digest.digest());
+					projectHashes.put(project, projectHash);
+				}
+
+				MessageDigest digest = newDigest();
+				digest.update(Files.readAllBytes(file.toPath()));
+				digest.update(projectHash.getBytes(StandardCharsets.UTF_8));
+				digest.update(sourceHash.getBytes(StandardCharsets.UTF_8));
+				digest.update(settings.getBytes(StandardCharsets.UTF_8));
+				keys.put(file.getAbsolutePath(), toHex(digest.digest()));
+			}
+
+			return keys;
+		}
+
+		/**
+		 * Returns the project folder of a test file, the parent of its Scenarios or Suites folder.
+		 */
+		private static File getProject(File testFile)
+		{
+			File folder = testFile.getAbsoluteFile().getParentFile();
+			if (folder.getParentFile() != null && (SCENARIOS_FOLDER.equals(folder.getName()) || SUITES_FOLDER.equals(folder.getName())))
+			{
+				folder = folder.getParentFile();
+			}
+
+			return folder;
+		}
+
+		/**
+		 * Adds the relative paths and contents of all files of a folder to a digest, in name order, and returns the number
+		 * of files added.
+		 */
+		private int digestFolder(File root, File folder, MessageDigest digest) throws IOException
+		{
+			File[] children = folder.listFiles();
+			if (children == null)
+			{
+				return 0;
+			}
+
+			int count = 0;
+
+			Arrays.sort(children);
+			for (File child : children)
+			{
+				if (child.isDirectory())
+				{
+					if (!child.getName().startsWith(".") && !TotalTestWorkspaceLease.isExcluded(child.getName(), excludedFolders)) //$NON-NLS-1$
+					{
+						count += digestFolder(root, child, digest);
+					}
+				}
+				else
+				{
+					digest.update(root.toPath().relativize(child.toPath()).toString().getBytes(StandardCharsets.UTF_8));
+					byte[] buffer = new byte[8192];
+					try (InputStream in = Files.newInputStream(child.toPath()))
+					{
+						int read;
+						while ((read = in.read(buffer)) != -1)
+						{
+							digest.update(buffer, 0, read);
+						}
+					}
+					count++;
+				}
+			}
+
+			return count;
+		}
+	}
+
+	private static MessageDigest newDigest() throws IOException
+	{
+		try
+		{
+			return MessageDigest.getInstance("SHA-256"); //$NON-NLS-1$
+		}
+		catch (NoSuchAlgorithmException e)
+		{
+			throw new IOException(e);
+		}
+	}
+
+	private static String toHex(byte[] bytes)
+	{
+		StringBuilder hex = new StringBuilder();
+		for (byte b : bytes)
+		{
+			hex.append(String.format("%02x", b)); //$NON-NLS-1$
+		}
+
+		return hex.toString();
+	}
+}
@@ -0,0 +1,407 @@
+/**
+ * The MIT License (MIT)
+ * 
+ * (c) Copyright 2026 BMC Software, Inc.
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated documentation
+ * files (the "Software"), to deal in the Software without restriction, including without limitation the rights to use, copy,
+ * modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to permit persons to whom the
+ * Software is furnished to do so, subject to the following conditions: The above copyright notice and this permission notice
+ * shall be included in all copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+ * WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE,
+ * ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package com.compuware.jenkins.totaltest;
+
+import java.io.InputStream;
+import java.io.Serializable;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Locale;
+
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+
+/**
+ * Streaming reader for Total Test scenario (<code>XaUnitResult</code>) and suite (<code>XaSuiteResult</code>) result files.
+ * <p>
+ * Only the result type of the root element and the code coverage percentage (<code>/root/CC/data/@percentage</code>) are
+ * kept, so result files of any size are read in constant memory. The test cases of a result can be read one at a time
+ * with {@link #readTestCases(InputStream, String, TestCaseHandler)}.
+ */
+public final class TotalTestResultParser
+{
+	public static final String SUITE_RESULT_ELEMENT = "XaSuiteResult"; //$NON-NLS-1$
+	public static final String SCENARIO_RESULT_ELEMENT = "XaUnitResult"; //$NON-NLS-1$
+
+	private static final String RESULT_TYPE = "resultType"; //$NON-NLS-1$
+	private static final String CC_ELEMENT = "CC"; //$NON-NLS-1$
+	private static final String DATA_ELEMENT = "data"; //$NON-NLS-1$
+	private static final String PERCENTAGE = "percentage"; //$NON-NLS-1$
+	private static final String NAME = "name"; //$NON-NLS-1$
+	private static final String MESSAGE = "message"; //$NON-NLS-1$
+
+	private TotalTestResultParser()
+	{
+	}
+
+	/**
+	 * The values read from a result file.
+	 */
+	public static final class Result implements Serializable
+	{
+		private static final long serialVersionUID = 1L;
+
+		private final String rootElement;
+		private final String resultType;
+		private final String ccPercentage;
+		private final int[] outcomes;
+
+		Result(String rootElement, String resultType, String ccPercentage, int[] outcomes)
+		{
+			this.rootElement = rootElement;
+			this.resultType = resultType;
+			this.ccPercentage = ccPercentage;
+			this.outcomes = outcomes.clone();
+		}
+
+		/**
+		 * Returns the name of the root element.
+		 * 
+		 * @return	<code>XaSuiteResult</code> or <code>XaUnitResult</code> for a valid result file.
+		 */
+		public String getRootElement()
+		{
+			return rootElement;
+		}
+
+		/**
+		 * Returns the result type of the root element.
+		 * 
+		 * @return	The result type, for example <code>SUCCESS</code>, or an empty string if there is none.
+		 */
+		public String getResultType()
+		{
+			return resultType;
+		}
+
+		/**
+		 * Returns the code coverage percentage.
+		 * 
+		 * @return	The percentage, or <code>null</code> if the result has no code coverage data.
+		 */
+		public String getCcPercentage()
+		{
+			return ccPercentage;
+		}
+
+		/**
+		 * Returns the number of test cases with an outcome, counted as
+		 * {@link TotalTestResultParser#readTestCases(InputStream, String, TestCaseHandler)} reads them.
+		 * 
+		 * @param outcome
+		 * 			The outcome.
+		 * 
+		 * @return	The test case count.
+		 */
+		public int getCount(Outcome outcome)
+		{
+			return outcomes[outcome.ordinal()];
+		}
+
+		/**
+		 * Returns the number of test cases.
+		 * 
+		 * @return	The test case count.
+		 */
+		public int getTests()
+		{
+			int tests = 0;
+			for (int count : outcomes)
+			{
+				tests += count;
+			}
+
+			return tests;
+		}
+	}
+
+	/**
+	 * Reads a result file, counting its test cases by outcome in the same pass.
+	 * 
+	 * @param in
+	 * 			The result file contents. The stream is read to its end but not closed.
+	 * @param expectedRootElement
+	 * 			{@link #SUITE_RESULT_ELEMENT} or {@link #SCENARIO_RESULT_ELEMENT}.
+	 * 
+	 * @return	The values read from the file.
+	 * 
+	 * @throws XMLStreamException
+	 * 			If the file is not well formed or its root element is not the expected one.
+	 */
+	public static Result parse(InputStream in, String expectedRootElement) throws XMLStreamException
+	{
+		XMLStreamReader reader = newInputFactory().createXMLStreamReader(in);
+		try
+		{
+			String rootElement = null;
+			String resultType = null;
+			String ccPercentage = null;
+			boolean inCC = false;
+			int depth = 0;
+			int[] outcomes = new int[Outcome.values().length];
+			Deque<Frame> open = new ArrayDeque<>();
+
+			while (reader.hasNext())
+			{
+				int event = reader.next();
+				if (event == XMLStreamConstants.START_ELEMENT)
+				{
+					depth++;
+					open.push(startFrame(open, reader.getAttributeValue(null, RESULT_TYPE), null, null));
+					String name = reader.getLocalName();
+					if (depth == 1)
+					{
+						rootElement = name;
+						if (!expectedRootElement.equals(name))
+						{
+							throw new XMLStreamException(String.format("Expected %s but found %s", expectedRootElement, name)); //$NON-NLS-1$
+						}
+						String value = reader.getAttributeValue(null, RESULT_TYPE);
+						resultType = value != null ? value : ""; //$NON-NLS-1$
+					}
+					else if (depth == 2)
+					{
+						inCC = CC_ELEMENT.equals(name);
+					}
+					else if (depth == 3 && inCC && ccPercentage == null && DATA_ELEMENT.equals(name))
+					{
+						String value = reader.getAttributeValue(null, PERCENTAGE);
+						ccPercentage = value != null ? value : ""; //$NON-NLS-1$
+					}
+				}
+				else if (event == XMLStreamConstants.END_ELEMENT)
+				{
+					if (depth == 2)
+					{
+						inCC = false;
+					}
+					depth--;
+					Frame frame = open.pop();
+					if (frame.resultType != null && !frame.hasResults)
+					{
+						outcomes[Outcome.of(frame.resultType).ordinal()]++;
+					}
+				}
+			}
+
+			if (rootElement == null)
+			{
+				throw new XMLStreamException("The result file is empty"); //$NON-NLS-1$
+			}
+
+			return new Result(rootElement, resultType, ccPercentage, outcomes);
+		}
+		finally
+		{
+			reader.close();
+		}
+	}
+
+	/**
+	 * The outcome of a test case, derived from its result type.
+	 */
+	public enum Outcome
+	{
+		PASSED, FAILED, ERROR, SKIPPED;
+
+		/**
+		 * Returns the outcome of a result type. <code>SUCCESS</code> passes, a result type containing <code>ERROR</code>
+		 * or <code>EXCEPTION</code> is an error, one containing <code>SKIP</code> or <code>NOT_EXECUTED</code> is skipped
+		 * and any other result type is a failure.
+		 * 
+		 * @param resultType
+		 * 			The result type.
+		 * 
+		 * @return	The outcome.
+		 */
+		public static Outcome of(String resultType)
+		{
+			String type = resultType.toUpperCase(Locale.ROOT);
+			if ("SUCCESS".equals(type)) //$NON-NLS-1$
+			{
+				return PASSED;
+			}
+			if (type.contains("SKIP") || type.contains("NOT_EXECUTED")) //$NON-NLS-1$ //$NON-NLS-2$
+			{
+				return SKIPPED;
+			}
+			if (type.contains("ERROR") || type.contains("EXCEPTION")) //$NON-NLS-1$ //$NON-NLS-2$
+			{
+				return ERROR;
+			}
+
+			return FAILED;
+		}
+	}
+
+	/**
+	 * Receives the test cases of a result file.
+	 */
+	public interface TestCaseHandler
+	{
+		/**
+		 * Called for each test case, in the order the test cases end in the file.
+		 * 
+		 * @param className
+		 * 			The names of the results the test case is part of, separated by dots.
+		 * @param name
+		 * 			The name of the test case.
+		 * @param resultType
+		 * 			The result type of the test case.
+		 * @param message
+		 * 			The message of the test case, or <code>null</code> if it has none.
+		 * 
+		 * @throws XMLStreamException
+		 * 			If the test case could not be handled.
+		 */
+		void testCase(String className, String name, String resultType, String message) throws XMLStreamException;
+	}
+
+	/**
+	 * An element with a result type that is still open.
+	 */
+	private static final class Frame
+	{
+		private final String name;
+		private final String resultType;
+		private final String message;
+		private boolean hasResults;
+
+		Frame(String name, String resultType, String message)
+		{
+			this.name = name;
+			this.resultType = resultType;
+			this.message = message;
+		}
+	}
+
+	/**
+	 * Reads the test cases of a result file, in constant memory.
+	 * <p>
+	 * Every element with a <code>resultType</code> attribute and no such element below it, a test case or a scenario
+	 * without test cases, is a test case named after its <code>name</code> attribute. The names of the elements with a
+	 * <code>resultType</code> above it make up its class name.
+	 * 
+	 * @param in
+	 * 			The result file contents. The stream is read to its end but not closed.
+	 * @param suiteName
+	 * 			The class name of a test case that is not part of another result.
+	 * @param handler
+	 * 			The handler receiving the test cases.
+	 * 
+	 * @throws XMLStreamException
+	 * 			If the file is not well formed or the handler failed.
+	 */
+	public static void readTestCases(InputStream in, String suiteName, TestCaseHandler handler) throws XMLStreamException
+	{
+		XMLStreamReader reader = newInputFactory().createXMLStreamReader(in);
+		try
+		{
+			// one frame per open element, elements without a result type have a frame without one
+			Deque<Frame> open = new ArrayDeque<>();
+			while (reader.hasNext())
+			{
+				int event = reader.next();
+				if (event == XMLStreamConstants.START_ELEMENT)
+				{
+					String resultType = reader.getAttributeValue(null, RESULT_TYPE);
+					String name = resultType != null ? reader.getAttributeValue(null, NAME) : null;
+					open.push(startFrame(open, resultType, name != null ? name : reader.getLocalName(),
+							reader.getAttributeValue(null, MESSAGE)));
+				}
+				else if (event == XMLStreamConstants.END_ELEMENT)
+				{
+					Frame frame = open.pop();
+					if (frame.resultType != null && !frame.hasResults)
+					{
+						handler.testCase(getClassName(open, suiteName), frame.name, frame.resultType, frame.message);
+					}
+				}
+			}
+		}
+		finally
+		{
+			reader.close();
+		}
+	}
+
+	/**
+	 * Returns the frame of an element that starts. When the element has a result type, the innermost open element with a
+	 * result type is marked as having results.
+	 * 
+	 * @param open
+	 * 			The frames of the open elements, innermost first.
+	 * @param resultType
+	 * 			The result type of the element, or <code>null</code> if it has none.
+	 * @param name
+	 * 			The name of the element.
+	 * @param message
+	 * 			The message of the element, or <code>null</code> if it has none.
+	 * 
+	 * @return	The frame of the element.
+	 */
+	private static Frame startFrame(Deque<Frame> open, String resultType, String name, String message)
+	{
+		if (resultType != null)
+		{
+			for (Frame frame : open)
+			{
+				if (frame.resultType != null)
+				{
+					frame.hasResults = true;
+					break;
+				}
+			}
+		}
+
+		return new Frame(name, resultType, message);
+	}
+
+	private static String getClassName(Deque<Frame> open, String suiteName)
+	{
+		List<String> names = new ArrayList<>();
+		for (Iterator<Frame> it = open.descendingIterator(); it.hasNext();)
+		{
+			Frame frame = it.next();
+			if (frame.resultType != null)
+			{
+				names.add(frame.name);
+			}
+		}
+
+		return names.isEmpty() ? suiteName : String.join(".", names); //$NON-NLS-1$
+	}
+
+	/**
+	 * Returns an input factory that does not resolve DTDs or external entities.
+	 * 
+	 * @return	A new <code>XMLInputFactory</code>.
+	 */
+	static XMLInputFactory newInputFactory()
+	{
+		XMLInputFactory factory = XMLInputFactory.newInstance();
+		factory.setProperty(XMLInputFactory.SUPPORT_DTD, false);
+		factory.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, false);
+
+		return factory;
+	}
+}
@@ -21,15 +21,24 @@ package com.compuware.jenkins.totaltest;
 import java.io.File;
 import java.io.FileNotFoundException;
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
 import java.util.Properties;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
 
+import com.cloudbees.plugins.credentials.common.StandardUsernamePasswordCredentials;
 import com.compuware.jenkins.common.configuration.CpwrGlobalConfiguration;
 import com.compuware.jenkins.common.configuration.HostConnection;
 import com.compuware.jenkins.common.utils.CLIVersionUtils;
 
+import hudson.AbortException;
 import hudson.EnvVars;
 import hudson.FilePath;
 import hudson.Launcher;
+import hudson.Proc;
 import hudson.model.Run;
 import hudson.model.TaskListener;
 import hudson.remoting.VirtualChannel;
@@ -78,8 +87,20 @@ public class TotalTestRunner
 	private static final String DEFAULT_CODE_PAGE = "1047";  //$NON-NLS-1$
 
 	private static final String JENKINS = "-jenkins";  //$NON-NLS-1$
+
+	private static final String OUTPUT_FOLDER = "Output"; //$NON-NLS-1$
+	private static final String SONAR_FOLDER = "TTTSonar"; //$NON-NLS-1$
+	private static final String MANIFEST_FILE = ".totaltest/unit-test-manifest.txt"; //$NON-NLS-1$
+	private static final String LAUNCH_MARKER = ".totaltest/unit-test-launch-"; //$NON-NLS-1$
+	private static final int MAX_TEST_NAME_LIST_LENGTH = 4000;
+	private static final String RESULT_EXTENSION = "result"; //$NON-NLS-1$
+	private static final String SUITE_RESULT_EXTENSION = "suiteresult"; //$NON-NLS-1$
+	private static final String JUNIT_FOLDER = "TTTUnit"; //$NON-NLS-1$
 	
 	private final TotalTestBuilder tttBuilder;
+	private final TotalTestPhaseTimings timings;
+	private final TotalTestWorkspaceLease lease;
+	private FilePath projectPath;
 	
 	/**
 	 * Constructor
@@ -88,8 +109,38 @@ public class TotalTestRunner
 	 * 			  An instance of <code>TotalTestBuilder</code> containing the arguments.
 	 */
 	public TotalTestRunner(TotalTestBuilder tttBuilder)
+	{
+		this(tttBuilder, new TotalTestPhaseTimings());
+	}
+	
+	/**
+	 * Constructor
+	 * 
+	 * @param tttBuilder
+	 * 			  An instance of <code>TotalTestBuilder</code> containing the arguments.
+	 * @param timings
+	 * 			  An instance of <code>TotalTestPhaseTimings</code> to record the duration of each phase in.
+	 */
+	public TotalTestRunner(TotalTestBuilder tttBuilder, TotalTestPhaseTimings timings)
+	{
+		this(tttBuilder, timings, null);
+	}
+
+	/**
+	 * Constructor
+	 * 
+	 * @param tttBuilder
+	 * 			  An instance of <code>TotalTestBuilder</code> containing the arguments.
+	 * @param timings
+	 * 			  An instance of <code>TotalTestPhaseTimings</code> to record the duration of each phase in.
+	 * @param lease
+	 * 			  The lease of the CLI workspace and report folders of the step, or <code>null</code> to use the usual folders.
+	 */
+	public TotalTestRunner(TotalTestBuilder tttBuilder, TotalTestPhaseTimings timings, TotalTestWorkspaceLease lease)
 	{
 		this.tttBuilder = tttBuilder;
+		this.timings = timings;
+		this.lease = lease;
 	}
 	
 	/**
@@ -133,11 +184,15 @@ public class TotalTestRunner
 		
 		TotalTestRunnerUtils.logJenkinsAndPluginVersion(listener);
 		
+		timings.start(TotalTestPhaseTimings.CLI_RESOLVE);
 		FilePath cliScriptPath = TotalTestRunnerUtils.getCLIScriptPath(launcher, listener, remoteFileSeparator, osScriptFile);
+		timings.stop(TotalTestPhaseTimings.CLI_RESOLVE);
 		
+		timings.start(TotalTestPhaseTimings.ARGUMENT_BUILD);
 		args.add(cliScriptPath.getRemote());
 		
-		String topazCliWorkspace = workspaceFilePath.getRemote() + remoteFileSeparator + TOPAZ_CLI_WORKSPACE;
+		String topazCliWorkspace = workspaceFilePath.getRemote() + remoteFileSeparator
+				+ (lease != null ? lease.getFolderName(TOPAZ_CLI_WORKSPACE) : TOPAZ_CLI_WORKSPACE);
 		listener.getLogger().println("BMC AMI DevX Total Test CLI workspace: " + topazCliWorkspace); //$NON-NLS-1$
 		
 		addArgument(args, COMMAND, RUNTEST, isLinux);
@@ -146,7 +201,7 @@ public class TotalTestRunner
 		
 		addHostArguments(build, args, isLinux);
 		
-		addProjectArguments(launcher, workspaceFilePath.getRemote() + remoteFileSeparator, args, isLinux);
+		projectPath = addProjectArguments(launcher, listener, workspaceFilePath.getRemote() + remoteFileSeparator, args, isLinux);
 	
 		addExecutionArguments(args, isLinux);
 		
@@ -155,16 +210,91 @@ public class TotalTestRunner
 		addExternalToolArguments(workspaceFilePath, args, isLinux);
 		
 		args.add(DATA, topazCliWorkspace);
+		timings.stop(TotalTestPhaseTimings.ARGUMENT_BUILD);
+		
+		// the CLI writes the results into the project folder whatever the CLI workspace, so a project is run by one step at a time
+		if (lease != null && !lease.tryLockFolder(projectPath))
+		{
+			long lockTimeout = TotalTestWorkspaceLease.getLockTimeout();
+			listener.getLogger().println("Another Total Test step runs the project " + projectPath.getRemote() //$NON-NLS-1$
+					+ ", waiting up to " + lockTimeout + " minutes for it to complete."); //$NON-NLS-1$ //$NON-NLS-2$
+			long waitStart = System.nanoTime();
+			if (!lease.lockFolder(projectPath, TimeUnit.MINUTES.toMillis(lockTimeout)))
+			{
+				throw new AbortException("Another Total Test step still runs the project " + projectPath.getRemote() //$NON-NLS-1$
+						+ " after " + lockTimeout + " minutes"); //$NON-NLS-1$ //$NON-NLS-2$
+			}
+			listener.getLogger().println("Waited " + TimeUnit.NANOSECONDS.toSeconds(System.nanoTime() - waitStart) //$NON-NLS-1$
+					+ " seconds for the project " + projectPath.getRemote()); //$NON-NLS-1$
+		}
 		
 		FilePath workDir = new FilePath (vChannel, workspaceFilePath.getRemote());
 		workDir.mkdirs();
-		int exitValue = launcher.launch().cmds(args).envs(env).stdout(listener.getLogger()).pwd(workDir).join();
+		// result files are compared with the time of the agent, which the clock of the controller may differ from
+		long launchTime = workspaceFilePath.child(LAUNCH_MARKER + (lease != null ? lease.getStepId() : 0))
+				.act(new TotalTestRunnerUtils.TouchFile());
+		TotalTestEvents.CliLaunch launchEvent = new TotalTestEvents.CliLaunch();
+		launchEvent.begin();
+		timings.start(TotalTestPhaseTimings.PROCESS_LAUNCH);
+		Proc proc = launcher.launch().cmds(args).envs(env).stdout(timings.firstOutputStream(listener.getLogger())).pwd(workDir).start();
+		timings.stop(TotalTestPhaseTimings.PROCESS_LAUNCH);
+		timings.start(TotalTestPhaseTimings.PROCESS_EXIT);
+		int exitValue = proc.join();
+		timings.stop(TotalTestPhaseTimings.PROCESS_EXIT);
+		TotalTestMetrics.get().recordExitCode(TotalTestMetrics.STEP_UNIT, exitValue);
+		launchEvent.buildId = build.getExternalizableId();
+		launchEvent.script = osScriptFile;
+		launchEvent.exitCode = exitValue;
+		launchEvent.commit();
 
 		listener.getLogger().println(osScriptFile + " exited with exit value = " + exitValue); //$NON-NLS-1$
 
+		if (tttBuilder.isGenerateJUnit())
+		{
+			writeJUnit(projectPath, workspaceFilePath, launchTime, listener);
+		}
+
 		return exitValue == 0;
 	}
 	
+	/**
+	 * Returns the Ant patterns of the report files of the step in the workspace, which are the JUnit files the plugin wrote
+	 * for the step, the Sonar files and the Output folder of the project it ran.
+	 * 
+	 * @param workspaceFilePath
+	 * 			The workspace.
+	 * 
+	 * @return	The comma separated patterns.
+	 */
+	public String getReportIncludes(final FilePath workspaceFilePath)
+	{
+		List<String> includes = new ArrayList<>();
+		includes.add(JUNIT_FOLDER + '/' + (tttBuilder.isGenerateJUnit() ? getJUnitFilePrefix() + '*' : "**")); //$NON-NLS-1$
+		includes.add(SONAR_FOLDER + "/**"); //$NON-NLS-1$
+
+		if (projectPath != null)
+		{
+			String workspace = workspaceFilePath.getRemote();
+			String project = projectPath.getRemote();
+			if (project.length() > workspace.length() + 1 && project.startsWith(workspace))
+			{
+				includes.add(project.substring(workspace.length() + 1).replace('\\', '/') + '/' + OUTPUT_FOLDER + "/**"); //$NON-NLS-1$
+			}
+		}
+
+		return String.join(COMMA, includes);
+	}
+	
+	/**
+	 * Returns the start of the names of the JUnit files the plugin writes for the step.
+	 * 
+	 * @return	<code>TEST-</code>, followed by the id of the step and a dash if the step has a lease.
+	 */
+	private String getJUnitFilePrefix()
+	{
+		return "TEST-" + (lease != null ? lease.getStepId() + "-" : ""); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+	}
+	
 	/**
 	 * Returns the path to the script to execute Total Test CLI
 	 * 
@@ -299,8 +429,9 @@ public class TotalTestRunner
 		addArgument(args, PORT, port, isLinux);
 		addArgument(args, TARGET_ENCODING, codePage, isLinux);
 		addArgument(args, PROTOCOL, protocol, isLinux);
-		addArgument(args, USER, TotalTestRunnerUtils.getLoginInformation(build.getParent(), tttBuilder.getCredentialsId()).getUsername(), isLinux);
-		addArgument(args, PASSWORD, TotalTestRunnerUtils.getLoginInformation(build.getParent(), tttBuilder.getCredentialsId()).getPassword().getPlainText(), isLinux, true);
+		StandardUsernamePasswordCredentials credentials = TotalTestRunnerUtils.getLoginInformation(build.getParent(), tttBuilder.getCredentialsId());
+		addArgument(args, USER, credentials.getUsername(), isLinux);
+		addArgument(args, PASSWORD, credentials.getPassword().getPlainText(), isLinux, true);
 	}
 	
 	/**
@@ -321,10 +452,13 @@ public class TotalTestRunner
 	 * 			An instance of <code>ArgumentListBuilder</code> containing the arguments.
 	 * @param isLinux
 	 * 			<code>true</code> if running a shell script, otherwise <code>false</code>.
+	 * 
+	 * @return	The project folder.
+	 * 
 	 * @throws InterruptedException 
 	 * @throws IOException 
 	 */
-	private void addProjectArguments(final Launcher launcher, final String workspaceFilePath, final ArgumentListBuilder args, final boolean isLinux) throws IOException, InterruptedException
+	private FilePath addProjectArguments(final Launcher launcher, final TaskListener listener, final String workspaceFilePath, final ArgumentListBuilder args, final boolean isLinux) throws IOException, InterruptedException
 	{
 		FilePath projectPath = null;
 		String projectFolder = tttBuilder.getProjectFolder();
@@ -368,7 +502,12 @@ public class TotalTestRunner
 		addArgument(args,PROJECT, projectPath.getRemote(), isLinux);
 		 
 		String testSuiteEntry = tttBuilder.getTestSuite();
-		if (TotalTestRunnerUtils.isSpecicalTestName(testSuiteEntry) || TotalTestRunnerUtils.isTestNameList(testSuiteEntry))
+		String testNameList = expandTestNames(projectPath, workspaceFilePath, testSuiteEntry, isLinux, listener);
+		if (testNameList != null)
+		{
+			addArgument(args, TEST_NAME_LIST, testNameList, isLinux);
+		}
+		else if (TotalTestRunnerUtils.isSpecicalTestName(testSuiteEntry) || TotalTestRunnerUtils.isTestNameList(testSuiteEntry))
 		{
 			addArgument(args, TEST_NAME_LIST, testSuiteEntry, isLinux);
 		}
@@ -378,8 +517,117 @@ public class TotalTestRunner
 		}
 		
 		addArgument(args, JCL, tttBuilder.getJcl(), isLinux);
+		
+		return projectPath;
+	}
+	
+	/**
+	 * Converts the result files the CLI wrote below the project folder into JUnit XML files in the TTTUnit folder of the
+	 * workspace, on the agent. The names of the files start with the id of the step, so steps running at the same time
+	 * never overwrite each other's files.
+	 * <p>
+	 * A failure is logged and does not fail the step.
+	 * 
+	 * @param projectPath
+	 * 			The project folder.
+	 * @param workspaceFilePath
+	 * 			The workspace.
+	 * @param since
+	 * 			The time the CLI was launched on the agent, older result files are not converted.
+	 * @param listener
+	 * 			An instance of <code>TaskListener</code> for the build.
+	 * 
+	 * @throws InterruptedException
+	 * 			If the conversion was interrupted.
+	 */
+	private void writeJUnit(final FilePath projectPath, final FilePath workspaceFilePath, final long since, final TaskListener listener) throws InterruptedException
+	{
+		timings.start(TotalTestPhaseTimings.JUNIT_WRITE);
+		try
+		{
+			Set<String> extensions = new HashSet<>(Arrays.asList(RESULT_EXTENSION, SUITE_RESULT_EXTENSION));
+			Set<String> excludedFolders = new HashSet<>(Arrays.asList(TOPAZ_CLI_WORKSPACE));
+			FilePath junitPath = workspaceFilePath.child(JUNIT_FOLDER);
+			String junitFolder = junitPath.getRemote();
+			if (lease != null)
+			{
+				// the files of an earlier build with the same step id would otherwise be published with this build
+				junitPath.act(new TotalTestRunnerUtils.DeleteFilesByPrefix(getJUnitFilePrefix()));
+			}
+			TotalTestJUnitWriter.Counts counts = projectPath.act(new TotalTestJUnitWriter.TransformRecent(extensions, excludedFolders,
+					since, junitFolder, getJUnitFilePrefix()));
+			listener.getLogger().println("Wrote " + counts.getFiles() + " JUnit files to " + junitFolder + ": " + counts); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+		}
+		catch (IOException e)
+		{
+			listener.getLogger().println("Unable to write the JUnit files: " + e.getMessage()); //$NON-NLS-1$
+		}
+		finally
+		{
+			timings.stop(TotalTestPhaseTimings.JUNIT_WRITE);
+		}
 	}
 	
+	/**
+	 * Expands <code>ALL_SCENARIOS</code>, <code>ALL_SUITES</code> and wildcard names of the test suite entry into an
+	 * explicit, sorted list of test names, so the plugin knows the tests that are run.
+	 * <p>
+	 * The test files of the project are listed on the agent by a parallel walker, and the list is kept in a manifest below
+	 * the workspace that is reused as long as no folder of the project changed.
+	 * 
+	 * @param projectPath
+	 * 			The project folder.
+	 * @param workspaceFilePath
+	 * 			The workspace path, ending with a file separator.
+	 * @param testSuiteEntry
+	 * 			The test suite entry.
+	 * @param isLinux
+	 * 			<code>true</code> if the agent runs Linux, where test names are case sensitive, otherwise <code>false</code>.
+	 * @param listener
+	 * 			An instance of <code>TaskListener</code> for the build.
+	 * 
+	 * @return	The comma separated test names, or <code>null</code> if the entry is passed to the CLI as entered.
+	 * 
+	 * @throws IOException
+	 * 			If the project could not be walked.
+	 * @throws InterruptedException
+	 * 			If the walk was interrupted.
+	 */
+	private String expandTestNames(final FilePath projectPath, final String workspaceFilePath, final String testSuiteEntry,
+			final boolean isLinux, final TaskListener listener) throws IOException, InterruptedException
+	{
+		if (!TotalTestRunnerUtils.isSpecicalTestName(testSuiteEntry) && !TotalTestRunnerUtils.isTestNameList(testSuiteEntry))
+		{
+			return null;
+		}
+
+		Set<String> extensions = new HashSet<>(Arrays.asList(TotalTestRunnerUtils.TEST_SCENARIO_EXTENSION,
+				TotalTestRunnerUtils.TEST_SUITE_EXTENSION));
+		Set<String> excludedFolders = new HashSet<>(Arrays.asList(OUTPUT_FOLDER, TOPAZ_CLI_WORKSPACE));
+		String manifestPath = workspaceFilePath + MANIFEST_FILE;
+		List<String> testFiles = projectPath.act(new TotalTestFileWalker.ListTestFiles(extensions, tttBuilder.isRecursive(),
+				excludedFolders, manifestPath));
+
+		List<String> testNames = TotalTestRunnerUtils.expandTestNames(testSuiteEntry, testFiles, isLinux);
+		if (testNames == null)
+		{
+			return null;
+		}
+
+		String testNameList = String.join(COMMA, testNames);
+		if (testNameList.length() > MAX_TEST_NAME_LIST_LENGTH)
+		{
+			listener.getLogger().println("'" + testSuiteEntry + "' matches " + testNames.size() //$NON-NLS-1$ //$NON-NLS-2$
+					+ " tests, too many to list on the command line, passing it to the CLI as entered."); //$NON-NLS-1$
+			return null;
+		}
+
+		listener.getLogger().println("'" + testSuiteEntry + "' expanded to " + testNames.size() + " of the " //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+				+ testFiles.size() + " tests of the project: " + testNameList); //$NON-NLS-1$
+
+		return testNameList;
+	}
+
 	/**
 	 * Adds the Code Coverage arguments to the list of arguments.
 	 * 
@@ -475,7 +723,8 @@ public class TotalTestRunner
 	private void addExternalToolArguments(final FilePath workspaceFilePath, final ArgumentListBuilder args, final boolean isLinux)
 	{
 		addArgument(args, EXTERNAL_TOOLS_WS, workspaceFilePath.getRemote(), isLinux);
-		addArgument(args, POST_RUN_COMMANDS, COPY_JUNIT + COMMA + COPY_SONAR, isLinux);
+		// the plugin writes the JUnit files itself when asked to, so the CLI does not have to copy them
+		addArgument(args, POST_RUN_COMMANDS, tttBuilder.isGenerateJUnit() ? COPY_SONAR : COPY_JUNIT + COMMA + COPY_SONAR, isLinux);
 	}
 	
 	/**
@@ -24,8 +24,14 @@ import java.io.IOException;
 import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Paths;
+import java.util.ArrayList;
 import java.util.Collections;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.regex.Pattern;
 
 import org.apache.commons.lang.StringUtils;
 
@@ -40,6 +46,7 @@ import hudson.FilePath;
 import hudson.FilePath.FileCallable;
 import hudson.Launcher;
 import hudson.Plugin;
+import hudson.Util;
 import hudson.model.Item;
 import hudson.model.TaskListener;
 import hudson.remoting.VirtualChannel;
@@ -65,6 +72,9 @@ public class TotalTestRunnerUtils
 	private static final String ALL_SCENARIOS = "ALL_SCENARIOS"; //$NON-NLS-1$
 	private static final String ALL_SUITES = "ALL_SUITES"; //$NON-NLS-1$
 	private static final String AUTO_SELECT = "AUTO_SELECT"; //$NON-NLS-1$
+
+	static final String TEST_SCENARIO_EXTENSION = "testscenario"; //$NON-NLS-1$
+	static final String TEST_SUITE_EXTENSION = "testsuite"; //$NON-NLS-1$
 	
 	/**
 	 * Gets the host name;
@@ -121,6 +131,8 @@ public class TotalTestRunnerUtils
 	public static StandardUsernamePasswordCredentials getLoginInformation(Item project, String credentialsId)
 	{
 		StandardUsernamePasswordCredentials credential = null;
+		TotalTestEvents.CredentialLookup lookupEvent = new TotalTestEvents.CredentialLookup();
+		lookupEvent.begin();
 
 		List<StandardUsernamePasswordCredentials> credentials = CredentialsProvider
 				.lookupCredentials(StandardUsernamePasswordCredentials.class, project, ACL.SYSTEM,
@@ -135,6 +147,12 @@ public class TotalTestRunnerUtils
 			}
 		}
 
+		lookupEvent.item = project != null ? project.getFullName() : null;
+		lookupEvent.credentialsId = credentialsId;
+		lookupEvent.scanned = credentials.size();
+		lookupEvent.found = credential != null;
+		lookupEvent.commit();
+
 		return credential;
 	}
 
@@ -244,6 +262,117 @@ public class TotalTestRunnerUtils
 
 	}
 	
+	/**
+	 * Expands <code>ALL_SCENARIOS</code>, <code>ALL_SUITES</code> and wildcard names of a test suite entry into the names of
+	 * the matching test files.
+	 * <p>
+	 * Names without a wildcard are kept as entered. A name that matches no test file is also kept as entered, so the CLI
+	 * reports it the same way it did before. Names match the way the file system of the agent compares them, ignoring
+	 * case on Windows only. The matches of an entry are sorted by their path, and a name shared by test files of
+	 * different folders is listed once, as the CLI selects the tests by name.
+	 * 
+	 * @param testSuiteEntry
+	 * 			The test suite entry to expand.
+	 * @param testFiles
+	 * 			The paths, relative to the project, of the test scenario and test suite files of the project.
+	 * @param isUnix
+	 * 			<code>true</code> if the project is on a Unix agent, <code>false</code> if it is on a Windows agent.
+	 * 
+	 * @return	The expanded names, in entry order and sorted per entry, or <code>null</code> if the entry can not be
+	 * 			expanded by the plugin.
+	 */
+	public static List<String> expandTestNames(String testSuiteEntry, List<String> testFiles, boolean isUnix)
+	{
+		int flags = isUnix ? 0 : Pattern.CASE_INSENSITIVE;
+		if (!isSpecicalTestName(testSuiteEntry) && !testSuiteEntry.contains(QUESTION) && !testSuiteEntry.contains(ASTERISK))
+		{
+			return null;
+		}
+
+		Set<String> testNames = new LinkedHashSet<>();
+		for (String entry : testSuiteEntry.split(COMMA))
+		{
+			String name = entry.trim();
+			if (name.isEmpty())
+			{
+				continue;
+			}
+
+			if (AUTO_SELECT.equalsIgnoreCase(name))
+			{
+				// only the CLI knows which tests the changed programs select
+				return null;
+			}
+
+			Pattern pattern = null;
+			if (ALL_SCENARIOS.equalsIgnoreCase(name))
+			{
+				pattern = Pattern.compile(".*\\." + TEST_SCENARIO_EXTENSION, flags); //$NON-NLS-1$
+			}
+			else if (ALL_SUITES.equalsIgnoreCase(name))
+			{
+				pattern = Pattern.compile(".*\\." + TEST_SUITE_EXTENSION, flags); //$NON-NLS-1$
+			}
+			else if (name.contains(QUESTION) || name.contains(ASTERISK))
+			{
+				pattern = Pattern.compile(toRegex(name), flags);
+			}
+
+			if (pattern == null)
+			{
+				testNames.add(name);
+				continue;
+			}
+
+			Map<String, String> matches = new TreeMap<>();
+			for (String testFile : testFiles)
+			{
+				String fileName = testFile.substring(testFile.lastIndexOf('/') + 1);
+				String baseName = fileName.substring(0, fileName.lastIndexOf('.'));
+				if (pattern.matcher(fileName).matches() || pattern.matcher(baseName).matches())
+				{
+					matches.put(testFile, fileName);
+				}
+			}
+
+			if (matches.isEmpty())
+			{
+				testNames.add(name);
+			}
+			else
+			{
+				testNames.addAll(matches.values());
+			}
+		}
+
+		return new ArrayList<>(testNames);
+	}
+
+	/**
+	 * Converts a test name containing <code>*</code> and <code>?</code> wildcards into a regular expression.
+	 */
+	private static String toRegex(String name)
+	{
+		StringBuilder regex = new StringBuilder();
+		for (String part : name.split("(?=[*?])|(?<=[*?])")) //$NON-NLS-1$
+		{
+			if (ASTERISK.equals(part))
+			{
+				regex.append(".*"); //$NON-NLS-1$
+			}
+			else if (QUESTION.equals(part))
+			{
+				regex.append('.');
+			}
+			else if (!part.isEmpty())
+			{
+				regex.append(Pattern.quote(part));
+			}
+		}
+
+		return regex.toString();
+	}
+
 	/**
 	 * Logs the Jenkins and Total Test Plugin versions
 	 * 
@@ -480,15 +609,7 @@ public class TotalTestRunnerUtils
 		try
 		{
 			String cliVersion = getCLIVersion(launcher, remoteFileSeparator);
-			
-			try
-			{
-				CLIVersionUtils.checkCLICompatibility(cliVersion, versionNumber);
-			}
-			catch (Exception e)
-			{
-				isminimumRelease = false;
-			}
+			isminimumRelease = isMinimumRelease(cliVersion, versionNumber);
 		}
 		catch (Exception e)
 		{
@@ -497,6 +618,74 @@ public class TotalTestRunnerUtils
 
 		return isminimumRelease;
 	}
+
+	/**
+	 * Returns if a Total Test CLI version is greater or equal to another version.
+	 * 
+	 * @param cliVersion
+	 * 			  The version of the CLI.
+	 * @param versionNumber
+	 * 			  The minimum Total Test CLI version number to check against.
+	 *            
+	 * @return	<code>true</code> if the CLI version is at least the minimum version, otherwise <code>false</code>.
+	 */
+	public static boolean isMinimumRelease(final String cliVersion, final String versionNumber)
+	{
+		try
+		{
+			CLIVersionUtils.checkCLICompatibility(cliVersion, versionNumber);
+			return true;
+		}
+		catch (Exception e)
+		{
+			return false;
+		}
+	}
+
+	/**
+	 * Copies result files into a folder of the build, replacing the folder. The copies are numbered, since runs of one
+	 * step may write result files with the same name.
+	 * 
+	 * @param folder
+	 * 			The folder in the build folder to copy to.
+	 * @param resultFiles
+	 * 			The result files.
+	 * 
+	 * @return	The names of the copies, <code>&lt;n&gt;-&lt;result file name&gt;</code>, in the order of the result files.
+	 * 
+	 * @throws IOException
+	 * 			If a file could not be copied.
+	 * @throws InterruptedException
+	 * 			If the copy was interrupted.
+	 */
+	public static List<String> copyResultFiles(File folder, List<FilePath> resultFiles) throws IOException, InterruptedException
+	{
+		Util.deleteRecursive(folder);
+		Files.createDirectories(folder.toPath());
+
+		List<String> names = new ArrayList<>();
+		for (FilePath resultFile : resultFiles)
+		{
+			String name = (names.size() + 1) + "-" + resultFile.getName(); //$NON-NLS-1$
+			resultFile.copyTo(new FilePath(new File(folder, name)));
+			names.add(name);
+		}
+
+		return names;
+	}
+
+	/**
+	 * Returns the name of a result file copied by {@link #copyResultFiles(File, List)}.
+	 * 
+	 * @param copyName
+	 * 			The name of the copy.
+	 * 
+	 * @return	The name of the result file.
+	 */
+	public static String getResultFileName(String copyName)
+	{
+		return copyName.substring(copyName.indexOf('-') + 1);
+	}
 	
 	/**
 	 * Returns a UTF8 string of the remote file.
@@ -523,4 +712,201 @@ public class TotalTestRunnerUtils
 
 	}
 
+	/**
+	 * Returns the absolute path of the first file below the remote folder whose name ends with the given suffix, or
+	 * <code>null</code> if there is none. The folder is walked depth first on the machine that owns it, so the search
+	 * costs a single remoting call however deep the report tree is.
+	 * 
+	 * @see hudson.FilePath#act(FileCallable)
+	 * 
+	 */
+	public static class FindFileBySuffix extends MasterToSlaveFileCallable<String> {
+		private static final long serialVersionUID = 1L;
+		
+		private final String suffix;
+		private final boolean skipBuildFolders;
+		
+		/**
+		 * Constructor.
+		 * 
+		 * @param suffix
+		 * 			  The end of the file name to search for.
+		 */
+		public FindFileBySuffix(String suffix)
+		{
+			this(suffix, false);
+		}
+		
+		/**
+		 * Constructor.
+		 * 
+		 * @param suffix
+		 * 			  The end of the file name to search for.
+		 * @param skipBuildFolders
+		 * 			  <code>true</code> to skip the folders directly below the searched folder that are named after a build
+		 * 			  number, which hold the reports of the steps that use a report folder per build, otherwise
+		 * 			  <code>false</code>.
+		 */
+		public FindFileBySuffix(String suffix, boolean skipBuildFolders)
+		{
+			this.suffix = suffix;
+			this.skipBuildFolders = skipBuildFolders;
+		}
+		
+		@Override
+		public String invoke(File dir, VirtualChannel channel) throws IOException, InterruptedException {
+			File found = find(dir, skipBuildFolders);
+			
+			return found != null ? found.getAbsolutePath() : null;
+		}
+		
+		private File find(File dir, boolean skipNumbered)
+		{
+			File[] children = dir.listFiles();
+			if (children == null)
+			{
+				return null;
+			}
+			
+			for (File child : children)
+			{
+				File found = null;
+				if (child.isDirectory())
+				{
+					// only the build folders of the report folder are skipped, not numbered folders of the tests
+					if (!skipNumbered || !child.getName().matches("\\d+")) //$NON-NLS-1$
+					{
+						found = find(child, false);
+					}
+				}
+				else if (child.getName().endsWith(suffix))
+				{
+					found = child;
+				}
+				
+				if (found != null)
+				{
+					return found;
+				}
+			}
+			
+			return null;
+		}
+	}
+
+	/**
+	 * Deletes the oldest per-build report folders below a folder, keeping a number of the most recent builds.
+	 * <p>
+	 * Only folders named after a build number are deleted, and never the folder of the running build.
+	 */
+	public static class PruneBuildFolders extends MasterToSlaveFileCallable<Integer> {
+		private static final long serialVersionUID = 1L;
+		
+		private final int retention;
+		private final int currentBuild;
+		
+		/**
+		 * Constructor.
+		 * 
+		 * @param retention
+		 * 			  The number of build folders to keep, including the one of the running build.
+		 * @param currentBuild
+		 * 			  The number of the running build.
+		 */
+		public PruneBuildFolders(int retention, int currentBuild)
+		{
+			this.retention = retention;
+			this.currentBuild = currentBuild;
+		}
+		
+		@Override
+		public Integer invoke(File dir, VirtualChannel channel) throws IOException, InterruptedException {
+			File[] children = dir.listFiles();
+			if (children == null)
+			{
+				return 0;
+			}
+			
+			List<Integer> buildNumbers = new ArrayList<>();
+			for (File child : children)
+			{
+				if (child.isDirectory() && child.getName().matches("\\d{1,9}")) //$NON-NLS-1$
+				{
+					buildNumbers.add(Integer.valueOf(child.getName()));
+				}
+			}
+			Collections.sort(buildNumbers, Collections.reverseOrder());
+			
+			int deleted = 0;
+			for (int i = Math.max(retention, 1); i < buildNumbers.size(); i++)
+			{
+				int buildNumber = buildNumbers.get(i);
+				if (buildNumber != currentBuild)
+				{
+					Util.deleteRecursive(new File(dir, Integer.toString(buildNumber)));
+					deleted++;
+				}
+			}
+			
+			return deleted;
+		}
+	}
+
+	/**
+	 * Deletes the files of a folder whose names start with a prefix, without descending into sub folders.
+	 */
+	public static class DeleteFilesByPrefix extends MasterToSlaveFileCallable<Integer> {
+		private static final long serialVersionUID = 1L;
+		
+		private final String prefix;
+		
+		/**
+		 * Constructor.
+		 * 
+		 * @param prefix
+		 * 			  The start of the names of the files to delete.
+		 */
+		public DeleteFilesByPrefix(String prefix)
+		{
+			this.prefix = prefix;
+		}
+		
+		@Override
+		public Integer invoke(File dir, VirtualChannel channel) throws IOException, InterruptedException {
+			File[] children = dir.listFiles();
+			if (children == null)
+			{
+				return 0;
+			}
+			
+			int deleted = 0;
+			for (File child : children)
+			{
+				if (child.isFile() && child.getName().startsWith(prefix))
+				{
+					Files.delete(child.toPath());
+					deleted++;
+				}
+			}
+			
+			return deleted;
+		}
+	}
+
+	/**
+	 * Creates or updates a file and returns its modification time, as set by the clock and file system of the machine the
+	 * file is on.
+	 */
+	public static class TouchFile extends MasterToSlaveFileCallable<Long> {
+		private static final long serialVersionUID = 1L;
+		
+		@Override
+		public Long invoke(File file, VirtualChannel channel) throws IOException, InterruptedException {
+			Files.createDirectories(file.getParentFile().toPath());
+			Files.write(file.toPath(), new byte[0]);
+			
+			return file.lastModified();
+		}
+	}
+
 }
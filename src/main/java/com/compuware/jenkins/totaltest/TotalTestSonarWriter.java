@@ -0,0 +1,161 @@
+/**
+ * The MIT License (MIT)
+ * 
+ * (c) Copyright 2026 BMC Software, Inc.
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated documentation
+ * files (the "Software"), to deal in the Software without restriction, including without limitation the rights to use, copy,
+ * modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to permit persons to whom the
+ * Software is furnished to do so, subject to the following conditions: The above copyright notice and this permission notice
+ * shall be included in all copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+ * WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE,
+ * ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package com.compuware.jenkins.totaltest;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+
+import javax.xml.stream.XMLOutputFactory;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamWriter;
+
+import hudson.remoting.VirtualChannel;
+import jenkins.MasterToSlaveFileCallable;
+
+/**
+ * Converts Total Test result files into the SonarQube generic test execution format, streaming, so result files of any
+ * size are converted in constant memory.
+ * <p>
+ * All test cases of a result file are reported under one <code>file</code> element, each with a duration of 0 since the
+ * result files do not hold durations. Failed, error and skipped test cases get a <code>failure</code>, <code>error</code>
+ * or <code>skipped</code> element for their {@link TotalTestResultParser.Outcome}.
+ */
+public final class TotalTestSonarWriter
+{
+	private static final String MESSAGE = "message"; //$NON-NLS-1$
+
+	private TotalTestSonarWriter()
+	{
+	}
+
+	/**
+	 * Converts a result file into a SonarQube generic test execution file.
+	 * 
+	 * @param resultFile
+	 * 			The Total Test result file.
+	 * @param sonarFile
+	 * 			The SonarQube file to write.
+	 * @param testFilePath
+	 * 			The path, relative to the SonarQube project, the test cases are reported under.
+	 * 
+	 * @return	The number of test cases written.
+	 * 
+	 * @throws IOException
+	 * 			If a file could not be read or written, or the result file is not well formed.
+	 */
+	public static int transform(File resultFile, File sonarFile, String testFilePath) throws IOException
+	{
+		File parent = sonarFile.getParentFile();
+		if (parent != null && !parent.isDirectory() && !parent.mkdirs())
+		{
+			throw new IOException("Unable to create " + parent); //$NON-NLS-1$
+		}
+
+		String fileName = resultFile.getName();
+		String suiteName = fileName.indexOf('.') > 0 ? fileName.substring(0, fileName.indexOf('.')) : fileName;
+		try (InputStream in = Files.newInputStream(resultFile.toPath());
+			 OutputStream out = Files.newOutputStream(sonarFile.toPath()))
+		{
+			XMLStreamWriter writer = XMLOutputFactory.newInstance().createXMLStreamWriter(out, StandardCharsets.UTF_8.name());
+			writer.writeStartDocument(StandardCharsets.UTF_8.name(), "1.0"); //$NON-NLS-1$
+			writer.writeStartElement("testExecutions"); //$NON-NLS-1$
+			writer.writeAttribute("version", "1"); //$NON-NLS-1$ //$NON-NLS-2$
+			writer.writeStartElement("file"); //$NON-NLS-1$
+			writer.writeAttribute("path", testFilePath); //$NON-NLS-1$
+			writer.writeCharacters(System.lineSeparator());
+
+			int[] tests = new int[1];
+			TotalTestResultParser.readTestCases(in, suiteName, (className, name, resultType, message) -> {
+				tests[0]++;
+				writer.writeStartElement("testCase"); //$NON-NLS-1$
+				writer.writeAttribute("name", className + '.' + name); //$NON-NLS-1$
+				writer.writeAttribute("duration", "0"); //$NON-NLS-1$ //$NON-NLS-2$
+				TotalTestResultParser.Outcome outcome = TotalTestResultParser.Outcome.of(resultType);
+				if (outcome != TotalTestResultParser.Outcome.PASSED)
+				{
+					String element;
+					if (outcome == TotalTestResultParser.Outcome.SKIPPED)
+					{
+						element = "skipped"; //$NON-NLS-1$
+					}
+					else if (outcome == TotalTestResultParser.Outcome.ERROR)
+					{
+						element = "error"; //$NON-NLS-1$
+					}
+					else
+					{
+						element = "failure"; //$NON-NLS-1$
+					}
+					writer.writeEmptyElement(element);
+					writer.writeAttribute(MESSAGE, message != null ? message : resultType);
+				}
+				writer.writeEndElement();
+				writer.writeCharacters(System.lineSeparator());
+			});
+
+			writer.writeEndElement();
+			writer.writeEndElement();
+			writer.writeEndDocument();
+			writer.close();
+
+			return tests[0];
+		}
+		catch (XMLStreamException e)
+		{
+			throw new IOException("Unable to convert " + resultFile + " into SonarQube XML: " + e.getMessage(), e); //$NON-NLS-1$ //$NON-NLS-2$
+		}
+	}
+
+	/**
+	 * Converts a result file into a SonarQube generic test execution file, on the machine that owns the result file.
+	 */
+	public static final class Transform extends MasterToSlaveFileCallable<Integer>
+	{
+		private static final long serialVersionUID = 1L;
+
+		private final String sonarPath;
+		private final String testFilePath;
+
+		/**
+		 * Constructor.
+		 * 
+		 * @param sonarPath
+		 * 			  The absolute path of the SonarQube file to write.
+		 * @param testFilePath
+		 * 			  The path, relative to the SonarQube project, the test cases are reported under.
+		 */
+		public Transform(String sonarPath, String testFilePath)
+		{
+			this.sonarPath = sonarPath;
+			this.testFilePath = testFilePath;
+		}
+
+		/*
+		 * (non-Javadoc)
+		 * @see hudson.FilePath.FileCallable#invoke(java.io.File, hudson.remoting.VirtualChannel)
+		 */
+		@Override
+		public Integer invoke(File resultFile, VirtualChannel channel) throws IOException, InterruptedException
+		{
+			return transform(resultFile, new File(sonarPath), testFilePath);
+		}
+	}
+}
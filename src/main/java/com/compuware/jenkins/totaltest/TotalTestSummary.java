@@ -0,0 +1,108 @@
+/**
+ * The MIT License (MIT)
+ * 
+ * (c) Copyright 2026 BMC Software, Inc.
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated documentation
+ * files (the "Software"), to deal in the Software without restriction, including without limitation the rights to use, copy,
+ * modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to permit persons to whom the
+ * Software is furnished to do so, subject to the following conditions: The above copyright notice and this permission notice
+ * shall be included in all copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+ * WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE,
+ * ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package com.compuware.jenkins.totaltest;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The outcome of the CLI runs of a Total Test step, gathered from the values the step already read from its result files,
+ * so a Pipeline can act on it without reading the result files again.
+ */
+public class TotalTestSummary implements Serializable
+{
+	private static final long serialVersionUID = 1L;
+
+	private static final String SUCCESS = "SUCCESS"; //$NON-NLS-1$
+
+	private String resultType = ""; //$NON-NLS-1$
+	private int tests;
+	private int failures;
+	private int errors;
+	private int skipped;
+	private Integer coverage;
+	private final List<String> resultFiles = new ArrayList<>();
+
+	/**
+	 * Adds the values read from a result file.
+	 * 
+	 * @param resultFile
+	 * 			The path of the result file on the agent.
+	 * @param result
+	 * 			The values read from the file.
+	 */
+	public synchronized void add(String resultFile, TotalTestResultParser.Result result)
+	{
+		resultFiles.add(resultFile);
+		// the first result that did not pass decides the result type of the step
+		if (resultType.isEmpty() || SUCCESS.equalsIgnoreCase(resultType))
+		{
+			resultType = result.getResultType();
+		}
+		tests += result.getTests();
+		failures += result.getCount(TotalTestResultParser.Outcome.FAILED);
+		errors += result.getCount(TotalTestResultParser.Outcome.ERROR);
+		skipped += result.getCount(TotalTestResultParser.Outcome.SKIPPED);
+
+		String percentage = result.getCcPercentage();
+		if (percentage != null && percentage.matches("\\d+")) //$NON-NLS-1$
+		{
+			int value = Integer.parseInt(percentage);
+			coverage = coverage == null ? value : Math.min(coverage, value);
+		}
+	}
+
+	/**
+	 * Returns the summary as a map of plain values, as returned by the Pipeline steps:
+	 * <ul>
+	 * <li><code>passed</code>: if the step passed</li>
+	 * <li><code>resultType</code>: the result type of the first result that did not pass, or of the first result if all
+	 * passed, or an empty string if no result was read</li>
+	 * <li><code>tests</code>, <code>failures</code>, <code>errors</code>, <code>skipped</code>: test case counts over all
+	 * results</li>
+	 * <li><code>coverage</code>: the lowest code coverage percentage of the results, or <code>null</code> if none has
+	 * code coverage data</li>
+	 * <li><code>resultFiles</code>: the paths of the result files on the agent</li>
+	 * <li><code>timings</code>: the duration of each phase of the step in milliseconds</li>
+	 * </ul>
+	 * 
+	 * @param passed
+	 * 			<code>true</code> if the step passed, otherwise <code>false</code>.
+	 * @param timings
+	 * 			The timings of the step.
+	 * 
+	 * @return	The summary.
+	 */
+	public synchronized Map<String, Object> toMap(boolean passed, TotalTestPhaseTimings timings)
+	{
+		Map<String, Object> summary = new LinkedHashMap<>();
+		summary.put("passed", passed); //$NON-NLS-1$
+		summary.put("resultType", resultType); //$NON-NLS-1$
+		summary.put("tests", tests); //$NON-NLS-1$
+		summary.put("failures", failures); //$NON-NLS-1$
+		summary.put("errors", errors); //$NON-NLS-1$
+		summary.put("skipped", skipped); //$NON-NLS-1$
+		summary.put("coverage", coverage); //$NON-NLS-1$
+		summary.put("resultFiles", new ArrayList<>(resultFiles)); //$NON-NLS-1$
+		summary.put("timings", new LinkedHashMap<>(timings.getDurations())); //$NON-NLS-1$
+
+		return summary;
+	}
+}
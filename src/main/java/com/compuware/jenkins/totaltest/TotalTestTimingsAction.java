@@ -0,0 +1,116 @@
+/**
+ * The MIT License (MIT)
+ * 
+ * (c) Copyright 2026 BMC Software, Inc.
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated documentation
+ * files (the "Software"), to deal in the Software without restriction, including without limitation the rights to use, copy,
+ * modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to permit persons to whom the
+ * Software is furnished to do so, subject to the following conditions: The above copyright notice and this permission notice
+ * shall be included in all copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+ * WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE,
+ * ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package com.compuware.jenkins.totaltest;
+
+import java.util.Map;
+
+import hudson.model.Action;
+
+/**
+ * Shows the phase timings of a Total Test step on the build page.
+ * <p>
+ * One action is added for every Total Test step that runs in the build.
+ */
+public class TotalTestTimingsAction implements Action
+{
+	private final String stepName;
+	private final TotalTestPhaseTimings timings;
+
+	/**
+	 * Constructor
+	 * 
+	 * @param stepName
+	 * 			The display name of the step that was timed.
+	 * @param timings
+	 * 			The timings recorded while the step ran.
+	 */
+	public TotalTestTimingsAction(String stepName, TotalTestPhaseTimings timings)
+	{
+		this.stepName = stepName;
+		this.timings = timings;
+	}
+
+	/**
+	 * Returns the display name of the step that was timed.
+	 * 
+	 * @return	The step name.
+	 */
+	public String getStepName()
+	{
+		return stepName;
+	}
+
+	/**
+	 * Returns the recorded durations.
+	 * 
+	 * @return	The durations in milliseconds keyed by phase.
+	 */
+	public Map<String, Long> getDurations()
+	{
+		return timings.getDurations();
+	}
+
+	/**
+	 * Returns the number of remoting round trips the step made.
+	 * 
+	 * @return	The number of round trips, or <code>null</code> if they were not counted.
+	 */
+	public Long getRemotingCalls()
+	{
+		return timings.getRemotingCalls();
+	}
+
+	/**
+	 * Returns the recorded timings.
+	 * 
+	 * @return	The timings of the step.
+	 */
+	public TotalTestPhaseTimings getTimings()
+	{
+		return timings;
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see hudson.model.Action#getIconFileName()
+	 */
+	@Override
+	public String getIconFileName()
+	{
+		return null;
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see hudson.model.Action#getDisplayName()
+	 */
+	@Override
+	public String getDisplayName()
+	{
+		return Messages.phaseTimings();
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see hudson.model.Action#getUrlName()
+	 */
+	@Override
+	public String getUrlName()
+	{
+		return null;
+	}
+}
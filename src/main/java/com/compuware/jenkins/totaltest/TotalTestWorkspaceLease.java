@@ -0,0 +1,307 @@
+/**
+ * The MIT License (MIT)
+ * 
+ * (c) Copyright 2026 BMC Software, Inc.
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated documentation
+ * files (the "Software"), to deal in the Software without restriction, including without limitation the rights to use, copy,
+ * modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to permit persons to whom the
+ * Software is furnished to do so, subject to the following conditions: The above copyright notice and this permission notice
+ * shall be included in all copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+ * WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE,
+ * ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package com.compuware.jenkins.totaltest;
+
+import java.io.Serializable;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import hudson.FilePath;
+import hudson.model.Computer;
+import hudson.model.InvisibleAction;
+import hudson.model.Run;
+import jenkins.util.SystemProperties;
+
+/**
+ * Leases the CLI workspace and report folders to a Total Test step, so steps that run at the same time in one workspace,
+ * for example in parallel branches of a Pipeline, never share them.
+ * <p>
+ * The first step running in a workspace gets slot 1 and uses the usual folders. A step started while others run gets the
+ * lowest free slot and uses the usual folder names followed by <code>@</code> and the slot, the way Jenkins names the
+ * workspaces of concurrent builds. Each step also gets an id that is unique within its build, which keys its report
+ * folder.
+ * <p>
+ * The CLI of the unit test step writes the results of a project into the project folder, whatever the slot. A step
+ * therefore also locks the project folder it runs, and a step running the same project waits for it, up to the minutes
+ * set with the {@link #LOCK_TIMEOUT_PROPERTY} system property.
+ * <p>
+ * A lease is kept with the state of a durable step. Its slot is taken again with {@link #resume()} once the step is
+ * resumed after a restart, while the CLI it started keeps writing to the folders of the slot.
+ */
+public final class TotalTestWorkspaceLease implements AutoCloseable, Serializable
+{
+	private static final long serialVersionUID = 1L;
+	private static final String SLOT_SEPARATOR = "@"; //$NON-NLS-1$
+
+	/** The system property holding the minutes a step waits for another step to release a project folder. */
+	public static final String LOCK_TIMEOUT_PROPERTY = TotalTestWorkspaceLease.class.getName() + ".lockTimeout"; //$NON-NLS-1$
+	private static final long DEFAULT_LOCK_TIMEOUT = 60;
+
+	/** The slots in use, by node and workspace path. */
+	private static final Map<String, BitSet> SLOTS = new HashMap<>();
+
+	/** The project folders locked by a step, by node and folder path. */
+	private static final Set<String> LOCKED_FOLDERS = new HashSet<>();
+
+	private final String key;
+	private final int slot;
+	private final int stepId;
+	private final transient Set<String> lockedFolders = new HashSet<>();
+
+	private TotalTestWorkspaceLease(String key, int slot, int stepId)
+	{
+		this.key = key;
+		this.slot = slot;
+		this.stepId = stepId;
+	}
+
+	/**
+	 * Leases the lowest free slot of a workspace to a step of a build.
+	 * 
+	 * @param build
+	 * 			The build the step runs in.
+	 * @param workspace
+	 * 			The workspace the step runs in.
+	 * 
+	 * @return	The lease, which must be closed once the step completes.
+	 */
+	public static TotalTestWorkspaceLease acquire(Run<?, ?> build, FilePath workspace)
+	{
+		Computer computer = workspace.toComputer();
+		String key = (computer != null ? computer.getName() : "") + SLOT_SEPARATOR + workspace.getRemote(); //$NON-NLS-1$
+
+		int slot;
+		synchronized (SLOTS)
+		{
+			BitSet slots = SLOTS.computeIfAbsent(key, k -> new BitSet());
+			slot = slots.nextClearBit(1);
+			slots.set(slot);
+		}
+
+		int stepId;
+		synchronized (build)
+		{
+			StepCounter counter = build.getAction(StepCounter.class);
+			if (counter == null)
+			{
+				counter = new StepCounter();
+				build.addAction(counter);
+			}
+			stepId = ++counter.lastStepId;
+		}
+
+		return new TotalTestWorkspaceLease(key, slot, stepId);
+	}
+
+	private Object readResolve()
+	{
+		// the folder locks are not kept across a restart
+		return new TotalTestWorkspaceLease(key, slot, stepId);
+	}
+
+	/**
+	 * Takes the slot of the lease again after a restart, so a step started in the workspace meanwhile does not get it.
+	 */
+	public void resume()
+	{
+		synchronized (SLOTS)
+		{
+			SLOTS.computeIfAbsent(key, k -> new BitSet()).set(slot);
+		}
+	}
+
+	/**
+	 * Returns the slot of the step in the workspace.
+	 * 
+	 * @return	<code>1</code> if no other step ran in the workspace when the step started, otherwise a higher number.
+	 */
+	public int getSlot()
+	{
+		return slot;
+	}
+
+	/**
+	 * Returns if the step shares its workspace with another step running at the same time.
+	 * 
+	 * @return	<code>true</code> if the step does not have slot 1, otherwise <code>false</code>.
+	 */
+	public boolean isShared()
+	{
+		return slot > 1;
+	}
+
+	/**
+	 * Returns the id of the step, unique within its build.
+	 * 
+	 * @return	The number of Total Test steps started in the build so far, including this one.
+	 */
+	public int getStepId()
+	{
+		return stepId;
+	}
+
+	/**
+	 * Returns the name of a folder for the slot of the step.
+	 * 
+	 * @param folderName
+	 * 			The usual name of the folder.
+	 * 
+	 * @return	The usual name for slot 1, otherwise the name followed by <code>@</code> and the slot.
+	 */
+	public String getFolderName(String folderName)
+	{
+		return slot == 1 ? folderName : folderName + SLOT_SEPARATOR + slot;
+	}
+
+	/**
+	 * Returns if a folder is one of the excluded folders, or the copy of one for another slot.
+	 * 
+	 * @param folderName
+	 * 			The name of the folder.
+	 * @param excludedFolders
+	 * 			The usual names of the excluded folders.
+	 * 
+	 * @return	<code>true</code> if the folder is excluded, otherwise <code>false</code>.
+	 */
+	public static boolean isExcluded(String folderName, Set<String> excludedFolders)
+	{
+		String name = folderName;
+		int idx = name.lastIndexOf(SLOT_SEPARATOR);
+		if (idx > 0 && name.substring(idx + 1).matches("\\d+")) //$NON-NLS-1$
+		{
+			name = name.substring(0, idx);
+		}
+
+		return excludedFolders.contains(name);
+	}
+
+	/**
+	 * Locks a folder for the step, unless another step holds it.
+	 * 
+	 * @param folder
+	 * 			The folder.
+	 * 
+	 * @return	<code>true</code> if the step holds the lock, otherwise <code>false</code>.
+	 */
+	public boolean tryLockFolder(FilePath folder)
+	{
+		String folderKey = getFolderKey(folder);
+		synchronized (LOCKED_FOLDERS)
+		{
+			if (lockedFolders.contains(folderKey) || LOCKED_FOLDERS.add(folderKey))
+			{
+				lockedFolders.add(folderKey);
+				return true;
+			}
+
+			return false;
+		}
+	}
+
+	/**
+	 * Locks a folder for the step, waiting until no other step holds it or the timeout elapsed. The lock is released when
+	 * the lease is closed.
+	 * 
+	 * @param folder
+	 * 			The folder.
+	 * @param timeout
+	 * 			The longest time to wait, in milliseconds.
+	 * 
+	 * @return	<code>true</code> if the step holds the lock, <code>false</code> if the timeout elapsed.
+	 * 
+	 * @throws InterruptedException
+	 * 			If the step was interrupted while waiting, for example because the build was aborted.
+	 */
+	public boolean lockFolder(FilePath folder, long timeout) throws InterruptedException
+	{
+		long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeout);
+		synchronized (LOCKED_FOLDERS)
+		{
+			while (!tryLockFolder(folder))
+			{
+				long remaining = TimeUnit.NANOSECONDS.toMillis(deadline - System.nanoTime());
+				if (remaining <= 0)
+				{
+					return false;
+				}
+
+				LOCKED_FOLDERS.wait(remaining);
+			}
+		}
+
+		return true;
+	}
+
+	/**
+	 * Returns the minutes a step waits for another step to release a project folder, set with the
+	 * {@link #LOCK_TIMEOUT_PROPERTY} system property.
+	 * 
+	 * @return	The timeout, in minutes.
+	 */
+	public static long getLockTimeout()
+	{
+		return SystemProperties.getLong(LOCK_TIMEOUT_PROPERTY, DEFAULT_LOCK_TIMEOUT);
+	}
+
+	private static String getFolderKey(FilePath folder)
+	{
+		Computer computer = folder.toComputer();
+		return (computer != null ? computer.getName() : "") + SLOT_SEPARATOR + folder.getRemote(); //$NON-NLS-1$
+	}
+
+	/**
+	 * Releases the slot and the locked folders of the step.
+	 */
+	@Override
+	public void close()
+	{
+		synchronized (LOCKED_FOLDERS)
+		{
+			if (!lockedFolders.isEmpty())
+			{
+				LOCKED_FOLDERS.removeAll(lockedFolders);
+				lockedFolders.clear();
+				LOCKED_FOLDERS.notifyAll();
+			}
+		}
+
+		synchronized (SLOTS)
+		{
+			BitSet slots = SLOTS.get(key);
+			if (slots != null)
+			{
+				slots.clear(slot);
+				if (slots.isEmpty())
+				{
+					SLOTS.remove(key);
+				}
+			}
+		}
+	}
+
+	/**
+	 * Counts the Total Test steps started in a build.
+	 */
+	public static final class StepCounter extends InvisibleAction
+	{
+		private int lastStepId;
+	}
+}
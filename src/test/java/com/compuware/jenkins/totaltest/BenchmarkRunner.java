@@ -0,0 +1,55 @@
+/**
+ * The MIT License (MIT)
+ * 
+ * (c) Copyright 2026 BMC Software, Inc.
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated documentation
+ * files (the "Software"), to deal in the Software without restriction, including without limitation the rights to use, copy,
+ * modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to permit persons to whom the
+ * Software is furnished to do so, subject to the following conditions: The above copyright notice and this permission notice
+ * shall be included in all copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+ * WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE,
+ * ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package com.compuware.jenkins.totaltest;
+
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Test;
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.ChainedOptionsBuilder;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import jenkins.benchmark.jmh.BenchmarkFinder;
+
+/**
+ * Runs the benchmarks annotated with {@link jenkins.benchmark.jmh.JmhBenchmark} and writes their results to
+ * <code>jmh-report.json</code>.
+ * <p>
+ * Run with <code>mvn test -Dbenchmark</code>. The benchmarks are not run by a usual build.
+ */
+public class BenchmarkRunner
+{
+	@Test
+	public void runJmhBenchmarks() throws Exception
+	{
+		ChainedOptionsBuilder options = new OptionsBuilder()
+				.mode(org.openjdk.jmh.annotations.Mode.AverageTime)
+				.timeUnit(TimeUnit.MICROSECONDS)
+				.warmupIterations(2)
+				.measurementIterations(5)
+				.forks(1)
+				.threads(1)
+				.shouldFailOnError(true)
+				.shouldDoGC(true)
+				.resultFormat(ResultFormatType.JSON)
+				.result("jmh-report.json"); //$NON-NLS-1$
+
+		new BenchmarkFinder(getClass()).findBenchmarks(options);
+		new Runner(options.build()).run();
+	}
+}
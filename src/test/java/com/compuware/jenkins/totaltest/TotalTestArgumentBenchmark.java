@@ -0,0 +1,123 @@
+/**
+ * The MIT License (MIT)
+ * 
+ * (c) Copyright 2026 BMC Software, Inc.
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated documentation
+ * files (the "Software"), to deal in the Software without restriction, including without limitation the rights to use, copy,
+ * modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to permit persons to whom the
+ * Software is furnished to do so, subject to the following conditions: The above copyright notice and this permission notice
+ * shall be included in all copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+ * WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE,
+ * ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package com.compuware.jenkins.totaltest;
+
+import java.io.File;
+import java.nio.file.Files;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import com.cloudbees.plugins.credentials.CredentialsScope;
+import com.cloudbees.plugins.credentials.common.StandardUsernamePasswordCredentials;
+import com.cloudbees.plugins.credentials.impl.UsernamePasswordCredentialsImpl;
+
+import hudson.EnvVars;
+import hudson.FilePath;
+import hudson.model.TaskListener;
+import hudson.util.ArgumentListBuilder;
+import jenkins.benchmark.jmh.JmhBenchmark;
+import jenkins.benchmark.jmh.JmhBenchmarkState;
+
+/**
+ * Measures the building of the CLI arguments of a functional test run by {@link TotalTestCTRunner}, with a stubbed CLI
+ * version, and the escaping of the arguments and the building of the script of a durable CLI run.
+ */
+@JmhBenchmark
+public class TotalTestArgumentBenchmark
+{
+	private static final String CLI_VERSION = "20.09.02"; //$NON-NLS-1$
+
+	@State(Scope.Benchmark)
+	public static class Arguments
+	{
+		@Param({ "16", "256" })
+		public int folderLength;
+
+		String folder;
+		TotalTestCTRunner.DurableRun durableRun;
+
+		@Setup
+		public void setup()
+		{
+			StringBuilder path = new StringBuilder();
+			while (path.length() < folderLength)
+			{
+				path.append("tests/\"quoted\" folder %PATH%/"); //$NON-NLS-1$
+			}
+			folder = path.substring(0, folderLength);
+			ArgumentListBuilder args = new ArgumentListBuilder("TotalTestFTCLI.sh", "-f", TotalTestRunnerUtils.escapeForScript(folder)); //$NON-NLS-1$ //$NON-NLS-2$
+			durableRun = new TotalTestCTRunner.DurableRun(args, folder, "TotalTestFTCLI.sh", 1, null, null); //$NON-NLS-1$
+		}
+	}
+
+	/**
+	 * A functional test step with code coverage and program selection, which needs a running Jenkins for its credentials.
+	 */
+	public static class Step extends JmhBenchmarkState
+	{
+		TotalTestCTBuilder builder;
+		StandardUsernamePasswordCredentials credentials;
+		FilePath workspace;
+
+		@Override
+		public void setup() throws Exception
+		{
+			builder = new TotalTestCTBuilder("environment", "tests/Suites", "https://repository.example.com", "server", "", //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$ //$NON-NLS-4$ //$NON-NLS-5$
+					"host", "6", "INFO"); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+			builder.setSelectEnvironmentRadio(TotalTestCTBuilder.DescriptorImpl.selectEnvironmentIdValue);
+			builder.setRecursive(true);
+			builder.setCollectCodeCoverage(true);
+			builder.setCollectCCRepository("CC.REPO.DATASET"); //$NON-NLS-1$
+			builder.setCollectCCSystem("SYSTEM"); //$NON-NLS-1$
+			builder.setCollectCCTestID("TEST"); //$NON-NLS-1$
+			builder.setContextVariables("{\"TARGET\":\"QA\"}"); //$NON-NLS-1$
+			credentials = new UsernamePasswordCredentialsImpl(CredentialsScope.GLOBAL, "host", null, "user", "password"); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+			File folder = Files.createTempDirectory("totaltest-arguments").toFile(); //$NON-NLS-1$
+			folder.deleteOnExit();
+			workspace = new FilePath(folder);
+		}
+	}
+
+	@Benchmark
+	public ArgumentListBuilder buildArguments(Step state) throws Exception
+	{
+		return new TotalTestCTRunner(state.builder).buildArguments(state.workspace, File.separator, TaskListener.NULL, CLI_VERSION,
+				state.credentials);
+	}
+
+	@Benchmark
+	public String escapeForScript(Arguments state)
+	{
+		return TotalTestRunnerUtils.escapeForScript(state.folder);
+	}
+
+	@Benchmark
+	public String unixScript(Arguments state)
+	{
+		return TotalTestCTStep.Execution.toScript(state.durableRun, true, new EnvVars());
+	}
+
+	@Benchmark
+	public String windowsScript(Arguments state)
+	{
+		return TotalTestCTStep.Execution.toScript(state.durableRun, false, new EnvVars());
+	}
+}
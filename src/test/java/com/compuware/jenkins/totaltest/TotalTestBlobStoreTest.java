@@ -0,0 +1,138 @@
+/**
+ * The MIT License (MIT)
+ * 
+ * (c) Copyright 2026 BMC Software, Inc.
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated documentation
+ * files (the "Software"), to deal in the Software without restriction, including without limitation the rights to use, copy,
+ * modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to permit persons to whom the
+ * Software is furnished to do so, subject to the following conditions: The above copyright notice and this permission notice
+ * shall be included in all copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+ * WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE,
+ * ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package com.compuware.jenkins.totaltest;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.zip.GZIPOutputStream;
+
+import org.apache.commons.compress.archivers.tar.TarArchiveEntry;
+import org.apache.commons.compress.archivers.tar.TarArchiveOutputStream;
+import org.junit.Rule;
+import org.junit.Test;
+import org.jvnet.hudson.test.JenkinsRule;
+
+import hudson.model.FreeStyleBuild;
+import hudson.model.FreeStyleProject;
+
+/**
+ * Tests that the blob store counts the references of each content and deletes a content once it is no longer referenced.
+ */
+public class TotalTestBlobStoreTest
+{
+	private static final String SHARED = "<XaSuiteResult resultType=\"SUCCESS\"/>"; //$NON-NLS-1$
+	private static final String OWN = "<XaSuiteResult resultType=\"FAILURE\"/>"; //$NON-NLS-1$
+
+	@Rule
+	public JenkinsRule j = new JenkinsRule();
+
+	@Test
+	public void storesAContentOnce() throws Exception
+	{
+		FreeStyleProject project = j.createFreeStyleProject();
+		TotalTestBlobStore store = TotalTestBlobStore.of(project);
+		File folder = project.getRootDir();
+
+		TotalTestBlobStore.Added first = store.add(tarGz("Output/a.xml", SHARED, "Output/b.xml", SHARED), //$NON-NLS-1$ //$NON-NLS-2$
+				new File(folder, "first.txt")); //$NON-NLS-1$
+		TotalTestBlobStore.Added second = store.add(tarGz("Output/a.xml", SHARED), new File(folder, "second.txt")); //$NON-NLS-1$ //$NON-NLS-2$
+
+		assertEquals(2, first.getFileCount());
+		assertEquals(1, first.getNewFileCount());
+		assertEquals(1, second.getFileCount());
+		assertEquals(0, second.getNewFileCount());
+		assertEquals(0, second.getNewBytes());
+	}
+
+	@Test
+	public void keepsAContentUntilTheLastReferenceIsReleased() throws Exception
+	{
+		FreeStyleProject project = j.createFreeStyleProject();
+		TotalTestBlobStore store = TotalTestBlobStore.of(project);
+		File first = new File(project.getRootDir(), "first.txt"); //$NON-NLS-1$
+		File second = new File(project.getRootDir(), "second.txt"); //$NON-NLS-1$
+		store.add(tarGz("Output/a.xml", SHARED, "Output/b.xml", SHARED), first); //$NON-NLS-1$ //$NON-NLS-2$
+		store.add(tarGz("Output/a.xml", SHARED), second); //$NON-NLS-1$
+		File blob = store.getBlob(TotalTestBlobStore.readManifest(second).get(0).getHash());
+
+		store.release(first);
+		assertFalse(first.exists());
+		assertTrue(blob.isFile());
+
+		store.release(second);
+		assertFalse(second.exists());
+		assertFalse(blob.exists());
+	}
+
+	@Test
+	public void releasesTheReportsOfADeletedBuild() throws Exception
+	{
+		FreeStyleProject project = j.createFreeStyleProject();
+		FreeStyleBuild deleted = j.buildAndAssertSuccess(project);
+		FreeStyleBuild kept = j.buildAndAssertSuccess(project);
+		TotalTestBlobStore store = TotalTestBlobStore.of(project);
+		File deletedManifest = archive(store, deleted, tarGz("Output/a.xml", SHARED, "Output/b.xml", OWN)); //$NON-NLS-1$ //$NON-NLS-2$
+		File keptManifest = archive(store, kept, tarGz("Output/a.xml", SHARED)); //$NON-NLS-1$
+		List<TotalTestBlobStore.Entry> entries = TotalTestBlobStore.readManifest(deletedManifest);
+
+		deleted.delete();
+
+		assertTrue(store.getBlob(entries.get(0).getHash()).isFile());
+		assertFalse(store.getBlob(entries.get(1).getHash()).exists());
+		assertEquals(1, TotalTestBlobStore.readManifest(keptManifest).size());
+	}
+
+	private static File archive(TotalTestBlobStore store, FreeStyleBuild build, InputStream tarGz) throws IOException
+	{
+		File manifest = new File(build.getRootDir(), "totaltest-reports-1.txt"); //$NON-NLS-1$
+		TotalTestBlobStore.Added added = store.add(tarGz, manifest);
+		build.addAction(new TotalTestReportArchiveAction("Total Test", 1, manifest.getName(), added.getFileCount())); //$NON-NLS-1$
+
+		return manifest;
+	}
+
+	/**
+	 * Returns a compressed tar of files, given as pairs of path and content.
+	 */
+	private static InputStream tarGz(String... pathsAndContents) throws IOException
+	{
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		try (TarArchiveOutputStream tar = new TarArchiveOutputStream(new GZIPOutputStream(bytes)))
+		{
+			for (int i = 0; i < pathsAndContents.length; i += 2)
+			{
+				byte[] content = pathsAndContents[i + 1].getBytes(StandardCharsets.UTF_8);
+				TarArchiveEntry entry = new TarArchiveEntry(pathsAndContents[i]);
+				entry.setSize(content.length);
+				tar.putArchiveEntry(entry);
+				tar.write(content);
+				tar.closeArchiveEntry();
+			}
+		}
+
+		return new ByteArrayInputStream(bytes.toByteArray());
+	}
+}
@@ -0,0 +1,71 @@
+/**
+ * The MIT License (MIT)
+ * 
+ * (c) Copyright 2026 BMC Software, Inc.
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated documentation
+ * files (the "Software"), to deal in the Software without restriction, including without limitation the rights to use, copy,
+ * modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to permit persons to whom the
+ * Software is furnished to do so, subject to the following conditions: The above copyright notice and this permission notice
+ * shall be included in all copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+ * WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE,
+ * ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package com.compuware.jenkins.totaltest;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+
+import com.cloudbees.plugins.credentials.CredentialsScope;
+import com.cloudbees.plugins.credentials.SystemCredentialsProvider;
+import com.cloudbees.plugins.credentials.common.StandardUsernamePasswordCredentials;
+import com.cloudbees.plugins.credentials.impl.UsernamePasswordCredentialsImpl;
+
+import hudson.model.FreeStyleProject;
+import jenkins.benchmark.jmh.JmhBenchmark;
+import jenkins.benchmark.jmh.JmhBenchmarkState;
+
+/**
+ * Measures the lookup of the host credentials of a job against credential stores of growing size.
+ */
+@JmhBenchmark
+public class TotalTestCredentialsBenchmark
+{
+	public static class CredentialStore extends JmhBenchmarkState
+	{
+		@Param({ "10", "1000", "10000" })
+		public int count;
+
+		FreeStyleProject project;
+		String lastId;
+
+		@Override
+		public void setup() throws Exception
+		{
+			SystemCredentialsProvider provider = SystemCredentialsProvider.getInstance();
+			for (int i = 0; i < count; i++)
+			{
+				provider.getCredentials().add(new UsernamePasswordCredentialsImpl(CredentialsScope.GLOBAL, "host-" + i, //$NON-NLS-1$
+						null, "user" + i, "password" + i)); //$NON-NLS-1$ //$NON-NLS-2$
+			}
+			provider.save();
+			lastId = "host-" + (count - 1); //$NON-NLS-1$
+			project = getJenkins().createProject(FreeStyleProject.class, "credentials-benchmark"); //$NON-NLS-1$
+		}
+	}
+
+	@Benchmark
+	public StandardUsernamePasswordCredentials lookupLast(CredentialStore state)
+	{
+		return TotalTestRunnerUtils.getLoginInformation(state.project, state.lastId);
+	}
+
+	@Benchmark
+	public StandardUsernamePasswordCredentials lookupMissing(CredentialStore state)
+	{
+		return TotalTestRunnerUtils.getLoginInformation(state.project, "missing"); //$NON-NLS-1$
+	}
+}
@@ -0,0 +1,84 @@
+/**
+ * The MIT License (MIT)
+ * 
+ * (c) Copyright 2026 BMC Software, Inc.
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated documentation
+ * files (the "Software"), to deal in the Software without restriction, including without limitation the rights to use, copy,
+ * modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to permit persons to whom the
+ * Software is furnished to do so, subject to the following conditions: The above copyright notice and this permission notice
+ * shall be included in all copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+ * WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE,
+ * ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package com.compuware.jenkins.totaltest;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+
+import javax.xml.parsers.DocumentBuilder;
+import javax.xml.parsers.DocumentBuilderFactory;
+import javax.xml.parsers.ParserConfigurationException;
+import javax.xml.xpath.XPath;
+import javax.xml.xpath.XPathConstants;
+import javax.xml.xpath.XPathExpressionException;
+import javax.xml.xpath.XPathFactory;
+
+import org.w3c.dom.Document;
+import org.w3c.dom.Element;
+import org.xml.sax.InputSource;
+import org.xml.sax.SAXException;
+
+/**
+ * The DOM parsing that {@link TotalTestResultParser} replaced, kept as the baseline of
+ * {@link TotalTestResultParserBenchmark}.
+ * <p>
+ * As the plugin did before, the whole file is read into a <code>String</code>, parsed into a document and queried with
+ * XPath for the result type and the code coverage percentage.
+ */
+final class TotalTestDomResultParser
+{
+	private TotalTestDomResultParser()
+	{
+	}
+
+	/**
+	 * Reads the result type and the code coverage percentage of a result file.
+	 * 
+	 * @param file
+	 * 			The result file.
+	 * @param rootElement
+	 * 			{@link TotalTestResultParser#SUITE_RESULT_ELEMENT} or {@link TotalTestResultParser#SCENARIO_RESULT_ELEMENT}.
+	 * 
+	 * @return	The result type followed by the percentage, or by an empty string if there is no code coverage data.
+	 */
+	static String[] parse(File file, String rootElement)
+			throws IOException, ParserConfigurationException, SAXException, XPathExpressionException
+	{
+		String content = new String(Files.readAllBytes(file.toPath()), StandardCharsets.UTF_8);
+
+		DocumentBuilderFactory dbf = DocumentBuilderFactory.newInstance();
+		dbf.setFeature("http://apache.org/xml/features/disallow-doctype-decl", true); //$NON-NLS-1$
+		dbf.setFeature("http://xml.org/sax/features/external-general-entities", false); //$NON-NLS-1$
+		dbf.setFeature("http://xml.org/sax/features/external-parameter-entities", false); //$NON-NLS-1$
+		dbf.setFeature("http://apache.org/xml/features/nonvalidating/load-external-dtd", false); //$NON-NLS-1$
+		dbf.setXIncludeAware(false);
+		dbf.setExpandEntityReferences(false);
+		DocumentBuilder db = dbf.newDocumentBuilder();
+		Document document = db.parse(new InputSource(new StringReader(content)));
+
+		XPath xpath = XPathFactory.newInstance().newXPath();
+		Element resultElement = (Element) xpath.evaluate("/" + rootElement, document, XPathConstants.NODE); //$NON-NLS-1$
+		Element percentageElement = (Element) xpath.evaluate(String.format("/%s/CC/data", rootElement), document, //$NON-NLS-1$
+				XPathConstants.NODE);
+
+		return new String[] { resultElement.getAttribute("resultType"), //$NON-NLS-1$
+				percentageElement != null ? percentageElement.getAttribute("percentage") : "" }; //$NON-NLS-1$ //$NON-NLS-2$
+	}
+}
@@ -0,0 +1,126 @@
+/**
+ * The MIT License (MIT)
+ * 
+ * (c) Copyright 2026 BMC Software, Inc.
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated documentation
+ * files (the "Software"), to deal in the Software without restriction, including without limitation the rights to use, copy,
+ * modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to permit persons to whom the
+ * Software is furnished to do so, subject to the following conditions: The above copyright notice and this permission notice
+ * shall be included in all copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+ * WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE,
+ * ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package com.compuware.jenkins.totaltest;
+
+import static org.junit.Assert.assertEquals;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+/**
+ * Tests that the file walker skips excluded folders and reuses its manifest only while no folder changed.
+ */
+public class TotalTestFileWalkerTest
+{
+	private static final Set<String> EXTENSIONS = new HashSet<>(Arrays.asList("testscenario", "testsuite")); //$NON-NLS-1$ //$NON-NLS-2$
+	private static final Set<String> EXCLUDED_FOLDERS = Collections.singleton("Output"); //$NON-NLS-1$
+
+	@Rule
+	public TemporaryFolder folder = new TemporaryFolder();
+
+	private File testFolder;
+	private File manifest;
+
+	@Before
+	public void createTestFolder() throws IOException
+	{
+		testFolder = folder.newFolder("Tests"); //$NON-NLS-1$
+		manifest = new File(folder.getRoot(), "manifest.txt"); //$NON-NLS-1$
+		write("Nightly.testsuite"); //$NON-NLS-1$
+		write("Readme.txt"); //$NON-NLS-1$
+		write("Scenarios/Login.testscenario"); //$NON-NLS-1$
+		write("Scenarios/Deep/Logout.testscenario"); //$NON-NLS-1$
+		write("Output/Login.testscenario"); //$NON-NLS-1$
+		write("Output@2/Login.testscenario"); //$NON-NLS-1$
+		write(".settings/Login.testscenario"); //$NON-NLS-1$
+	}
+
+	@Test
+	public void skipsExcludedFoldersTheirSlotCopiesAndDotFolders() throws Exception
+	{
+		assertEquals(Arrays.asList("Nightly.testsuite", "Scenarios/Deep/Logout.testscenario", //$NON-NLS-1$ //$NON-NLS-2$
+				"Scenarios/Login.testscenario"), list(true, null)); //$NON-NLS-1$
+	}
+
+	@Test
+	public void walksNumberedCopiesOfFoldersThatAreNotExcluded() throws Exception
+	{
+		write("Scenarios@backup/Login.testscenario"); //$NON-NLS-1$
+
+		assertEquals(Arrays.asList("Nightly.testsuite", "Scenarios/Deep/Logout.testscenario", //$NON-NLS-1$ //$NON-NLS-2$
+				"Scenarios/Login.testscenario", "Scenarios@backup/Login.testscenario"), list(true, null)); //$NON-NLS-1$ //$NON-NLS-2$
+	}
+
+	@Test
+	public void listsOnlyTheTopFolderWhenNotRecursive() throws Exception
+	{
+		assertEquals(Collections.singletonList("Nightly.testsuite"), list(false, null)); //$NON-NLS-1$
+	}
+
+	@Test
+	public void reusesTheManifestWhileNoFolderChanged() throws Exception
+	{
+		File scenarios = new File(testFolder, "Scenarios"); //$NON-NLS-1$
+		scenarios.setLastModified(1000000000000L);
+		List<String> walked = list(true, manifest);
+
+		write("Scenarios/Added.testscenario"); //$NON-NLS-1$
+		scenarios.setLastModified(1000000000000L);
+		List<String> reused = list(true, manifest);
+
+		scenarios.setLastModified(1000000001000L);
+		List<String> changed = list(true, manifest);
+
+		assertEquals(walked, reused);
+		assertEquals(Arrays.asList("Nightly.testsuite", "Scenarios/Added.testscenario", //$NON-NLS-1$ //$NON-NLS-2$
+				"Scenarios/Deep/Logout.testscenario", "Scenarios/Login.testscenario"), changed); //$NON-NLS-1$ //$NON-NLS-2$
+	}
+
+	@Test
+	public void ignoresAManifestWrittenWithOtherSettings() throws Exception
+	{
+		list(false, manifest);
+
+		assertEquals(Arrays.asList("Nightly.testsuite", "Scenarios/Deep/Logout.testscenario", //$NON-NLS-1$ //$NON-NLS-2$
+				"Scenarios/Login.testscenario"), list(true, manifest)); //$NON-NLS-1$
+	}
+
+	private List<String> list(boolean recursive, File manifestFile) throws Exception
+	{
+		return new TotalTestFileWalker.ListTestFiles(EXTENSIONS, recursive, EXCLUDED_FOLDERS,
+				manifestFile != null ? manifestFile.getAbsolutePath() : null).invoke(testFolder, null);
+	}
+
+	private void write(String path) throws IOException
+	{
+		File file = new File(testFolder, path);
+		file.getParentFile().mkdirs();
+		Files.write(file.toPath(), path.getBytes(StandardCharsets.UTF_8));
+	}
+}
@@ -0,0 +1,133 @@
+/**
+ * The MIT License (MIT)
+ * 
+ * (c) Copyright 2026 BMC Software, Inc.
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated documentation
+ * files (the "Software"), to deal in the Software without restriction, including without limitation the rights to use, copy,
+ * modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to permit persons to whom the
+ * Software is furnished to do so, subject to the following conditions: The above copyright notice and this permission notice
+ * shall be included in all copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+ * WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE,
+ * ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package com.compuware.jenkins.totaltest;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.fail;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+
+import javax.xml.parsers.DocumentBuilderFactory;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.w3c.dom.Document;
+import org.w3c.dom.Element;
+import org.w3c.dom.NodeList;
+
+/**
+ * Tests that {@link TotalTestHtmlReport} lists the test cases below their counts and escapes the text of the result file.
+ */
+public class TotalTestHtmlReportTest
+{
+	private static final String RESULT = "<XaSuiteResult name=\"Nightly\" resultType=\"FAILURE\">" //$NON-NLS-1$
+			+ "<Scenario name=\"Login\" resultType=\"FAILURE\">" //$NON-NLS-1$
+			+ "<TestCase name=\"Valid\" resultType=\"SUCCESS\"/>" //$NON-NLS-1$
+			+ "<TestCase name=\"Invalid\" resultType=\"FAILURE\" message=\"Expected &lt;b&gt;0&lt;/b&gt;\"/>" //$NON-NLS-1$
+			+ "<TestCase name=\"Abend\" resultType=\"ERROR\"/>" //$NON-NLS-1$
+			+ "<TestCase name=\"Later\" resultType=\"NOT_EXECUTED\"/>" //$NON-NLS-1$
+			+ "</Scenario>" //$NON-NLS-1$
+			+ "</XaSuiteResult>"; //$NON-NLS-1$
+
+	@Rule
+	public TemporaryFolder folder = new TemporaryFolder();
+
+	@Test
+	public void summarizesTheTestCasesByOutcome() throws Exception
+	{
+		Document html = render(RESULT);
+
+		assertEquals("PASSED: 1, FAILED: 1, ERROR: 1, SKIPPED: 1", //$NON-NLS-1$
+				html.getElementsByTagName("p").item(0).getTextContent()); //$NON-NLS-1$
+		assertEquals("Nightly & <Friends>", html.getElementsByTagName("h1").item(0).getTextContent()); //$NON-NLS-1$ //$NON-NLS-2$
+	}
+
+	@Test
+	public void listsEachTestCaseWithItsOutcome() throws Exception
+	{
+		NodeList rows = render(RESULT).getElementsByTagName("tr"); //$NON-NLS-1$
+
+		// the first row holds the headings
+		assertEquals(5, rows.getLength());
+		assertRow((Element) rows.item(1), "Nightly.Login.Valid", "PASSED", "SUCCESS", ""); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$ //$NON-NLS-4$
+		assertRow((Element) rows.item(2), "Nightly.Login.Invalid", "FAILED", "FAILURE", "Expected <b>0</b>"); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$ //$NON-NLS-4$
+		assertRow((Element) rows.item(3), "Nightly.Login.Abend", "ERROR", "ERROR", ""); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$ //$NON-NLS-4$
+		assertRow((Element) rows.item(4), "Nightly.Login.Later", "SKIPPED", "NOT_EXECUTED", ""); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$ //$NON-NLS-4$
+	}
+
+	@Test
+	public void escapesTheTextOfTheResultFile() throws Exception
+	{
+		render(RESULT);
+
+		String html = new String(Files.readAllBytes(new File(folder.getRoot(), "report.html").toPath()), //$NON-NLS-1$
+				StandardCharsets.UTF_8);
+		assertFalse(html.contains("<b>")); //$NON-NLS-1$
+		assertFalse(html.contains("<Friends>")); //$NON-NLS-1$
+	}
+
+	@Test
+	public void linksTheStylesheetInsteadOfAnInlineStyle() throws Exception
+	{
+		Document html = render(RESULT);
+
+		Element link = (Element) html.getElementsByTagName("link").item(0); //$NON-NLS-1$
+		assertEquals(TotalTestHtmlReport.STYLESHEET, link.getAttribute("href")); //$NON-NLS-1$
+		assertEquals(0, html.getElementsByTagName("style").getLength()); //$NON-NLS-1$
+	}
+
+	@Test
+	public void leavesNoReportForAMalformedResultFile() throws Exception
+	{
+		try
+		{
+			render("<XaSuiteResult resultType=\"SUCCESS\"><Scenario>"); //$NON-NLS-1$
+			fail("A malformed result file was rendered"); //$NON-NLS-1$
+		}
+		catch (IOException e)
+		{
+			// neither the report nor the temporary rows are left behind
+			assertArrayEquals(new String[] { "Nightly.suite.archive" }, folder.getRoot().list()); //$NON-NLS-1$
+		}
+	}
+
+	private static void assertRow(Element row, String test, String outcome, String resultType, String message)
+	{
+		NodeList cells = row.getElementsByTagName("td"); //$NON-NLS-1$
+		assertEquals(test, cells.item(0).getTextContent());
+		assertEquals(outcome, ((Element) cells.item(1)).getAttribute("class")); //$NON-NLS-1$
+		assertEquals(resultType, cells.item(1).getTextContent());
+		assertEquals(message, cells.item(2).getTextContent());
+	}
+
+	private Document render(String result) throws Exception
+	{
+		File resultFile = new File(folder.getRoot(), "Nightly.suite.archive"); //$NON-NLS-1$
+		Files.write(resultFile.toPath(), result.getBytes(StandardCharsets.UTF_8));
+		File htmlFile = new File(folder.getRoot(), "report.html"); //$NON-NLS-1$
+
+		TotalTestHtmlReport.render(resultFile, htmlFile, "Nightly & <Friends>"); //$NON-NLS-1$
+
+		return DocumentBuilderFactory.newInstance().newDocumentBuilder().parse(htmlFile);
+	}
+}
@@ -0,0 +1,148 @@
+/**
+ * The MIT License (MIT)
+ * 
+ * (c) Copyright 2026 BMC Software, Inc.
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated documentation
+ * files (the "Software"), to deal in the Software without restriction, including without limitation the rights to use, copy,
+ * modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to permit persons to whom the
+ * Software is furnished to do so, subject to the following conditions: The above copyright notice and this permission notice
+ * shall be included in all copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+ * WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE,
+ * ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package com.compuware.jenkins.totaltest;
+
+import static org.junit.Assert.assertEquals;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.Collections;
+
+import javax.xml.parsers.DocumentBuilderFactory;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.w3c.dom.Document;
+import org.w3c.dom.Element;
+import org.w3c.dom.NodeList;
+
+/**
+ * Tests that {@link TotalTestJUnitWriter} writes a JUnit test case per test case, with the failure, error and skipped
+ * counts on the test suite.
+ */
+public class TotalTestJUnitWriterTest
+{
+	private static final String RESULT = "<XaSuiteResult name=\"Nightly\" resultType=\"FAILURE\">" //$NON-NLS-1$
+			+ "<Scenario name=\"Login\" resultType=\"FAILURE\">" //$NON-NLS-1$
+			+ "<TestCase name=\"Valid\" resultType=\"SUCCESS\"/>" //$NON-NLS-1$
+			+ "<TestCase name=\"Invalid\" resultType=\"FAILURE\" message=\"Expected 0\"/>" //$NON-NLS-1$
+			+ "<TestCase name=\"Abend\" resultType=\"ERROR\"/>" //$NON-NLS-1$
+			+ "<TestCase name=\"Later\" resultType=\"NOT_EXECUTED\"/>" //$NON-NLS-1$
+			+ "</Scenario>" //$NON-NLS-1$
+			+ "<Scenario name=\"Logout\" resultType=\"ASSERTION_FAILURE\"/>" //$NON-NLS-1$
+			+ "</XaSuiteResult>"; //$NON-NLS-1$
+
+	@Rule
+	public TemporaryFolder folder = new TemporaryFolder();
+
+	@Test
+	public void countsTheFailuresErrorsAndSkippedTestCases() throws Exception
+	{
+		TotalTestJUnitWriter.Counts counts = TotalTestJUnitWriter.transform(write("Nightly.suite.archive", RESULT), //$NON-NLS-1$
+				new File(folder.getRoot(), "junit/Nightly.xml")); //$NON-NLS-1$
+
+		assertEquals(1, counts.getFiles());
+		assertEquals(5, counts.getTests());
+		assertEquals(2, counts.getFailures());
+		assertEquals(1, counts.getErrors());
+		assertEquals(1, counts.getSkipped());
+	}
+
+	@Test
+	public void writesTheCountsOnTheTestSuite() throws Exception
+	{
+		File junitFile = new File(folder.getRoot(), "Nightly.xml"); //$NON-NLS-1$
+		TotalTestJUnitWriter.transform(write("Nightly.suite.archive", RESULT), junitFile); //$NON-NLS-1$
+
+		Element suite = read(junitFile).getDocumentElement();
+		assertEquals("testsuite", suite.getTagName()); //$NON-NLS-1$
+		assertEquals("Nightly", suite.getAttribute("name")); //$NON-NLS-1$ //$NON-NLS-2$
+		assertEquals("5", suite.getAttribute("tests")); //$NON-NLS-1$ //$NON-NLS-2$
+		assertEquals("2", suite.getAttribute("failures")); //$NON-NLS-1$ //$NON-NLS-2$
+		assertEquals("1", suite.getAttribute("errors")); //$NON-NLS-1$ //$NON-NLS-2$
+		assertEquals("1", suite.getAttribute("skipped")); //$NON-NLS-1$ //$NON-NLS-2$
+		assertEquals(5, suite.getElementsByTagName("testcase").getLength()); //$NON-NLS-1$
+	}
+
+	@Test
+	public void writesAnElementForEachTestCaseThatDidNotPass() throws Exception
+	{
+		File junitFile = new File(folder.getRoot(), "Nightly.xml"); //$NON-NLS-1$
+		TotalTestJUnitWriter.transform(write("Nightly.suite.archive", RESULT), junitFile); //$NON-NLS-1$
+
+		NodeList testCases = read(junitFile).getElementsByTagName("testcase"); //$NON-NLS-1$
+		assertEquals("Nightly.Login", ((Element) testCases.item(0)).getAttribute("classname")); //$NON-NLS-1$ //$NON-NLS-2$
+		assertEquals(0, ((Element) testCases.item(0)).getElementsByTagName("*").getLength()); //$NON-NLS-1$
+		assertOutcome((Element) testCases.item(1), "failure", "Expected 0"); //$NON-NLS-1$ //$NON-NLS-2$
+		// without a message the result type is the message
+		assertOutcome((Element) testCases.item(2), "error", "ERROR"); //$NON-NLS-1$ //$NON-NLS-2$
+		assertOutcome((Element) testCases.item(3), "skipped", "NOT_EXECUTED"); //$NON-NLS-1$ //$NON-NLS-2$
+		assertOutcome((Element) testCases.item(4), "failure", "ASSERTION_FAILURE"); //$NON-NLS-1$ //$NON-NLS-2$
+	}
+
+	@Test
+	public void convertsOnlyTheResultFilesWrittenSinceTheRun() throws Exception
+	{
+		File old = write("Output/Old.suite.archive", RESULT); //$NON-NLS-1$
+		old.setLastModified(1000000000000L);
+		write("Output/Nightly.suite.archive", RESULT); //$NON-NLS-1$
+		write("Output/Nightly.context", "<context/>"); //$NON-NLS-1$ //$NON-NLS-2$
+		File junitFolder = new File(folder.getRoot(), "junit"); //$NON-NLS-1$
+
+		TotalTestJUnitWriter.TransformRecent transform = new TotalTestJUnitWriter.TransformRecent(
+				Collections.singleton("archive"), Collections.<String> emptySet(), 1000000001000L, //$NON-NLS-1$
+				junitFolder.getAbsolutePath(), "TEST-"); //$NON-NLS-1$
+		TotalTestJUnitWriter.Counts counts = transform.invoke(folder.getRoot(), null);
+
+		assertEquals(1, counts.getFiles());
+		assertEquals(5, counts.getTests());
+		assertEquals(2, counts.getFailures());
+		assertEquals(Collections.singletonList("TEST-Nightly.suite.archive.xml"), Arrays.asList(junitFolder.list())); //$NON-NLS-1$
+	}
+
+	@Test(expected = IOException.class)
+	public void rejectsAMalformedResultFile() throws Exception
+	{
+		TotalTestJUnitWriter.transform(write("Nightly.suite.archive", "<XaSuiteResult resultType=\"SUCCESS\"><Scenario>"), //$NON-NLS-1$ //$NON-NLS-2$
+				new File(folder.getRoot(), "Nightly.xml")); //$NON-NLS-1$
+	}
+
+	private static void assertOutcome(Element testCase, String element, String message)
+	{
+		NodeList outcomes = testCase.getElementsByTagName("*"); //$NON-NLS-1$
+		assertEquals(1, outcomes.getLength());
+		assertEquals(element, ((Element) outcomes.item(0)).getTagName());
+		assertEquals(message, ((Element) outcomes.item(0)).getAttribute("message")); //$NON-NLS-1$
+	}
+
+	private File write(String path, String content) throws IOException
+	{
+		File file = new File(folder.getRoot(), path);
+		file.getParentFile().mkdirs();
+		Files.write(file.toPath(), content.getBytes(StandardCharsets.UTF_8));
+		return file;
+	}
+
+	private static Document read(File file) throws Exception
+	{
+		return DocumentBuilderFactory.newInstance().newDocumentBuilder().parse(file);
+	}
+}
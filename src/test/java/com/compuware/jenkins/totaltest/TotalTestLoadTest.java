@@ -0,0 +1,340 @@
+/**
+ * The MIT License (MIT)
+ * 
+ * (c) Copyright 2026 BMC Software, Inc.
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated documentation
+ * files (the "Software"), to deal in the Software without restriction, including without limitation the rights to use, copy,
+ * modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to permit persons to whom the
+ * Software is furnished to do so, subject to the following conditions: The above copyright notice and this permission notice
+ * shall be included in all copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+ * WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE,
+ * ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package com.compuware.jenkins.totaltest;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+
+import java.io.File;
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.logging.Logger;
+
+import org.jenkinsci.plugins.workflow.cps.CpsFlowDefinition;
+import org.jenkinsci.plugins.workflow.job.WorkflowJob;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.jvnet.hudson.test.JenkinsRule;
+import org.jvnet.hudson.test.TestBuilder;
+
+import com.cloudbees.plugins.credentials.CredentialsScope;
+import com.cloudbees.plugins.credentials.SystemCredentialsProvider;
+import com.cloudbees.plugins.credentials.impl.UsernamePasswordCredentialsImpl;
+import com.compuware.jenkins.common.configuration.CpwrGlobalConfiguration;
+import com.compuware.jenkins.common.configuration.HostConnection;
+
+import hudson.EnvVars;
+import hudson.Launcher;
+import hudson.model.AbstractBuild;
+import hudson.model.BuildListener;
+import hudson.model.FreeStyleProject;
+import hudson.model.Job;
+import hudson.model.ParameterDefinition;
+import hudson.model.ParametersAction;
+import hudson.model.ParametersDefinitionProperty;
+import hudson.model.Queue;
+import hudson.model.Result;
+import hudson.model.Run;
+import hudson.model.StringParameterDefinition;
+import hudson.model.StringParameterValue;
+import hudson.slaves.DumbSlave;
+import net.sf.json.JSONObject;
+
+/**
+ * Runs concurrent freestyle and pipeline builds of the Total Test steps against the stand-in CLI on local agents, and
+ * reports the builds per minute, the controller heap, the remoting round trips and the phase times.
+ * <p>
+ * A usual build runs one build of each job. These system properties tune the load:
+ * <ul>
+ * <li><code>totaltest.load.builds</code>: builds of each of the four jobs, default 1
+ * <li><code>totaltest.load.agents</code>: local agents, default 1
+ * <li><code>totaltest.load.executors</code>: executors per agent, default 2
+ * <li><code>totaltest.load.report</code>: the JSON report file, default <code>target/totaltest-load.json</code>
+ * <li>the <code>TOTALTEST_STANDIN_*</code> variables of {@link TotalTestStandInCli}, passed to the agents
+ * </ul>
+ * For example <code>mvn test -Dtest=TotalTestLoadTest -Dtotaltest.load.builds=50 -Dtotaltest.load.agents=4
+ * -DTOTALTEST_STANDIN_LATENCY=2000</code>.
+ */
+public class TotalTestLoadTest
+{
+	private static final Logger LOGGER = Logger.getLogger(TotalTestLoadTest.class.getName());
+	private static final String LABEL = "totaltest-load"; //$NON-NLS-1$
+	private static final String CREDENTIALS_ID = "totaltest-load-host"; //$NON-NLS-1$
+	private static final String HOST_PORT = "mainframe.example.com:16196"; //$NON-NLS-1$
+	private static final String CODE_PAGE = "1047"; //$NON-NLS-1$
+	private static final String RUN_PARAMETER = "RUN"; //$NON-NLS-1$
+	private static final String[] STAND_IN_VARIABLES = { TotalTestStandInCli.LATENCY, TotalTestStandInCli.FAILURE_RATE,
+			TotalTestStandInCli.ERROR_RATE, TotalTestStandInCli.OUTPUT_LINES, TotalTestStandInCli.RESULT_SIZE,
+			TotalTestStandInCli.FILE_COUNT, TotalTestStandInCli.SEED };
+
+	@Rule
+	public JenkinsRule j = new JenkinsRule();
+
+	@Rule
+	public TemporaryFolder tmp = new TemporaryFolder();
+
+	@Test
+	public void concurrentBuilds() throws Exception
+	{
+		int builds = Integer.getInteger("totaltest.load.builds", 1); //$NON-NLS-1$
+		int agents = Integer.getInteger("totaltest.load.agents", 1); //$NON-NLS-1$
+		int executors = Integer.getInteger("totaltest.load.executors", 2); //$NON-NLS-1$
+		File report = new File(System.getProperty("totaltest.load.report", "target/totaltest-load.json")); //$NON-NLS-1$ //$NON-NLS-2$
+
+		String connectionId = configure();
+		startAgents(agents, executors);
+		List<Job<?, ?>> jobs = new ArrayList<>();
+		jobs.add(functionalFreestyle());
+		jobs.add(unitFreestyle(connectionId));
+		jobs.add(pipeline("functional-pipeline", "totaltest environmentId: 'load', folderPath: 'tests', " //$NON-NLS-1$ //$NON-NLS-2$
+				+ "serverUrl: 'http://localhost:1/', serverCredentialsId: '', connectionId: '', credentialsId: '" //$NON-NLS-1$
+				+ CREDENTIALS_ID + "', sonarVersion: '6', logLevel: 'INFO'", "tests/.keep")); //$NON-NLS-1$ //$NON-NLS-2$
+		jobs.add(pipeline("unit-pipeline", "totaltestUT connectionId: '" + connectionId + "', credentialsId: '" //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+				+ CREDENTIALS_ID + "', projectFolder: 'proj', testSuite: 'Login.testsuite', jcl: 'Runner.jcl'", //$NON-NLS-1$
+				"proj/Login.testsuite")); //$NON-NLS-1$
+
+		MemoryMXBean memory = ManagementFactory.getMemoryMXBean();
+		AtomicLong peakHeap = new AtomicLong();
+		AtomicBoolean sampling = new AtomicBoolean(true);
+		Thread sampler = new Thread(() -> {
+			while (sampling.get())
+			{
+				peakHeap.accumulateAndGet(memory.getHeapMemoryUsage().getUsed(), Math::max);
+				try
+				{
+					Thread.sleep(200);
+				}
+				catch (InterruptedException e)
+				{
+					return;
+				}
+			}
+		}, "totaltest-load-heap"); //$NON-NLS-1$
+		sampler.start();
+
+		long start = System.nanoTime();
+		List<Future<Queue.Executable>> futures = new ArrayList<>();
+		for (int i = 0; i < builds; i++)
+		{
+			for (Job<?, ?> job : jobs)
+			{
+				// a parameter per build keeps the queue from folding the builds of a job into one
+				Queue.Item item = j.jenkins.getQueue().schedule2((Queue.Task) job, 0,
+						new ParametersAction(new StringParameterValue(RUN_PARAMETER, Integer.toString(i)))).getItem();
+				assertNotNull(item);
+				futures.add(item.getFuture());
+			}
+		}
+
+		List<Run<?, ?>> runs = new ArrayList<>();
+		for (Future<Queue.Executable> future : futures)
+		{
+			Run<?, ?> run = (Run<?, ?>) future.get(1, TimeUnit.HOURS);
+			runs.add(j.waitForCompletion(run));
+		}
+		long elapsed = System.nanoTime() - start;
+		sampling.set(false);
+		sampler.join();
+
+		System.gc();
+		JSONObject summary = summarize(runs, elapsed);
+		summary.put("peakHeapBytes", peakHeap.get()); //$NON-NLS-1$
+		summary.put("heapAfterGcBytes", memory.getHeapMemoryUsage().getUsed()); //$NON-NLS-1$
+		summary.put("agents", agents); //$NON-NLS-1$
+		summary.put("executorsPerAgent", executors); //$NON-NLS-1$
+
+		File parent = report.getAbsoluteFile().getParentFile();
+		Files.createDirectories(parent.toPath());
+		Files.write(report.toPath(), summary.toString(2).getBytes(StandardCharsets.UTF_8));
+		LOGGER.info(() -> "Total Test load report " + report.getAbsolutePath() + ":\n" + summary.toString(2)); //$NON-NLS-1$ //$NON-NLS-2$
+
+		// every build ran its Total Test step, whatever the stand-in made of it
+		assertEquals(runs.size(), summary.getInt("steps")); //$NON-NLS-1$
+	}
+
+	/**
+	 * Installs the stand-in CLI and sets it, a host connection and the host credentials in the global configuration.
+	 * 
+	 * @return	The id of the host connection.
+	 */
+	private String configure() throws Exception
+	{
+		TotalTestStandInCli.installAsCli(tmp.newFolder("cli")); //$NON-NLS-1$
+		CpwrGlobalConfiguration globalConfig = CpwrGlobalConfiguration.get();
+		globalConfig.addHostConnection(new HostConnection(HOST_PORT, HOST_PORT, null, CODE_PAGE, null, null, null));
+
+		SystemCredentialsProvider.getInstance().getCredentials().add(new UsernamePasswordCredentialsImpl(
+				CredentialsScope.GLOBAL, CREDENTIALS_ID, null, "user", "password")); //$NON-NLS-1$ //$NON-NLS-2$
+		SystemCredentialsProvider.getInstance().save();
+
+		return globalConfig.getHostConnection(HOST_PORT, CODE_PAGE).getConnectionId();
+	}
+
+	/**
+	 * Starts the local agents the builds run on, with the stand-in variables set as system properties.
+	 */
+	private void startAgents(int agents, int executors) throws Exception
+	{
+		EnvVars env = new EnvVars();
+		for (String variable : STAND_IN_VARIABLES)
+		{
+			String value = System.getProperty(variable);
+			if (value != null)
+			{
+				env.put(variable, value);
+			}
+		}
+
+		j.jenkins.setNumExecutors(0);
+		List<DumbSlave> started = new ArrayList<>();
+		for (int i = 1; i <= agents; i++)
+		{
+			DumbSlave agent = j.createSlave(LABEL + "-" + i, LABEL, env); //$NON-NLS-1$
+			agent.setNumExecutors(executors);
+			j.jenkins.updateNode(agent);
+			started.add(agent);
+		}
+		for (DumbSlave agent : started)
+		{
+			j.waitOnline(agent);
+		}
+	}
+
+	private FreeStyleProject functionalFreestyle() throws Exception
+	{
+		FreeStyleProject project = freestyle("functional-freestyle", "tests"); //$NON-NLS-1$ //$NON-NLS-2$
+		TotalTestCTBuilder builder = new TotalTestCTBuilder("load", "tests", "http://localhost:1/", "", "", CREDENTIALS_ID, //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$ //$NON-NLS-4$ //$NON-NLS-5$
+				"6", "INFO"); //$NON-NLS-1$ //$NON-NLS-2$
+		builder.setSelectEnvironmentRadio(TotalTestCTBuilder.DescriptorImpl.selectEnvironmentIdValue);
+		project.getBuildersList().add(builder);
+		return project;
+	}
+
+	private FreeStyleProject unitFreestyle(String connectionId) throws Exception
+	{
+		FreeStyleProject project = freestyle("unit-freestyle", "proj"); //$NON-NLS-1$ //$NON-NLS-2$
+		project.getBuildersList().add(new TotalTestBuilder(connectionId, CREDENTIALS_ID, "proj", "Login.testsuite", "Runner.jcl")); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+		return project;
+	}
+
+	/**
+	 * Creates a freestyle job that creates its test folder before the Total Test step runs.
+	 */
+	private FreeStyleProject freestyle(String name, String folder) throws Exception
+	{
+		FreeStyleProject project = j.createFreeStyleProject(name);
+		project.setAssignedLabel(j.jenkins.getLabel(LABEL));
+		project.setConcurrentBuild(true);
+		project.addProperty(runParameter());
+		project.getBuildersList().add(new TestBuilder()
+		{
+			@Override
+			public boolean perform(AbstractBuild<?, ?> build, Launcher launcher, BuildListener listener)
+					throws InterruptedException, IOException
+			{
+				build.getWorkspace().child(folder).mkdirs();
+				return true;
+			}
+		});
+		return project;
+	}
+
+	private WorkflowJob pipeline(String name, String step, String testFile) throws Exception
+	{
+		WorkflowJob job = j.jenkins.createProject(WorkflowJob.class, name);
+		job.addProperty(runParameter());
+		job.setDefinition(new CpsFlowDefinition("node('" + LABEL + "') {\n  writeFile file: '" + testFile //$NON-NLS-1$ //$NON-NLS-2$
+				+ "', text: ''\n  " + step + "\n}\n", true)); //$NON-NLS-1$ //$NON-NLS-2$
+		return job;
+	}
+
+	private static ParametersDefinitionProperty runParameter()
+	{
+		return new ParametersDefinitionProperty(
+				new ParameterDefinition[] { new StringParameterDefinition(RUN_PARAMETER, "0", null) }); //$NON-NLS-1$
+	}
+
+	/**
+	 * Sums up the results, remoting round trips and phase times of the builds.
+	 */
+	private static JSONObject summarize(List<Run<?, ?>> runs, long elapsedNanos)
+	{
+		Map<String, Integer> results = new TreeMap<>();
+		Map<String, long[]> phases = new TreeMap<>();
+		long roundTrips = 0;
+		long maxRoundTrips = 0;
+		int steps = 0;
+		for (Run<?, ?> run : runs)
+		{
+			Result result = run.getResult();
+			results.merge(result != null ? result.toString() : "NONE", 1, Integer::sum); //$NON-NLS-1$
+			for (TotalTestTimingsAction action : run.getActions(TotalTestTimingsAction.class))
+			{
+				steps++;
+				Long calls = action.getRemotingCalls();
+				if (calls != null)
+				{
+					roundTrips += calls;
+					maxRoundTrips = Math.max(maxRoundTrips, calls);
+				}
+				for (Map.Entry<String, Long> phase : action.getDurations().entrySet())
+				{
+					// total, maximum and count of the phase
+					long[] times = phases.computeIfAbsent(phase.getKey(), key -> new long[3]);
+					times[0] += phase.getValue();
+					times[1] = Math.max(times[1], phase.getValue());
+					times[2]++;
+				}
+			}
+		}
+
+		JSONObject phaseTimes = new JSONObject();
+		for (Map.Entry<String, long[]> phase : phases.entrySet())
+		{
+			long[] times = phase.getValue();
+			JSONObject time = new JSONObject();
+			time.put("meanMillis", times[0] / times[2]); //$NON-NLS-1$
+			time.put("maxMillis", times[1]); //$NON-NLS-1$
+			phaseTimes.put(phase.getKey(), time);
+		}
+
+		double minutes = elapsedNanos / 60e9;
+		JSONObject summary = new JSONObject();
+		summary.put("builds", runs.size()); //$NON-NLS-1$
+		summary.put("steps", steps); //$NON-NLS-1$
+		summary.put("results", results); //$NON-NLS-1$
+		summary.put("elapsedSeconds", elapsedNanos / 1e9); //$NON-NLS-1$
+		summary.put("buildsPerMinute", runs.size() / minutes); //$NON-NLS-1$
+		summary.put("remotingRoundTrips", roundTrips); //$NON-NLS-1$
+		summary.put("meanRemotingRoundTripsPerStep", steps > 0 ? (double) roundTrips / steps : 0); //$NON-NLS-1$
+		summary.put("maxRemotingRoundTripsPerStep", maxRoundTrips); //$NON-NLS-1$
+		summary.put("phaseTimes", phaseTimes); //$NON-NLS-1$
+		return summary;
+	}
+}
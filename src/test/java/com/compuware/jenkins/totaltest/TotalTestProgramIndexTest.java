@@ -0,0 +1,138 @@
+/**
+ * The MIT License (MIT)
+ * 
+ * (c) Copyright 2026 BMC Software, Inc.
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated documentation
+ * files (the "Software"), to deal in the Software without restriction, including without limitation the rights to use, copy,
+ * modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to permit persons to whom the
+ * Software is furnished to do so, subject to the following conditions: The above copyright notice and this permission notice
+ * shall be included in all copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+ * WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE,
+ * ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package com.compuware.jenkins.totaltest;
+
+import static org.junit.Assert.assertEquals;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+/**
+ * Tests that the program index selects the test files referencing a program and only parses changed files again.
+ */
+public class TotalTestProgramIndexTest
+{
+	private static final Set<String> EXTENSIONS = new HashSet<>(Arrays.asList("scenario", "context")); //$NON-NLS-1$ //$NON-NLS-2$
+
+	@Rule
+	public TemporaryFolder folder = new TemporaryFolder();
+
+	private File testFolder;
+	private File indexFile;
+
+	@Before
+	public void createTestFolder() throws IOException
+	{
+		testFolder = folder.newFolder("Tests"); //$NON-NLS-1$
+		indexFile = new File(folder.getRoot(), TotalTestProgramIndex.INDEX_FILE);
+		write("Scenarios/Login.scenario", "<scenario><step><program>LOGIN01</program></step></scenario>"); //$NON-NLS-1$ //$NON-NLS-2$
+		write("Scenarios/Logout.scenario", "<scenario><step programName=\"logout01\"/></scenario>"); //$NON-NLS-1$ //$NON-NLS-2$
+		write("Nightly.context", "<context><programName>LOGIN01</programName></context>"); //$NON-NLS-1$ //$NON-NLS-2$
+		write("Scenarios/Other.scenario", "<scenario><program>OTHER</program></scenario>"); //$NON-NLS-1$ //$NON-NLS-2$
+	}
+
+	@Test
+	public void selectsTheFilesReferencingAProgramElementOrAttribute() throws Exception
+	{
+		TotalTestProgramIndex.Selection selection = select(true, "login01", "LOGOUT01"); //$NON-NLS-1$ //$NON-NLS-2$
+
+		assertEquals(paths("Nightly.context", "Scenarios/Login.scenario", "Scenarios/Logout.scenario"), //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+				selection.getTestFiles());
+		assertEquals(4, selection.getIndexedFiles());
+		assertEquals(4, selection.getParsedFiles());
+	}
+
+	@Test
+	public void parsesOnlyTheFilesThatChanged() throws Exception
+	{
+		select(true, "LOGIN01"); //$NON-NLS-1$
+		TotalTestProgramIndex.Selection unchanged = select(true, "LOGIN01"); //$NON-NLS-1$
+		write("Scenarios/Other.scenario", "<scenario><program>LOGIN01</program></scenario>"); //$NON-NLS-1$ //$NON-NLS-2$
+		TotalTestProgramIndex.Selection changed = select(true, "LOGIN01"); //$NON-NLS-1$
+
+		assertEquals(0, unchanged.getParsedFiles());
+		assertEquals(1, changed.getParsedFiles());
+		assertEquals(paths("Nightly.context", "Scenarios/Login.scenario", "Scenarios/Other.scenario"), //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+				changed.getTestFiles());
+	}
+
+	@Test
+	public void dropsDeletedFilesFromTheIndex() throws Exception
+	{
+		select(true, "LOGIN01"); //$NON-NLS-1$
+		Files.delete(new File(testFolder, "Nightly.context").toPath()); //$NON-NLS-1$
+
+		TotalTestProgramIndex.Selection selection = select(true, "LOGIN01"); //$NON-NLS-1$
+
+		assertEquals(paths("Scenarios/Login.scenario"), selection.getTestFiles()); //$NON-NLS-1$
+		assertEquals(3, selection.getIndexedFiles());
+	}
+
+	@Test
+	public void selectsOnlyTheTopFolderWhenNotRecursive() throws Exception
+	{
+		TotalTestProgramIndex.Selection selection = select(false, "LOGIN01"); //$NON-NLS-1$
+
+		assertEquals(paths("Nightly.context"), selection.getTestFiles()); //$NON-NLS-1$
+	}
+
+	@Test
+	public void selectsNothingFromAFileThatCannotBeParsed() throws Exception
+	{
+		write("Scenarios/Login.scenario", "<scenario><program>LOGIN01</scenario>"); //$NON-NLS-1$ //$NON-NLS-2$
+
+		TotalTestProgramIndex.Selection selection = select(true, "LOGIN01"); //$NON-NLS-1$
+
+		assertEquals(paths("Nightly.context"), selection.getTestFiles()); //$NON-NLS-1$
+	}
+
+	private TotalTestProgramIndex.Selection select(boolean recursive, String... programs) throws Exception
+	{
+		return new TotalTestProgramIndex(indexFile.getAbsolutePath(), new HashSet<>(Arrays.asList(programs)), EXTENSIONS,
+				recursive).invoke(testFolder, null);
+	}
+
+	private void write(String path, String content) throws IOException
+	{
+		File file = new File(testFolder, path);
+		file.getParentFile().mkdirs();
+		Files.write(file.toPath(), content.getBytes(StandardCharsets.UTF_8));
+	}
+
+	private List<String> paths(String... relativePaths)
+	{
+		String[] paths = new String[relativePaths.length];
+		for (int i = 0; i < relativePaths.length; i++)
+		{
+			paths[i] = new File(testFolder, relativePaths[i]).getAbsolutePath();
+		}
+		Arrays.sort(paths);
+
+		return Arrays.asList(paths);
+	}
+}
@@ -0,0 +1,110 @@
+/**
+ * The MIT License (MIT)
+ * 
+ * (c) Copyright 2026 BMC Software, Inc.
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated documentation
+ * files (the "Software"), to deal in the Software without restriction, including without limitation the rights to use, copy,
+ * modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to permit persons to whom the
+ * Software is furnished to do so, subject to the following conditions: The above copyright notice and this permission notice
+ * shall be included in all copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+ * WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE,
+ * ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package com.compuware.jenkins.totaltest;
+
+import java.util.List;
+
+import hudson.model.Run;
+import hudson.remoting.VirtualChannel;
+
+/**
+ * Asserts that code makes no more than a budget of remoting round trips to an agent, counted with
+ * {@link TotalTestRemotingCounter}.
+ */
+public final class TotalTestRemotingBudget
+{
+	private TotalTestRemotingBudget()
+	{
+	}
+
+	/**
+	 * Code making remoting calls.
+	 * 
+	 * @param <T>
+	 * 			The type of the result.
+	 */
+	@FunctionalInterface
+	public interface RemoteCode<T>
+	{
+		T call() throws Exception;
+	}
+
+	/**
+	 * Runs code in the current thread and fails if it makes more round trips over a channel than the budget.
+	 * 
+	 * @param channel
+	 * 			The channel of the agent.
+	 * @param budget
+	 * 			The maximum number of round trips.
+	 * @param code
+	 * 			The code to run.
+	 * 
+	 * @return	The result of the code.
+	 * 
+	 * @throws Exception
+	 * 			If the code failed.
+	 * @throws AssertionError
+	 * 			If the code made more round trips than the budget.
+	 */
+	public static <T> T assertRoundTrips(VirtualChannel channel, long budget, RemoteCode<T> code) throws Exception
+	{
+		T result;
+		long roundTrips;
+		try (TotalTestRemotingCounter counter = TotalTestRemotingCounter.attach(channel))
+		{
+			result = code.call();
+			roundTrips = counter.getRoundTrips();
+		}
+
+		if (roundTrips > budget)
+		{
+			throw new AssertionError("Expected at most " + budget + " remoting round trips but counted " + roundTrips); //$NON-NLS-1$ //$NON-NLS-2$
+		}
+
+		return result;
+	}
+
+	/**
+	 * Fails if the Total Test steps of a build made more round trips to their agent than the budget.
+	 * 
+	 * @param run
+	 * 			The completed build.
+	 * @param budget
+	 * 			The maximum number of round trips of each step.
+	 * 
+	 * @throws AssertionError
+	 * 			If the build ran no Total Test step or a step made more round trips than the budget.
+	 */
+	public static void assertRoundTrips(Run<?, ?> run, long budget)
+	{
+		List<TotalTestTimingsAction> actions = run.getActions(TotalTestTimingsAction.class);
+		if (actions.isEmpty())
+		{
+			throw new AssertionError("No Total Test step ran in " + run); //$NON-NLS-1$
+		}
+
+		for (TotalTestTimingsAction action : actions)
+		{
+			Long roundTrips = action.getRemotingCalls();
+			if (roundTrips != null && roundTrips > budget)
+			{
+				throw new AssertionError("Expected at most " + budget + " remoting round trips but counted " + roundTrips //$NON-NLS-1$ //$NON-NLS-2$
+						+ " in " + run); //$NON-NLS-1$
+			}
+		}
+	}
+}
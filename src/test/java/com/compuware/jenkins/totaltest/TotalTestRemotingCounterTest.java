@@ -0,0 +1,152 @@
+/**
+ * The MIT License (MIT)
+ * 
+ * (c) Copyright 2026 BMC Software, Inc.
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated documentation
+ * files (the "Software"), to deal in the Software without restriction, including without limitation the rights to use, copy,
+ * modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to permit persons to whom the
+ * Software is furnished to do so, subject to the following conditions: The above copyright notice and this permission notice
+ * shall be included in all copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+ * WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE,
+ * ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package com.compuware.jenkins.totaltest;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertThrows;
+
+import java.io.IOException;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.jvnet.hudson.test.JenkinsRule;
+import org.jvnet.hudson.test.TestBuilder;
+
+import com.cloudbees.plugins.credentials.CredentialsScope;
+import com.cloudbees.plugins.credentials.SystemCredentialsProvider;
+import com.cloudbees.plugins.credentials.impl.UsernamePasswordCredentialsImpl;
+
+import hudson.EnvVars;
+import hudson.FilePath;
+import hudson.Launcher;
+import hudson.model.AbstractBuild;
+import hudson.model.BuildListener;
+import hudson.model.FreeStyleBuild;
+import hudson.model.FreeStyleProject;
+import hudson.model.Slave;
+import hudson.remoting.VirtualChannel;
+
+/**
+ * Tests that the remoting counter counts the round trips of its own thread only.
+ */
+public class TotalTestRemotingCounterTest
+{
+	// A functional test run makes a fixed number of round trips, whatever the number of result files.
+	private static final long RUN_BUDGET = 100;
+
+	@Rule
+	public JenkinsRule j = new JenkinsRule();
+
+	@Rule
+	public TemporaryFolder tmp = new TemporaryFolder();
+
+	@Test
+	public void searchesADeepTreeInOneRoundTrip() throws Exception
+	{
+		Slave agent = j.createOnlineSlave();
+		FilePath root = agent.getRootPath().child("reports"); //$NON-NLS-1$
+		FilePath folder = root;
+		for (int i = 0; i < 20; i++)
+		{
+			folder = folder.child("level" + i); //$NON-NLS-1$
+		}
+		folder.child("deep.cli.suiteresult").write("", "UTF-8"); //$NON-NLS-1$ //$NON-NLS-2$
+
+		String found = TotalTestRemotingBudget.assertRoundTrips(agent.getChannel(), 1,
+				() -> root.act(new TotalTestRunnerUtils.FindFileBySuffix(".cli.suiteresult"))); //$NON-NLS-1$
+		assertNotNull(found);
+	}
+
+	@Test
+	public void ignoresTheCallsOfOtherThreads() throws Exception
+	{
+		Slave agent = j.createOnlineSlave();
+		VirtualChannel channel = agent.getChannel();
+		FilePath root = agent.getRootPath();
+		AtomicBoolean running = new AtomicBoolean(true);
+		Thread other = new Thread(() -> {
+			while (running.get())
+			{
+				try
+				{
+					root.exists();
+				}
+				catch (Exception e)
+				{
+					return;
+				}
+			}
+		});
+		other.start();
+		try (TotalTestRemotingCounter counter = TotalTestRemotingCounter.attach(channel))
+		{
+			for (int i = 0; i < 3; i++)
+			{
+				root.exists();
+			}
+			assertEquals(3, counter.getRoundTrips());
+		}
+		finally
+		{
+			running.set(false);
+			other.join();
+		}
+	}
+
+	@Test
+	public void failsOverTheBudget() throws Exception
+	{
+		Slave agent = j.createOnlineSlave();
+		FilePath root = agent.getRootPath();
+
+		assertThrows(AssertionError.class,
+				() -> TotalTestRemotingBudget.assertRoundTrips(agent.getChannel(), 1, () -> root.exists() && root.isDirectory()));
+	}
+
+	@Test
+	public void runsAFolderOfTestsWithinTheBudget() throws Exception
+	{
+		TotalTestStandInCli.installAsCli(tmp.newFolder("cli")); //$NON-NLS-1$
+		SystemCredentialsProvider.getInstance().getCredentials().add(new UsernamePasswordCredentialsImpl(
+				CredentialsScope.GLOBAL, "host", null, "user", "password")); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+		EnvVars env = new EnvVars(TotalTestStandInCli.FILE_COUNT, "50"); //$NON-NLS-1$
+		Slave agent = j.createOnlineSlave(null, env);
+
+		FreeStyleProject project = j.createFreeStyleProject();
+		project.setAssignedNode(agent);
+		project.getBuildersList().add(new TestBuilder()
+		{
+			@Override
+			public boolean perform(AbstractBuild<?, ?> build, Launcher launcher, BuildListener listener)
+					throws InterruptedException, IOException
+			{
+				build.getWorkspace().child("tests").mkdirs(); //$NON-NLS-1$
+				return true;
+			}
+		});
+		TotalTestCTBuilder builder = new TotalTestCTBuilder("budget", "tests", "http://localhost:1/", "", "", "host", //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$ //$NON-NLS-4$ //$NON-NLS-5$ //$NON-NLS-6$
+				"6", "INFO"); //$NON-NLS-1$ //$NON-NLS-2$
+		builder.setSelectEnvironmentRadio(TotalTestCTBuilder.DescriptorImpl.selectEnvironmentIdValue);
+		project.getBuildersList().add(builder);
+
+		FreeStyleBuild build = j.buildAndAssertSuccess(project);
+		TotalTestRemotingBudget.assertRoundTrips(build, RUN_BUDGET);
+	}
+}
@@ -0,0 +1,135 @@
+/**
+ * The MIT License (MIT)
+ * 
+ * (c) Copyright 2026 BMC Software, Inc.
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated documentation
+ * files (the "Software"), to deal in the Software without restriction, including without limitation the rights to use, copy,
+ * modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to permit persons to whom the
+ * Software is furnished to do so, subject to the following conditions: The above copyright notice and this permission notice
+ * shall be included in all copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+ * WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE,
+ * ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package com.compuware.jenkins.totaltest;
+
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+
+/**
+ * Writes synthetic Total Test result files of a given size, for the benchmarks and the stand-in CLI.
+ * <p>
+ * A file holds a code coverage percentage and scenarios of ten test cases each, added until the file reaches the
+ * requested size.
+ */
+public final class TotalTestResultFixture
+{
+	private static final int CASES_PER_SCENARIO = 10;
+
+	private TotalTestResultFixture()
+	{
+	}
+
+	/**
+	 * Writes a result file.
+	 * 
+	 * @param file
+	 * 			The file to write.
+	 * @param rootElement
+	 * 			{@link TotalTestResultParser#SUITE_RESULT_ELEMENT} or {@link TotalTestResultParser#SCENARIO_RESULT_ELEMENT}.
+	 * @param size
+	 * 			The size of the file in bytes. The file holds at least one scenario, so it may be a bit larger.
+	 * @param failEvery
+	 * 			Every <code>failEvery</code>th test case fails, or <code>0</code> to pass every test case.
+	 * 
+	 * @return	The number of test cases written.
+	 * 
+	 * @throws IOException
+	 * 			If the file could not be written.
+	 */
+	public static int write(File file, String rootElement, long size, int failEvery) throws IOException
+	{
+		File parent = file.getParentFile();
+		if (parent != null)
+		{
+			Files.createDirectories(parent.toPath());
+		}
+
+		int cases = 0;
+		try (CountingWriter out = new CountingWriter(Files.newBufferedWriter(file.toPath(), StandardCharsets.UTF_8)))
+		{
+			out.write("<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n"); //$NON-NLS-1$
+			out.write("<" + rootElement + " name=\"" + file.getName() + "\" resultType=\"" //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+					+ (failEvery > 0 ? "FAILURE" : "SUCCESS") + "\">\n"); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+			out.write("\t<CC><data percentage=\"80\"/></CC>\n"); //$NON-NLS-1$
+
+			String closing = "</" + rootElement + ">\n"; //$NON-NLS-1$ //$NON-NLS-2$
+			int scenario = 0;
+			do
+			{
+				scenario++;
+				out.write("\t<Scenario name=\"Scenario_" + scenario + "\" resultType=\"SUCCESS\">\n"); //$NON-NLS-1$ //$NON-NLS-2$
+				for (int i = 1; i <= CASES_PER_SCENARIO; i++)
+				{
+					cases++;
+					boolean fails = failEvery > 0 && cases % failEvery == 0;
+					out.write("\t\t<TestCase name=\"Case_" + scenario + "_" + i + "\" resultType=\"" //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+							+ (fails ? "FAILURE\" message=\"Expected 0 but was " + cases + "\"/>\n" : "SUCCESS\"/>\n")); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+				}
+				out.write("\t</Scenario>\n"); //$NON-NLS-1$
+			}
+			while (out.count + closing.length() < size);
+
+			out.write(closing);
+		}
+
+		return cases;
+	}
+
+	/**
+	 * A writer counting the characters written, which are single bytes in the files written here.
+	 */
+	private static final class CountingWriter extends Writer
+	{
+		private final BufferedWriter out;
+		private long count;
+
+		CountingWriter(BufferedWriter out)
+		{
+			this.out = out;
+		}
+
+		@Override
+		public void write(char[] cbuf, int off, int len) throws IOException
+		{
+			out.write(cbuf, off, len);
+			count += len;
+		}
+
+		@Override
+		public void write(String str) throws IOException
+		{
+			out.write(str);
+			count += str.length();
+		}
+
+		@Override
+		public void flush() throws IOException
+		{
+			out.flush();
+		}
+
+		@Override
+		public void close() throws IOException
+		{
+			out.close();
+		}
+	}
+}
@@ -0,0 +1,93 @@
+/**
+ * The MIT License (MIT)
+ * 
+ * (c) Copyright 2026 BMC Software, Inc.
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated documentation
+ * files (the "Software"), to deal in the Software without restriction, including without limitation the rights to use, copy,
+ * modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to permit persons to whom the
+ * Software is furnished to do so, subject to the following conditions: The above copyright notice and this permission notice
+ * shall be included in all copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+ * WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE,
+ * ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package com.compuware.jenkins.totaltest;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+
+import javax.xml.stream.XMLStreamException;
+
+import org.apache.commons.io.FileUtils;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.infra.Blackhole;
+
+import jenkins.benchmark.jmh.JmhBenchmark;
+
+/**
+ * Measures the parsing of result files from 10 KB to 100 MB with the streaming parser, for the summary and for the test
+ * cases, against the DOM parsing it replaced.
+ */
+@JmhBenchmark
+public class TotalTestResultParserBenchmark
+{
+	@State(Scope.Benchmark)
+	public static class ResultFile
+	{
+		@Param({ "10240", "1048576", "104857600" })
+		public long size;
+
+		File folder;
+		File file;
+
+		@Setup(Level.Trial)
+		public void setup() throws IOException
+		{
+			folder = Files.createTempDirectory("totaltest-parser").toFile(); //$NON-NLS-1$
+			file = new File(folder, "benchmark.cli.suiteresult"); //$NON-NLS-1$
+			TotalTestResultFixture.write(file, TotalTestResultParser.SUITE_RESULT_ELEMENT, size, 7);
+		}
+
+		@TearDown(Level.Trial)
+		public void tearDown() throws IOException
+		{
+			FileUtils.deleteDirectory(folder);
+		}
+	}
+
+	@Benchmark
+	public TotalTestResultParser.Result parse(ResultFile state) throws IOException, XMLStreamException
+	{
+		try (InputStream in = Files.newInputStream(state.file.toPath()))
+		{
+			return TotalTestResultParser.parse(in, TotalTestResultParser.SUITE_RESULT_ELEMENT);
+		}
+	}
+
+	@Benchmark
+	public String[] parseDom(ResultFile state) throws Exception
+	{
+		return TotalTestDomResultParser.parse(state.file, TotalTestResultParser.SUITE_RESULT_ELEMENT);
+	}
+
+	@Benchmark
+	public void readTestCases(ResultFile state, Blackhole blackhole) throws IOException, XMLStreamException
+	{
+		try (InputStream in = Files.newInputStream(state.file.toPath()))
+		{
+			TotalTestResultParser.readTestCases(in, state.file.getName(),
+					(className, name, resultType, message) -> blackhole.consume(name));
+		}
+	}
+}
@@ -0,0 +1,171 @@
+/**
+ * The MIT License (MIT)
+ * 
+ * (c) Copyright 2026 BMC Software, Inc.
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated documentation
+ * files (the "Software"), to deal in the Software without restriction, including without limitation the rights to use, copy,
+ * modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to permit persons to whom the
+ * Software is furnished to do so, subject to the following conditions: The above copyright notice and this permission notice
+ * shall be included in all copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+ * WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE,
+ * ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package com.compuware.jenkins.totaltest;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import javax.xml.stream.XMLStreamException;
+
+import org.junit.Test;
+
+/**
+ * Tests for {@link TotalTestResultParser}.
+ */
+public class TotalTestResultParserTest
+{
+	private static final String OUTCOMES = "<XaSuiteResult name=\"Nightly\" resultType=\"FAILURE\">" //$NON-NLS-1$
+			+ "<CC><data percentage=\"50\"/></CC>" //$NON-NLS-1$
+			+ "<Scenario name=\"Login\" resultType=\"FAILURE\">" //$NON-NLS-1$
+			+ "<TestCase name=\"Valid\" resultType=\"SUCCESS\"/>" //$NON-NLS-1$
+			+ "<TestCase name=\"Invalid\" resultType=\"FAILURE\" message=\"Expected 0\"/>" //$NON-NLS-1$
+			+ "<TestCase name=\"Abend\" resultType=\"ERROR\"/>" //$NON-NLS-1$
+			+ "<TestCase name=\"Later\" resultType=\"NOT_EXECUTED\"/>" //$NON-NLS-1$
+			+ "</Scenario>" //$NON-NLS-1$
+			+ "<Scenario name=\"Logout\" resultType=\"SUCCESS\"/>" //$NON-NLS-1$
+			+ "</XaSuiteResult>"; //$NON-NLS-1$
+
+	@Test
+	public void readsTheResultTypeOfASuite() throws Exception
+	{
+		TotalTestResultParser.Result result = parse("<XaSuiteResult resultType=\"SUCCESS\"><Scenario resultType=\"FAILURE\"/></XaSuiteResult>", //$NON-NLS-1$
+				TotalTestResultParser.SUITE_RESULT_ELEMENT);
+
+		assertEquals(TotalTestResultParser.SUITE_RESULT_ELEMENT, result.getRootElement());
+		assertEquals("SUCCESS", result.getResultType()); //$NON-NLS-1$
+	}
+
+	@Test
+	public void readsTheResultTypeOfAScenario() throws Exception
+	{
+		TotalTestResultParser.Result result = parse("<XaUnitResult resultType=\"FAILURE\"/>", //$NON-NLS-1$
+				TotalTestResultParser.SCENARIO_RESULT_ELEMENT);
+
+		assertEquals(TotalTestResultParser.SCENARIO_RESULT_ELEMENT, result.getRootElement());
+		assertEquals("FAILURE", result.getResultType()); //$NON-NLS-1$
+	}
+
+	@Test
+	public void readsAMissingResultTypeAsEmpty() throws Exception
+	{
+		assertEquals("", parse("<XaSuiteResult/>", TotalTestResultParser.SUITE_RESULT_ELEMENT).getResultType()); //$NON-NLS-1$ //$NON-NLS-2$
+	}
+
+	@Test
+	public void readsTheCodeCoveragePercentage() throws Exception
+	{
+		TotalTestResultParser.Result result = parse("<XaSuiteResult resultType=\"SUCCESS\">" //$NON-NLS-1$
+				+ "<Scenario><CC><data percentage=\"10\"/></CC></Scenario>" //$NON-NLS-1$
+				+ "<CC><data percentage=\"85\"/><data percentage=\"20\"/></CC>" //$NON-NLS-1$
+				+ "</XaSuiteResult>", TotalTestResultParser.SUITE_RESULT_ELEMENT); //$NON-NLS-1$
+
+		assertEquals("85", result.getCcPercentage()); //$NON-NLS-1$
+	}
+
+	@Test
+	public void readsNoCodeCoverageWithoutData() throws Exception
+	{
+		assertNull(parse("<XaSuiteResult resultType=\"SUCCESS\"><CC/></XaSuiteResult>", //$NON-NLS-1$
+				TotalTestResultParser.SUITE_RESULT_ELEMENT).getCcPercentage());
+	}
+
+	@Test
+	public void ignoresADocumentTypeDefinition() throws Exception
+	{
+		// With DTD support the parser would try to load the missing external subset and fail.
+		TotalTestResultParser.Result result = parse("<?xml version=\"1.0\"?>" //$NON-NLS-1$
+				+ "<!DOCTYPE XaSuiteResult SYSTEM \"file:///does/not/exist.dtd\">" //$NON-NLS-1$
+				+ "<XaSuiteResult resultType=\"SUCCESS\"/>", TotalTestResultParser.SUITE_RESULT_ELEMENT); //$NON-NLS-1$
+
+		assertEquals("SUCCESS", result.getResultType()); //$NON-NLS-1$
+	}
+
+	@Test(expected = XMLStreamException.class)
+	public void doesNotExpandExternalEntities() throws Exception
+	{
+		parse("<?xml version=\"1.0\"?>" //$NON-NLS-1$
+				+ "<!DOCTYPE XaSuiteResult [<!ENTITY xxe SYSTEM \"file:///etc/hostname\">]>" //$NON-NLS-1$
+				+ "<XaSuiteResult resultType=\"SUCCESS\">&xxe;</XaSuiteResult>", TotalTestResultParser.SUITE_RESULT_ELEMENT); //$NON-NLS-1$
+	}
+
+	@Test(expected = XMLStreamException.class)
+	public void rejectsAnUnexpectedRootElement() throws Exception
+	{
+		parse("<XaUnitResult resultType=\"SUCCESS\"/>", TotalTestResultParser.SUITE_RESULT_ELEMENT); //$NON-NLS-1$
+	}
+
+	@Test(expected = XMLStreamException.class)
+	public void rejectsAMalformedFile() throws Exception
+	{
+		parse("<XaSuiteResult resultType=\"SUCCESS\"><Scenario></XaSuiteResult>", TotalTestResultParser.SUITE_RESULT_ELEMENT); //$NON-NLS-1$
+	}
+
+	@Test(expected = XMLStreamException.class)
+	public void rejectsAnEmptyFile() throws Exception
+	{
+		parse("", TotalTestResultParser.SUITE_RESULT_ELEMENT); //$NON-NLS-1$
+	}
+
+	@Test
+	public void countsTheOutcomesOfTheTestCases() throws Exception
+	{
+		TotalTestResultParser.Result result = parse(OUTCOMES, TotalTestResultParser.SUITE_RESULT_ELEMENT);
+
+		assertEquals(2, result.getCount(TotalTestResultParser.Outcome.PASSED));
+		assertEquals(1, result.getCount(TotalTestResultParser.Outcome.FAILED));
+		assertEquals(1, result.getCount(TotalTestResultParser.Outcome.ERROR));
+		assertEquals(1, result.getCount(TotalTestResultParser.Outcome.SKIPPED));
+		assertEquals(5, result.getTests());
+	}
+
+	@Test
+	public void readsTheTestCasesWithTheirClassNames() throws Exception
+	{
+		List<String> cases = new ArrayList<>();
+		TotalTestResultParser.readTestCases(new ByteArrayInputStream(OUTCOMES.getBytes(StandardCharsets.UTF_8)), "Suite", //$NON-NLS-1$
+				(className, name, resultType, message) -> cases.add(className + '/' + name + '=' + resultType + '/' + message));
+
+		assertEquals(5, cases.size());
+		assertEquals("Nightly.Login/Valid=SUCCESS/null", cases.get(0)); //$NON-NLS-1$
+		assertEquals("Nightly.Login/Invalid=FAILURE/Expected 0", cases.get(1)); //$NON-NLS-1$
+		assertEquals("Nightly.Login/Abend=ERROR/null", cases.get(2)); //$NON-NLS-1$
+		assertEquals("Nightly.Login/Later=NOT_EXECUTED/null", cases.get(3)); //$NON-NLS-1$
+		// a scenario without test cases is a test case of its own
+		assertEquals("Nightly/Logout=SUCCESS/null", cases.get(4)); //$NON-NLS-1$
+	}
+
+	@Test
+	public void mapsResultTypesToOutcomes()
+	{
+		assertEquals(TotalTestResultParser.Outcome.PASSED, TotalTestResultParser.Outcome.of("success")); //$NON-NLS-1$
+		assertEquals(TotalTestResultParser.Outcome.ERROR, TotalTestResultParser.Outcome.of("RUNTIME_EXCEPTION")); //$NON-NLS-1$
+		assertEquals(TotalTestResultParser.Outcome.SKIPPED, TotalTestResultParser.Outcome.of("SKIPPED")); //$NON-NLS-1$
+		assertEquals(TotalTestResultParser.Outcome.FAILED, TotalTestResultParser.Outcome.of("ASSERTION_FAILURE")); //$NON-NLS-1$
+	}
+
+	private static TotalTestResultParser.Result parse(String xml, String rootElement) throws XMLStreamException
+	{
+		InputStream in = new ByteArrayInputStream(xml.getBytes(StandardCharsets.UTF_8));
+		return TotalTestResultParser.parse(in, rootElement);
+	}
+}
@@ -0,0 +1,108 @@
+/**
+ * The MIT License (MIT)
+ * 
+ * (c) Copyright 2026 BMC Software, Inc.
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated documentation
+ * files (the "Software"), to deal in the Software without restriction, including without limitation the rights to use, copy,
+ * modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to permit persons to whom the
+ * Software is furnished to do so, subject to the following conditions: The above copyright notice and this permission notice
+ * shall be included in all copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+ * WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE,
+ * ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package com.compuware.jenkins.totaltest;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+/**
+ * Tests for {@link TotalTestRunnerUtils}.
+ */
+public class TotalTestRunnerUtilsTest
+{
+	private static final String SUFFIX = ".cli.suiteresult"; //$NON-NLS-1$
+	private static final List<String> TEST_FILES = Arrays.asList("b/Login.testscenario", "a/Login.testscenario", //$NON-NLS-1$ //$NON-NLS-2$
+			"a/logout.testscenario", "Nightly.testsuite"); //$NON-NLS-1$ //$NON-NLS-2$
+
+	@Rule
+	public TemporaryFolder folder = new TemporaryFolder();
+
+	@Test
+	public void findsAFileInANumberedFolderWhenNotSkipping() throws Exception
+	{
+		File file = create("12/Output/Nightly" + SUFFIX); //$NON-NLS-1$
+
+		assertEquals(file.getAbsolutePath(), find(false));
+	}
+
+	@Test
+	public void skipsTheBuildFoldersOfTheReportFolder() throws Exception
+	{
+		create("12/Output/Nightly" + SUFFIX); //$NON-NLS-1$
+
+		assertNull(find(true));
+	}
+
+	@Test
+	public void searchesNumberedFoldersBelowTheReportFolder() throws Exception
+	{
+		create("12/Output/Old" + SUFFIX); //$NON-NLS-1$
+		File file = create("Tests/2024/Nightly" + SUFFIX); //$NON-NLS-1$
+
+		assertEquals(file.getAbsolutePath(), find(true));
+	}
+
+	@Test
+	public void matchesTestNamesCaseSensitivelyOnUnix()
+	{
+		assertEquals(Arrays.asList("Login.testscenario"), //$NON-NLS-1$
+				TotalTestRunnerUtils.expandTestNames("Log*", TEST_FILES, true)); //$NON-NLS-1$
+	}
+
+	@Test
+	public void ignoresTheCaseOfTestNamesOnWindows()
+	{
+		assertEquals(Arrays.asList("Login.testscenario", "logout.testscenario"), //$NON-NLS-1$ //$NON-NLS-2$
+				TotalTestRunnerUtils.expandTestNames("Log*", TEST_FILES, false)); //$NON-NLS-1$
+	}
+
+	@Test
+	public void listsANameSharedByTwoFoldersOnce()
+	{
+		assertEquals(Arrays.asList("Login.testscenario", "logout.testscenario"), //$NON-NLS-1$ //$NON-NLS-2$
+				TotalTestRunnerUtils.expandTestNames("ALL_SCENARIOS", TEST_FILES, true)); //$NON-NLS-1$
+	}
+
+	@Test
+	public void keepsANameWithoutMatchesAsEntered()
+	{
+		assertEquals(Arrays.asList("Other*"), TotalTestRunnerUtils.expandTestNames("Other*", TEST_FILES, true)); //$NON-NLS-1$ //$NON-NLS-2$
+	}
+
+	private File create(String path) throws IOException
+	{
+		File file = new File(folder.getRoot(), path);
+		file.getParentFile().mkdirs();
+		file.createNewFile();
+
+		return file;
+	}
+
+	private String find(boolean skipBuildFolders) throws Exception
+	{
+		return new TotalTestRunnerUtils.FindFileBySuffix(SUFFIX, skipBuildFolders).invoke(folder.getRoot(), null);
+	}
+}
@@ -0,0 +1,144 @@
+/**
+ * The MIT License (MIT)
+ * 
+ * (c) Copyright 2026 BMC Software, Inc.
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated documentation
+ * files (the "Software"), to deal in the Software without restriction, including without limitation the rights to use, copy,
+ * modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to permit persons to whom the
+ * Software is furnished to do so, subject to the following conditions: The above copyright notice and this permission notice
+ * shall be included in all copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+ * WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE,
+ * ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package com.compuware.jenkins.totaltest;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+
+import org.apache.commons.io.FileUtils;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import hudson.FilePath;
+import jenkins.benchmark.jmh.JmhBenchmark;
+
+/**
+ * Measures the search of a result file in a deep report tree, as <code>searchFileFromDir</code> does on the agent,
+ * against the walk with one <code>FilePath</code> call per file and folder it replaced.
+ * <p>
+ * Every level of the tree holds a number of sibling folders with other report files and the folder of the next level.
+ * The result file is in the deepest folder.
+ */
+@JmhBenchmark
+public class TotalTestSearchBenchmark
+{
+	private static final String SUFFIX = ".cli.suiteresult"; //$NON-NLS-1$
+
+	@State(Scope.Benchmark)
+	public static class ReportTree
+	{
+		@Param({ "8", "32", "128" })
+		public int depth;
+
+		@Param({ "4" })
+		public int siblings;
+
+		@Param({ "20" })
+		public int filesPerFolder;
+
+		File root;
+
+		@Setup(Level.Trial)
+		public void setup() throws IOException
+		{
+			root = Files.createTempDirectory("totaltest-search").toFile(); //$NON-NLS-1$
+			File level = root;
+			for (int d = 0; d < depth; d++)
+			{
+				for (int s = 0; s < siblings; s++)
+				{
+					// numeric names, like the folders of the per-build reports
+					addFiles(new File(level, Integer.toString(s)));
+				}
+				addFiles(level);
+				level = new File(level, "level" + d); //$NON-NLS-1$
+			}
+
+			Files.createDirectories(level.toPath());
+			Files.createFile(new File(level, "deepest" + SUFFIX).toPath()); //$NON-NLS-1$
+		}
+
+		private void addFiles(File folder) throws IOException
+		{
+			Files.createDirectories(folder.toPath());
+			for (int f = 0; f < filesPerFolder; f++)
+			{
+				Files.createFile(new File(folder, "report" + f + ".xml").toPath()); //$NON-NLS-1$ //$NON-NLS-2$
+			}
+		}
+
+		@TearDown(Level.Trial)
+		public void tearDown() throws IOException
+		{
+			FileUtils.deleteDirectory(root);
+		}
+	}
+
+	@Benchmark
+	public String find(ReportTree tree) throws IOException, InterruptedException
+	{
+		return new TotalTestRunnerUtils.FindFileBySuffix(SUFFIX).invoke(tree.root, null);
+	}
+
+	@Benchmark
+	public String findSkippingBuildFolders(ReportTree tree) throws IOException, InterruptedException
+	{
+		return new TotalTestRunnerUtils.FindFileBySuffix(SUFFIX, true).invoke(tree.root, null);
+	}
+
+	@Benchmark
+	public FilePath findWithFilePath(ReportTree tree) throws IOException, InterruptedException
+	{
+		return walk(new FilePath(tree.root));
+	}
+
+	@Benchmark
+	public String miss(ReportTree tree) throws IOException, InterruptedException
+	{
+		return new TotalTestRunnerUtils.FindFileBySuffix(".missing").invoke(tree.root, null); //$NON-NLS-1$
+	}
+
+	/**
+	 * The walk <code>searchFileFromDir</code> made before, which costs a remoting call per file and folder on an agent.
+	 */
+	private static FilePath walk(FilePath directory) throws IOException, InterruptedException
+	{
+		for (FilePath child : directory.list())
+		{
+			if (child.isDirectory())
+			{
+				FilePath found = walk(child);
+				if (found != null)
+				{
+					return found;
+				}
+			}
+			else if (child.getName().endsWith(SUFFIX))
+			{
+				return child.absolutize();
+			}
+		}
+
+		return null;
+	}
+}
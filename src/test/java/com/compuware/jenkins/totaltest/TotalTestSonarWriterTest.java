@@ -0,0 +1,127 @@
+/**
+ * The MIT License (MIT)
+ * 
+ * (c) Copyright 2026 BMC Software, Inc.
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated documentation
+ * files (the "Software"), to deal in the Software without restriction, including without limitation the rights to use, copy,
+ * modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to permit persons to whom the
+ * Software is furnished to do so, subject to the following conditions: The above copyright notice and this permission notice
+ * shall be included in all copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+ * WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE,
+ * ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package com.compuware.jenkins.totaltest;
+
+import static org.junit.Assert.assertEquals;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+
+import javax.xml.parsers.DocumentBuilderFactory;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.w3c.dom.Document;
+import org.w3c.dom.Element;
+import org.w3c.dom.NodeList;
+
+/**
+ * Tests that {@link TotalTestSonarWriter} reports every test case under one file, with a failure, error or skipped
+ * element for each test case that did not pass.
+ */
+public class TotalTestSonarWriterTest
+{
+	private static final String RESULT = "<XaSuiteResult name=\"Nightly\" resultType=\"FAILURE\">" //$NON-NLS-1$
+			+ "<Scenario name=\"Login\" resultType=\"FAILURE\">" //$NON-NLS-1$
+			+ "<TestCase name=\"Valid\" resultType=\"SUCCESS\"/>" //$NON-NLS-1$
+			+ "<TestCase name=\"Invalid\" resultType=\"FAILURE\" message=\"Expected 0\"/>" //$NON-NLS-1$
+			+ "<TestCase name=\"Abend\" resultType=\"ERROR\"/>" //$NON-NLS-1$
+			+ "<TestCase name=\"Later\" resultType=\"NOT_EXECUTED\"/>" //$NON-NLS-1$
+			+ "</Scenario>" //$NON-NLS-1$
+			+ "<Scenario name=\"Logout\" resultType=\"ASSERTION_FAILURE\"/>" //$NON-NLS-1$
+			+ "</XaSuiteResult>"; //$NON-NLS-1$
+	private static final String TEST_FILE_PATH = "Tests/Nightly.testsuite"; //$NON-NLS-1$
+
+	@Rule
+	public TemporaryFolder folder = new TemporaryFolder();
+
+	@Test
+	public void countsTheFailuresErrorsAndSkippedTestCases() throws Exception
+	{
+		Document sonar = transform(RESULT, 5);
+
+		assertEquals(5, sonar.getElementsByTagName("testCase").getLength()); //$NON-NLS-1$
+		assertEquals(2, sonar.getElementsByTagName("failure").getLength()); //$NON-NLS-1$
+		assertEquals(1, sonar.getElementsByTagName("error").getLength()); //$NON-NLS-1$
+		assertEquals(1, sonar.getElementsByTagName("skipped").getLength()); //$NON-NLS-1$
+	}
+
+	@Test
+	public void reportsTheTestCasesUnderTheTestFile() throws Exception
+	{
+		Element testExecutions = transform(RESULT, 5).getDocumentElement();
+
+		assertEquals("testExecutions", testExecutions.getTagName()); //$NON-NLS-1$
+		assertEquals("1", testExecutions.getAttribute("version")); //$NON-NLS-1$ //$NON-NLS-2$
+		NodeList files = testExecutions.getElementsByTagName("file"); //$NON-NLS-1$
+		assertEquals(1, files.getLength());
+		assertEquals(TEST_FILE_PATH, ((Element) files.item(0)).getAttribute("path")); //$NON-NLS-1$
+	}
+
+	@Test
+	public void writesAnElementForEachTestCaseThatDidNotPass() throws Exception
+	{
+		NodeList testCases = transform(RESULT, 5).getElementsByTagName("testCase"); //$NON-NLS-1$
+
+		assertEquals("Nightly.Login.Valid", ((Element) testCases.item(0)).getAttribute("name")); //$NON-NLS-1$ //$NON-NLS-2$
+		assertEquals("0", ((Element) testCases.item(0)).getAttribute("duration")); //$NON-NLS-1$ //$NON-NLS-2$
+		assertEquals(0, ((Element) testCases.item(0)).getElementsByTagName("*").getLength()); //$NON-NLS-1$
+		assertOutcome((Element) testCases.item(1), "failure", "Expected 0"); //$NON-NLS-1$ //$NON-NLS-2$
+		// without a message the result type is the message
+		assertOutcome((Element) testCases.item(2), "error", "ERROR"); //$NON-NLS-1$ //$NON-NLS-2$
+		assertOutcome((Element) testCases.item(3), "skipped", "NOT_EXECUTED"); //$NON-NLS-1$ //$NON-NLS-2$
+		assertOutcome((Element) testCases.item(4), "failure", "ASSERTION_FAILURE"); //$NON-NLS-1$ //$NON-NLS-2$
+		assertEquals("Nightly.Logout", ((Element) testCases.item(4)).getAttribute("name")); //$NON-NLS-1$ //$NON-NLS-2$
+	}
+
+	@Test
+	public void prefixesAScenarioResultWithTheNameOfTheFile() throws Exception
+	{
+		NodeList testCases = transform("<XaUnitResult name=\"Login\" resultType=\"SUCCESS\"/>", 1) //$NON-NLS-1$
+				.getElementsByTagName("testCase"); //$NON-NLS-1$
+
+		assertEquals("Nightly.Login", ((Element) testCases.item(0)).getAttribute("name")); //$NON-NLS-1$ //$NON-NLS-2$
+	}
+
+	@Test(expected = IOException.class)
+	public void rejectsAMalformedResultFile() throws Exception
+	{
+		transform("<XaSuiteResult resultType=\"SUCCESS\"><Scenario>", 0); //$NON-NLS-1$
+	}
+
+	private static void assertOutcome(Element testCase, String element, String message)
+	{
+		NodeList outcomes = testCase.getElementsByTagName("*"); //$NON-NLS-1$
+		assertEquals(1, outcomes.getLength());
+		assertEquals(element, ((Element) outcomes.item(0)).getTagName());
+		assertEquals(message, ((Element) outcomes.item(0)).getAttribute("message")); //$NON-NLS-1$
+	}
+
+	private Document transform(String result, int tests) throws Exception
+	{
+		File resultFile = new File(folder.getRoot(), "Nightly.suite.archive"); //$NON-NLS-1$
+		Files.write(resultFile.toPath(), result.getBytes(StandardCharsets.UTF_8));
+		File sonarFile = new File(folder.getRoot(), "sonar/Nightly.xml"); //$NON-NLS-1$
+
+		assertEquals(tests, TotalTestSonarWriter.transform(resultFile, sonarFile, TEST_FILE_PATH));
+
+		return DocumentBuilderFactory.newInstance().newDocumentBuilder().parse(sonarFile);
+	}
+}
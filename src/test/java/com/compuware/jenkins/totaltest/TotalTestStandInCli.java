@@ -0,0 +1,366 @@
+/**
+ * The MIT License (MIT)
+ * 
+ * (c) Copyright 2026 BMC Software, Inc.
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated documentation
+ * files (the "Software"), to deal in the Software without restriction, including without limitation the rights to use, copy,
+ * modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to permit persons to whom the
+ * Software is furnished to do so, subject to the following conditions: The above copyright notice and this permission notice
+ * shall be included in all copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+ * WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE,
+ * ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package com.compuware.jenkins.totaltest;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.PrintStream;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import com.compuware.jenkins.common.configuration.CpwrGlobalConfiguration;
+
+import jenkins.model.Jenkins;
+
+/**
+ * A stand-in for the Total Test CLI, for load and regression tests without a mainframe.
+ * <p>
+ * It honours the contract of the <b>Run Total Test</b> step: <code>-f</code>, <code>-r</code> and <code>-g</code> decide
+ * where the result files the plugin looks for are written, <code>-noju</code> and <code>-nosq</code> switch off the JUnit
+ * and Sonar reports written next to them, the selected programs (<code>-pn</code>, <code>-pnf</code>) and the code
+ * coverage repository (<code>-ccrepo</code>) are printed, and the other options are accepted and ignored.
+ * <p>
+ * Started with <code>-command=runtest</code>, as the unit test step does, it writes a suite result to the
+ * <code>Output</code> folder of the <code>-project</code> folder for each test of <code>-ts</code> or
+ * <code>-testsuitelist</code>.
+ * <p>
+ * Its behaviour is set with environment variables, which the step passes on from the build:
+ * <ul>
+ * <li><code>TOTALTEST_STANDIN_LATENCY</code>: milliseconds to wait before the results are written, default 0
+ * <li><code>TOTALTEST_STANDIN_FAILURE_RATE</code>: share of the runs, from 0 to 1, whose tests fail, default 0
+ * <li><code>TOTALTEST_STANDIN_ERROR_RATE</code>: share of the runs, from 0 to 1, that exit with 1 and write no result,
+ * default 0
+ * <li><code>TOTALTEST_STANDIN_OUTPUT_LINES</code>: lines printed to the console, default 10
+ * <li><code>TOTALTEST_STANDIN_RESULT_SIZE</code>: size of each result file in bytes, default 10240
+ * <li><code>TOTALTEST_STANDIN_FILE_COUNT</code>: number of result files of a folder run, default 1
+ * <li><code>TOTALTEST_STANDIN_SEED</code>: seed of the failure and error draws, random by default
+ * </ul>
+ */
+public final class TotalTestStandInCli
+{
+	public static final String LATENCY = "TOTALTEST_STANDIN_LATENCY"; //$NON-NLS-1$
+	public static final String FAILURE_RATE = "TOTALTEST_STANDIN_FAILURE_RATE"; //$NON-NLS-1$
+	public static final String ERROR_RATE = "TOTALTEST_STANDIN_ERROR_RATE"; //$NON-NLS-1$
+	public static final String OUTPUT_LINES = "TOTALTEST_STANDIN_OUTPUT_LINES"; //$NON-NLS-1$
+	public static final String RESULT_SIZE = "TOTALTEST_STANDIN_RESULT_SIZE"; //$NON-NLS-1$
+	public static final String FILE_COUNT = "TOTALTEST_STANDIN_FILE_COUNT"; //$NON-NLS-1$
+	public static final String SEED = "TOTALTEST_STANDIN_SEED"; //$NON-NLS-1$
+
+	private static final String[] SCRIPTS = { "TotalTestFTCLI", "TotalTestCLI" }; //$NON-NLS-1$ //$NON-NLS-2$
+	private static final String[] SCRIPT_EXTENSIONS = { "sh", "bat" }; //$NON-NLS-1$ //$NON-NLS-2$
+	private static final String FOLDER_OUTPUT = "Output"; //$NON-NLS-1$
+	private static final String VERSION_FILE = "versions.xml"; //$NON-NLS-1$
+	// the versions.xml of a CLI installation, as CLIVersionUtils.getCLIVersion reads it
+	private static final String VERSION_XML = "<products><product id=\"com.compuware.topaz.cli\" name=\"Topaz Workbench CLI\" version=\"%s\">" //$NON-NLS-1$
+			+ "<version>%s</version></product></products>"; //$NON-NLS-1$
+
+	private final Map<String, String> options = new HashMap<>();
+	private final Map<String, String> env;
+	private final PrintStream out;
+
+	private TotalTestStandInCli(String[] args, Map<String, String> env, PrintStream out)
+	{
+		this.env = env;
+		this.out = out;
+		for (int i = 0; i < args.length; i++)
+		{
+			int equals = args[i].indexOf('=');
+			if (args[i].startsWith("-") && equals != -1) //$NON-NLS-1$
+			{
+				// the unit test step passes its options as -name=value
+				options.put(args[i].substring(0, equals), args[i].substring(equals + 1));
+			}
+			else if (args[i].startsWith("-")) //$NON-NLS-1$
+			{
+				// an option takes the next argument as its value unless that is an option itself
+				boolean hasValue = i + 1 < args.length && !args[i + 1].startsWith("-"); //$NON-NLS-1$
+				options.put(args[i], hasValue ? args[++i] : ""); //$NON-NLS-1$
+			}
+		}
+	}
+
+	public static void main(String[] args) throws IOException, InterruptedException
+	{
+		System.exit(run(args, System.getenv(), System.out));
+	}
+
+	/**
+	 * Runs the stand-in in this JVM.
+	 * 
+	 * @param args
+	 * 			The CLI arguments.
+	 * @param env
+	 * 			The environment variables setting the behaviour of the stand-in.
+	 * @param out
+	 * 			The console output.
+	 * 
+	 * @return	The exit value.
+	 * 
+	 * @throws IOException
+	 * 			If the files could not be written.
+	 * @throws InterruptedException
+	 * 			If the latency wait was interrupted.
+	 */
+	static int run(String[] args, Map<String, String> env, PrintStream out) throws IOException, InterruptedException
+	{
+		return new TotalTestStandInCli(args, env, out).run();
+	}
+
+	/**
+	 * Installs the stand-in in a CLI folder.
+	 * <p>
+	 * The plugin checks the CLI version before it runs, so a <code>versions.xml</code> file naming the minimum version
+	 * the plugin supports is written first. The <code>TotalTestFTCLI</code> and <code>TotalTestCLI</code> scripts start
+	 * the stand-in with the Java runtime and the class path of the running JVM.
+	 * 
+	 * @param cliHome
+	 * 			The folder to install the stand-in in, to be set as the CLI location.
+	 * 
+	 * @throws IOException
+	 * 			If the files could not be written.
+	 */
+	public static void install(File cliHome) throws IOException
+	{
+		Files.createDirectories(cliHome.toPath());
+		Files.write(new File(cliHome, VERSION_FILE).toPath(), String.format(VERSION_XML, TotalTestRunnerUtils.TTT_MINIMUM_CLI_VERSION,
+				TotalTestRunnerUtils.TTT_MINIMUM_CLI_VERSION).getBytes(StandardCharsets.UTF_8));
+
+		String java = new File(System.getProperty("java.home"), "bin" + File.separator + "java").getAbsolutePath(); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+		String classPath = System.getProperty("java.class.path"); //$NON-NLS-1$
+		for (String extension : SCRIPT_EXTENSIONS)
+		{
+			String text;
+			try (InputStream in = TotalTestStandInCli.class.getResourceAsStream("standin/cli." + extension)) //$NON-NLS-1$
+			{
+				if (in == null)
+				{
+					throw new IOException("Missing stand-in script cli." + extension); //$NON-NLS-1$
+				}
+				text = new String(in.readAllBytes(), StandardCharsets.UTF_8).replace("@JAVA@", java) //$NON-NLS-1$
+						.replace("@CLASSPATH@", classPath).replace("@MAIN@", TotalTestStandInCli.class.getName()); //$NON-NLS-1$ //$NON-NLS-2$
+			}
+			for (String script : SCRIPTS)
+			{
+				File file = new File(cliHome, script + '.' + extension);
+				Files.write(file.toPath(), text.getBytes(StandardCharsets.UTF_8));
+				file.setExecutable(true);
+			}
+		}
+	}
+
+	/**
+	 * Installs the stand-in and sets its folder as the CLI location of the running Jenkins, for Linux and Windows agents.
+	 * 
+	 * @param cliHome
+	 * 			The folder to install the stand-in in.
+	 * 
+	 * @throws IOException
+	 * 			If the files could not be written.
+	 */
+	public static void installAsCli(File cliHome) throws IOException
+	{
+		install(cliHome);
+
+		// the CLI location is only set through the configuration form, so it is loaded from a saved configuration
+		String location = cliHome.getAbsolutePath().replace("&", "&amp;").replace("<", "&lt;").replace(">", "&gt;"); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$ //$NON-NLS-4$ //$NON-NLS-5$ //$NON-NLS-6$
+		String configName = CpwrGlobalConfiguration.class.getName();
+		File configFile = new File(Jenkins.get().getRootDir(), configName + ".xml"); //$NON-NLS-1$
+		Files.write(configFile.toPath(), ("<?xml version='1.1' encoding='UTF-8'?>\n<" + configName //$NON-NLS-1$
+				+ ">\n  <topazCLILocationLinux>" + location + "</topazCLILocationLinux>\n  <topazCLILocationWindows>" //$NON-NLS-1$ //$NON-NLS-2$
+				+ location + "</topazCLILocationWindows>\n</" + configName + ">\n").getBytes(StandardCharsets.UTF_8)); //$NON-NLS-1$ //$NON-NLS-2$
+		CpwrGlobalConfiguration.get().load();
+	}
+
+	private int run() throws IOException, InterruptedException
+	{
+		Random random = env.containsKey(SEED) ? new Random(Long.parseLong(env.get(SEED))) : new Random();
+		boolean error = random.nextDouble() < getDouble(ERROR_RATE, 0);
+		boolean fails = random.nextDouble() < getDouble(FAILURE_RATE, 0);
+
+		out.println("Total Test stand-in CLI, options " + options.keySet()); //$NON-NLS-1$
+		for (String option : new String[] { "-pn", "-pnf", "-ccrepo" }) //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+		{
+			if (options.containsKey(option))
+			{
+				out.println(option + " " + options.get(option)); //$NON-NLS-1$
+			}
+		}
+		for (int i = 1, lines = getInt(OUTPUT_LINES, 10); i <= lines; i++)
+		{
+			out.println("Stand-in log line " + i + " of " + lines); //$NON-NLS-1$ //$NON-NLS-2$
+		}
+
+		long latency = getInt(LATENCY, 0);
+		if (latency > 0)
+		{
+			Thread.sleep(latency);
+		}
+
+		if (error)
+		{
+			out.println("Stand-in CLI error"); //$NON-NLS-1$
+			return 1;
+		}
+
+		if ("runtest".equals(options.get("-command"))) //$NON-NLS-1$ //$NON-NLS-2$
+		{
+			return runUnitTests(fails);
+		}
+
+		File root = new File(options.containsKey("-r") ? options.get("-r") : System.getProperty("user.dir")); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+		File test = resolve(root, options.containsKey("-f") ? options.get("-f") : "."); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+		File base = test.isDirectory() ? test : test.getParentFile();
+		if (base.getName().equals("Scenarios") || base.getName().equals("Suites")) //$NON-NLS-1$ //$NON-NLS-2$
+		{
+			base = base.getParentFile();
+		}
+		File output = options.containsKey("-g") ? resolve(base, options.get("-g")) : new File(base, FOLDER_OUTPUT); //$NON-NLS-1$ //$NON-NLS-2$
+
+		String testName = test.getName();
+		int dot = testName.indexOf('.');
+		String extension = dot != -1 ? testName.substring(dot + 1) : ""; //$NON-NLS-1$
+		long size = getInt(RESULT_SIZE, 10240);
+		int failEvery = fails ? 3 : 0;
+		if (!test.isDirectory() && extension.equals("suite")) //$NON-NLS-1$
+		{
+			writeReports(output, testName.substring(0, dot) + ".suiteresult", //$NON-NLS-1$
+					TotalTestResultParser.SUITE_RESULT_ELEMENT, size, failEvery);
+		}
+		else if (!test.isDirectory() && (extension.equals("scenario") || extension.equals("context"))) //$NON-NLS-1$ //$NON-NLS-2$
+		{
+			writeReports(output, testName.substring(0, dot) + ".result", //$NON-NLS-1$
+					TotalTestResultParser.SCENARIO_RESULT_ELEMENT, size, failEvery);
+		}
+		else
+		{
+			for (int i = 1, count = getInt(FILE_COUNT, 1); i <= count; i++)
+			{
+				writeReports(output, "Run" + i + ".cli.suiteresult", //$NON-NLS-1$ //$NON-NLS-2$
+						TotalTestResultParser.SUITE_RESULT_ELEMENT, size, failEvery);
+			}
+		}
+
+		out.println("Stand-in CLI wrote its results to " + output + (fails ? ", the tests failed" : "")); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+		return 0;
+	}
+
+	/**
+	 * Writes a suite result for each test of a unit test run to the Output folder of the project.
+	 */
+	private int runUnitTests(boolean fails) throws IOException
+	{
+		File output = new File(options.get("-project"), FOLDER_OUTPUT); //$NON-NLS-1$
+		String tests = options.containsKey("-testsuitelist") ? options.get("-testsuitelist") : options.get("-ts"); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+		List<String> names = new ArrayList<>();
+		for (String test : tests != null ? tests.split(",") : new String[0]) //$NON-NLS-1$
+		{
+			String name = new File(test.trim()).getName();
+			int dot = name.indexOf('.');
+			if (name.equals("ALL_SCENARIOS") || name.equals("ALL_SUITES")) //$NON-NLS-1$ //$NON-NLS-2$
+			{
+				for (int i = 1, count = getInt(FILE_COUNT, 1); i <= count; i++)
+				{
+					names.add("Test" + i); //$NON-NLS-1$
+				}
+			}
+			else if (!name.isEmpty())
+			{
+				names.add(dot != -1 ? name.substring(0, dot) : name);
+			}
+		}
+
+		for (String name : names)
+		{
+			writeReports(output, name + ".suiteresult", TotalTestResultParser.SUITE_RESULT_ELEMENT, //$NON-NLS-1$
+					getInt(RESULT_SIZE, 10240), fails ? 3 : 0);
+		}
+
+		out.println("Stand-in CLI ran " + names.size() + " tests of " + options.get("-project") //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+				+ (fails ? ", the tests failed" : "")); //$NON-NLS-1$ //$NON-NLS-2$
+		return fails ? 1 : 0;
+	}
+
+	/**
+	 * Writes a result file and, unless switched off with <code>-noju</code> and <code>-nosq</code>, its JUnit and
+	 * Sonar reports.
+	 */
+	private void writeReports(File output, String fileName, String rootElement, long size, int failEvery) throws IOException
+	{
+		int cases = TotalTestResultFixture.write(new File(output, fileName), rootElement, size, failEvery);
+		int failures = failEvery > 0 ? cases / failEvery : 0;
+		String name = fileName.substring(0, fileName.indexOf('.'));
+
+		if (!options.containsKey("-noju")) //$NON-NLS-1$
+		{
+			File junit = new File(output, "JUnit" + File.separator + name + ".xml"); //$NON-NLS-1$ //$NON-NLS-2$
+			Files.createDirectories(junit.getParentFile().toPath());
+			try (Writer writer = Files.newBufferedWriter(junit.toPath(), StandardCharsets.UTF_8))
+			{
+				writer.write("<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n<testsuite name=\"" + name + "\" tests=\"" + cases //$NON-NLS-1$ //$NON-NLS-2$
+						+ "\" failures=\"" + failures + "\" errors=\"0\" skipped=\"0\">\n"); //$NON-NLS-1$ //$NON-NLS-2$
+				for (int i = 1; i <= cases; i++)
+				{
+					writer.write("\t<testcase classname=\"" + name + "\" name=\"Case_" + i + "\"" //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+							+ (failEvery > 0 && i % failEvery == 0 ? "><failure message=\"failed\"/></testcase>\n" : "/>\n")); //$NON-NLS-1$ //$NON-NLS-2$
+				}
+				writer.write("</testsuite>\n"); //$NON-NLS-1$
+			}
+		}
+
+		if (!options.containsKey("-nosq")) //$NON-NLS-1$
+		{
+			File sonar = new File(output, "Sonar" + File.separator + name + ".xml"); //$NON-NLS-1$ //$NON-NLS-2$
+			Files.createDirectories(sonar.getParentFile().toPath());
+			try (Writer writer = Files.newBufferedWriter(sonar.toPath(), StandardCharsets.UTF_8))
+			{
+				writer.write("<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n<testExecutions version=\"1\">\n\t<file path=\"" //$NON-NLS-1$
+						+ fileName + "\">\n"); //$NON-NLS-1$
+				for (int i = 1; i <= cases; i++)
+				{
+					writer.write("\t\t<testCase name=\"Case_" + i + "\" duration=\"1\"" //$NON-NLS-1$ //$NON-NLS-2$
+							+ (failEvery > 0 && i % failEvery == 0 ? "><failure message=\"failed\"/></testCase>\n" : "/>\n")); //$NON-NLS-1$ //$NON-NLS-2$
+				}
+				writer.write("\t</file>\n</testExecutions>\n"); //$NON-NLS-1$
+			}
+		}
+	}
+
+	private static File resolve(File base, String path)
+	{
+		File file = new File(path);
+		return file.isAbsolute() ? file : new File(base, path);
+	}
+
+	private int getInt(String name, int defaultValue)
+	{
+		String value = env.get(name);
+		return value != null && !value.isEmpty() ? Integer.parseInt(value) : defaultValue;
+	}
+
+	private double getDouble(String name, double defaultValue)
+	{
+		String value = env.get(name);
+		return value != null && !value.isEmpty() ? Double.parseDouble(value) : defaultValue;
+	}
+}
@@ -0,0 +1,151 @@
+/**
+ * The MIT License (MIT)
+ * 
+ * (c) Copyright 2026 BMC Software, Inc.
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated documentation
+ * files (the "Software"), to deal in the Software without restriction, including without limitation the rights to use, copy,
+ * modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to permit persons to whom the
+ * Software is furnished to do so, subject to the following conditions: The above copyright notice and this permission notice
+ * shall be included in all copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+ * WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE,
+ * ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package com.compuware.jenkins.totaltest;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.InputStream;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+/**
+ * Tests that the stand-in CLI writes the files the plugin reads, as the plugin parses them.
+ */
+public class TotalTestStandInCliTest
+{
+	@Rule
+	public TemporaryFolder tmp = new TemporaryFolder();
+
+	@Test
+	public void writesSuiteResultsOfAFolderRun() throws Exception
+	{
+		File workspace = tmp.newFolder("workspace"); //$NON-NLS-1$
+		Files.createDirectories(new File(workspace, "tests").toPath()); //$NON-NLS-1$
+		Map<String, String> env = new HashMap<>();
+		env.put(TotalTestStandInCli.FILE_COUNT, "3"); //$NON-NLS-1$
+		env.put(TotalTestStandInCli.RESULT_SIZE, "2048"); //$NON-NLS-1$
+
+		assertEquals(0, run(env, "-r", workspace.getPath(), "-f", "tests", "-R", "-G")); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$ //$NON-NLS-4$ //$NON-NLS-5$
+
+		File output = new File(workspace, "tests/Output"); //$NON-NLS-1$
+		for (int i = 1; i <= 3; i++)
+		{
+			TotalTestResultParser.Result result = parse(new File(output, "Run" + i + ".cli.suiteresult"), //$NON-NLS-1$ //$NON-NLS-2$
+					TotalTestResultParser.SUITE_RESULT_ELEMENT);
+			assertEquals("SUCCESS", result.getResultType()); //$NON-NLS-1$
+			assertEquals("80", result.getCcPercentage()); //$NON-NLS-1$
+			assertEquals(0, result.getCount(TotalTestResultParser.Outcome.FAILED));
+			assertTrue(new File(output, "JUnit/Run" + i + ".xml").isFile()); //$NON-NLS-1$ //$NON-NLS-2$
+			assertTrue(new File(output, "Sonar/Run" + i + ".xml").isFile()); //$NON-NLS-1$ //$NON-NLS-2$
+		}
+	}
+
+	@Test
+	public void failsTheTestsOfAScenario() throws Exception
+	{
+		File workspace = tmp.newFolder("workspace"); //$NON-NLS-1$
+		File scenario = new File(workspace, "tests/Scenarios/Login.scenario"); //$NON-NLS-1$
+		Files.createDirectories(scenario.getParentFile().toPath());
+		Files.createFile(scenario.toPath());
+		Map<String, String> env = new HashMap<>();
+		env.put(TotalTestStandInCli.FAILURE_RATE, "1"); //$NON-NLS-1$
+
+		assertEquals(0, run(env, "-f", scenario.getPath(), "-g", "Report", "-noju", "-nosq")); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$ //$NON-NLS-4$ //$NON-NLS-5$
+
+		File output = new File(workspace, "tests/Report"); //$NON-NLS-1$
+		TotalTestResultParser.Result result = parse(new File(output, "Login.result"), //$NON-NLS-1$
+				TotalTestResultParser.SCENARIO_RESULT_ELEMENT);
+		assertEquals("FAILURE", result.getResultType()); //$NON-NLS-1$
+		assertTrue(result.getCount(TotalTestResultParser.Outcome.FAILED) > 0);
+		assertFalse(new File(output, "JUnit").exists()); //$NON-NLS-1$
+		assertFalse(new File(output, "Sonar").exists()); //$NON-NLS-1$
+	}
+
+	@Test
+	public void writesAResultPerUnitTest() throws Exception
+	{
+		File project = tmp.newFolder("project"); //$NON-NLS-1$
+		Map<String, String> env = new HashMap<>();
+
+		assertEquals(0, run(env, "-command=runtest", "-jenkins", "-project=" + project.getPath(), //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+				"-testsuitelist=Suites/Login.testsuite,Logout.testscenario")); //$NON-NLS-1$
+
+		for (String name : new String[] { "Login", "Logout" }) //$NON-NLS-1$ //$NON-NLS-2$
+		{
+			TotalTestResultParser.Result result = parse(new File(project, "Output/" + name + ".suiteresult"), //$NON-NLS-1$ //$NON-NLS-2$
+					TotalTestResultParser.SUITE_RESULT_ELEMENT);
+			assertEquals("SUCCESS", result.getResultType()); //$NON-NLS-1$
+		}
+	}
+
+	@Test
+	public void exitsWithAnErrorAndNoResult() throws Exception
+	{
+		File workspace = tmp.newFolder("workspace"); //$NON-NLS-1$
+		Map<String, String> env = new HashMap<>();
+		env.put(TotalTestStandInCli.ERROR_RATE, "1"); //$NON-NLS-1$
+
+		assertEquals(1, run(env, "-r", workspace.getPath(), "-f", ".")); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+		assertFalse(new File(workspace, "Output").exists()); //$NON-NLS-1$
+	}
+
+	@Test
+	public void installsTheScriptsAndAVersionFile() throws Exception
+	{
+		File cliHome = new File(tmp.getRoot(), "cli"); //$NON-NLS-1$
+
+		TotalTestStandInCli.install(cliHome);
+
+		String version = new String(Files.readAllBytes(new File(cliHome, "versions.xml").toPath()), StandardCharsets.UTF_8); //$NON-NLS-1$
+		assertTrue(version.contains(TotalTestRunnerUtils.TTT_MINIMUM_CLI_VERSION));
+		for (String script : new String[] { "TotalTestFTCLI.sh", "TotalTestFTCLI.bat", "TotalTestCLI.sh", "TotalTestCLI.bat" }) //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$ //$NON-NLS-4$
+		{
+			String text = new String(Files.readAllBytes(new File(cliHome, script).toPath()), StandardCharsets.UTF_8);
+			assertTrue(text.contains(TotalTestStandInCli.class.getName()));
+			assertFalse(text.contains("@MAIN@")); //$NON-NLS-1$
+		}
+	}
+
+	private static int run(Map<String, String> env, String... args) throws Exception
+	{
+		env.put(TotalTestStandInCli.SEED, "1"); //$NON-NLS-1$
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		try (PrintStream print = new PrintStream(out, true, StandardCharsets.UTF_8.name()))
+		{
+			return TotalTestStandInCli.run(args, env, print);
+		}
+	}
+
+	private static TotalTestResultParser.Result parse(File file, String rootElement) throws Exception
+	{
+		try (InputStream in = Files.newInputStream(file.toPath()))
+		{
+			return TotalTestResultParser.parse(in, rootElement);
+		}
+	}
+}
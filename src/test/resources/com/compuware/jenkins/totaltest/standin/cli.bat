@@ -0,0 +1,4 @@
+@echo off
+rem Stand-in for the Total Test CLI, installed by TotalTestStandInCli.install
+"@JAVA@" -cp "@CLASSPATH@" @MAIN@ %*
+exit /b %ERRORLEVEL%
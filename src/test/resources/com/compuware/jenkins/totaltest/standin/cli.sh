@@ -0,0 +1,3 @@
+#!/bin/sh
+# Stand-in for the Total Test CLI, installed by TotalTestStandInCli.install
+exec "@JAVA@" -cp "@CLASSPATH@" @MAIN@ "$@"